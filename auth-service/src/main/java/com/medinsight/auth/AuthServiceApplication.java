@@ -3,8 +3,10 @@ package com.medinsight.auth;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 @EnableFeignClients(basePackages = { "com.medinsight.commons.client", "com.medinsight.auth.client" })
 public class AuthServiceApplication {
 
@@ -0,0 +1,10 @@
+package com.medinsight.auth.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+// Populates @CreatedDate/@LastModifiedDate; the membership filter sync reads users.created_at
+@Configuration
+@EnableJpaAuditing
+public class JpaAuditingConfig {
+}
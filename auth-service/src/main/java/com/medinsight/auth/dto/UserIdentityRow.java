@@ -0,0 +1,9 @@
+package com.medinsight.auth.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * The unique identifiers of a user, for loading the membership filters.
+ */
+public record UserIdentityRow(String username, String email, LocalDateTime createdAt) {
+}
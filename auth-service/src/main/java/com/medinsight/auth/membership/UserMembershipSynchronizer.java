@@ -0,0 +1,44 @@
+package com.medinsight.auth.membership;
+
+import com.medinsight.auth.service.UserMembershipService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the username and email filters at startup, polls for users created
+ * by other instances, and reloads the filters periodically to drop deleted
+ * users. Until the first load completes, checks go to the database.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.membership-filter.sync.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class UserMembershipSynchronizer {
+
+    private final UserMembershipService userMembershipService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        userMembershipService.rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${auth.membership-filter.sync.interval:PT5S}",
+            fixedDelayString = "${auth.membership-filter.sync.interval:PT5S}")
+    public void sync() {
+        int synced = userMembershipService.syncChanges();
+        if (synced > 0) {
+            log.debug("Synced {} new users into the membership filters", synced);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${auth.membership-filter.rebuild-interval:PT6H}",
+            fixedDelayString = "${auth.membership-filter.rebuild-interval:PT6H}")
+    public void rebuild() {
+        userMembershipService.rebuild();
+    }
+}
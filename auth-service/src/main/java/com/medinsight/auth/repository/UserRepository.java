@@ -1,13 +1,21 @@
 package com.medinsight.auth.repository;
 
+import com.medinsight.auth.dto.UserIdentityRow;
 import com.medinsight.auth.entity.User;
 import com.medinsight.auth.enums.UserType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
@@ -22,4 +30,19 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    @Query("SELECT new com.medinsight.auth.dto.UserIdentityRow(u.username, u.email, u.createdAt) FROM User u")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<UserIdentityRow> streamIdentities();
+
+    @Query("""
+            SELECT new com.medinsight.auth.dto.UserIdentityRow(u.username, u.email, u.createdAt)
+            FROM User u
+            WHERE u.createdAt > :since
+            ORDER BY u.createdAt
+            """)
+    List<UserIdentityRow> findIdentitiesCreatedAfter(@Param("since") LocalDateTime since);
 }
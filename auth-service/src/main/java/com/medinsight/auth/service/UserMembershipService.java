@@ -0,0 +1,105 @@
+package com.medinsight.auth.service;
+
+import com.medinsight.auth.dto.UserIdentityRow;
+import com.medinsight.auth.repository.UserRepository;
+import com.medinsight.commons.membership.MembershipFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Username and email existence checks behind Bloom filters, so registering a
+ * new user does not need a query per identifier unless it may be taken.
+ *
+ * <p>Users created through {@link UserService} are added before their
+ * transaction commits; users created by other instances are picked up by
+ * {@link #syncChanges()} from {@code created_at}. The filters are reloaded
+ * periodically to drop deleted users.
+ */
+@Service
+@Slf4j
+public class UserMembershipService {
+
+    private final UserRepository userRepository;
+    private final MembershipFilter usernames;
+    private final MembershipFilter emails;
+
+    @Value("${auth.membership-filter.sync.overlap:PT30S}")
+    private Duration overlap;
+
+    private volatile LocalDateTime syncedThrough;
+
+    public UserMembershipService(UserRepository userRepository, MeterRegistry meterRegistry,
+            @Value("${auth.membership-filter.expected-users:100000}") long expectedUsers,
+            @Value("${auth.membership-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.userRepository = userRepository;
+        this.usernames = new MembershipFilter("user.username", expectedUsers, falsePositiveProbability,
+                meterRegistry);
+        this.emails = new MembershipFilter("user.email", expectedUsers, falsePositiveProbability, meterRegistry);
+    }
+
+    public boolean usernameExists(String username) {
+        return usernames.exists(username, userRepository::existsByUsername);
+    }
+
+    public boolean emailExists(String email) {
+        return emails.exists(email, userRepository::existsByEmail);
+    }
+
+    public void add(String username, String email) {
+        if (username != null) {
+            usernames.add(username);
+        }
+        if (email != null) {
+            emails.add(email);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        LocalDateTime started = LocalDateTime.now();
+        usernames.rebuild(sink -> {
+            try (Stream<UserIdentityRow> rows = userRepository.streamIdentities()) {
+                rows.forEach(row -> sink.accept(row.username()));
+            }
+        });
+        emails.rebuild(sink -> {
+            try (Stream<UserIdentityRow> rows = userRepository.streamIdentities()) {
+                rows.forEach(row -> sink.accept(row.email()));
+            }
+        });
+        // Users committed while the load ran are caught by the next sync from here
+        syncedThrough = started;
+        log.info("Loaded {} users into the membership filters in {} ms", usernames.keyCount(),
+                Duration.between(started, LocalDateTime.now()).toMillis());
+    }
+
+    /**
+     * Adds users created since the watermark. Does nothing until the filters
+     * have been loaded once.
+     */
+    @Transactional(readOnly = true)
+    public synchronized int syncChanges() {
+        LocalDateTime watermark = syncedThrough;
+        if (watermark == null) {
+            return 0;
+        }
+        List<UserIdentityRow> rows = userRepository.findIdentitiesCreatedAfter(watermark.minus(overlap));
+        LocalDateTime newest = watermark;
+        for (UserIdentityRow row : rows) {
+            add(row.username(), row.email());
+            if (row.createdAt() != null && row.createdAt().isAfter(newest)) {
+                newest = row.createdAt();
+            }
+        }
+        syncedThrough = newest;
+        return rows.size();
+    }
+}
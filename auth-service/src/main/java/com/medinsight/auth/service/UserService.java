@@ -16,14 +16,16 @@ import java.util.UUID;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserMembershipService userMembershipService;
 
     public User createUser(User user) {
-        if (userRepository.existsByUsername(user.getUsername())) {
+        if (userMembershipService.usernameExists(user.getUsername())) {
             throw new RuntimeException("Username already exists");
         }
-        if (userRepository.existsByEmail(user.getEmail())) {
+        if (userMembershipService.emailExists(user.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
+        userMembershipService.add(user.getUsername(), user.getEmail());
         return userRepository.save(user);
     }
 
@@ -0,0 +1,4 @@
+-- V2__users_created_at_index.sql
+-- Lets the username/email membership filters poll for newly created users
+
+CREATE INDEX IF NOT EXISTS idx_users_created_at ON users(created_at);
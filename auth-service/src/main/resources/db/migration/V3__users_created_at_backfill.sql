@@ -0,0 +1,8 @@
+-- V3__users_created_at_backfill.sql
+-- Users saved before JPA auditing was enabled were inserted with an explicit NULL created_at, which the
+-- column default does not replace. Backfill them so the membership filter sync, which polls by
+-- created_at, sees every user, and keep the column populated from here on.
+
+UPDATE users SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP) WHERE created_at IS NULL;
+ALTER TABLE users ALTER COLUMN created_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE users ALTER COLUMN created_at SET NOT NULL;
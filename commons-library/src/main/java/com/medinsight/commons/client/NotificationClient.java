@@ -5,9 +5,14 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
+
 @FeignClient(name = "notification-service", url = "${notification-service.url:http://notification-service:8080}")
 public interface NotificationClient {
 
     @PostMapping("/api/notifications")
     void sendNotification(@RequestBody NotificationDTO notification);
+
+    @PostMapping("/api/notifications/batch")
+    List<NotificationDTO> sendNotifications(@RequestBody List<NotificationDTO> notifications);
 }
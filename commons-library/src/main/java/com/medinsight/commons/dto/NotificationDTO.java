@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
@@ -18,4 +19,9 @@ public class NotificationDTO {
     private String message;
     private String type; // EMAIL, SMS
     private String channel; // EMAIL
+    private LocalDateTime scheduledAt;
+    // Notifications sharing a key are only delivered once
+    private String deduplicationKey;
+    // Filled in by notification-service: PENDING, SENT, DELIVERED or FAILED
+    private String status;
 }
@@ -0,0 +1,160 @@
+package com.medinsight.commons.membership;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Answers "does this key exist?" from a {@link ScalableBloomFilter} in front of
+ * a confirming lookup. A negative from the filter is final; a positive is
+ * confirmed by the lookup, since the filter can be wrong only in that
+ * direction. Until the first {@link #rebuild} completes every question goes to
+ * the lookup.
+ *
+ * <p>The filter only ever gains keys, so deletes are dropped by rebuilding it.
+ * Keys added while a rebuild runs go into both the live and the new filter; an
+ * add never straddles the swap, so it cannot land only in the filter being
+ * replaced. A key added just before a rebuild starts, whose write commits
+ * after the loader has read past it, is only in the old filter; owners
+ * re-add recent writes after a rebuild to cover that window.
+ *
+ * <p>Meters, tagged {@code filter=<name>}: {@code membership.filter.checks} by
+ * {@code result} ({@code negative}, {@code confirmed}, {@code false_positive},
+ * {@code unloaded}), the observed {@code membership.filter.false.positive.rate}
+ * (false positives over keys that did not exist), the filter's own
+ * {@code membership.filter.expected.fpp}, and its {@code membership.filter.keys}
+ * and {@code membership.filter.bits}.
+ */
+public class MembershipFilter {
+
+    private final long initialCapacity;
+    private final double falsePositiveProbability;
+    private final Counter negatives;
+    private final Counter confirmed;
+    private final Counter falsePositives;
+    private final Counter unloaded;
+
+    // Adds hold the read lock across both filters; rebuild takes the write lock to start and to swap
+    private final ReadWriteLock swap = new ReentrantReadWriteLock();
+
+    private volatile ScalableBloomFilter current;
+    private volatile ScalableBloomFilter building;
+
+    public MembershipFilter(String name, long initialCapacity, double falsePositiveProbability,
+            MeterRegistry meterRegistry) {
+        this.initialCapacity = initialCapacity;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.negatives = checks(name, "negative", meterRegistry);
+        this.confirmed = checks(name, "confirmed", meterRegistry);
+        this.falsePositives = checks(name, "false_positive", meterRegistry);
+        this.unloaded = checks(name, "unloaded", meterRegistry);
+
+        Gauge.builder("membership.filter.false.positive.rate", this, MembershipFilter::observedFalsePositiveRate)
+                .tag("filter", name)
+                .register(meterRegistry);
+        Gauge.builder("membership.filter.expected.fpp", this,
+                        filter -> filter.current == null ? 0 : filter.current.expectedFalsePositiveProbability())
+                .tag("filter", name)
+                .register(meterRegistry);
+        Gauge.builder("membership.filter.keys", this, filter -> filter.current == null ? 0 : filter.current.count())
+                .tag("filter", name)
+                .register(meterRegistry);
+        Gauge.builder("membership.filter.bits", this, filter -> filter.current == null ? 0 : filter.current.bitSize())
+                .tag("filter", name)
+                .register(meterRegistry);
+    }
+
+    public boolean exists(String key, Predicate<String> lookup) {
+        ScalableBloomFilter filter = current;
+        if (filter == null) {
+            unloaded.increment();
+            return lookup.test(key);
+        }
+        if (!filter.mightContain(key)) {
+            negatives.increment();
+            return false;
+        }
+        boolean exists = lookup.test(key);
+        (exists ? confirmed : falsePositives).increment();
+        return exists;
+    }
+
+    /**
+     * Records a key that is about to exist. Call it before the write commits so
+     * that no check can see the row yet miss it in the filter; a write that
+     * then rolls back only leaves a false positive behind.
+     */
+    public void add(String key) {
+        swap.readLock().lock();
+        try {
+            ScalableBloomFilter filter = current;
+            if (filter != null) {
+                filter.put(key);
+            }
+            ScalableBloomFilter next = building;
+            if (next != null) {
+                next.put(key);
+            }
+        } finally {
+            swap.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds a new filter from {@code loader}, which is handed a sink for every
+     * existing key, and swaps it in. Concurrent rebuilds run one after another.
+     */
+    public synchronized void rebuild(Consumer<Consumer<String>> loader) {
+        ScalableBloomFilter previous = current;
+        // Size the first stage for what the last build held so a steady table needs a single stage
+        long capacity = previous == null ? initialCapacity : Math.max(initialCapacity, previous.count() * 5 / 4);
+        ScalableBloomFilter next = new ScalableBloomFilter(capacity, falsePositiveProbability);
+        swap.writeLock().lock();
+        try {
+            building = next;
+        } finally {
+            swap.writeLock().unlock();
+        }
+        boolean loaded = false;
+        try {
+            loader.accept(next::put);
+            loaded = true;
+        } finally {
+            swap.writeLock().lock();
+            try {
+                if (loaded) {
+                    current = next;
+                }
+                building = null;
+            } finally {
+                swap.writeLock().unlock();
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        return current != null;
+    }
+
+    public long keyCount() {
+        ScalableBloomFilter filter = current;
+        return filter == null ? 0 : filter.count();
+    }
+
+    double observedFalsePositiveRate() {
+        double absent = negatives.count() + falsePositives.count();
+        return absent == 0 ? 0 : falsePositives.count() / absent;
+    }
+
+    private static Counter checks(String name, String result, MeterRegistry meterRegistry) {
+        return Counter.builder("membership.filter.checks")
+                .tag("filter", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
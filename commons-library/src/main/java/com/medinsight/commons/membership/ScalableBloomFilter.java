@@ -0,0 +1,216 @@
+package com.medinsight.commons.membership;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter that grows as keys are added (Almeida et al., "Scalable Bloom
+ * Filters"). Keys go into the newest stage until it reaches its capacity; the
+ * next stage is twice as large with half the error rate, so the compound
+ * false-positive probability stays below twice the configured one however many
+ * keys arrive.
+ *
+ * <p>Adds and lookups are lock-free and may run concurrently. A lookup racing an
+ * add of the same key may miss it; callers that need read-your-writes add
+ * before the write they guard becomes visible.
+ */
+public class ScalableBloomFilter {
+
+    private static final int GROWTH = 2;
+    private static final double TIGHTENING = 0.5;
+
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+    private final AtomicLong count = new AtomicLong();
+
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveProbability) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("initialCapacity must be positive");
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("falsePositiveProbability must be between 0 and 1");
+        }
+        // The first stage gets p(1 - r) so the geometric series over all stages sums to p
+        stages.add(new Stage(initialCapacity, falsePositiveProbability * (1 - TIGHTENING)));
+    }
+
+    public void put(String key) {
+        long[] hash = hash(key);
+        Stage stage = stages.get(stages.size() - 1);
+        if (stage.isFull()) {
+            stage = grow(stage);
+        }
+        stage.put(hash);
+        count.incrementAndGet();
+    }
+
+    public boolean mightContain(String key) {
+        long[] hash = hash(key);
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Number of keys added, duplicates included.
+     */
+    public long count() {
+        return count.get();
+    }
+
+    public long bitSize() {
+        return stages.stream().mapToLong(stage -> stage.bits).sum();
+    }
+
+    public int stageCount() {
+        return stages.size();
+    }
+
+    /**
+     * The false-positive probability for the keys added so far, from each
+     * stage's fill.
+     */
+    public double expectedFalsePositiveProbability() {
+        double none = 1;
+        for (Stage stage : stages) {
+            none *= 1 - stage.expectedFalsePositiveProbability();
+        }
+        return 1 - none;
+    }
+
+    private synchronized Stage grow(Stage full) {
+        Stage last = stages.get(stages.size() - 1);
+        if (last != full) {
+            return last;
+        }
+        Stage next = new Stage(full.capacity * GROWTH, full.falsePositiveProbability * TIGHTENING);
+        stages.add(next);
+        return next;
+    }
+
+    private static final class Stage {
+
+        private final long capacity;
+        private final double falsePositiveProbability;
+        private final long bits;
+        private final int hashes;
+        private final AtomicLongArray words;
+        private final AtomicLong added = new AtomicLong();
+
+        Stage(long capacity, double falsePositiveProbability) {
+            this.capacity = capacity;
+            this.falsePositiveProbability = falsePositiveProbability;
+            double ln2 = Math.log(2);
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveProbability) / (ln2 * ln2));
+            this.words = new AtomicLongArray(Math.toIntExact((optimalBits + 63) / 64));
+            this.bits = words.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * ln2));
+        }
+
+        boolean isFull() {
+            return added.get() >= capacity;
+        }
+
+        void put(long[] hash) {
+            long combined = hash[0];
+            for (int i = 0; i < hashes; i++) {
+                long bit = (combined & Long.MAX_VALUE) % bits;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current = words.get(word);
+                while ((current & mask) == 0 && !words.weakCompareAndSetVolatile(word, current, current | mask)) {
+                    current = words.get(word);
+                }
+                combined += hash[1];
+            }
+            added.incrementAndGet();
+        }
+
+        boolean mightContain(long[] hash) {
+            long combined = hash[0];
+            for (int i = 0; i < hashes; i++) {
+                long bit = (combined & Long.MAX_VALUE) % bits;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+                combined += hash[1];
+            }
+            return true;
+        }
+
+        double expectedFalsePositiveProbability() {
+            return Math.pow(1 - Math.exp(-(double) hashes * added.get() / bits), hashes);
+        }
+    }
+
+    // MurmurHash3 x64 128-bit; the two halves drive Kirsch-Mitzenmacher double hashing
+    static long[] hash(String key) {
+        byte[] data = key.getBytes(StandardCharsets.UTF_8);
+        long h1 = 0;
+        long h2 = 0;
+        long c1 = 0x87c37b91114253d5L;
+        long c2 = 0x4cf5ad432745937fL;
+        int blocks = data.length / 16;
+
+        for (int i = 0; i < blocks; i++) {
+            long k1 = getLong(data, i * 16);
+            long k2 = getLong(data, i * 16 + 8);
+
+            h1 ^= Long.rotateLeft(k1 * c1, 31) * c2;
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= Long.rotateLeft(k2 * c2, 33) * c1;
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks * 16;
+        for (int i = data.length - 1; i >= tail + 8; i--) {
+            k2 = (k2 << 8) | (data[i] & 0xffL);
+        }
+        for (int i = Math.min(data.length, tail + 8) - 1; i >= tail; i--) {
+            k1 = (k1 << 8) | (data[i] & 0xffL);
+        }
+        if (data.length - tail > 8) {
+            h2 ^= Long.rotateLeft(k2 * c2, 33) * c1;
+        }
+        if (data.length > tail) {
+            h1 ^= Long.rotateLeft(k1 * c1, 31) * c2;
+        }
+
+        h1 ^= data.length;
+        h2 ^= data.length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[] { h1, h2 };
+    }
+
+    private static long getLong(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xffL);
+        }
+        return value;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb93fe53ec967L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,54 @@
+package com.medinsight.commons.web;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Strong entity tags derived from an entity's {@code @Version}, so a client can
+ * make an update conditional on the version it last read.
+ */
+public final class EntityTags {
+
+    /**
+     * Returned for an If-Match value that can never match a version tag, such
+     * as a weak or malformed tag, so the precondition fails.
+     */
+    public static final long NO_MATCH = -1L;
+
+    private EntityTags() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + (version == null ? 0 : version) + "\"";
+    }
+
+    /**
+     * The version an If-Match header requires, or {@code null} when the header
+     * is absent or {@code *} and the update is unconditional. Only a single
+     * strong tag is understood; anything else yields {@link #NO_MATCH}.
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return NO_MATCH;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return NO_MATCH;
+        }
+    }
+
+    /**
+     * The status for an update that lost to a concurrent one: 412 when the
+     * client made it conditional with If-Match, 409 otherwise.
+     */
+    public static HttpStatus conflictStatus(String ifMatch) {
+        return ifMatch == null ? HttpStatus.CONFLICT : HttpStatus.PRECONDITION_FAILED;
+    }
+}
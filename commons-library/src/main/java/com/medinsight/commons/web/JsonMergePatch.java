@@ -0,0 +1,52 @@
+package com.medinsight.commons.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies an RFC 7396 JSON Merge Patch to a flat entity in place. Members
+ * present in the patch overwrite the property, {@code null} clears it, and
+ * absent members are left untouched, so on a managed entity only the patched
+ * columns become dirty.
+ */
+public final class JsonMergePatch {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private JsonMergePatch() {
+    }
+
+    /**
+     * @param patchable properties the patch may set
+     * @param required  patchable properties that may not be cleared
+     * @throws IllegalArgumentException if the patch is not an object, names a
+     *                                  property outside {@code patchable},
+     *                                  clears a required one, or has a value of
+     *                                  the wrong type
+     */
+    public static <T> T apply(ObjectMapper objectMapper, T target, JsonNode patch, Set<String> patchable,
+            Set<String> required) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Merge patch must be a JSON object");
+        }
+        for (Iterator<Map.Entry<String, JsonNode>> fields = patch.fields(); fields.hasNext();) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!patchable.contains(field.getKey())) {
+                throw new IllegalArgumentException("Field cannot be patched: " + field.getKey());
+            }
+            if (field.getValue().isNull() && required.contains(field.getKey())) {
+                throw new IllegalArgumentException("Field cannot be null: " + field.getKey());
+            }
+        }
+        try {
+            return objectMapper.readerForUpdating(target).readValue(patch);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid merge patch: " + e.getMessage(), e);
+        }
+    }
+}
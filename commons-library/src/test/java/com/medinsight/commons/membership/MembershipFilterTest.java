@@ -0,0 +1,122 @@
+package com.medinsight.commons.membership;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MembershipFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MembershipFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new MembershipFilter("test", 1_000, 0.01, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should ask the lookup for every key until the first rebuild")
+    void shouldUseLookupUntilLoaded() {
+        AtomicInteger lookups = new AtomicInteger();
+
+        boolean exists = filter.exists("a", key -> lookups.incrementAndGet() > 0);
+
+        assertThat(exists).isTrue();
+        assertThat(filter.isLoaded()).isFalse();
+        assertThat(lookups).hasValue(1);
+        assertThat(checks("unloaded")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should answer absent keys from the filter and confirm present ones with the lookup")
+    void shouldAnswerNegativesWithoutLookup() {
+        filter.rebuild(sink -> List.of("a", "b").forEach(sink));
+        AtomicInteger lookups = new AtomicInteger();
+
+        assertThat(filter.exists("a", key -> lookups.incrementAndGet() > 0)).isTrue();
+        assertThat(filter.exists("c", key -> lookups.incrementAndGet() > 0)).isFalse();
+
+        assertThat(lookups).hasValue(1);
+        assertThat(checks("confirmed")).isEqualTo(1);
+        assertThat(checks("negative")).isEqualTo(1);
+        assertThat(filter.keyCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should drop keys missing from the loader when rebuilt")
+    void shouldDropDeletedKeysOnRebuild() {
+        filter.rebuild(sink -> List.of("a", "b").forEach(sink));
+
+        filter.rebuild(sink -> sink.accept("b"));
+
+        assertThat(filter.exists("a", key -> true)).isFalse();
+        assertThat(filter.exists("b", key -> true)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep a key added while a rebuild loads")
+    void shouldKeepKeysAddedDuringRebuild() {
+        filter.rebuild(sink -> sink.accept("a"));
+
+        filter.rebuild(sink -> {
+            sink.accept("a");
+            filter.add("b");
+        });
+
+        assertThat(filter.exists("b", key -> true)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not lose keys added concurrently with rebuilds swapping filters")
+    void shouldNotLoseKeysAcrossSwap() throws InterruptedException {
+        filter.rebuild(sink -> {
+        });
+        // Keys are committed before they are added, so every key is either seen by the
+        // loader or added once the rebuild has started
+        Set<String> committed = ConcurrentHashMap.newKeySet();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 50_000; i++) {
+                String key = "key-" + i;
+                committed.add(key);
+                filter.add(key);
+            }
+            done.set(true);
+        });
+
+        while (!done.get()) {
+            filter.rebuild(sink -> List.copyOf(committed).forEach(sink));
+        }
+        writer.join();
+
+        assertThat(IntStream.range(0, 50_000).allMatch(i -> filter.exists("key-" + i, key -> true))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should report false positives over absent keys")
+    void shouldReportObservedFalsePositiveRate() {
+        filter.rebuild(sink -> sink.accept("a"));
+
+        filter.exists("a", key -> false);
+        filter.exists("z", key -> false);
+
+        assertThat(checks("false_positive")).isEqualTo(1);
+        assertThat(filter.observedFalsePositiveRate()).isEqualTo(0.5);
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("membership.filter.checks").tag("filter", "test").tag("result", result)
+                .counter().count();
+    }
+}
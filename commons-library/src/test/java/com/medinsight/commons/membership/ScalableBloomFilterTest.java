@@ -0,0 +1,65 @@
+package com.medinsight.commons.membership;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    @DisplayName("Should report every added key")
+    void shouldHaveNoFalseNegatives() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(10_000, 0.01);
+
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i + "@medinsight.test"));
+
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("user" + i + "@medinsight.test")))
+                .isTrue();
+        assertThat(filter.count()).isEqualTo(10_000);
+        assertThat(filter.stageCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep the false-positive rate under the configured probability at capacity")
+    void shouldKeepFalsePositiveRateAtCapacity() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("present-" + i));
+
+        double rate = falsePositiveRate(filter);
+
+        assertThat(rate).isLessThan(0.01);
+        assertThat(filter.expectedFalsePositiveProbability()).isLessThan(0.01);
+    }
+
+    @Test
+    @DisplayName("Should add stages past capacity and keep the compound rate under twice the configured one")
+    void shouldGrowPastCapacity() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+
+        IntStream.range(0, 20_000).forEach(i -> filter.put("present-" + i));
+
+        // 1k + 2k + 4k + 8k + 16k covers 20k keys
+        assertThat(filter.stageCount()).isEqualTo(5);
+        assertThat(IntStream.range(0, 20_000).allMatch(i -> filter.mightContain("present-" + i))).isTrue();
+        assertThat(falsePositiveRate(filter)).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveProbability()).isLessThan(0.02);
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive capacity or an out-of-range probability")
+    void shouldRejectInvalidArguments() {
+        assertThatThrownBy(() -> new ScalableBloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ScalableBloomFilter(100, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ScalableBloomFilter(100, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static double falsePositiveRate(ScalableBloomFilter filter) {
+        int probes = 100_000;
+        long hits = IntStream.range(0, probes).filter(i -> filter.mightContain("absent-" + i)).count();
+        return (double) hits / probes;
+    }
+}
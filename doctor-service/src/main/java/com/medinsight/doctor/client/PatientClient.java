@@ -0,0 +1,13 @@
+package com.medinsight.doctor.client;
+
+import com.medinsight.doctor.dto.PatientContact;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@FeignClient(name = "patient-service", url = "${patient-service.url:http://patient-service:8080}")
+public interface PatientClient {
+
+    @GetMapping("/api/patients/{id}")
+    PatientContact getPatient(@PathVariable("id") Long id);
+}
@@ -0,0 +1,21 @@
+package com.medinsight.doctor.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AvailabilityConfig {
+
+    // A doctor's first search loads their calendar from the database, so keep this under the connection pool
+    // size; once calendars are loaded each task is a few bitmap operations
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor availabilityExecutor(@Value("${doctor.availability.workers:4}") int workers) {
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("availability-", 0).factory());
+    }
+}
@@ -0,0 +1,62 @@
+package com.medinsight.doctor.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medinsight.doctor.reminder.ReminderSender;
+import com.medinsight.doctor.schedule.WorkingCalendar;
+import com.medinsight.doctor.service.AvailabilityService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class DoctorCacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${doctor.availability.cache.max-size:10000}") long availabilityMaxSize,
+            @Value("${doctor.availability.cache.ttl:15s}") Duration availabilityTtl,
+            @Value("${doctor.reminders.contacts.max-size:100000}") long contactsMaxSize,
+            @Value("${doctor.reminders.contacts.ttl:10m}") Duration contactsTtl,
+            @Value("${doctor.schedule.cache.max-size:20000}") long workingWeeksMaxSize,
+            @Value("${doctor.schedule.cache.ttl:10m}") Duration workingWeeksTtl,
+            MeterRegistry meterRegistry) {
+        // Bookings do not evict searches; the short TTL bounds how long a taken slot can still be offered
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> availability = Caffeine.newBuilder()
+                .maximumSize(availabilityMaxSize)
+                .expireAfterWrite(availabilityTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, availability, AvailabilityService.AVAILABILITY_CACHE);
+
+        // Spares patient-service a lookup for every reminder of a patient with several appointments
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> patientContacts = Caffeine.newBuilder()
+                .maximumSize(contactsMaxSize)
+                .expireAfterWrite(contactsTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, patientContacts, ReminderSender.PATIENT_CONTACTS_CACHE);
+
+        // Edits made here are applied at once; the TTL bounds how long another instance's edit goes unseen
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> workingWeeks = Caffeine.newBuilder()
+                .maximumSize(workingWeeksMaxSize)
+                .expireAfterWrite(workingWeeksTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, workingWeeks, WorkingCalendar.WORKING_WEEKS_CACHE);
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new CaffeineCache(AvailabilityService.AVAILABILITY_CACHE, availability, false),
+                new CaffeineCache(ReminderSender.PATIENT_CONTACTS_CACHE, patientContacts, false),
+                new CaffeineCache(WorkingCalendar.WORKING_WEEKS_CACHE, workingWeeks, false)));
+        return cacheManager;
+    }
+}
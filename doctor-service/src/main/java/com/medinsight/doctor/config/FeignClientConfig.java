@@ -0,0 +1,12 @@
+package com.medinsight.doctor.config;
+
+import com.medinsight.commons.client.NotificationClient;
+import com.medinsight.doctor.client.PatientClient;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Configuration;
+
+// Kept off the application class so @WebMvcTest slices do not try to build Feign clients
+@Configuration
+@EnableFeignClients(clients = {NotificationClient.class, PatientClient.class})
+public class FeignClientConfig {
+}
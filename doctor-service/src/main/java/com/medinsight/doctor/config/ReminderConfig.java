@@ -0,0 +1,19 @@
+package com.medinsight.doctor.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ReminderConfig {
+
+    // One thread waits on the reminder queue and delivers each batch as it falls due
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor reminderExecutor() {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("reminders-", 0).factory());
+    }
+}
@@ -1,14 +1,27 @@
 package com.medinsight.doctor.controller;
 
+import com.medinsight.commons.exception.DuplicateResourceException;
+import com.medinsight.doctor.dto.AppointmentHistoryPage;
+import com.medinsight.doctor.dto.AppointmentSummary;
+import com.medinsight.doctor.dto.BulkTransitionRequest;
+import com.medinsight.doctor.dto.BulkTransitionResult;
+import com.medinsight.doctor.dto.TimeSlot;
 import com.medinsight.doctor.entity.Appointment;
 import com.medinsight.doctor.enums.AppointmentStatus;
 import com.medinsight.doctor.service.AppointmentService;
+import com.medinsight.doctor.slot.SlotUnavailableException;
+import com.medinsight.doctor.transition.BulkTransitionService;
+import com.medinsight.doctor.transition.InvalidTransitionException;
+import com.medinsight.doctor.worklist.Worklist;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -18,11 +31,16 @@ import java.util.List;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final BulkTransitionService bulkTransitionService;
 
     @PostMapping
     public ResponseEntity<Appointment> createAppointment(@RequestBody Appointment appointment) {
-        Appointment created = appointmentService.createAppointment(appointment);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        try {
+            Appointment created = appointmentService.createAppointment(appointment);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (SlotUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -33,26 +51,71 @@ public class AppointmentController {
     }
 
     @GetMapping("/patient/{patientId}")
-    public ResponseEntity<List<Appointment>> getAppointmentsByPatientId(@PathVariable Long patientId) {
-        List<Appointment> appointments = appointmentService.getAppointmentsByPatientId(patientId);
+    public ResponseEntity<List<AppointmentSummary>> getAppointmentsByPatientId(@PathVariable Long patientId) {
+        List<AppointmentSummary> appointments = appointmentService.getAppointmentsByPatientId(patientId);
         return ResponseEntity.ok(appointments);
     }
 
     @GetMapping("/doctor/{doctorId}")
-    public ResponseEntity<List<Appointment>> getAppointmentsByDoctorId(@PathVariable Long doctorId) {
-        List<Appointment> appointments = appointmentService.getAppointmentsByDoctorId(doctorId);
-        return ResponseEntity.ok(appointments);
+    public ResponseEntity<AppointmentHistoryPage> getAppointmentsByDoctorId(
+            @PathVariable Long doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer size) {
+        if (from != null && to != null && to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(appointmentService.getDoctorAppointmentHistory(doctorId, from, to, before, beforeId,
+                size));
+    }
+
+    @GetMapping("/doctor/{doctorId}/worklist")
+    public ResponseEntity<Worklist> getWorklist(@PathVariable Long doctorId, WebRequest webRequest) {
+        Worklist worklist = appointmentService.getWorklist(doctorId);
+        if (webRequest.checkNotModified(worklist.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(worklist.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(worklist.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(worklist);
     }
 
     @GetMapping("/doctor/{doctorId}/range")
-    public ResponseEntity<List<Appointment>> getDoctorAppointmentsForDateRange(
+    public ResponseEntity<List<AppointmentSummary>> getDoctorAppointmentsForDateRange(
             @PathVariable Long doctorId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        List<Appointment> appointments = appointmentService.getDoctorAppointmentsForDateRange(doctorId, start, end);
+        List<AppointmentSummary> appointments = appointmentService.getDoctorAppointmentsForDateRange(doctorId, start, end);
         return ResponseEntity.ok(appointments);
     }
 
+    @GetMapping("/doctor/{doctorId}/free-slots")
+    public ResponseEntity<List<TimeSlot>> getFreeSlots(
+            @PathVariable Long doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer duration,
+            @RequestParam(required = false) Integer limit) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(appointmentService.findFreeSlots(doctorId, from, to, duration, limit));
+    }
+
+    @PostMapping("/transitions")
+    public ResponseEntity<BulkTransitionResult> transitionAppointments(@RequestBody BulkTransitionRequest request) {
+        try {
+            return ResponseEntity.ok(bulkTransitionService.transition(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (DuplicateResourceException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
     @PutMapping("/{id}/status")
     public ResponseEntity<Appointment> updateAppointmentStatus(
             @PathVariable Long id,
@@ -60,6 +123,8 @@ public class AppointmentController {
         try {
             Appointment updated = appointmentService.updateAppointmentStatus(id, status);
             return ResponseEntity.ok(updated);
+        } catch (SlotUnavailableException | InvalidTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -70,6 +135,8 @@ public class AppointmentController {
         try {
             Appointment confirmed = appointmentService.confirmAppointment(id);
             return ResponseEntity.ok(confirmed);
+        } catch (SlotUnavailableException | InvalidTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -80,6 +147,8 @@ public class AppointmentController {
         try {
             Appointment cancelled = appointmentService.cancelAppointment(id);
             return ResponseEntity.ok(cancelled);
+        } catch (InvalidTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -90,6 +159,8 @@ public class AppointmentController {
         try {
             Appointment completed = appointmentService.completeAppointment(id);
             return ResponseEntity.ok(completed);
+        } catch (SlotUnavailableException | InvalidTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,32 @@
+package com.medinsight.doctor.controller;
+
+import com.medinsight.doctor.dto.DoctorSlot;
+import com.medinsight.doctor.service.AvailabilityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/doctors/availability")
+@RequiredArgsConstructor
+public class AvailabilityController {
+
+    private final AvailabilityService availabilityService;
+
+    @GetMapping
+    public ResponseEntity<List<DoctorSlot>> searchAvailability(
+            @RequestParam String specialization,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer duration,
+            @RequestParam(required = false) Integer limit) {
+        if (specialization.isBlank() || !to.isAfter(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(availabilityService.search(specialization, from, to, duration, limit));
+    }
+}
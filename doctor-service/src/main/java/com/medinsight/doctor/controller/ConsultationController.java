@@ -1,8 +1,14 @@
 package com.medinsight.doctor.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medinsight.commons.web.EntityTags;
+import com.medinsight.commons.web.JsonMergePatch;
+import com.medinsight.doctor.dto.ConsultationSummary;
 import com.medinsight.doctor.entity.Consultation;
 import com.medinsight.doctor.service.ConsultationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -25,7 +31,7 @@ public class ConsultationController {
     @GetMapping("/{id}")
     public ResponseEntity<Consultation> getConsultationById(@PathVariable Long id) {
         Consultation consultation = consultationService.getConsultationById(id);
-        return ResponseEntity.ok(consultation);
+        return ResponseEntity.ok().eTag(EntityTags.of(consultation.getVersion())).body(consultation);
     }
 
     @GetMapping("/appointment/{appointmentId}")
@@ -35,27 +41,48 @@ public class ConsultationController {
     }
 
     @GetMapping("/patient/{patientId}")
-    public ResponseEntity<List<Consultation>> getConsultationsByPatientId(@PathVariable Long patientId) {
-        List<Consultation> consultations = consultationService.getConsultationsByPatientId(patientId);
+    public ResponseEntity<List<ConsultationSummary>> getConsultationsByPatientId(@PathVariable Long patientId) {
+        List<ConsultationSummary> consultations = consultationService.getConsultationsByPatientId(patientId);
         return ResponseEntity.ok(consultations);
     }
 
     @GetMapping("/doctor/{doctorId}")
-    public ResponseEntity<List<Consultation>> getConsultationsByDoctorId(@PathVariable Long doctorId) {
-        List<Consultation> consultations = consultationService.getConsultationsByDoctorId(doctorId);
+    public ResponseEntity<List<ConsultationSummary>> getConsultationsByDoctorId(@PathVariable Long doctorId) {
+        List<ConsultationSummary> consultations = consultationService.getConsultationsByDoctorId(doctorId);
         return ResponseEntity.ok(consultations);
     }
 
     @GetMapping("/patient/{patientId}/portal")
-    public ResponseEntity<List<Consultation>> getPatientPortalConsultations(@PathVariable Long patientId) {
-        List<Consultation> consultations = consultationService.getPatientPortalConsultations(patientId);
+    public ResponseEntity<List<ConsultationSummary>> getPatientPortalConsultations(@PathVariable Long patientId,
+            @RequestParam(required = false) Integer limit) {
+        List<ConsultationSummary> consultations = consultationService.getPatientPortalConsultations(patientId, limit);
         return ResponseEntity.ok(consultations);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Consultation> updateConsultation(@PathVariable Long id,
-            @RequestBody Consultation consultation) {
-        Consultation updated = consultationService.updateConsultation(id, consultation);
-        return ResponseEntity.ok(updated);
+            @RequestBody Consultation consultation,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            Consultation updated = consultationService.updateConsultation(id, consultation,
+                    EntityTags.expectedVersion(ifMatch));
+            return ResponseEntity.ok().eTag(EntityTags.of(updated.getVersion())).body(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(EntityTags.conflictStatus(ifMatch)).build();
+        }
+    }
+
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    public ResponseEntity<Consultation> patchConsultation(@PathVariable Long id, @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            Consultation patched = consultationService.patchConsultation(id, patch,
+                    EntityTags.expectedVersion(ifMatch));
+            return ResponseEntity.ok().eTag(EntityTags.of(patched.getVersion())).body(patched);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(EntityTags.conflictStatus(ifMatch)).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
@@ -0,0 +1,104 @@
+package com.medinsight.doctor.controller;
+
+import com.medinsight.doctor.dto.TimeSlot;
+import com.medinsight.doctor.entity.Schedule;
+import com.medinsight.doctor.entity.ScheduleOverride;
+import com.medinsight.doctor.service.ScheduleService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/doctors")
+@RequiredArgsConstructor
+public class ScheduleController {
+
+    private final ScheduleService scheduleService;
+
+    @GetMapping("/{doctorId}/schedules")
+    public ResponseEntity<List<Schedule>> getSchedules(@PathVariable Long doctorId) {
+        return scheduleService.getSchedules(doctorId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{doctorId}/schedules")
+    public ResponseEntity<List<Schedule>> replaceSchedules(@PathVariable Long doctorId,
+            @RequestBody List<Schedule> schedules) {
+        try {
+            return scheduleService.replaceSchedules(doctorId, schedules)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{doctorId}/schedule-overrides")
+    public ResponseEntity<List<ScheduleOverride>> getOverrides(
+            @PathVariable Long doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return scheduleService.getOverrides(doctorId, from, to)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/{doctorId}/schedule-overrides/{date}")
+    public ResponseEntity<List<ScheduleOverride>> replaceOverrides(
+            @PathVariable Long doctorId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestBody List<ScheduleOverride> overrides) {
+        try {
+            return scheduleService.replaceOverrides(doctorId, date, overrides)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{doctorId}/working-hours")
+    public ResponseEntity<List<TimeSlot>> getWorkingHours(
+            @PathVariable Long doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return scheduleService.getWorkingHours(doctorId, from, to)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{doctorId}/working")
+    public ResponseEntity<Map<String, Boolean>> isWorking(
+            @PathVariable Long doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return scheduleService.isWorking(doctorId, at)
+                .map(working -> ResponseEntity.ok(Map.of("working", working)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{doctorId}/schedules/rebuild")
+    public ResponseEntity<Void> rebuildSlots(@PathVariable Long doctorId) {
+        scheduleService.rebuildSlots(doctorId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/schedules/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildAllSlots() {
+        return ResponseEntity.ok(Map.of("doctors", scheduleService.rebuildAllSlots()));
+    }
+}
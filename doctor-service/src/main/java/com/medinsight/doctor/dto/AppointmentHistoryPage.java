@@ -0,0 +1,25 @@
+package com.medinsight.doctor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A page of a doctor's appointments, newest first. {@code nextBefore} and
+ * {@code nextBeforeId} are the cursor for the following page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentHistoryPage {
+    private List<AppointmentSummary> content;
+    private int size;
+    private LocalDateTime nextBefore;
+    private Long nextBeforeId;
+    private boolean hasMore;
+}
@@ -0,0 +1,20 @@
+package com.medinsight.doctor.dto;
+
+import com.medinsight.doctor.enums.AppointmentStatus;
+import com.medinsight.doctor.enums.AppointmentType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listing view of an {@code Appointment}; the TEXT {@code reason} and
+ * {@code notes} are only loaded by the detail endpoint.
+ */
+public record AppointmentSummary(
+        Long id,
+        Long patientId,
+        Long doctorId,
+        LocalDateTime appointmentDateTime,
+        Integer durationMinutes,
+        AppointmentType type,
+        AppointmentStatus status) {
+}
@@ -0,0 +1,10 @@
+package com.medinsight.doctor.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * The time an appointment holds on its doctor's calendar, as loaded into the
+ * slot index.
+ */
+public record BookedInterval(Long appointmentId, LocalDateTime start, Integer durationMinutes) {
+}
@@ -0,0 +1,23 @@
+package com.medinsight.doctor.dto;
+
+import com.medinsight.doctor.enums.AppointmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Moves every listed appointment to {@code status}. {@code requestId} is
+ * chosen by the caller and reused when retrying the same request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransitionRequest {
+    private String requestId;
+    private AppointmentStatus status;
+    private List<Long> appointmentIds;
+}
@@ -0,0 +1,25 @@
+package com.medinsight.doctor.dto;
+
+import com.medinsight.doctor.enums.AppointmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How many of the distinct requested appointments moved to {@code status}.
+ * The others were missing, already there, or in a status that may not move
+ * there. {@code replayed} marks the stored outcome of an earlier identical
+ * request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransitionResult {
+    private String requestId;
+    private AppointmentStatus status;
+    private int requested;
+    private int transitioned;
+    private boolean replayed;
+}
@@ -0,0 +1,15 @@
+package com.medinsight.doctor.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listing view of a {@code Consultation}. The clinical TEXT columns (complaint,
+ * diagnosis, prescription, notes) are only loaded by the detail endpoint.
+ */
+public record ConsultationSummary(
+        Long id,
+        Long appointmentId,
+        Long patientId,
+        Long doctorId,
+        LocalDateTime consultationDate) {
+}
@@ -0,0 +1,10 @@
+package com.medinsight.doctor.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A free slot of one doctor in an availability search.
+ */
+public record DoctorSlot(Long doctorId, String firstName, String lastName, LocalDateTime start,
+        LocalDateTime end) {
+}
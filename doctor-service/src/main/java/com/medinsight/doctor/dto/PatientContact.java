@@ -0,0 +1,9 @@
+package com.medinsight.doctor.dto;
+
+import java.util.UUID;
+
+/**
+ * The parts of a patient-service patient needed to reach them.
+ */
+public record PatientContact(Long id, UUID userId, String firstName, String email) {
+}
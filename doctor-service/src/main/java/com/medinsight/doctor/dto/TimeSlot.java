@@ -0,0 +1,9 @@
+package com.medinsight.doctor.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A bookable interval, {@code start} inclusive and {@code end} exclusive.
+ */
+public record TimeSlot(LocalDateTime start, LocalDateTime end) {
+}
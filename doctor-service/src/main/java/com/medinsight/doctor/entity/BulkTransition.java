@@ -0,0 +1,40 @@
+package com.medinsight.doctor.entity;
+
+import com.medinsight.doctor.enums.AppointmentStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The outcome of a bulk status transition, kept under the caller's request id
+ * so that a retried request returns it instead of being applied again.
+ */
+@Entity
+@Table(name = "bulk_transitions")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransition {
+
+    @Id
+    @Column(length = 100)
+    private String requestId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AppointmentStatus status;
+
+    @Column(nullable = false)
+    private int requested;
+
+    @Column(nullable = false)
+    private int transitioned;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
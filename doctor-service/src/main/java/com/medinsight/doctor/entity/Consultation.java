@@ -5,11 +5,13 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "consultations")
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
@@ -49,4 +51,7 @@ public class Consultation {
 
     @Column(nullable = false)
     private boolean visibleInPortal = true;
+
+    @Version
+    private Long version;
 }
@@ -0,0 +1,43 @@
+package com.medinsight.doctor.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A change to a doctor's weekly {@link Schedule} on one date: extra working
+ * time when {@code available}, time off otherwise. Time off without start and
+ * end times covers the whole day, as for a holiday.
+ */
+@Entity
+@Table(name = "schedule_overrides")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleOverride {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long doctorId;
+
+    @Column(name = "override_date", nullable = false)
+    private LocalDate date;
+
+    private LocalTime startTime;
+
+    private LocalTime endTime;
+
+    @Column(nullable = false)
+    private boolean available;
+
+    private String reason;
+}
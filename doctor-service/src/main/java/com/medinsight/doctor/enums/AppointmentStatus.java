@@ -1,10 +1,57 @@
 package com.medinsight.doctor.enums;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum AppointmentStatus {
     SCHEDULED,
     CONFIRMED,
     IN_PROGRESS,
     COMPLETED,
     CANCELLED,
-    NO_SHOW
+    NO_SHOW;
+
+    /**
+     * Whether an appointment in this status keeps its time on the doctor's
+     * calendar. Cancelled and missed appointments give it back.
+     */
+    public boolean holdsSlot() {
+        return this != CANCELLED && this != NO_SHOW;
+    }
+
+    /**
+     * Whether an appointment in this status may be moved to {@code next}.
+     * Staying in the same status is always allowed, so repeating a change is
+     * harmless.
+     */
+    public boolean canBecome(AppointmentStatus next) {
+        return this == next || successors().contains(next);
+    }
+
+    /**
+     * The statuses an appointment in this status may move to. Completed is
+     * final; cancelled and missed appointments can only be brought back.
+     */
+    public Set<AppointmentStatus> successors() {
+        return switch (this) {
+            case SCHEDULED -> EnumSet.of(CONFIRMED, IN_PROGRESS, COMPLETED, CANCELLED, NO_SHOW);
+            case CONFIRMED -> EnumSet.of(IN_PROGRESS, COMPLETED, CANCELLED, NO_SHOW);
+            case IN_PROGRESS -> EnumSet.of(COMPLETED);
+            case COMPLETED -> EnumSet.noneOf(AppointmentStatus.class);
+            case CANCELLED, NO_SHOW -> EnumSet.of(SCHEDULED);
+        };
+    }
+
+    /**
+     * The statuses that may move to {@code target}, not counting
+     * {@code target} itself.
+     */
+    public static Set<AppointmentStatus> predecessors(AppointmentStatus target) {
+        Set<AppointmentStatus> predecessors = EnumSet.noneOf(AppointmentStatus.class);
+        Arrays.stream(values())
+                .filter(status -> status.successors().contains(target))
+                .forEach(predecessors::add);
+        return predecessors;
+    }
 }
@@ -0,0 +1,9 @@
+package com.medinsight.doctor.event;
+
+import com.medinsight.doctor.dto.AppointmentSummary;
+
+/**
+ * An appointment as it stands after being created or changing status.
+ */
+public record AppointmentChangedEvent(AppointmentSummary appointment) {
+}
@@ -0,0 +1,4 @@
+package com.medinsight.doctor.event;
+
+public record ConsultationChangedEvent(Long consultationId, Long patientId) {
+}
@@ -0,0 +1,36 @@
+package com.medinsight.doctor.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Relays committed consultation changes to Kafka, keyed by patient id, so
+ * patient-service can drop its cached timeline for that patient.
+ */
+@Component
+@ConditionalOnProperty(name = "doctor.events.consultations.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ConsultationEventPublisher {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${doctor.events.consultations.topic:consultation-events}")
+    private String topic;
+
+    @TransactionalEventListener
+    public void onConsultationChanged(ConsultationChangedEvent event) {
+        kafkaTemplate.send(topic, String.valueOf(event.patientId()), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.warn("Failed to publish change of consultation {}: {}", event.consultationId(),
+                                ex.getMessage());
+                    }
+                });
+    }
+}
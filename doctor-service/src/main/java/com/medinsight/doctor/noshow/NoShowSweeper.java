@@ -0,0 +1,168 @@
+package com.medinsight.doctor.noshow;
+
+import com.medinsight.doctor.dto.AppointmentSummary;
+import com.medinsight.doctor.enums.AppointmentStatus;
+import com.medinsight.doctor.event.AppointmentChangedEvent;
+import com.medinsight.doctor.repository.AppointmentRepository;
+import com.medinsight.doctor.slot.SlotIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Marks appointments that ended without being started as
+ * {@link AppointmentStatus#NO_SHOW NO_SHOW}.
+ *
+ * <p>Each open appointment's deadline, its end plus a grace period, waits in a
+ * {@link TimingWheel}, so a tick only touches the appointments that just
+ * became due rather than scanning the table. The wheel is filled from the
+ * database a rolling {@code horizon} ahead by start time, and from appointment
+ * changes committed by this instance in between. Its first fill reaches back
+ * {@code lookback}, which rebuilds it after a restart and picks up anything
+ * that fell due while the service was down.
+ *
+ * <p>Deadlines are never taken out of the wheel: a due appointment is locked
+ * and only marked if it is still open and has really ended by then, so
+ * deadlines of appointments since started, cancelled, rescheduled or swept by
+ * another instance fall through harmlessly.
+ */
+@Component
+@ConditionalOnProperty(name = "doctor.no-show.enabled", havingValue = "true")
+@Slf4j
+public class NoShowSweeper {
+
+    static final int WHEEL_SIZE = 60;
+
+    private static final Set<AppointmentStatus> OPEN = AppointmentStatus.predecessors(AppointmentStatus.NO_SHOW);
+    private static final List<String> OPEN_NAMES = OPEN.stream().map(Enum::name).toList();
+
+    private final AppointmentRepository appointmentRepository;
+    private final SlotIndex slotIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration grace;
+    private final Duration horizon;
+    private final int batchSize;
+
+    // Guarded by this
+    private final TimingWheel<Long> wheel;
+    private final List<Long> due = new ArrayList<>();
+
+    // Only touched by the scheduler thread
+    private LocalDateTime loadedUntil;
+
+    public NoShowSweeper(AppointmentRepository appointmentRepository, SlotIndex slotIndex,
+            ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate,
+            @Value("${doctor.no-show.tick:PT1M}") Duration tick,
+            @Value("${doctor.no-show.grace:15m}") Duration grace,
+            @Value("${doctor.no-show.horizon:1d}") Duration horizon,
+            @Value("${doctor.no-show.lookback:7d}") Duration lookback,
+            @Value("${doctor.no-show.batch-size:500}") int batchSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.slotIndex = slotIndex;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.grace = grace;
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+        LocalDateTime now = LocalDateTime.now();
+        this.wheel = new TimingWheel<>(Math.max(1, tick.toSeconds()), WHEEL_SIZE, seconds(now));
+        this.loadedUntil = now.minus(lookback);
+    }
+
+    @Scheduled(initialDelayString = "${doctor.no-show.initial-delay:PT30S}",
+            fixedDelayString = "${doctor.no-show.tick:PT1M}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        if (loadedUntil.isBefore(now.plus(horizon.dividedBy(2)))) {
+            load(now.plus(horizon));
+        }
+
+        List<Long> ids;
+        synchronized (this) {
+            wheel.advance(seconds(now), due::add);
+            ids = due.stream().distinct().sorted().toList();
+            due.clear();
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime cutoff = now.minus(grace);
+        int marked = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            try {
+                marked += transactionTemplate.execute(status -> markNoShows(batch, cutoff));
+            } catch (RuntimeException e) {
+                log.warn("Could not mark {} appointments as no-shows, retrying next tick", batch.size(), e);
+                synchronized (this) {
+                    due.addAll(batch);
+                }
+            }
+        }
+        if (marked > 0) {
+            log.info("Marked {} of {} due appointments as no-shows", marked, ids.size());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentSummary appointment = event.appointment();
+        if (OPEN.contains(appointment.status())) {
+            schedule(appointment);
+        }
+    }
+
+    synchronized int pending() {
+        return wheel.pending() + due.size();
+    }
+
+    private void load(LocalDateTime until) {
+        List<AppointmentSummary> appointments = appointmentRepository.findSummariesByStatusInAndRange(OPEN,
+                loadedUntil, until);
+        appointments.forEach(this::schedule);
+        log.debug("Loaded {} open appointments starting before {}", appointments.size(), until);
+        loadedUntil = until;
+    }
+
+    private synchronized void schedule(AppointmentSummary appointment) {
+        int duration = appointment.durationMinutes() == null
+                ? SlotIndex.DEFAULT_DURATION_MINUTES : appointment.durationMinutes();
+        LocalDateTime deadline = appointment.appointmentDateTime().plusMinutes(duration).plus(grace);
+        if (!wheel.schedule(appointment.id(), seconds(deadline))) {
+            due.add(appointment.id());
+        }
+    }
+
+    private int markNoShows(List<Long> ids, LocalDateTime cutoff) {
+        List<Long> ended = appointmentRepository.lockEndedBy(ids, OPEN_NAMES, cutoff);
+        if (ended.isEmpty()) {
+            return 0;
+        }
+        int marked = appointmentRepository.updateStatus(ended, OPEN, AppointmentStatus.NO_SHOW);
+        for (AppointmentSummary appointment : appointmentRepository.findSummariesByIdInAndStatus(ended,
+                AppointmentStatus.NO_SHOW)) {
+            slotIndex.release(appointment.doctorId(), appointment.id());
+            eventPublisher.publishEvent(new AppointmentChangedEvent(appointment));
+        }
+        return marked;
+    }
+
+    // Appointment times carry no zone; any fixed offset keeps them in order
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,131 @@
+package com.medinsight.doctor.noshow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel: deadlines are dropped into the bucket of their
+ * tick, and advancing the clock empties one bucket per tick instead of
+ * searching every pending deadline. Deadlines beyond this wheel's span go to
+ * an overflow wheel whose ticks are this wheel's whole span, created on
+ * demand; each time this wheel wraps around, the overflow wheel's next bucket
+ * is spread back over this one.
+ *
+ * <p>Times are plain numbers in any unit, such as epoch seconds. A deadline
+ * fires on the first {@link #advance} to a time at or after it, in the same
+ * tick or later. Not thread safe.
+ */
+final class TimingWheel<T> {
+
+    private final long tick;
+    private final int size;
+    private final long span;
+    private final List<List<Entry<T>>> buckets;
+
+    // Start of the current tick, a multiple of tick
+    private long current;
+    private TimingWheel<T> overflow;
+    private int pending;
+
+    TimingWheel(long tick, int size, long start) {
+        if (tick <= 0 || size < 2) {
+            throw new IllegalArgumentException("A timing wheel needs a positive tick and at least two buckets");
+        }
+        this.tick = tick;
+        this.size = size;
+        this.span = Math.multiplyExact(tick, size);
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.current = Math.floorDiv(start, tick) * tick;
+    }
+
+    /**
+     * Adds {@code item} to fire at {@code deadline}.
+     *
+     * @return false, adding nothing, if the deadline lies before the current
+     *         tick and so is already due
+     */
+    boolean schedule(T item, long deadline) {
+        if (!place(new Entry<>(item, deadline))) {
+            return false;
+        }
+        pending++;
+        return true;
+    }
+
+    /**
+     * Moves the clock to {@code time}, handing every item whose deadline has
+     * passed to {@code expired}.
+     */
+    void advance(long time, Consumer<T> expired) {
+        Consumer<Entry<T>> fire = entry -> {
+            pending--;
+            expired.accept(entry.item());
+        };
+        while (current + tick <= time) {
+            drain(current, fire);
+            current += tick;
+            if (overflow != null && Math.floorMod(current, span) == 0) {
+                overflow.enter(current, entry -> {
+                    if (!place(entry)) {
+                        fire.accept(entry);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * The number of items waiting to fire.
+     */
+    int pending() {
+        return pending;
+    }
+
+    private boolean place(Entry<T> entry) {
+        if (entry.deadline() < current) {
+            return false;
+        }
+        if (entry.deadline() < current + span) {
+            buckets.get(index(entry.deadline())).add(entry);
+            return true;
+        }
+        if (overflow == null) {
+            overflow = new TimingWheel<>(span, size, current);
+        }
+        return overflow.place(entry);
+    }
+
+    // Called by the wheel below as it wraps onto this wheel's tick starting at time
+    private void enter(long time, Consumer<Entry<T>> below) {
+        current = time;
+        if (overflow != null && Math.floorMod(current, span) == 0) {
+            overflow.enter(current, entry -> {
+                if (!place(entry)) {
+                    below.accept(entry);
+                }
+            });
+        }
+        drain(current, below);
+    }
+
+    private void drain(long time, Consumer<Entry<T>> sink) {
+        List<Entry<T>> bucket = buckets.get(index(time));
+        if (bucket.isEmpty()) {
+            return;
+        }
+        List<Entry<T>> entries = new ArrayList<>(bucket);
+        bucket.clear();
+        entries.forEach(sink);
+    }
+
+    private int index(long time) {
+        return (int) Math.floorMod(Math.floorDiv(time, tick), (long) size);
+    }
+
+    private record Entry<T>(T item, long deadline) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.medinsight.doctor.reminder;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One reminder waiting in the {@link ReminderScheduler}'s delay queue. It is
+ * due at {@code dueAt}, in the system zone appointment times are kept in.
+ */
+public record Reminder(Long appointmentId, Long patientId, Long doctorId, LocalDateTime appointmentDateTime,
+        ReminderKind kind, LocalDateTime dueAt) implements Delayed {
+
+    public Key key() {
+        return new Key(appointmentId, kind);
+    }
+
+    /**
+     * Notification-service delivers a key once, so a reminder re-sent after a
+     * failed call or by another instance still reaches the patient once. The
+     * start time is part of it so that a rescheduled appointment is reminded
+     * again.
+     */
+    public String deduplicationKey() {
+        return "appointment-reminder:" + appointmentId + ":" + kind + ":" + appointmentDateTime;
+    }
+
+    Reminder retryAt(LocalDateTime time) {
+        return new Reminder(appointmentId, patientId, doctorId, appointmentDateTime, kind, time);
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        long dueMillis = dueAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return unit.convert(dueMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        if (other instanceof Reminder reminder) {
+            return dueAt.compareTo(reminder.dueAt);
+        }
+        return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+    }
+
+    public record Key(Long appointmentId, ReminderKind kind) {
+    }
+}
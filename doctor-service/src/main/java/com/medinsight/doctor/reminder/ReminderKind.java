@@ -0,0 +1,27 @@
+package com.medinsight.doctor.reminder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * The reminders sent ahead of each open appointment, by how long before its
+ * start they fall due.
+ */
+public enum ReminderKind {
+    DAY_BEFORE(Duration.ofHours(24)),
+    TWO_HOURS_BEFORE(Duration.ofHours(2));
+
+    private final Duration lead;
+
+    ReminderKind(Duration lead) {
+        this.lead = lead;
+    }
+
+    public Duration lead() {
+        return lead;
+    }
+
+    public LocalDateTime dueFor(LocalDateTime appointmentDateTime) {
+        return appointmentDateTime.minus(lead);
+    }
+}
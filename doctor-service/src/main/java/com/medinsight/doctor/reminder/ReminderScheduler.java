@@ -0,0 +1,256 @@
+package com.medinsight.doctor.reminder;
+
+import com.medinsight.doctor.dto.AppointmentSummary;
+import com.medinsight.doctor.enums.AppointmentStatus;
+import com.medinsight.doctor.event.AppointmentChangedEvent;
+import com.medinsight.doctor.repository.AppointmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sends the {@link ReminderKind reminders} of open appointments as they fall
+ * due.
+ *
+ * <p>Reminders are derived from appointments rather than stored. They wait in
+ * a {@link DelayQueue}, filled from the database a rolling {@code horizon}
+ * ahead by due time and from appointment changes committed by this instance
+ * in between, so nothing polls the table for due work; one thread takes them
+ * as they expire and hands them to {@link ReminderSender} in batches,
+ * lingering briefly so that reminders due together go in one call.
+ *
+ * <p>The reminder to send for each appointment and kind is kept in
+ * {@code live}. Cancelling or rescheduling an appointment replaces or removes
+ * its entry, and queued reminders that are no longer the live one are skipped
+ * when they expire instead of being searched for in the queue. A batch is
+ * checked against the database before it is sent, which catches changes made
+ * by other instances, and each reminder carries a deduplication key so that
+ * retries and instances loading the same window deliver it once.
+ */
+@Component
+@ConditionalOnProperty(name = "doctor.reminders.enabled", havingValue = "true")
+@Slf4j
+public class ReminderScheduler {
+
+    private static final Set<AppointmentStatus> OPEN = AppointmentStatus.predecessors(AppointmentStatus.NO_SHOW);
+
+    private final AppointmentRepository appointmentRepository;
+    private final ReminderSender reminderSender;
+    private final ThreadPoolExecutor reminderExecutor;
+    private final Duration horizon;
+    private final Duration maxLateness;
+    private final Duration retryDelay;
+    private final Duration linger;
+    private final int batchSize;
+
+    private final DelayQueue<Reminder> queue = new DelayQueue<>();
+    private final ConcurrentMap<Reminder.Key, Reminder> live = new ConcurrentHashMap<>();
+
+    // Reminders due before this are loaded; null until the first refill
+    private volatile LocalDateTime loadedUntil;
+
+    public ReminderScheduler(AppointmentRepository appointmentRepository, ReminderSender reminderSender,
+            ThreadPoolExecutor reminderExecutor,
+            @Value("${doctor.reminders.horizon:1h}") Duration horizon,
+            @Value("${doctor.reminders.max-lateness:1h}") Duration maxLateness,
+            @Value("${doctor.reminders.retry-delay:1m}") Duration retryDelay,
+            @Value("${doctor.reminders.linger:500ms}") Duration linger,
+            @Value("${doctor.reminders.batch-size:500}") int batchSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.reminderSender = reminderSender;
+        this.reminderExecutor = reminderExecutor;
+        this.horizon = horizon;
+        this.maxLateness = maxLateness;
+        this.retryDelay = retryDelay;
+        this.linger = linger;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reminderExecutor.execute(this::deliverLoop);
+    }
+
+    /**
+     * Loads the reminders falling due up to {@code horizon} from now. The
+     * first load reaches back {@code max-lateness}, which picks up reminders
+     * missed while the service was down.
+     */
+    @Scheduled(initialDelayString = "${doctor.reminders.initial-delay:PT30S}",
+            fixedDelayString = "${doctor.reminders.refill-interval:PT10M}")
+    public void refill() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = loadedUntil == null ? now.minus(maxLateness) : loadedUntil;
+        LocalDateTime until = now.plus(horizon);
+        if (!from.isBefore(until)) {
+            return;
+        }
+        // Moved first: changes committed during the query are then scheduled by their events
+        loadedUntil = until;
+        int loaded = 0;
+        for (ReminderKind kind : ReminderKind.values()) {
+            List<AppointmentSummary> appointments = appointmentRepository.findSummariesByStatusInAndRange(OPEN,
+                    from.plus(kind.lead()), until.plus(kind.lead()));
+            for (AppointmentSummary appointment : appointments) {
+                if (schedule(appointment, kind, now)) {
+                    loaded++;
+                }
+            }
+        }
+        log.debug("Loaded {} reminders due before {}", loaded, until);
+    }
+
+    @TransactionalEventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        LocalDateTime until = loadedUntil;
+        if (until == null) {
+            return;
+        }
+        AppointmentSummary appointment = event.appointment();
+        LocalDateTime now = LocalDateTime.now();
+        for (ReminderKind kind : ReminderKind.values()) {
+            if (OPEN.contains(appointment.status())
+                    && kind.dueFor(appointment.appointmentDateTime()).isBefore(until)) {
+                schedule(appointment, kind, now);
+            } else {
+                // Cancelled, or moved past the loaded window where a later refill picks it up
+                live.remove(new Reminder.Key(appointment.id(), kind));
+            }
+        }
+    }
+
+    int pending() {
+        return live.size();
+    }
+
+    List<Reminder> queued() {
+        return new ArrayList<>(queue);
+    }
+
+    /**
+     * Makes {@code appointment}'s reminder of {@code kind} the live one and
+     * queues it, unless the same reminder is already waiting.
+     *
+     * @return whether a reminder was queued
+     */
+    private boolean schedule(AppointmentSummary appointment, ReminderKind kind, LocalDateTime now) {
+        Reminder.Key key = new Reminder.Key(appointment.id(), kind);
+        LocalDateTime start = appointment.appointmentDateTime();
+        LocalDateTime dueAt = kind.dueFor(start);
+        if (!start.isAfter(now) || dueAt.isBefore(now.minus(maxLateness))) {
+            live.remove(key);
+            return false;
+        }
+        Reminder reminder = new Reminder(appointment.id(), appointment.patientId(), appointment.doctorId(), start,
+                kind, dueAt);
+        Reminder current = live.compute(key, (k, existing) ->
+                existing != null && existing.appointmentDateTime().equals(start) ? existing : reminder);
+        if (current != reminder) {
+            return false;
+        }
+        queue.offer(reminder);
+        return true;
+    }
+
+    private void deliverLoop() {
+        List<Reminder> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + linger.toNanos();
+                while (batch.size() < batchSize) {
+                    Reminder next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                deliver(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Reminder delivery failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Sends the reminders in {@code batch} that are still live and whose
+     * appointments are still open at the same time. Reminders the call fails
+     * for, or notification-service reports it could not deliver, are queued
+     * again after {@code retry-delay}, until their appointments start.
+     */
+    void deliver(List<Reminder> batch) {
+        List<Reminder> current = batch.stream()
+                .filter(reminder -> live.get(reminder.key()) == reminder)
+                .toList();
+        if (current.isEmpty()) {
+            return;
+        }
+        List<Long> ids = current.stream().map(Reminder::appointmentId).distinct().toList();
+        Map<Long, AppointmentSummary> open = appointmentRepository.findSummariesByIdInAndStatusIn(ids, OPEN)
+                .stream()
+                .collect(Collectors.toMap(AppointmentSummary::id, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Reminder> due = new ArrayList<>(current.size());
+        for (Reminder reminder : current) {
+            AppointmentSummary appointment = open.get(reminder.appointmentId());
+            if (appointment != null && appointment.appointmentDateTime().equals(reminder.appointmentDateTime())
+                    && appointment.appointmentDateTime().isAfter(now)) {
+                due.add(reminder);
+            } else {
+                live.remove(reminder.key(), reminder);
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        Set<Reminder> failed;
+        try {
+            failed = new HashSet<>(reminderSender.send(due));
+            log.debug("Sent {} appointment reminders", due.size() - failed.size());
+            if (!failed.isEmpty()) {
+                log.warn("{} appointment reminders were not delivered, retrying in {}", failed.size(), retryDelay);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not send {} appointment reminders, retrying in {}", due.size(), retryDelay, e);
+            failed = new HashSet<>(due);
+        }
+
+        LocalDateTime retryAt = now.plus(retryDelay);
+        for (Reminder reminder : due) {
+            if (!failed.contains(reminder) || !retryAt.isBefore(reminder.appointmentDateTime())) {
+                live.remove(reminder.key(), reminder);
+            } else {
+                Reminder retry = reminder.retryAt(retryAt);
+                if (live.replace(reminder.key(), reminder, retry)) {
+                    queue.offer(retry);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.medinsight.doctor.reminder;
+
+import com.medinsight.commons.client.NotificationClient;
+import com.medinsight.commons.dto.NotificationDTO;
+import com.medinsight.doctor.client.PatientClient;
+import com.medinsight.doctor.dto.PatientContact;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Turns due reminders into one batch call to notification-service, looking up
+ * each patient's email in patient-service through a short-lived cache.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReminderSender {
+
+    public static final String PATIENT_CONTACTS_CACHE = "patientContacts";
+
+    private static final String FAILED = "FAILED";
+
+    private static final DateTimeFormatter WHEN = DateTimeFormatter.ofPattern("EEEE d MMMM yyyy 'at' HH:mm",
+            Locale.ENGLISH);
+
+    private final NotificationClient notificationClient;
+    private final PatientClient patientClient;
+    private final CacheManager cacheManager;
+
+    /**
+     * Sends the reminders in a single call. Reminders for patients that do not
+     * exist or have no email are dropped.
+     *
+     * @return the reminders notification-service could not deliver, which may
+     *         be sent again with the same deduplication key
+     * @throws RuntimeException if a patient or notification-service call
+     *         fails, in which case none of the batch may have been delivered
+     */
+    public List<Reminder> send(List<Reminder> reminders) {
+        Map<String, Reminder> byKey = new HashMap<>();
+        List<NotificationDTO> notifications = new ArrayList<>(reminders.size());
+        for (Reminder reminder : reminders) {
+            PatientContact patient = contact(reminder.patientId());
+            if (patient == null || patient.email() == null || patient.email().isBlank()) {
+                log.debug("No email for patient {}, dropping reminder for appointment {}", reminder.patientId(),
+                        reminder.appointmentId());
+                continue;
+            }
+            notifications.add(NotificationDTO.builder()
+                    .recipientUserId(patient.userId() == null ? null : patient.userId().toString())
+                    .recipientEmail(patient.email())
+                    .subject("Appointment reminder")
+                    .message(message(patient, reminder))
+                    .type("APPOINTMENT_REMINDER")
+                    .channel("EMAIL")
+                    .scheduledAt(reminder.dueAt())
+                    .deduplicationKey(reminder.deduplicationKey())
+                    .build());
+            byKey.put(reminder.deduplicationKey(), reminder);
+        }
+        if (notifications.isEmpty()) {
+            return List.of();
+        }
+        List<NotificationDTO> results = notificationClient.sendNotifications(notifications);
+        if (results == null) {
+            return List.of();
+        }
+        // Reminders missing from the results were delivered before, by an earlier call or another instance
+        return results.stream()
+                .filter(result -> FAILED.equals(result.getStatus()))
+                .map(result -> byKey.get(result.getDeduplicationKey()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private PatientContact contact(Long patientId) {
+        Cache cache = cacheManager.getCache(PATIENT_CONTACTS_CACHE);
+        PatientContact cached = cache == null ? null : cache.get(patientId, PatientContact.class);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            PatientContact patient = patientClient.getPatient(patientId);
+            if (cache != null && patient != null) {
+                cache.put(patientId, patient);
+            }
+            return patient;
+        } catch (FeignException.NotFound e) {
+            return null;
+        }
+    }
+
+    private static String message(PatientContact patient, Reminder reminder) {
+        String greeting = patient.firstName() == null ? "Hello" : "Dear " + patient.firstName();
+        return greeting + ", this is a reminder of your appointment on "
+                + WHEN.format(reminder.appointmentDateTime()) + ".";
+    }
+}
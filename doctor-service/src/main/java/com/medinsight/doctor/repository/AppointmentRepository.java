@@ -1,11 +1,18 @@
 package com.medinsight.doctor.repository;
 
+import com.medinsight.doctor.dto.AppointmentSummary;
+import com.medinsight.doctor.dto.BookedInterval;
 import com.medinsight.doctor.entity.Appointment;
 import com.medinsight.doctor.enums.AppointmentStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -20,4 +27,101 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
             LocalDateTime end);
 
     List<Appointment> findByPatientIdAndStatus(Long patientId, AppointmentStatus status);
+
+    @Query("SELECT new com.medinsight.doctor.dto.AppointmentSummary(a.id, a.patientId, a.doctorId, "
+            + "a.appointmentDateTime, a.durationMinutes, a.type, a.status) FROM Appointment a "
+            + "WHERE a.patientId = :patientId ORDER BY a.appointmentDateTime DESC, a.id DESC")
+    List<AppointmentSummary> findSummariesByPatientId(@Param("patientId") Long patientId);
+
+    /**
+     * The doctor's appointments from {@code from} that come before the cursor
+     * ({@code before}, {@code beforeId}) in newest-first order.
+     */
+    @Query("SELECT new com.medinsight.doctor.dto.AppointmentSummary(a.id, a.patientId, a.doctorId, "
+            + "a.appointmentDateTime, a.durationMinutes, a.type, a.status) FROM Appointment a "
+            + "WHERE a.doctorId = :doctorId AND a.appointmentDateTime >= :from "
+            + "AND (a.appointmentDateTime < :before OR (a.appointmentDateTime = :before AND a.id < :beforeId)) "
+            + "ORDER BY a.appointmentDateTime DESC, a.id DESC")
+    List<AppointmentSummary> findHistoryPage(@Param("doctorId") Long doctorId, @Param("from") LocalDateTime from,
+            @Param("before") LocalDateTime before, @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query("SELECT new com.medinsight.doctor.dto.AppointmentSummary(a.id, a.patientId, a.doctorId, "
+            + "a.appointmentDateTime, a.durationMinutes, a.type, a.status) FROM Appointment a "
+            + "WHERE a.doctorId = :doctorId AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to "
+            + "AND a.status <> com.medinsight.doctor.enums.AppointmentStatus.CANCELLED "
+            + "ORDER BY a.appointmentDateTime, a.id")
+    List<AppointmentSummary> findWorklist(@Param("doctorId") Long doctorId, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.medinsight.doctor.dto.AppointmentSummary(a.id, a.patientId, a.doctorId, "
+            + "a.appointmentDateTime, a.durationMinutes, a.type, a.status) FROM Appointment a "
+            + "WHERE a.doctorId = :doctorId AND a.appointmentDateTime BETWEEN :start AND :end "
+            + "ORDER BY a.appointmentDateTime, a.id")
+    List<AppointmentSummary> findSummariesByDoctorIdAndRange(@Param("doctorId") Long doctorId,
+            @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT new com.medinsight.doctor.dto.BookedInterval(a.id, a.appointmentDateTime, a.durationMinutes) "
+            + "FROM Appointment a WHERE a.doctorId = :doctorId AND a.appointmentDateTime >= :from "
+            + "AND a.status IN :statuses")
+    List<BookedInterval> findBookedIntervals(@Param("doctorId") Long doctorId, @Param("from") LocalDateTime from,
+            @Param("statuses") Collection<AppointmentStatus> statuses);
+
+    /**
+     * Takes the transaction-scoped advisory lock of one doctor's day, waiting
+     * for any other instance holding it to commit or roll back.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:doctorKey, :epochDay)", nativeQuery = true)
+    Integer lockDoctorDay(@Param("doctorKey") int doctorKey, @Param("epochDay") int epochDay);
+
+    // Same range and statuses as the appointments_no_overlap exclusion constraint, so its index serves this;
+    // excludeId leaves out the appointment being checked, which may already hold the time itself
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM appointments WHERE doctor_id = :doctorId AND id <> :excludeId "
+            + "AND status NOT IN ('CANCELLED', 'NO_SHOW') "
+            + "AND tsrange(appointment_date_time, appointment_date_time + duration_minutes * INTERVAL '1 minute') "
+            + "&& tsrange(:start, :end))", nativeQuery = true)
+    boolean existsOverlapping(@Param("doctorId") Long doctorId, @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end, @Param("excludeId") long excludeId);
+
+    /**
+     * Moves those of {@code ids} currently in one of {@code from} to
+     * {@code to} in one statement; the status guard makes a repeat a no-op.
+     *
+     * @return how many appointments moved
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Appointment a SET a.status = :to WHERE a.id IN :ids AND a.status IN :from")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("from") Collection<AppointmentStatus> from,
+            @Param("to") AppointmentStatus to);
+
+    @Query("SELECT new com.medinsight.doctor.dto.AppointmentSummary(a.id, a.patientId, a.doctorId, "
+            + "a.appointmentDateTime, a.durationMinutes, a.type, a.status) FROM Appointment a "
+            + "WHERE a.id IN :ids AND a.status = :status")
+    List<AppointmentSummary> findSummariesByIdInAndStatus(@Param("ids") Collection<Long> ids,
+            @Param("status") AppointmentStatus status);
+
+    @Query("SELECT new com.medinsight.doctor.dto.AppointmentSummary(a.id, a.patientId, a.doctorId, "
+            + "a.appointmentDateTime, a.durationMinutes, a.type, a.status) FROM Appointment a "
+            + "WHERE a.id IN :ids AND a.status IN :statuses")
+    List<AppointmentSummary> findSummariesByIdInAndStatusIn(@Param("ids") Collection<Long> ids,
+            @Param("statuses") Collection<AppointmentStatus> statuses);
+
+    @Query("SELECT new com.medinsight.doctor.dto.AppointmentSummary(a.id, a.patientId, a.doctorId, "
+            + "a.appointmentDateTime, a.durationMinutes, a.type, a.status) FROM Appointment a "
+            + "WHERE a.status IN :statuses AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to")
+    List<AppointmentSummary> findSummariesByStatusInAndRange(@Param("statuses") Collection<AppointmentStatus> statuses,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Locks those of {@code ids} still in one of {@code statuses} that ended
+     * by {@code cutoff}, for the rest of the transaction.
+     */
+    @Query(value = """
+            SELECT id FROM appointments
+            WHERE id IN (:ids) AND status IN (:statuses)
+              AND appointment_date_time + duration_minutes * INTERVAL '1 minute' <= :cutoff
+            ORDER BY id
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<Long> lockEndedBy(@Param("ids") Collection<Long> ids, @Param("statuses") Collection<String> statuses,
+            @Param("cutoff") LocalDateTime cutoff);
 }
@@ -0,0 +1,33 @@
+package com.medinsight.doctor.repository;
+
+import com.medinsight.doctor.entity.BulkTransition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface BulkTransitionRepository extends JpaRepository<BulkTransition, String> {
+
+    /**
+     * Records the request id unless it is already taken. A concurrent claim of
+     * the same id waits for this transaction and then claims nothing.
+     *
+     * @return 1 if this call claimed the id, 0 otherwise
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO bulk_transitions (request_id, status, requested, transitioned, created_at)
+            VALUES (:requestId, :status, :requested, 0, :now)
+            ON CONFLICT (request_id) DO NOTHING
+            """, nativeQuery = true)
+    int claim(@Param("requestId") String requestId, @Param("status") String status,
+            @Param("requested") int requested, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE BulkTransition t SET t.transitioned = :transitioned WHERE t.requestId = :requestId")
+    int recordTransitioned(@Param("requestId") String requestId, @Param("transitioned") int transitioned);
+}
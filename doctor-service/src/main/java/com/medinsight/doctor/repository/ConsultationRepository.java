@@ -1,7 +1,11 @@
 package com.medinsight.doctor.repository;
 
+import com.medinsight.doctor.dto.ConsultationSummary;
 import com.medinsight.doctor.entity.Consultation;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,4 +20,22 @@ public interface ConsultationRepository extends JpaRepository<Consultation, Long
     List<Consultation> findByDoctorId(Long doctorId);
 
     List<Consultation> findByPatientIdAndVisibleInPortal(Long patientId, boolean visibleInPortal);
+
+    // Served by idx_consultations_portal, read backwards
+    @Query("SELECT new com.medinsight.doctor.dto.ConsultationSummary(c.id, c.appointmentId, c.patientId, "
+            + "c.doctorId, c.consultationDate) FROM Consultation c "
+            + "WHERE c.patientId = :patientId AND c.visibleInPortal = true "
+            + "ORDER BY c.consultationDate DESC, c.id DESC")
+    List<ConsultationSummary> findPortalSummaries(@Param("patientId") Long patientId, Limit limit);
+
+    @Query("SELECT new com.medinsight.doctor.dto.ConsultationSummary(c.id, c.appointmentId, c.patientId, "
+            + "c.doctorId, c.consultationDate) FROM Consultation c "
+            + "WHERE c.patientId = :patientId ORDER BY c.consultationDate DESC, c.id DESC")
+    List<ConsultationSummary> findSummariesByPatientId(@Param("patientId") Long patientId);
+
+    // Served by idx_consultations_doctor_date, read backwards
+    @Query("SELECT new com.medinsight.doctor.dto.ConsultationSummary(c.id, c.appointmentId, c.patientId, "
+            + "c.doctorId, c.consultationDate) FROM Consultation c "
+            + "WHERE c.doctorId = :doctorId ORDER BY c.consultationDate DESC, c.id DESC")
+    List<ConsultationSummary> findSummariesByDoctorId(@Param("doctorId") Long doctorId);
 }
@@ -19,4 +19,6 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     List<Doctor> findByActive(boolean active);
 
     List<Doctor> findBySpecialization(String specialization);
+
+    List<Doctor> findBySpecializationIgnoreCaseAndActive(String specialization, boolean active);
 }
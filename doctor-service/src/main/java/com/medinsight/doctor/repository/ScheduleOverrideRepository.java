@@ -0,0 +1,16 @@
+package com.medinsight.doctor.repository;
+
+import com.medinsight.doctor.entity.ScheduleOverride;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ScheduleOverrideRepository extends JpaRepository<ScheduleOverride, Long> {
+    List<ScheduleOverride> findByDoctorIdAndDateBetweenOrderByDateAscStartTimeAsc(Long doctorId, LocalDate from,
+            LocalDate to);
+
+    void deleteByDoctorIdAndDate(Long doctorId, LocalDate date);
+}
@@ -14,4 +14,6 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
     List<Schedule> findByDoctorIdAndDayOfWeek(Long doctorId, DayOfWeek dayOfWeek);
 
     List<Schedule> findByDoctorIdAndAvailable(Long doctorId, boolean available);
+
+    void deleteByDoctorId(Long doctorId);
 }
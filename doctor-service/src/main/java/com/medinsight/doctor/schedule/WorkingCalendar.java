@@ -0,0 +1,234 @@
+package com.medinsight.doctor.schedule;
+
+import com.medinsight.doctor.dto.TimeSlot;
+import com.medinsight.doctor.entity.Schedule;
+import com.medinsight.doctor.entity.ScheduleOverride;
+import com.medinsight.doctor.repository.ScheduleOverrideRepository;
+import com.medinsight.doctor.repository.ScheduleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Doctors' working time, expanded from their weekly {@link Schedule} and
+ * {@link ScheduleOverride date overrides} one {@link WorkingWeek} at a time
+ * and cached per doctor and week, so that asking whether a doctor works at a
+ * given minute is a cache lookup and a bit test.
+ *
+ * <p>Changes are applied after they commit and only invalidate what they
+ * touch: a template change the weeks of that doctor, an override change the
+ * one week of its date. Both record when they happened, and a cached week
+ * read before the latest change that concerns it is expanded again on its
+ * next use, so a read racing a change cannot leave a stale week behind.
+ *
+ * <p>Only changes made through this instance are seen at once; cached weeks
+ * expire after {@code doctor.schedule.cache.ttl}, which bounds how long
+ * another instance's change can go unnoticed.
+ */
+@Component
+@Slf4j
+public class WorkingCalendar {
+
+    public static final String WORKING_WEEKS_CACHE = "workingWeeks";
+
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleOverrideRepository scheduleOverrideRepository;
+    private final CacheManager cacheManager;
+    private final Duration ttl;
+
+    // System.nanoTime() of the last change to each doctor's template, and to each week's overrides
+    private final ConcurrentMap<Long, Long> templateChangedAt = new ConcurrentHashMap<>();
+    private final ConcurrentMap<WeekKey, Long> overridesChangedAt = new ConcurrentHashMap<>();
+
+    public WorkingCalendar(ScheduleRepository scheduleRepository,
+            ScheduleOverrideRepository scheduleOverrideRepository, CacheManager cacheManager,
+            @Value("${doctor.schedule.cache.ttl:10m}") Duration ttl) {
+        this.scheduleRepository = scheduleRepository;
+        this.scheduleOverrideRepository = scheduleOverrideRepository;
+        this.cacheManager = cacheManager;
+        this.ttl = ttl;
+    }
+
+    record WeekKey(Long doctorId, LocalDate monday) {
+    }
+
+    /**
+     * The doctor's working week containing {@code date}.
+     */
+    public WorkingWeek week(Long doctorId, LocalDate date) {
+        LocalDate monday = WorkingWeek.mondayOf(date);
+        WorkingWeek week = cached(new WeekKey(doctorId, monday));
+        return week != null ? week : load(doctorId, monday, monday).get(0);
+    }
+
+    public boolean isWorking(Long doctorId, LocalDateTime time) {
+        return week(doctorId, time.toLocalDate()).isWorking(time);
+    }
+
+    /**
+     * The doctor's working intervals on {@code from} to {@code to} inclusive,
+     * earliest first; time worked on both sides of a midnight is one
+     * interval. Weeks that are not cached are read together.
+     */
+    public List<TimeSlot> workingIntervals(Long doctorId, LocalDate from, LocalDate to) {
+        Map<LocalDate, WorkingWeek> weeks = weeks(doctorId, from, to);
+        List<TimeSlot> intervals = new ArrayList<>();
+        // Start of a run still going at the previous midnight
+        LocalDateTime open = null;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            BitSet day = weeks.get(WorkingWeek.mondayOf(date)).day(date);
+            LocalDateTime midnight = date.atStartOfDay();
+            int run = day.nextSetBit(0);
+            if (open != null && run != 0) {
+                intervals.add(new TimeSlot(open, midnight));
+                open = null;
+            }
+            while (run >= 0) {
+                int end = day.nextClearBit(run);
+                LocalDateTime start = open != null ? open : midnight.plusMinutes(run);
+                open = null;
+                if (end >= WorkingWeek.MINUTES_PER_DAY) {
+                    open = start;
+                    break;
+                }
+                intervals.add(new TimeSlot(start, midnight.plusMinutes(end)));
+                run = day.nextSetBit(end);
+            }
+        }
+        if (open != null) {
+            intervals.add(new TimeSlot(open, to.plusDays(1).atStartOfDay()));
+        }
+        return intervals;
+    }
+
+    /**
+     * The doctor's working weeks containing {@code from} to {@code to}
+     * inclusive, by their Monday. Weeks that are not cached are read together.
+     */
+    public Map<LocalDate, WorkingWeek> weeks(Long doctorId, LocalDate from, LocalDate to) {
+        LocalDate fromMonday = WorkingWeek.mondayOf(from);
+        LocalDate toMonday = WorkingWeek.mondayOf(to);
+        Map<LocalDate, WorkingWeek> weeks = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate monday = fromMonday; !monday.isAfter(toMonday); monday = monday.plusWeeks(1)) {
+            WorkingWeek week = cached(new WeekKey(doctorId, monday));
+            if (week != null) {
+                weeks.put(monday, week);
+            } else {
+                firstMissing = firstMissing == null ? monday : firstMissing;
+                lastMissing = monday;
+            }
+        }
+        if (firstMissing != null) {
+            for (WorkingWeek week : load(doctorId, firstMissing, lastMissing)) {
+                weeks.putIfAbsent(week.monday(), week);
+            }
+        }
+        return weeks;
+    }
+
+    /**
+     * Marks the doctor's weekly template as changed once the current
+     * transaction commits.
+     */
+    public void templateChanged(Long doctorId) {
+        afterCommit(() -> {
+            prune();
+            templateChangedAt.put(doctorId, System.nanoTime());
+        });
+    }
+
+    /**
+     * Marks the doctor's overrides on {@code date} as changed once the
+     * current transaction commits.
+     */
+    public void overridesChanged(Long doctorId, LocalDate date) {
+        WeekKey key = new WeekKey(doctorId, WorkingWeek.mondayOf(date));
+        afterCommit(() -> {
+            prune();
+            overridesChangedAt.put(key, System.nanoTime());
+            Cache cache = cacheManager.getCache(WORKING_WEEKS_CACHE);
+            if (cache != null) {
+                cache.evict(key);
+            }
+        });
+    }
+
+    public void clear() {
+        Cache cache = cacheManager.getCache(WORKING_WEEKS_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private WorkingWeek cached(WeekKey key) {
+        Cache cache = cacheManager.getCache(WORKING_WEEKS_CACHE);
+        WorkingWeek week = cache == null ? null : cache.get(key, WorkingWeek.class);
+        return week != null && readAfter(week, templateChangedAt.get(key.doctorId()))
+                && readAfter(week, overridesChangedAt.get(key)) ? week : null;
+    }
+
+    // Expands and caches the weeks starting fromMonday to toMonday with two queries
+    private List<WorkingWeek> load(Long doctorId, LocalDate fromMonday, LocalDate toMonday) {
+        long readStartedAt = System.nanoTime();
+        List<Schedule> template = scheduleRepository.findByDoctorIdAndAvailable(doctorId, true);
+        Map<LocalDate, List<ScheduleOverride>> overrides = scheduleOverrideRepository
+                .findByDoctorIdAndDateBetweenOrderByDateAscStartTimeAsc(doctorId, fromMonday, toMonday.plusDays(6))
+                .stream()
+                .collect(Collectors.groupingBy(override -> WorkingWeek.mondayOf(override.getDate())));
+
+        Cache cache = cacheManager.getCache(WORKING_WEEKS_CACHE);
+        List<WorkingWeek> weeks = new ArrayList<>();
+        for (LocalDate monday = fromMonday; !monday.isAfter(toMonday); monday = monday.plusWeeks(1)) {
+            WorkingWeek week = WorkingWeek.expand(monday, template, overrides.getOrDefault(monday, List.of()),
+                    readStartedAt);
+            weeks.add(week);
+            if (cache != null) {
+                cache.put(new WeekKey(doctorId, monday), week);
+            }
+        }
+        log.debug("Expanded {} working weeks of doctor {} from {}", weeks.size(), doctorId, fromMonday);
+        return weeks;
+    }
+
+    private static boolean readAfter(WorkingWeek week, Long changedAt) {
+        return changedAt == null || week.readStartedAt() - changedAt > 0;
+    }
+
+    // Weeks expire a time to live after they are cached, so a change twice as old predates all of them
+    private void prune() {
+        long cutoff = System.nanoTime() - ttl.multipliedBy(2).toNanos();
+        templateChangedAt.values().removeIf(changedAt -> changedAt - cutoff < 0);
+        overridesChangedAt.values().removeIf(changedAt -> changedAt - cutoff < 0);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.medinsight.doctor.schedule;
+
+import com.medinsight.doctor.entity.Schedule;
+import com.medinsight.doctor.entity.ScheduleOverride;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A doctor's working minutes over one Monday-to-Sunday week: the weekly
+ * template with that week's date overrides applied. Overrides that add time
+ * are merged in first and time off is then taken out, so time off wins where
+ * the two meet.
+ *
+ * <p>Immutable once expanded, so it can be shared from a cache; asking
+ * whether a minute is worked is a single bit test.
+ */
+public final class WorkingWeek {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final LocalDate monday;
+    private final BitSet minutes;
+
+    // When the schedule was read; see WorkingCalendar
+    private final long readStartedAt;
+
+    private WorkingWeek(LocalDate monday, BitSet minutes, long readStartedAt) {
+        this.monday = monday;
+        this.minutes = minutes;
+        this.readStartedAt = readStartedAt;
+    }
+
+    public static LocalDate mondayOf(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * Expands the available periods of {@code template} and the overrides
+     * dated within the week starting {@code monday}; other rows are ignored.
+     * A period ending at or before its start runs to midnight.
+     */
+    public static WorkingWeek expand(LocalDate monday, List<Schedule> template, List<ScheduleOverride> overrides,
+            long readStartedAt) {
+        BitSet minutes = new BitSet(7 * MINUTES_PER_DAY);
+        for (Schedule schedule : template) {
+            if (schedule.isAvailable()) {
+                int day = schedule.getDayOfWeek().ordinal();
+                set(minutes, day, schedule.getStartTime(), schedule.getEndTime(), true);
+            }
+        }
+        for (ScheduleOverride override : overrides) {
+            if (override.isAvailable() && inWeek(monday, override.getDate())) {
+                set(minutes, dayIndex(monday, override.getDate()), override.getStartTime(), override.getEndTime(),
+                        true);
+            }
+        }
+        for (ScheduleOverride override : overrides) {
+            if (!override.isAvailable() && inWeek(monday, override.getDate())) {
+                int day = dayIndex(monday, override.getDate());
+                if (override.getStartTime() == null) {
+                    minutes.clear(day * MINUTES_PER_DAY, (day + 1) * MINUTES_PER_DAY);
+                } else {
+                    set(minutes, day, override.getStartTime(), override.getEndTime(), false);
+                }
+            }
+        }
+        return new WorkingWeek(monday, minutes, readStartedAt);
+    }
+
+    public LocalDate monday() {
+        return monday;
+    }
+
+    long readStartedAt() {
+        return readStartedAt;
+    }
+
+    public boolean contains(LocalDate date) {
+        return inWeek(monday, date);
+    }
+
+    /**
+     * Whether the minute containing {@code time} is worked.
+     */
+    public boolean isWorking(LocalDateTime time) {
+        LocalDate date = time.toLocalDate();
+        return contains(date)
+                && minutes.get(dayIndex(monday, date) * MINUTES_PER_DAY + minuteOfDay(time.toLocalTime()));
+    }
+
+    /**
+     * Whether every minute in [{@code fromMinute}, {@code toMinute}) of
+     * {@code date}, a day of this week, is worked.
+     */
+    public boolean worksThroughout(LocalDate date, int fromMinute, int toMinute) {
+        int offset = dayIndex(monday, date) * MINUTES_PER_DAY;
+        return minutes.nextClearBit(offset + fromMinute) >= offset + toMinute;
+    }
+
+    /**
+     * The working minutes of {@code date}, a day of this week, as a new
+     * bitmap indexed by minute of the day.
+     */
+    public BitSet day(LocalDate date) {
+        int offset = dayIndex(monday, date) * MINUTES_PER_DAY;
+        return minutes.get(offset, offset + MINUTES_PER_DAY);
+    }
+
+    public static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static void set(BitSet minutes, int day, LocalTime start, LocalTime end, boolean value) {
+        int from = day * MINUTES_PER_DAY + minuteOfDay(start);
+        int to = day * MINUTES_PER_DAY + (end.isAfter(start) ? minuteOfDay(end) : MINUTES_PER_DAY);
+        minutes.set(from, to, value);
+    }
+
+    private static boolean inWeek(LocalDate monday, LocalDate date) {
+        return !date.isBefore(monday) && date.isBefore(monday.plusDays(7));
+    }
+
+    private static int dayIndex(LocalDate monday, LocalDate date) {
+        if (!inWeek(monday, date)) {
+            throw new IllegalArgumentException(date + " is not in the week of " + monday);
+        }
+        return (int) (date.toEpochDay() - monday.toEpochDay());
+    }
+}
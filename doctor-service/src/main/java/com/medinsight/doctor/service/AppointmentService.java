@@ -1,49 +1,209 @@
 package com.medinsight.doctor.service;
 
+import com.medinsight.doctor.dto.AppointmentHistoryPage;
+import com.medinsight.doctor.dto.AppointmentSummary;
+import com.medinsight.doctor.dto.TimeSlot;
 import com.medinsight.doctor.entity.Appointment;
 import com.medinsight.doctor.enums.AppointmentStatus;
+import com.medinsight.doctor.event.AppointmentChangedEvent;
 import com.medinsight.doctor.repository.AppointmentRepository;
+import com.medinsight.doctor.slot.BookingLocks;
+import com.medinsight.doctor.slot.SlotIndex;
+import com.medinsight.doctor.slot.SlotReservation;
+import com.medinsight.doctor.slot.SlotUnavailableException;
+import com.medinsight.doctor.transition.InvalidTransitionException;
+import com.medinsight.doctor.worklist.Worklist;
+import com.medinsight.doctor.worklist.WorklistView;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class AppointmentService {
 
+    static final int DEFAULT_SLOT_LIMIT = 50;
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
+    // Stand in for an open end of the history range
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    // Raised by the appointments_no_overlap exclusion constraint
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    // Appointment ids start at 1, so no row is left out of the overlap check
+    private static final long NO_APPOINTMENT = 0L;
+
     private final AppointmentRepository appointmentRepository;
+    private final SlotIndex slotIndex;
+    private final BookingLocks bookingLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WorklistView worklistView;
 
+    @Value("${doctor.slots.max-range-days:31}")
+    private int maxRangeDays;
+
+    @Value("${doctor.slots.max-results:500}")
+    private int maxSlotResults;
+
+    /**
+     * Books the appointment if the doctor is free for its whole duration.
+     * Bookings of one doctor's day are serialized, in this instance by
+     * {@link BookingLocks} and across instances by an advisory lock held until
+     * commit; other doctors and days are not held up.
+     *
+     * @throws SlotUnavailableException if the time overlaps another of the
+     *                                  doctor's appointments or their schedule
+     *                                  does not cover it
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Appointment createAppointment(Appointment appointment) {
         appointment.setStatus(AppointmentStatus.SCHEDULED);
-        return appointmentRepository.save(appointment);
+        if (appointment.getDurationMinutes() == null) {
+            appointment.setDurationMinutes(SlotIndex.DEFAULT_DURATION_MINUTES);
+        }
+        Long doctorId = appointment.getDoctorId();
+        LocalDateTime start = appointment.getAppointmentDateTime();
+        LocalDateTime end = start.plusMinutes(appointment.getDurationMinutes());
+        // Requests for a slot that is already gone are turned away without queueing for its lock
+        if (!slotIndex.isFree(doctorId, start, appointment.getDurationMinutes())) {
+            throw new SlotUnavailableException("Doctor " + doctorId + " is not available from " + start + " to " + end);
+        }
+        return bookingLocks.withLocks(doctorId, start, end, () -> {
+            try {
+                return transactionTemplate.execute(status -> book(appointment, start, end));
+            } catch (DataIntegrityViolationException e) {
+                if (isExclusionViolation(e)) {
+                    throw new SlotUnavailableException("Doctor " + doctorId + " was booked from " + start + " to "
+                            + end + " by another request");
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Free slots of {@code durationMinutes} for the doctor between two dates,
+     * earliest first. The range is capped at {@code doctor.slots.max-range-days}.
+     */
+    @Transactional(readOnly = true)
+    public List<TimeSlot> findFreeSlots(Long doctorId, LocalDate from, LocalDate to, Integer durationMinutes,
+            Integer limit) {
+        int duration = durationMinutes == null || durationMinutes <= 0
+                ? SlotIndex.DEFAULT_DURATION_MINUTES : durationMinutes;
+        int max = limit == null || limit <= 0 ? DEFAULT_SLOT_LIMIT : Math.min(limit, maxSlotResults);
+        LocalDate until = ChronoUnit.DAYS.between(from, to) >= maxRangeDays ? from.plusDays(maxRangeDays - 1) : to;
+        return slotIndex.findFreeSlots(doctorId, from, until, duration, max);
     }
 
     public Optional<Appointment> getAppointmentById(Long id) {
         return appointmentRepository.findById(id);
     }
 
-    public List<Appointment> getAppointmentsByPatientId(Long patientId) {
-        return appointmentRepository.findByPatientId(patientId);
+    public List<AppointmentSummary> getAppointmentsByPatientId(Long patientId) {
+        return appointmentRepository.findSummariesByPatientId(patientId);
+    }
+
+    /**
+     * One page of the doctor's appointments between {@code from} and
+     * {@code to} inclusive, either of which may be open, newest first. A page
+     * continues after the cursor ({@code before}, {@code beforeId}) returned
+     * with the previous one.
+     */
+    @Transactional(readOnly = true)
+    public AppointmentHistoryPage getDoctorAppointmentHistory(Long doctorId, LocalDate from, LocalDate to,
+            LocalDateTime before, Long beforeId, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDateTime lower = from == null ? EARLIEST : from.atStartOfDay();
+        LocalDateTime upper = to == null ? LATEST : to.plusDays(1).atStartOfDay();
+        // The first page starts at the upper bound; an id below every real one leaves that instant out
+        LocalDateTime cursor = upper;
+        long cursorId = 0L;
+        if (before != null && before.isBefore(upper)) {
+            cursor = before;
+            cursorId = beforeId == null ? 0L : beforeId;
+        }
+
+        // Fetch one extra row to learn whether another page exists without a COUNT(*)
+        List<AppointmentSummary> rows = appointmentRepository.findHistoryPage(doctorId, lower, cursor, cursorId,
+                Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<AppointmentSummary> content = hasMore ? rows.subList(0, pageSize) : rows;
+        AppointmentSummary last = hasMore ? content.get(content.size() - 1) : null;
+
+        return AppointmentHistoryPage.builder()
+                .content(content)
+                .size(content.size())
+                .nextBefore(last == null ? null : last.appointmentDateTime())
+                .nextBeforeId(last == null ? null : last.id())
+                .hasMore(hasMore)
+                .build();
     }
 
-    public List<Appointment> getAppointmentsByDoctorId(Long doctorId) {
-        return appointmentRepository.findByDoctorId(doctorId);
+    /**
+     * The doctor's worklist for today and the next
+     * {@value WorklistView#DAYS_AHEAD} days, from memory.
+     */
+    public Worklist getWorklist(Long doctorId) {
+        return worklistView.get(doctorId);
     }
 
-    public List<Appointment> getDoctorAppointmentsForDateRange(Long doctorId, LocalDateTime start, LocalDateTime end) {
-        return appointmentRepository.findByDoctorIdAndAppointmentDateTimeBetween(doctorId, start, end);
+    public List<AppointmentSummary> getDoctorAppointmentsForDateRange(Long doctorId, LocalDateTime start,
+            LocalDateTime end) {
+        return appointmentRepository.findSummariesByDoctorIdAndRange(doctorId, start, end);
     }
 
+    /**
+     * Moves the appointment to {@code status} if the transition graph allows
+     * it. The update only applies to the status the appointment was read in;
+     * if a concurrent change got there first, the appointment is read again
+     * and the transition checked against its new status, so neither change
+     * is lost.
+     *
+     * @throws InvalidTransitionException if the appointment's status cannot
+     *                                    become {@code status}
+     * @throws SlotUnavailableException   if a cancelled or missed appointment
+     *                                    is brought back while another holds
+     *                                    its time
+     */
     public Appointment updateAppointmentStatus(Long id, AppointmentStatus status) {
-        Appointment appointment = appointmentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + id));
+        Appointment appointment;
+        AppointmentStatus previous;
+        do {
+            appointment = appointmentRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + id));
+            previous = appointment.getStatus();
+            if (!previous.canBecome(status)) {
+                throw new InvalidTransitionException(id, previous, status);
+            }
+        } while (!moveStatus(id, previous, status));
+
+        if (previous.holdsSlot() && !status.holdsSlot()) {
+            slotIndex.release(appointment.getDoctorId(), id);
+        } else if (!previous.holdsSlot() && status.holdsSlot()) {
+            reclaimSlot(appointment);
+        }
         appointment.setStatus(status);
-        return appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(new AppointmentChangedEvent(summary(appointment)));
+        return appointment;
     }
 
     public Appointment confirmAppointment(Long id) {
@@ -57,4 +217,65 @@ public class AppointmentService {
     public Appointment completeAppointment(Long id) {
         return updateAppointmentStatus(id, AppointmentStatus.COMPLETED);
     }
+
+    // Bringing an appointment back makes it count for appointments_no_overlap again
+    private boolean moveStatus(Long id, AppointmentStatus from, AppointmentStatus to) {
+        try {
+            return appointmentRepository.updateStatus(List.of(id), Set.of(from), to) > 0;
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                throw new SlotUnavailableException("Appointment " + id + " overlaps another of the doctor's "
+                        + "appointments");
+            }
+            throw e;
+        }
+    }
+
+    private Appointment book(Appointment appointment, LocalDateTime start, LocalDateTime end) {
+        SlotReservation reservation = slotIndex.reserve(appointment.getDoctorId(), start,
+                appointment.getDurationMinutes());
+        guardInDatabase(appointment.getDoctorId(), start, end, NO_APPOINTMENT);
+        Appointment saved = appointmentRepository.save(appointment);
+        slotIndex.bind(reservation, saved.getId());
+        eventPublisher.publishEvent(new AppointmentChangedEvent(summary(saved)));
+        return saved;
+    }
+
+    // A cancelled or missed appointment brought back must get its time back, unless that time has passed
+    private void reclaimSlot(Appointment appointment) {
+        int duration = appointment.getDurationMinutes() == null
+                ? SlotIndex.DEFAULT_DURATION_MINUTES : appointment.getDurationMinutes();
+        LocalDateTime start = appointment.getAppointmentDateTime();
+        if (start.plusMinutes(duration).isAfter(LocalDateTime.now())) {
+            SlotReservation reservation = slotIndex.reserve(appointment.getDoctorId(), start, duration);
+            guardInDatabase(appointment.getDoctorId(), start, start.plusMinutes(duration), appointment.getId());
+            slotIndex.bind(reservation, appointment.getId());
+        }
+    }
+
+    /**
+     * Bookings made by other instances are not in this instance's index: takes
+     * the advisory lock of each of the doctor's days, in date order, for the
+     * rest of the transaction and checks the table itself, leaving out the
+     * appointment {@code excludeId}.
+     */
+    private void guardInDatabase(Long doctorId, LocalDateTime start, LocalDateTime end, long excludeId) {
+        for (LocalDate day : BookingLocks.days(start, end)) {
+            appointmentRepository.lockDoctorDay(Long.hashCode(doctorId), (int) day.toEpochDay());
+        }
+        if (appointmentRepository.existsOverlapping(doctorId, start, end, excludeId)) {
+            throw new SlotUnavailableException("Doctor " + doctorId + " is already booked between " + start
+                    + " and " + end);
+        }
+    }
+
+    private static boolean isExclusionViolation(DataIntegrityViolationException e) {
+        return e.getMostSpecificCause() instanceof SQLException sql && EXCLUSION_VIOLATION.equals(sql.getSQLState());
+    }
+
+    private static AppointmentSummary summary(Appointment appointment) {
+        return new AppointmentSummary(appointment.getId(), appointment.getPatientId(), appointment.getDoctorId(),
+                appointment.getAppointmentDateTime(), appointment.getDurationMinutes(), appointment.getType(),
+                appointment.getStatus());
+    }
 }
@@ -0,0 +1,95 @@
+package com.medinsight.doctor.service;
+
+import com.medinsight.doctor.dto.DoctorSlot;
+import com.medinsight.doctor.entity.Doctor;
+import com.medinsight.doctor.repository.DoctorRepository;
+import com.medinsight.doctor.slot.SlotIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Finds the earliest free slots across every active doctor of a
+ * specialization. Each doctor's calendar in the {@link SlotIndex} already
+ * merges their working time with their bookings, so a search asks
+ * every doctor for their own earliest slots in parallel and keeps the earliest
+ * overall. Results are cached briefly per query.
+ */
+@Service
+@RequiredArgsConstructor
+public class AvailabilityService {
+
+    public static final String AVAILABILITY_CACHE = "doctorAvailability";
+
+    private static final Comparator<DoctorSlot> BY_TIME = Comparator.comparing(DoctorSlot::start)
+            .thenComparing(DoctorSlot::doctorId);
+
+    private final DoctorRepository doctorRepository;
+    private final SlotIndex slotIndex;
+    private final CacheManager cacheManager;
+    private final ThreadPoolExecutor availabilityExecutor;
+
+    @Value("${doctor.slots.max-range-days:31}")
+    private int maxRangeDays;
+
+    @Value("${doctor.slots.max-results:500}")
+    private int maxSlotResults;
+
+    /**
+     * Up to {@code limit} free slots of {@code durationMinutes} lying within
+     * [{@code from}, {@code to}), earliest first, across the active doctors of
+     * the specialization. The window is capped at
+     * {@code doctor.slots.max-range-days}.
+     */
+    public List<DoctorSlot> search(String specialization, LocalDateTime from, LocalDateTime to,
+            Integer durationMinutes, Integer limit) {
+        int duration = durationMinutes == null || durationMinutes <= 0
+                ? SlotIndex.DEFAULT_DURATION_MINUTES : durationMinutes;
+        int max = limit == null || limit <= 0
+                ? AppointmentService.DEFAULT_SLOT_LIMIT : Math.min(limit, maxSlotResults);
+        LocalDateTime until = to.isAfter(from.plusDays(maxRangeDays)) ? from.plusDays(maxRangeDays) : to;
+        Query query = new Query(specialization.trim().toLowerCase(Locale.ROOT), from, until, duration, max);
+
+        Cache cache = cacheManager.getCache(AVAILABILITY_CACHE);
+        List<DoctorSlot> slots = cache == null ? search(query) : cache.get(query, () -> search(query));
+        // A cached result may have been computed a few seconds ago
+        LocalDateTime now = LocalDateTime.now();
+        return slots.stream()
+                .filter(slot -> !slot.start().isBefore(now))
+                .toList();
+    }
+
+    private List<DoctorSlot> search(Query query) {
+        List<Doctor> doctors = doctorRepository.findBySpecializationIgnoreCaseAndActive(query.specialization(), true);
+        List<CompletableFuture<List<DoctorSlot>>> searches = new ArrayList<>(doctors.size());
+        for (Doctor doctor : doctors) {
+            searches.add(CompletableFuture.supplyAsync(() -> slotIndex
+                    .findFreeSlots(doctor.getId(), query.from(), query.to(), query.durationMinutes(), query.limit())
+                    .stream()
+                    .map(slot -> new DoctorSlot(doctor.getId(), doctor.getFirstName(), doctor.getLastName(),
+                            slot.start(), slot.end()))
+                    .toList(), availabilityExecutor));
+        }
+        // Each doctor's list is already in time order and no longer than the limit
+        List<DoctorSlot> slots = new ArrayList<>();
+        for (CompletableFuture<List<DoctorSlot>> search : searches) {
+            slots.addAll(search.join());
+        }
+        slots.sort(BY_TIME);
+        return List.copyOf(slots.subList(0, Math.min(query.limit(), slots.size())));
+    }
+
+    private record Query(String specialization, LocalDateTime from, LocalDateTime to, int durationMinutes,
+            int limit) {
+    }
+}
@@ -1,23 +1,43 @@
 package com.medinsight.doctor.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.medinsight.commons.exception.ResourceNotFoundException;
+import com.medinsight.commons.web.JsonMergePatch;
+import com.medinsight.doctor.dto.ConsultationSummary;
 import com.medinsight.doctor.entity.Consultation;
+import com.medinsight.doctor.event.ConsultationChangedEvent;
 import com.medinsight.doctor.repository.ConsultationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class ConsultationService {
 
+    static final int DEFAULT_PORTAL_LIMIT = 50;
+    static final int MAX_PORTAL_LIMIT = 200;
+
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("chiefComplaint", "diagnosis", "prescription",
+            "notes", "followUpInstructions", "visibleInPortal");
+    private static final Set<String> REQUIRED_FIELDS = Set.of("visibleInPortal");
+
     private final ConsultationRepository consultationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
 
     public Consultation createConsultation(Consultation consultation) {
-        return consultationRepository.save(consultation);
+        Consultation saved = consultationRepository.save(consultation);
+        eventPublisher.publishEvent(new ConsultationChangedEvent(saved.getId(), saved.getPatientId()));
+        return saved;
     }
 
     public Consultation getConsultationById(Long id) {
@@ -30,20 +50,25 @@ public class ConsultationService {
                 .orElseThrow(() -> new ResourceNotFoundException("Consultation", "appointmentId", appointmentId));
     }
 
-    public List<Consultation> getConsultationsByPatientId(Long patientId) {
-        return consultationRepository.findByPatientId(patientId);
+    public List<ConsultationSummary> getConsultationsByPatientId(Long patientId) {
+        return consultationRepository.findSummariesByPatientId(patientId);
     }
 
-    public List<Consultation> getConsultationsByDoctorId(Long doctorId) {
-        return consultationRepository.findByDoctorId(doctorId);
+    public List<ConsultationSummary> getConsultationsByDoctorId(Long doctorId) {
+        return consultationRepository.findSummariesByDoctorId(doctorId);
     }
 
-    public List<Consultation> getPatientPortalConsultations(Long patientId) {
-        return consultationRepository.findByPatientIdAndVisibleInPortal(patientId, true);
+    public List<ConsultationSummary> getPatientPortalConsultations(Long patientId, Integer limit) {
+        int max = limit == null || limit <= 0 ? DEFAULT_PORTAL_LIMIT : Math.min(limit, MAX_PORTAL_LIMIT);
+        return consultationRepository.findPortalSummaries(patientId, Limit.of(max));
     }
 
-    public Consultation updateConsultation(Long id, Consultation consultationDetails) {
-        Consultation consultation = getConsultationById(id);
+    /**
+     * Replaces the clinical fields. A non-null {@code expectedVersion} makes
+     * the update conditional on the version the caller read.
+     */
+    public Consultation updateConsultation(Long id, Consultation consultationDetails, Long expectedVersion) {
+        Consultation consultation = findForUpdate(id, expectedVersion);
 
         consultation.setChiefComplaint(consultationDetails.getChiefComplaint());
         consultation.setDiagnosis(consultationDetails.getDiagnosis());
@@ -52,6 +77,28 @@ public class ConsultationService {
         consultation.setFollowUpInstructions(consultationDetails.getFollowUpInstructions());
         consultation.setVisibleInPortal(consultationDetails.isVisibleInPortal());
 
-        return consultationRepository.save(consultation);
+        Consultation saved = consultationRepository.save(consultation);
+        eventPublisher.publishEvent(new ConsultationChangedEvent(saved.getId(), saved.getPatientId()));
+        return saved;
+    }
+
+    /**
+     * Applies a JSON Merge Patch to the clinical fields. Only the columns the
+     * patch changes are written, so editing one note no longer rewrites every
+     * TEXT column.
+     */
+    public Consultation patchConsultation(Long id, JsonNode patch, Long expectedVersion) {
+        Consultation consultation = findForUpdate(id, expectedVersion);
+        JsonMergePatch.apply(objectMapper, consultation, patch, PATCHABLE_FIELDS, REQUIRED_FIELDS);
+        eventPublisher.publishEvent(new ConsultationChangedEvent(consultation.getId(), consultation.getPatientId()));
+        return consultation;
+    }
+
+    private Consultation findForUpdate(Long id, Long expectedVersion) {
+        Consultation consultation = getConsultationById(id);
+        if (expectedVersion != null && !expectedVersion.equals(consultation.getVersion())) {
+            throw new OptimisticLockingFailureException("Consultation " + id + " has been modified");
+        }
+        return consultation;
     }
 }
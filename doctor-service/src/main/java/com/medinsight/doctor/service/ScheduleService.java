@@ -0,0 +1,183 @@
+package com.medinsight.doctor.service;
+
+import com.medinsight.doctor.dto.TimeSlot;
+import com.medinsight.doctor.entity.Schedule;
+import com.medinsight.doctor.entity.ScheduleOverride;
+import com.medinsight.doctor.repository.DoctorRepository;
+import com.medinsight.doctor.repository.ScheduleOverrideRepository;
+import com.medinsight.doctor.repository.ScheduleRepository;
+import com.medinsight.doctor.schedule.WorkingCalendar;
+import com.medinsight.doctor.slot.SlotIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ScheduleService {
+
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleOverrideRepository scheduleOverrideRepository;
+    private final DoctorRepository doctorRepository;
+    private final SlotIndex slotIndex;
+    private final WorkingCalendar workingCalendar;
+
+    @Value("${doctor.schedule.max-range-days:92}")
+    private int maxRangeDays;
+
+    @Transactional(readOnly = true)
+    public Optional<List<Schedule>> getSchedules(Long doctorId) {
+        if (!doctorRepository.existsById(doctorId)) {
+            return Optional.empty();
+        }
+        return Optional.of(scheduleRepository.findByDoctorId(doctorId));
+    }
+
+    /**
+     * Replaces the doctor's weekly schedule; their cached working weeks are
+     * expanded again once the change commits.
+     *
+     * @throws IllegalArgumentException if a period has no day or times, or ends
+     *                                  before it starts (an end of midnight
+     *                                  runs to the end of the day)
+     */
+    public Optional<List<Schedule>> replaceSchedules(Long doctorId, List<Schedule> schedules) {
+        if (!doctorRepository.existsById(doctorId)) {
+            return Optional.empty();
+        }
+        for (Schedule schedule : schedules) {
+            validate(schedule);
+            schedule.setId(null);
+            schedule.setDoctorId(doctorId);
+        }
+        scheduleRepository.deleteByDoctorId(doctorId);
+        List<Schedule> saved = scheduleRepository.saveAll(schedules);
+        workingCalendar.templateChanged(doctorId);
+        return Optional.of(saved);
+    }
+
+    /**
+     * The doctor's overrides dated {@code from} to {@code to} inclusive.
+     *
+     * @throws IllegalArgumentException if the range is reversed or longer
+     *                                  than {@code doctor.schedule.max-range-days}
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<ScheduleOverride>> getOverrides(Long doctorId, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        if (!doctorRepository.existsById(doctorId)) {
+            return Optional.empty();
+        }
+        return Optional.of(scheduleOverrideRepository.findByDoctorIdAndDateBetweenOrderByDateAscStartTimeAsc(
+                doctorId, from, to));
+    }
+
+    /**
+     * Replaces the doctor's overrides on {@code date}; an empty list returns
+     * the date to the weekly schedule. Only that date's week is expanded
+     * again once the change commits.
+     *
+     * @throws IllegalArgumentException if an override adds time without
+     *                                  times, has only one of its times, or
+     *                                  ends before it starts
+     */
+    public Optional<List<ScheduleOverride>> replaceOverrides(Long doctorId, LocalDate date,
+            List<ScheduleOverride> overrides) {
+        if (!doctorRepository.existsById(doctorId)) {
+            return Optional.empty();
+        }
+        for (ScheduleOverride override : overrides) {
+            validate(override);
+            override.setId(null);
+            override.setDoctorId(doctorId);
+            override.setDate(date);
+        }
+        scheduleOverrideRepository.deleteByDoctorIdAndDate(doctorId, date);
+        List<ScheduleOverride> saved = scheduleOverrideRepository.saveAll(overrides);
+        workingCalendar.overridesChanged(doctorId, date);
+        return Optional.of(saved);
+    }
+
+    /**
+     * The doctor's working intervals on {@code from} to {@code to} inclusive,
+     * with overrides applied.
+     *
+     * @throws IllegalArgumentException if the range is reversed or longer
+     *                                  than {@code doctor.schedule.max-range-days}
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<TimeSlot>> getWorkingHours(Long doctorId, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        if (!doctorRepository.existsById(doctorId)) {
+            return Optional.empty();
+        }
+        return Optional.of(workingCalendar.workingIntervals(doctorId, from, to));
+    }
+
+    /**
+     * Whether the doctor works at {@code time}, or empty if there is no such
+     * doctor.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Boolean> isWorking(Long doctorId, LocalDateTime time) {
+        if (!doctorRepository.existsById(doctorId)) {
+            return Optional.empty();
+        }
+        return Optional.of(workingCalendar.isWorking(doctorId, time));
+    }
+
+    public void rebuildSlots(Long doctorId) {
+        workingCalendar.templateChanged(doctorId);
+        slotIndex.rebuild(doctorId);
+    }
+
+    public int rebuildAllSlots() {
+        workingCalendar.clear();
+        return slotIndex.rebuildAll();
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range ends on " + to + ", before it starts on " + from);
+        }
+        if (to.isAfter(from.plusDays(maxRangeDays))) {
+            throw new IllegalArgumentException("Range is longer than " + maxRangeDays + " days");
+        }
+    }
+
+    private static void validate(Schedule schedule) {
+        if (schedule.getDayOfWeek() == null || schedule.getStartTime() == null || schedule.getEndTime() == null) {
+            throw new IllegalArgumentException("A schedule needs a day of week, a start time and an end time");
+        }
+        if (!schedule.getEndTime().isAfter(schedule.getStartTime())
+                && !schedule.getEndTime().equals(LocalTime.MIDNIGHT)) {
+            throw new IllegalArgumentException("Schedule on " + schedule.getDayOfWeek() + " ends at "
+                    + schedule.getEndTime() + ", before it starts at " + schedule.getStartTime());
+        }
+    }
+
+    private static void validate(ScheduleOverride override) {
+        if ((override.getStartTime() == null) != (override.getEndTime() == null)) {
+            throw new IllegalArgumentException("An override needs both a start and an end time, or neither");
+        }
+        if (override.getStartTime() == null) {
+            if (override.isAvailable()) {
+                throw new IllegalArgumentException("An override adding working time needs a start and an end time");
+            }
+            return;
+        }
+        if (!override.getEndTime().isAfter(override.getStartTime())
+                && !override.getEndTime().equals(LocalTime.MIDNIGHT)) {
+            throw new IllegalArgumentException("Override ends at " + override.getEndTime()
+                    + ", before it starts at " + override.getStartTime());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.medinsight.doctor.slot;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped in-process locks that serialize bookings per doctor and day. A
+ * booking holds the stripe of every day it touches for its whole transaction,
+ * so bookings for one doctor's day queue here rather than each holding a
+ * database connection while waiting on the advisory lock.
+ *
+ * <p>Stripes are picked by hashing (doctor, day), so bookings for different
+ * doctors almost never wait on each other; two keys sharing a stripe only
+ * wait, they cannot book the same time. Stripes are taken in index order, so
+ * bookings spanning midnight cannot deadlock.
+ */
+@Component
+public class BookingLocks {
+
+    private final ReentrantLock[] stripes;
+    private final Duration timeout;
+
+    public BookingLocks(@Value("${doctor.slots.lock-stripes:1024}") int stripes,
+            @Value("${doctor.slots.lock-timeout:5s}") Duration timeout) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.timeout = timeout;
+    }
+
+    /**
+     * Runs {@code action} holding the stripes of the doctor's days covered by
+     * [{@code start}, {@code end}).
+     *
+     * @throws SlotUnavailableException if the stripes are not free within the
+     *                                  configured timeout
+     */
+    public <T> T withLocks(Long doctorId, LocalDateTime start, LocalDateTime end, Supplier<T> action) {
+        int[] indexes = days(start, end).stream()
+                .mapToInt(day -> stripe(doctorId, day))
+                .distinct()
+                .sorted()
+                .toArray();
+        int held = 0;
+        try {
+            for (int index : indexes) {
+                if (!stripes[index].tryLock(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new SlotUnavailableException("Timed out waiting to book doctor " + doctorId + " at "
+                            + start);
+                }
+                held++;
+            }
+            return action.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SlotUnavailableException("Interrupted waiting to book doctor " + doctorId + " at " + start);
+        } finally {
+            for (int i = held - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    /**
+     * The dates [{@code start}, {@code end}) has minutes on, in order.
+     */
+    public static List<LocalDate> days(LocalDateTime start, LocalDateTime end) {
+        List<LocalDate> days = new ArrayList<>(2);
+        for (LocalDate date = start.toLocalDate(); date.atStartOfDay().isBefore(end); date = date.plusDays(1)) {
+            days.add(date);
+        }
+        return days;
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    private int stripe(Long doctorId, LocalDate day) {
+        int hash = Arrays.hashCode(new long[] {doctorId, day.toEpochDay()});
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,277 @@
+package com.medinsight.doctor.slot;
+
+import com.medinsight.doctor.dto.TimeSlot;
+import com.medinsight.doctor.schedule.WorkingWeek;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * One doctor's calendar as minute bitmaps: the working minutes of each week,
+ * expanded from their schedule and its date overrides, and the booked minutes
+ * of each date that has appointments. Free time on a date is its working time
+ * minus its bookings, so a free-slot query is a few word-wide bit operations
+ * per day.
+ *
+ * <p>Every method is synchronized on the calendar, which makes the check and
+ * the reservation of a booking one atomic step for this doctor without
+ * blocking any other doctor. Working weeks are handed in by the caller, read
+ * before the lock is taken, so nothing waits on the database while holding it.
+ */
+final class DoctorCalendar {
+
+    static final int MINUTES_PER_DAY = WorkingWeek.MINUTES_PER_DAY;
+
+    private final Long doctorId;
+    private final TreeMap<LocalDate, Day> days = new TreeMap<>();
+    private final Map<Long, SlotReservation> byAppointment = new HashMap<>();
+    // System.nanoTime() when the last snapshot was read; only compared with other nanoTime readings
+    private long loadedAt;
+
+    DoctorCalendar(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    /**
+     * Replaces the bookings with a snapshot read from the database, keeping
+     * reservations the snapshot may not include because they were still
+     * pending or committed after {@code readStartedAt}.
+     */
+    synchronized void load(List<SlotReservation> booked, long readStartedAt) {
+        Set<SlotReservation> kept = new LinkedHashSet<>();
+        for (Day day : days.values()) {
+            for (SlotReservation reservation : day.reservations) {
+                if (reservation.newerThan(readStartedAt)) {
+                    kept.add(reservation);
+                }
+            }
+        }
+
+        days.clear();
+        byAppointment.clear();
+        for (SlotReservation reservation : booked) {
+            add(reservation);
+        }
+        for (SlotReservation reservation : kept) {
+            Long appointmentId = reservation.getAppointmentId();
+            if (appointmentId == null || !byAppointment.containsKey(appointmentId)) {
+                add(reservation);
+            }
+        }
+        loadedAt = readStartedAt;
+    }
+
+    /**
+     * When the snapshot last {@link #load loaded} was read, as
+     * {@code System.nanoTime()}.
+     */
+    synchronized long loadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Whether [{@code start}, {@code end}) is free and, when
+     * {@code withinWorkingHours}, working time.
+     *
+     * @param weeks the doctor's working weeks by their Monday, covering the
+     *              interval when {@code withinWorkingHours}
+     */
+    synchronized boolean isFree(LocalDateTime start, LocalDateTime end, boolean withinWorkingHours,
+            Map<LocalDate, WorkingWeek> weeks) {
+        return conflict(start, end, withinWorkingHours, weeks) == null;
+    }
+
+    /**
+     * Holds [{@code start}, {@code end}) if it is free and, when
+     * {@code withinWorkingHours}, working time.
+     *
+     * @param weeks the doctor's working weeks by their Monday, covering the
+     *              interval when {@code withinWorkingHours}
+     * @throws SlotUnavailableException otherwise
+     */
+    synchronized SlotReservation reserve(LocalDateTime start, LocalDateTime end, boolean withinWorkingHours,
+            Map<LocalDate, WorkingWeek> weeks) {
+        String conflict = conflict(start, end, withinWorkingHours, weeks);
+        if (conflict != null) {
+            throw new SlotUnavailableException(conflict);
+        }
+        SlotReservation reservation = SlotReservation.pending(doctorId, start, end);
+        add(reservation);
+        return reservation;
+    }
+
+    synchronized void bind(SlotReservation reservation, Long appointmentId) {
+        reservation.setAppointmentId(appointmentId);
+        byAppointment.put(appointmentId, reservation);
+    }
+
+    synchronized void release(SlotReservation reservation) {
+        if (reservation.getAppointmentId() != null) {
+            byAppointment.remove(reservation.getAppointmentId(), reservation);
+        }
+        for (LocalDate date = reservation.getStart().toLocalDate();
+                date.atStartOfDay().isBefore(reservation.getEnd()); date = date.plusDays(1)) {
+            Day day = days.get(date);
+            if (day != null && day.reservations.remove(reservation)) {
+                if (day.reservations.isEmpty()) {
+                    days.remove(date);
+                } else {
+                    // Rebuilt rather than cleared, in case older data holds overlapping appointments
+                    day.recompute();
+                }
+            }
+        }
+    }
+
+    synchronized boolean release(Long appointmentId) {
+        SlotReservation reservation = byAppointment.get(appointmentId);
+        if (reservation == null) {
+            return false;
+        }
+        release(reservation);
+        return true;
+    }
+
+    /**
+     * Start times, every {@code stepMinutes} from midnight, at which
+     * {@code durationMinutes} of working time are free, for slots lying within
+     * [{@code from}, {@code to}). Slots do not cross midnight.
+     *
+     * @param weeks the doctor's working weeks by their Monday, covering
+     *              [{@code from}, {@code to})
+     */
+    synchronized List<TimeSlot> freeSlots(LocalDateTime from, LocalDateTime to, int durationMinutes, int stepMinutes,
+            int limit, Map<LocalDate, WorkingWeek> weeks) {
+        List<TimeSlot> slots = new ArrayList<>();
+        for (LocalDate date = from.toLocalDate(); date.atStartOfDay().isBefore(to) && slots.size() < limit;
+                date = date.plusDays(1)) {
+            BitSet free = week(weeks, date).day(date);
+            if (free.isEmpty()) {
+                continue;
+            }
+            Day day = days.get(date);
+            if (day != null) {
+                free.andNot(day.minutes);
+            }
+            LocalDateTime midnight = date.atStartOfDay();
+            if (from.isAfter(midnight)) {
+                free.clear(0, endMinute(date, from));
+            }
+            if (to.toLocalDate().equals(date)) {
+                free.clear(minuteOfDay(to.toLocalTime()), MINUTES_PER_DAY);
+            }
+            for (int runStart = free.nextSetBit(0); runStart >= 0 && slots.size() < limit;
+                    runStart = free.nextSetBit(runStart)) {
+                int runEnd = free.nextClearBit(runStart);
+                int first = (runStart + stepMinutes - 1) / stepMinutes * stepMinutes;
+                for (int slot = first; slot + durationMinutes <= runEnd && slots.size() < limit;
+                        slot += stepMinutes) {
+                    slots.add(new TimeSlot(midnight.plusMinutes(slot), midnight.plusMinutes(slot + durationMinutes)));
+                }
+                runStart = runEnd;
+            }
+        }
+        return slots;
+    }
+
+    // Drops the bookings of days before the given date; they can no longer affect a query or a booking
+    synchronized void pruneBefore(LocalDate date) {
+        SortedMap<LocalDate, Day> past = days.headMap(date);
+        for (Day day : past.values()) {
+            for (SlotReservation reservation : day.reservations) {
+                if (reservation.getAppointmentId() != null && !reservation.getEnd().isAfter(date.atStartOfDay())) {
+                    byAppointment.remove(reservation.getAppointmentId(), reservation);
+                }
+            }
+        }
+        past.clear();
+    }
+
+    // Why [start, end) cannot be booked, or null if it can
+    private String conflict(LocalDateTime start, LocalDateTime end, boolean withinWorkingHours,
+            Map<LocalDate, WorkingWeek> weeks) {
+        for (LocalDate date = start.toLocalDate(); date.atStartOfDay().isBefore(end); date = date.plusDays(1)) {
+            int from = startMinute(date, start);
+            int to = endMinute(date, end);
+            if (withinWorkingHours) {
+                if (!week(weeks, date).worksThroughout(date, from, to)) {
+                    return "Doctor " + doctorId + " is not working throughout " + start + " to " + end;
+                }
+            }
+            Day day = days.get(date);
+            if (day != null) {
+                int booked = day.minutes.nextSetBit(from);
+                if (booked >= 0 && booked < to) {
+                    return "Doctor " + doctorId + " is already booked at " + date.atStartOfDay().plusMinutes(booked);
+                }
+            }
+        }
+        return null;
+    }
+
+    private void add(SlotReservation reservation) {
+        if (reservation.getAppointmentId() != null) {
+            byAppointment.put(reservation.getAppointmentId(), reservation);
+        }
+        for (LocalDate date = reservation.getStart().toLocalDate();
+                date.atStartOfDay().isBefore(reservation.getEnd()); date = date.plusDays(1)) {
+            Day day = days.computeIfAbsent(date, Day::new);
+            day.reservations.add(reservation);
+            day.minutes.set(startMinute(date, reservation.getStart()), endMinute(date, reservation.getEnd()));
+        }
+    }
+
+    private static WorkingWeek week(Map<LocalDate, WorkingWeek> weeks, LocalDate date) {
+        WorkingWeek week = weeks.get(WorkingWeek.mondayOf(date));
+        if (week == null) {
+            throw new IllegalArgumentException("No working week given for " + date);
+        }
+        return week;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return WorkingWeek.minuteOfDay(time);
+    }
+
+    // The first minute of [start, ...) that falls on date, rounded down
+    private static int startMinute(LocalDate date, LocalDateTime start) {
+        return start.toLocalDate().isBefore(date) ? 0 : minuteOfDay(start.toLocalTime());
+    }
+
+    // The end of [..., end) on date, rounded up to a whole minute; also the first whole minute at or after end
+    private static int endMinute(LocalDate date, LocalDateTime end) {
+        if (end.toLocalDate().isAfter(date)) {
+            return MINUTES_PER_DAY;
+        }
+        LocalTime time = end.toLocalTime();
+        return minuteOfDay(time) + (time.getSecond() > 0 || time.getNano() > 0 ? 1 : 0);
+    }
+
+    private static final class Day {
+
+        private final LocalDate date;
+        private final BitSet minutes = new BitSet(MINUTES_PER_DAY);
+        private final List<SlotReservation> reservations = new ArrayList<>(4);
+
+        private Day(LocalDate date) {
+            this.date = date;
+        }
+
+        private void recompute() {
+            minutes.clear();
+            for (SlotReservation reservation : reservations) {
+                minutes.set(startMinute(date, reservation.getStart()), endMinute(date, reservation.getEnd()));
+            }
+        }
+    }
+}
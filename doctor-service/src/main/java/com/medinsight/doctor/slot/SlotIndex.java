@@ -0,0 +1,240 @@
+package com.medinsight.doctor.slot;
+
+import com.medinsight.doctor.dto.BookedInterval;
+import com.medinsight.doctor.dto.TimeSlot;
+import com.medinsight.doctor.enums.AppointmentStatus;
+import com.medinsight.doctor.repository.AppointmentRepository;
+import com.medinsight.doctor.schedule.WorkingCalendar;
+import com.medinsight.doctor.schedule.WorkingWeek;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory availability of every doctor seen since startup, one
+ * {@link DoctorCalendar} each, holding the appointments that hold time from
+ * yesterday onwards. Working time comes from the {@link WorkingCalendar},
+ * read before a calendar's lock is taken.
+ *
+ * <p>A booking reserves its time on the calendar before the appointment is
+ * inserted; the reservation is released if the transaction rolls back and
+ * becomes permanent when it commits. Releases for cancelled appointments are
+ * applied after commit. Any calendar can be reloaded from the database with
+ * {@link #rebuild(Long)}; reservations the reload cannot see yet are kept.
+ *
+ * <p>A calendar is a snapshot: it does not see bookings or cancellations made
+ * through other instances until it is reloaded, which
+ * {@link SlotIndexRefresher} does for every calendar once per
+ * {@code doctor.slots.refresh.interval}. Bookings it has missed are caught in
+ * the database when the booking is written. Time it still holds for
+ * an appointment cancelled elsewhere is never taken on trust: a booking or
+ * availability check the calendar rejects reloads it from the database, at
+ * most once per {@code doctor.slots.refresh-min-interval}, and is rejected only
+ * if the reloaded calendar agrees.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SlotIndex {
+
+    public static final int DEFAULT_DURATION_MINUTES = 30;
+
+    private static final Set<AppointmentStatus> HOLDING = Arrays.stream(AppointmentStatus.values())
+            .filter(AppointmentStatus::holdsSlot)
+            .collect(Collectors.toUnmodifiableSet());
+
+    private final AppointmentRepository appointmentRepository;
+    private final WorkingCalendar workingCalendar;
+
+    private final ConcurrentMap<Long, DoctorCalendar> calendars = new ConcurrentHashMap<>();
+
+    // Bookings outside the doctor's working time are refused
+    @Value("${doctor.slots.enforce-schedule:true}")
+    private boolean enforceSchedule;
+
+    @Value("${doctor.slots.step-minutes:15}")
+    private int stepMinutes;
+
+    // A calendar reloaded this recently is trusted when it rejects a booking
+    @Value("${doctor.slots.refresh-min-interval:PT1S}")
+    private Duration refreshMinInterval;
+
+    /**
+     * Holds {@code durationMinutes} from {@code start} for the doctor, tied to
+     * the current transaction's outcome.
+     *
+     * @throws SlotUnavailableException if the time is taken or, when the
+     *                                  schedule is enforced, not working time
+     */
+    public SlotReservation reserve(Long doctorId, LocalDateTime start, int durationMinutes) {
+        if (durationMinutes <= 0) {
+            throw new IllegalArgumentException("Duration must be positive: " + durationMinutes);
+        }
+        DoctorCalendar calendar = calendar(doctorId);
+        calendar.pruneBefore(LocalDate.now().minusDays(1));
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+        Map<LocalDate, WorkingWeek> weeks = enforceSchedule ? weeks(doctorId, start, end) : Map.of();
+        SlotReservation reservation = hold(doctorId, calendar, start, end, weeks);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        reservation.markCommitted();
+                    } else {
+                        calendar.release(reservation);
+                    }
+                }
+            });
+        } else {
+            reservation.markCommitted();
+        }
+        return reservation;
+    }
+
+    /**
+     * Whether the doctor could be booked for {@code durationMinutes} from
+     * {@code start}, as far as this instance knows; nothing is held.
+     */
+    public boolean isFree(Long doctorId, LocalDateTime start, int durationMinutes) {
+        DoctorCalendar calendar = calendar(doctorId);
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+        Map<LocalDate, WorkingWeek> weeks = enforceSchedule ? weeks(doctorId, start, end) : Map.of();
+        return calendar.isFree(start, end, enforceSchedule, weeks)
+                || refresh(doctorId, calendar) && calendar.isFree(start, end, enforceSchedule, weeks);
+    }
+
+    /**
+     * Records the id of the appointment saved for {@code reservation}, so a
+     * later status change can release it.
+     */
+    public void bind(SlotReservation reservation, Long appointmentId) {
+        calendar(reservation.getDoctorId()).bind(reservation, appointmentId);
+    }
+
+    /**
+     * Gives the appointment's time back once the current transaction commits.
+     */
+    public void release(Long doctorId, Long appointmentId) {
+        afterCommit(() -> calendar(doctorId).release(appointmentId));
+    }
+
+    /**
+     * Up to {@code limit} free slots of {@code durationMinutes} starting on
+     * {@code from} to {@code to} inclusive, earliest first, none in the past.
+     */
+    public List<TimeSlot> findFreeSlots(Long doctorId, LocalDate from, LocalDate to, int durationMinutes,
+            int limit) {
+        return findFreeSlots(doctorId, from.atStartOfDay(), to.plusDays(1).atStartOfDay(), durationMinutes, limit);
+    }
+
+    /**
+     * Up to {@code limit} free slots of {@code durationMinutes} lying within
+     * [{@code from}, {@code to}), earliest first, none in the past.
+     */
+    public List<TimeSlot> findFreeSlots(Long doctorId, LocalDateTime from, LocalDateTime to, int durationMinutes,
+            int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from.isAfter(now) ? from : now;
+        return calendar(doctorId).freeSlots(start, to, durationMinutes, stepMinutes, limit, weeks(doctorId, start, to));
+    }
+
+    /**
+     * Reloads the doctor's bookings from the database once the current
+     * transaction, if any, commits.
+     */
+    public void rebuild(Long doctorId) {
+        afterCommit(() -> {
+            DoctorCalendar calendar = calendars.get(doctorId);
+            if (calendar != null) {
+                load(doctorId, calendar);
+            }
+        });
+    }
+
+    /**
+     * Reloads every calendar from the database now; returns how many there are.
+     */
+    public int rebuildAll() {
+        calendars.forEach(this::load);
+        return calendars.size();
+    }
+
+    private DoctorCalendar calendar(Long doctorId) {
+        // Loaded under the map's lock for this key, so nobody books against a calendar still being read
+        return calendars.computeIfAbsent(doctorId, id -> {
+            DoctorCalendar calendar = new DoctorCalendar(id);
+            load(id, calendar);
+            return calendar;
+        });
+    }
+
+    // Reserves on the calendar, reloading it once from the database if it finds the time taken
+    private SlotReservation hold(Long doctorId, DoctorCalendar calendar, LocalDateTime start, LocalDateTime end,
+            Map<LocalDate, WorkingWeek> weeks) {
+        try {
+            return calendar.reserve(start, end, enforceSchedule, weeks);
+        } catch (SlotUnavailableException e) {
+            if (!refresh(doctorId, calendar)) {
+                throw e;
+            }
+            return calendar.reserve(start, end, enforceSchedule, weeks);
+        }
+    }
+
+    // The working weeks covering [start, end), read before a calendar's lock is taken so nobody waits on them under it
+    private Map<LocalDate, WorkingWeek> weeks(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        return workingCalendar.weeks(doctorId, start.toLocalDate(), end.minusNanos(1).toLocalDate());
+    }
+
+    // Reloads a calendar that has not been read within refreshMinInterval; false if it is that fresh already
+    private boolean refresh(Long doctorId, DoctorCalendar calendar) {
+        if (System.nanoTime() - calendar.loadedAt() < refreshMinInterval.toNanos()) {
+            return false;
+        }
+        load(doctorId, calendar);
+        return true;
+    }
+
+    private void load(Long doctorId, DoctorCalendar calendar) {
+        long readStartedAt = System.nanoTime();
+        // Yesterday's appointments can run past midnight into today
+        List<BookedInterval> intervals = appointmentRepository.findBookedIntervals(doctorId,
+                LocalDate.now().minusDays(1).atStartOfDay(), HOLDING);
+        List<SlotReservation> booked = intervals.stream()
+                .map(interval -> SlotReservation.loaded(doctorId, interval.start(),
+                        interval.start().plusMinutes(interval.durationMinutes() == null
+                                ? DEFAULT_DURATION_MINUTES : interval.durationMinutes()),
+                        interval.appointmentId()))
+                .toList();
+        calendar.load(booked, readStartedAt);
+        log.debug("Loaded the calendar of doctor {}: {} appointments", doctorId, booked.size());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
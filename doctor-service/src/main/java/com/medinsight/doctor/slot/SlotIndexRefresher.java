@@ -0,0 +1,32 @@
+package com.medinsight.doctor.slot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically reloads every calendar in the {@link SlotIndex}, so bookings
+ * and cancellations made through other instances show up in availability
+ * without waiting for a rejected booking to reload the doctor concerned.
+ */
+@Component
+@ConditionalOnProperty(name = "doctor.slots.refresh.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class SlotIndexRefresher {
+
+    private final SlotIndex slotIndex;
+
+    @Scheduled(initialDelayString = "${doctor.slots.refresh.interval:PT1M}",
+            fixedDelayString = "${doctor.slots.refresh.interval:PT1M}")
+    public void refresh() {
+        try {
+            int doctors = slotIndex.rebuildAll();
+            log.debug("Reloaded the calendars of {} doctors", doctors);
+        } catch (RuntimeException e) {
+            log.warn("Could not reload the slot index, retrying next interval", e);
+        }
+    }
+}
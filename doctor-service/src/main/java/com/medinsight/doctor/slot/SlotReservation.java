@@ -0,0 +1,74 @@
+package com.medinsight.doctor.slot;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time held on a doctor's calendar, from the moment it is reserved until the
+ * appointment is cancelled. Until its transaction commits it is pending and
+ * survives a rebuild of the calendar from the database, which cannot see it
+ * yet.
+ */
+public final class SlotReservation {
+
+    private final Long doctorId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    // Read from the database rather than reserved on this instance
+    private final boolean loaded;
+    private volatile Long appointmentId;
+    private volatile boolean committed;
+    // System.nanoTime() at commit; only compared with other nanoTime readings
+    private volatile long committedAt;
+
+    private SlotReservation(Long doctorId, LocalDateTime start, LocalDateTime end, Long appointmentId,
+            boolean loaded) {
+        this.doctorId = doctorId;
+        this.start = start;
+        this.end = end;
+        this.appointmentId = appointmentId;
+        this.loaded = loaded;
+    }
+
+    static SlotReservation pending(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        return new SlotReservation(doctorId, start, end, null, false);
+    }
+
+    // An appointment already in the database
+    static SlotReservation loaded(Long doctorId, LocalDateTime start, LocalDateTime end, Long appointmentId) {
+        return new SlotReservation(doctorId, start, end, appointmentId, true);
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    /**
+     * Whether a database read started at {@code readStartedAt} (nanoTime) may
+     * have missed this reservation: it is still pending, or committed after
+     * the read began.
+     */
+    boolean newerThan(long readStartedAt) {
+        return !loaded && (!committed || committedAt - readStartedAt >= 0);
+    }
+
+    void markCommitted() {
+        committedAt = System.nanoTime();
+        committed = true;
+    }
+}
@@ -0,0 +1,12 @@
+package com.medinsight.doctor.slot;
+
+/**
+ * The requested time overlaps another appointment of the doctor or falls
+ * outside their working hours.
+ */
+public class SlotUnavailableException extends RuntimeException {
+
+    public SlotUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,130 @@
+package com.medinsight.doctor.transition;
+
+import com.medinsight.commons.exception.DuplicateResourceException;
+import com.medinsight.doctor.dto.AppointmentSummary;
+import com.medinsight.doctor.dto.BulkTransitionRequest;
+import com.medinsight.doctor.dto.BulkTransitionResult;
+import com.medinsight.doctor.entity.BulkTransition;
+import com.medinsight.doctor.enums.AppointmentStatus;
+import com.medinsight.doctor.event.AppointmentChangedEvent;
+import com.medinsight.doctor.repository.AppointmentRepository;
+import com.medinsight.doctor.repository.BulkTransitionRepository;
+import com.medinsight.doctor.slot.SlotIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Moves many appointments to one status at once, such as the end-of-day
+ * marking of completed and missed appointments. Each batch of ids is one
+ * guarded UPDATE that only touches appointments whose status may move to the
+ * target, so appointments that may not are skipped rather than failing the
+ * request.
+ *
+ * <p>The caller's request id is claimed in the same transaction as the
+ * updates. A retry, even one racing the original, gets the stored outcome
+ * back instead of applying the request twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkTransitionService {
+
+    static final int MAX_REQUEST_ID_LENGTH = 100;
+
+    private final AppointmentRepository appointmentRepository;
+    private final BulkTransitionRepository bulkTransitionRepository;
+    private final SlotIndex slotIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${doctor.transitions.batch-size:500}")
+    private int batchSize;
+
+    @Value("${doctor.transitions.max-ids:10000}")
+    private int maxIds;
+
+    /**
+     * @throws IllegalArgumentException   if the request is incomplete, too
+     *                                    large, or asks to restore
+     *                                    appointments
+     * @throws DuplicateResourceException if the request id was already used
+     *                                    for a different request
+     */
+    @Transactional
+    public BulkTransitionResult transition(BulkTransitionRequest request) {
+        String requestId = request.getRequestId();
+        AppointmentStatus target = request.getStatus();
+        if (requestId == null || requestId.isBlank() || requestId.length() > MAX_REQUEST_ID_LENGTH) {
+            throw new IllegalArgumentException("A request id of at most " + MAX_REQUEST_ID_LENGTH
+                    + " characters is required");
+        }
+        if (target == null || request.getAppointmentIds() == null) {
+            throw new IllegalArgumentException("A status and appointment ids are required");
+        }
+        if (target == AppointmentStatus.SCHEDULED) {
+            // Restoring must win back the appointment's time, which only the single-appointment path checks
+            throw new IllegalArgumentException("Appointments can only be restored one at a time");
+        }
+        List<Long> ids = request.getAppointmentIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+        if (ids.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " appointments per request");
+        }
+
+        if (bulkTransitionRepository.claim(requestId, target.name(), ids.size(), LocalDateTime.now()) == 0) {
+            return replay(requestId, target, ids.size());
+        }
+
+        Set<AppointmentStatus> sources = AppointmentStatus.predecessors(target);
+        int transitioned = 0;
+        // Sorted ids lock rows in the same order in every request, so two overlapping requests cannot deadlock
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            transitioned += appointmentRepository.updateStatus(batch, sources, target);
+            // Rows already in the target status come back too; releasing and republishing them is harmless
+            for (AppointmentSummary appointment : appointmentRepository.findSummariesByIdInAndStatus(batch, target)) {
+                if (!target.holdsSlot()) {
+                    slotIndex.release(appointment.doctorId(), appointment.id());
+                }
+                eventPublisher.publishEvent(new AppointmentChangedEvent(appointment));
+            }
+        }
+        bulkTransitionRepository.recordTransitioned(requestId, transitioned);
+        log.info("Bulk transition {} moved {} of {} appointments to {}", requestId, transitioned, ids.size(),
+                target);
+
+        return BulkTransitionResult.builder()
+                .requestId(requestId)
+                .status(target)
+                .requested(ids.size())
+                .transitioned(transitioned)
+                .replayed(false)
+                .build();
+    }
+
+    private BulkTransitionResult replay(String requestId, AppointmentStatus target, int requested) {
+        BulkTransition previous = bulkTransitionRepository.findById(requestId)
+                .orElseThrow(() -> new IllegalStateException("Bulk transition " + requestId + " vanished"));
+        if (previous.getStatus() != target || previous.getRequested() != requested) {
+            throw new DuplicateResourceException("Bulk transition", "requestId", requestId);
+        }
+        return BulkTransitionResult.builder()
+                .requestId(requestId)
+                .status(target)
+                .requested(requested)
+                .transitioned(previous.getTransitioned())
+                .replayed(true)
+                .build();
+    }
+}
@@ -0,0 +1,13 @@
+package com.medinsight.doctor.transition;
+
+import com.medinsight.doctor.enums.AppointmentStatus;
+
+/**
+ * The appointment's current status may not move to the requested one.
+ */
+public class InvalidTransitionException extends RuntimeException {
+
+    public InvalidTransitionException(Long appointmentId, AppointmentStatus from, AppointmentStatus to) {
+        super("Appointment " + appointmentId + " cannot go from " + from + " to " + to);
+    }
+}
@@ -0,0 +1,59 @@
+package com.medinsight.doctor.worklist;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.medinsight.doctor.dto.AppointmentSummary;
+import com.medinsight.doctor.enums.AppointmentStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One doctor's appointments from {@code from} to {@code to} inclusive, in
+ * time order, leaving out cancelled ones. Immutable; every change yields a new
+ * worklist with a new {@code etag}.
+ */
+public record Worklist(Long doctorId, LocalDate from, LocalDate to, List<AppointmentSummary> appointments,
+        @JsonIgnore String etag) {
+
+    static final Comparator<AppointmentSummary> BY_TIME = Comparator
+            .comparing(AppointmentSummary::appointmentDateTime)
+            .thenComparing(AppointmentSummary::id);
+
+    public Worklist {
+        appointments = List.copyOf(appointments);
+    }
+
+    /**
+     * This worklist with {@code appointment} in its current state: replaced,
+     * added, or dropped if it is cancelled or outside the window. Returns this
+     * worklist if nothing changes.
+     */
+    Worklist with(AppointmentSummary appointment, String newEtag) {
+        List<AppointmentSummary> updated = new ArrayList<>(appointments.size() + 1);
+        boolean changed = false;
+        for (AppointmentSummary existing : appointments) {
+            if (existing.id().equals(appointment.id())) {
+                changed = true;
+            } else {
+                updated.add(existing);
+            }
+        }
+        if (includes(appointment)) {
+            int position = -Collections.binarySearch(updated, appointment, BY_TIME) - 1;
+            updated.add(position, appointment);
+            changed = true;
+        }
+        return changed ? new Worklist(doctorId, from, to, updated, newEtag) : this;
+    }
+
+    boolean includes(AppointmentSummary appointment) {
+        LocalDateTime time = appointment.appointmentDateTime();
+        return appointment.status() != AppointmentStatus.CANCELLED
+                && !time.isBefore(from.atStartOfDay())
+                && time.isBefore(to.plusDays(1).atStartOfDay());
+    }
+}
@@ -0,0 +1,94 @@
+package com.medinsight.doctor.worklist;
+
+import com.medinsight.doctor.dto.AppointmentSummary;
+import com.medinsight.doctor.event.AppointmentChangedEvent;
+import com.medinsight.doctor.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every requested doctor's worklist for today and the next
+ * {@value #DAYS_AHEAD} days, held in memory and kept current from committed
+ * appointment changes instead of being queried again.
+ *
+ * <p>A doctor's worklist is read from the database on their first request,
+ * on their first request of a new day, and on their first request once it is
+ * older than {@code doctor.worklist.ttl}; changes to doctors nobody has asked
+ * for are ignored. Changes committed by this instance are applied as they
+ * happen, while changes committed through other instances show up at the
+ * next reload. A reload that finds the same appointments keeps the worklist's
+ * ETag, so clients only refetch when the contents really changed. Worklists
+ * are immutable and replaced whole, so a read is one map lookup, and the map
+ * serializes a doctor's changes with their reload.
+ */
+@Component
+@RequiredArgsConstructor
+public class WorklistView {
+
+    public static final int DAYS_AHEAD = 7;
+
+    private final AppointmentRepository appointmentRepository;
+
+    private final ConcurrentMap<Long, View> views = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    // Keeps tags from an earlier run, whose versions also started at 1, from matching this run's
+    private final String generation = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    // How long a worklist is served before it is read again for other instances' changes
+    @Value("${doctor.worklist.ttl:PT30S}")
+    private Duration ttl;
+
+    public Worklist get(Long doctorId) {
+        LocalDate today = LocalDate.now();
+        View current = views.get(doctorId);
+        if (current != null && current.isFresh(today, ttl)) {
+            return current.worklist();
+        }
+        return views.compute(doctorId, (id, view) -> view != null && view.isFresh(today, ttl)
+                ? view : load(id, today, view)).worklist();
+    }
+
+    @TransactionalEventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        views.computeIfPresent(event.appointment().doctorId(),
+                (id, view) -> view.with(view.worklist().with(event.appointment(), nextEtag())));
+    }
+
+    private View load(Long doctorId, LocalDate today, View previous) {
+        long readStartedAt = System.nanoTime();
+        LocalDate last = today.plusDays(DAYS_AHEAD);
+        List<AppointmentSummary> appointments = appointmentRepository.findWorklist(doctorId, today.atStartOfDay(),
+                last.plusDays(1).atStartOfDay());
+        String etag = previous != null && previous.worklist().from().equals(today)
+                && previous.worklist().appointments().equals(appointments)
+                ? previous.worklist().etag() : nextEtag();
+        return new View(new Worklist(doctorId, today, last, appointments, etag), readStartedAt);
+    }
+
+    private String nextEtag() {
+        return "\"" + generation + "-" + versions.incrementAndGet() + "\"";
+    }
+
+    // A worklist and when the database read it was built from started, as System.nanoTime()
+    private record View(Worklist worklist, long loadedAt) {
+
+        boolean isFresh(LocalDate today, Duration ttl) {
+            return worklist.from().equals(today) && System.nanoTime() - loadedAt < ttl.toNanos();
+        }
+
+        View with(Worklist updated) {
+            return updated == worklist ? this : new View(updated, loadedAt);
+        }
+    }
+}
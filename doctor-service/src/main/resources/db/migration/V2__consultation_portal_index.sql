@@ -0,0 +1,26 @@
+-- V2__consultation_portal_index.sql
+-- Composite index for the patient portal consultation listing.
+-- V1 named the visibility flag visible_to_patient and had no consultation_date, while the entity
+-- maps visible_in_portal and consultation_date; align those two columns first so the index can exist.
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'consultations' AND column_name = 'visible_to_patient')
+       AND NOT EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'consultations' AND column_name = 'visible_in_portal') THEN
+        ALTER TABLE consultations RENAME COLUMN visible_to_patient TO visible_in_portal;
+    END IF;
+END $$;
+
+ALTER TABLE consultations ADD COLUMN IF NOT EXISTS visible_in_portal BOOLEAN DEFAULT TRUE;
+UPDATE consultations SET visible_in_portal = TRUE WHERE visible_in_portal IS NULL;
+ALTER TABLE consultations ALTER COLUMN visible_in_portal SET NOT NULL;
+
+ALTER TABLE consultations ADD COLUMN IF NOT EXISTS consultation_date TIMESTAMP;
+UPDATE consultations SET consultation_date = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE consultation_date IS NULL;
+ALTER TABLE consultations ALTER COLUMN consultation_date SET NOT NULL;
+
+-- Equality on (patient_id, visible_in_portal), then read backwards for newest-first with LIMIT
+CREATE INDEX IF NOT EXISTS idx_consultations_portal
+    ON consultations (patient_id, visible_in_portal, consultation_date, id);
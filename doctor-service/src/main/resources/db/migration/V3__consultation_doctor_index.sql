@@ -0,0 +1,8 @@
+-- V3__consultation_doctor_index.sql
+-- A doctor's consultation list is read newest first; (doctor_id, consultation_date, id) returns it
+-- in index order without a sort and supersedes the single-column doctor_id index.
+
+CREATE INDEX IF NOT EXISTS idx_consultations_doctor_date
+    ON consultations (doctor_id, consultation_date, id);
+
+DROP INDEX IF EXISTS idx_consultations_doctor_id;
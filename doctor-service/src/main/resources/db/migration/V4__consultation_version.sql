@@ -0,0 +1,5 @@
+-- V4__consultation_version.sql
+-- Version column for optimistic concurrency on consultation updates. Existing rows start at 0;
+-- the constant default makes this a metadata-only change.
+
+ALTER TABLE consultations ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,38 @@
+-- V5__appointment_slots.sql
+-- Columns and tables the slot index reads. V1 named the appointment time appointment_date and had no
+-- duration or type, while the entity maps appointment_date_time, duration_minutes and type; V1 also
+-- never created the schedules table the Schedule entity maps.
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'appointments' AND column_name = 'appointment_date')
+       AND NOT EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'appointments' AND column_name = 'appointment_date_time') THEN
+        ALTER TABLE appointments RENAME COLUMN appointment_date TO appointment_date_time;
+    END IF;
+END $$;
+
+ALTER TABLE appointments ADD COLUMN IF NOT EXISTS duration_minutes INTEGER DEFAULT 30;
+UPDATE appointments SET duration_minutes = 30 WHERE duration_minutes IS NULL;
+ALTER TABLE appointments ALTER COLUMN duration_minutes SET NOT NULL;
+
+ALTER TABLE appointments ADD COLUMN IF NOT EXISTS type VARCHAR(20) DEFAULT 'CONSULTATION';
+UPDATE appointments SET type = 'CONSULTATION' WHERE type IS NULL;
+ALTER TABLE appointments ALTER COLUMN type SET NOT NULL;
+
+-- Loading a doctor's calendar reads their appointments from yesterday onwards
+CREATE INDEX IF NOT EXISTS idx_appointments_doctor_time
+    ON appointments (doctor_id, appointment_date_time);
+
+CREATE TABLE IF NOT EXISTS schedules (
+    id BIGSERIAL PRIMARY KEY,
+    doctor_id BIGINT NOT NULL,
+    day_of_week VARCHAR(10) NOT NULL,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    available BOOLEAN NOT NULL DEFAULT TRUE,
+    FOREIGN KEY (doctor_id) REFERENCES doctors(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_schedules_doctor_id ON schedules (doctor_id);
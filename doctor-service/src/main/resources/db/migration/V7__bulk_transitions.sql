@@ -0,0 +1,9 @@
+-- Outcomes of bulk appointment status transitions, keyed by the caller's request id so that a retry
+-- returns the first outcome instead of being applied again
+CREATE TABLE IF NOT EXISTS bulk_transitions (
+    request_id VARCHAR(100) PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    requested INTEGER NOT NULL,
+    transitioned INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,4 @@
+-- The no-show sweeper loads appointments that have not started yet, across all doctors, by start time
+CREATE INDEX IF NOT EXISTS idx_appointments_open_time
+    ON appointments (appointment_date_time)
+    WHERE status IN ('SCHEDULED', 'CONFIRMED');
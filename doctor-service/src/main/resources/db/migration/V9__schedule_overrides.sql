@@ -0,0 +1,16 @@
+-- Date-specific changes to a doctor's weekly schedule: extra working time when available, time off
+-- otherwise; time off without times covers the whole day
+CREATE TABLE IF NOT EXISTS schedule_overrides (
+    id BIGSERIAL PRIMARY KEY,
+    doctor_id BIGINT NOT NULL,
+    override_date DATE NOT NULL,
+    start_time TIME,
+    end_time TIME,
+    available BOOLEAN NOT NULL,
+    reason VARCHAR(255),
+    FOREIGN KEY (doctor_id) REFERENCES doctors(id) ON DELETE CASCADE,
+    CHECK ((start_time IS NULL) = (end_time IS NULL)),
+    CHECK (available = FALSE OR start_time IS NOT NULL)
+);
+
+CREATE INDEX IF NOT EXISTS idx_schedule_overrides_doctor_date ON schedule_overrides (doctor_id, override_date);
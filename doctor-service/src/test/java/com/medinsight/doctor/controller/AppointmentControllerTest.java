@@ -1,15 +1,25 @@
 package com.medinsight.doctor.controller;
 
 import com.medinsight.common.security.SecurityGlobalConfig;
+import com.medinsight.commons.exception.DuplicateResourceException;
 import com.medinsight.doctor.config.TestSecurityConfig;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medinsight.doctor.dto.AppointmentHistoryPage;
+import com.medinsight.doctor.dto.AppointmentSummary;
+import com.medinsight.doctor.dto.BulkTransitionRequest;
+import com.medinsight.doctor.dto.BulkTransitionResult;
+import com.medinsight.doctor.dto.TimeSlot;
 import com.medinsight.doctor.entity.Appointment;
 import com.medinsight.doctor.enums.AppointmentStatus;
 import com.medinsight.doctor.enums.AppointmentType;
 import com.medinsight.doctor.service.AppointmentService;
+import com.medinsight.doctor.slot.SlotUnavailableException;
+import com.medinsight.doctor.transition.BulkTransitionService;
+import com.medinsight.doctor.transition.InvalidTransitionException;
+import com.medinsight.doctor.worklist.Worklist;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,6 +30,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
@@ -47,7 +58,11 @@ class AppointmentControllerTest {
         @MockBean
         private AppointmentService appointmentService;
 
+        @MockBean
+        private BulkTransitionService bulkTransitionService;
+
         private Appointment testAppointment;
+        private AppointmentSummary testSummary;
         private LocalDateTime now;
 
         @BeforeEach
@@ -64,6 +79,8 @@ class AppointmentControllerTest {
                                 .reason("Regular Checkup")
                                 .notes("Some notes")
                                 .build();
+                testSummary = new AppointmentSummary(1L, 100L, 200L, now, 30, AppointmentType.CONSULTATION,
+                                AppointmentStatus.SCHEDULED);
         }
 
         @Test
@@ -83,6 +100,50 @@ class AppointmentControllerTest {
                 verify(appointmentService, times(1)).createAppointment(any(Appointment.class));
         }
 
+        @Test
+        @DisplayName("Should return 409 when the slot is already booked")
+        @WithMockUser(roles = "PATIENT")
+        void shouldReturnConflictWhenSlotTaken() throws Exception {
+                when(appointmentService.createAppointment(any(Appointment.class)))
+                                .thenThrow(new SlotUnavailableException("taken"));
+
+                mockMvc.perform(post("/api/appointments")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(testAppointment)))
+                                .andExpect(status().isConflict());
+        }
+
+        @Test
+        @DisplayName("Should list free slots of a doctor")
+        @WithMockUser(roles = "PATIENT")
+        void shouldGetFreeSlots() throws Exception {
+                LocalDate day = LocalDate.of(2030, 3, 4);
+                TimeSlot slot = new TimeSlot(day.atTime(9, 0), day.atTime(9, 30));
+                when(appointmentService.findFreeSlots(200L, day, day.plusDays(1), 30, null))
+                                .thenReturn(List.of(slot));
+
+                mockMvc.perform(get("/api/appointments/doctor/200/free-slots")
+                                .param("from", "2030-03-04")
+                                .param("to", "2030-03-05")
+                                .param("duration", "30"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(1))
+                                .andExpect(jsonPath("$[0].start").value("2030-03-04T09:00:00"));
+        }
+
+        @Test
+        @DisplayName("Should reject a free slot range that ends before it starts")
+        @WithMockUser(roles = "PATIENT")
+        void shouldRejectReversedFreeSlotRange() throws Exception {
+                mockMvc.perform(get("/api/appointments/doctor/200/free-slots")
+                                .param("from", "2030-03-05")
+                                .param("to", "2030-03-04"))
+                                .andExpect(status().isBadRequest());
+
+                verify(appointmentService, never()).findFreeSlots(anyLong(), any(), any(), any(), any());
+        }
+
         @Test
         @DisplayName("Should get appointment by ID successfully")
         @WithMockUser(roles = "PATIENT")
@@ -113,29 +174,80 @@ class AppointmentControllerTest {
         @WithMockUser(roles = "PATIENT")
         void shouldGetAppointmentsByPatientId() throws Exception {
                 when(appointmentService.getAppointmentsByPatientId(100L))
-                                .thenReturn(Collections.singletonList(testAppointment));
+                                .thenReturn(Collections.singletonList(testSummary));
 
                 mockMvc.perform(get("/api/appointments/patient/100"))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.length()").value(1))
-                                .andExpect(jsonPath("$[0].patientId").value(100));
+                                .andExpect(jsonPath("$[0].patientId").value(100))
+                                .andExpect(jsonPath("$[0].notes").doesNotExist());
 
                 verify(appointmentService, times(1)).getAppointmentsByPatientId(100L);
         }
 
         @Test
-        @DisplayName("Should get appointments by doctor ID")
+        @DisplayName("Should get a page of appointments by doctor ID")
         @WithMockUser(roles = "DOCTOR")
         void shouldGetAppointmentsByDoctorId() throws Exception {
-                when(appointmentService.getAppointmentsByDoctorId(200L))
-                                .thenReturn(Collections.singletonList(testAppointment));
+                AppointmentHistoryPage page = AppointmentHistoryPage.builder()
+                                .content(Collections.singletonList(testSummary))
+                                .size(1)
+                                .nextBefore(now)
+                                .nextBeforeId(1L)
+                                .hasMore(true)
+                                .build();
+                when(appointmentService.getDoctorAppointmentHistory(200L, null, null, null, null, 1))
+                                .thenReturn(page);
 
-                mockMvc.perform(get("/api/appointments/doctor/200"))
+                mockMvc.perform(get("/api/appointments/doctor/200").param("size", "1"))
                                 .andExpect(status().isOk())
-                                .andExpect(jsonPath("$.length()").value(1))
-                                .andExpect(jsonPath("$[0].doctorId").value(200));
+                                .andExpect(jsonPath("$.content.length()").value(1))
+                                .andExpect(jsonPath("$.content[0].doctorId").value(200))
+                                .andExpect(jsonPath("$.nextBeforeId").value(1))
+                                .andExpect(jsonPath("$.hasMore").value(true));
+
+                verify(appointmentService, times(1)).getDoctorAppointmentHistory(200L, null, null, null, null, 1);
+        }
 
-                verify(appointmentService, times(1)).getAppointmentsByDoctorId(200L);
+        @Test
+        @DisplayName("Should reject a doctor history range that ends before it starts")
+        @WithMockUser(roles = "DOCTOR")
+        void shouldRejectInvertedHistoryRange() throws Exception {
+                mockMvc.perform(get("/api/appointments/doctor/200")
+                                .param("from", "2025-03-10")
+                                .param("to", "2025-03-01"))
+                                .andExpect(status().isBadRequest());
+
+                verify(appointmentService, never()).getDoctorAppointmentHistory(anyLong(), any(), any(), any(), any(),
+                                any());
+        }
+
+        @Test
+        @DisplayName("Should return the doctor's worklist with its ETag")
+        @WithMockUser(roles = "DOCTOR")
+        void shouldGetWorklist() throws Exception {
+                LocalDate today = LocalDate.now();
+                when(appointmentService.getWorklist(200L)).thenReturn(new Worklist(200L, today, today.plusDays(7),
+                                List.of(testSummary), "\"abc-1\""));
+
+                mockMvc.perform(get("/api/appointments/doctor/200/worklist"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", "\"abc-1\""))
+                                .andExpect(jsonPath("$.appointments.length()").value(1))
+                                .andExpect(jsonPath("$.etag").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Should answer 304 when the worklist has not changed")
+        @WithMockUser(roles = "DOCTOR")
+        void shouldReturnNotModifiedForUnchangedWorklist() throws Exception {
+                LocalDate today = LocalDate.now();
+                when(appointmentService.getWorklist(200L)).thenReturn(new Worklist(200L, today, today.plusDays(7),
+                                List.of(testSummary), "\"abc-1\""));
+
+                mockMvc.perform(get("/api/appointments/doctor/200/worklist").header("If-None-Match", "\"abc-1\""))
+                                .andExpect(status().isNotModified())
+                                .andExpect(content().string(""));
         }
 
         @Test
@@ -185,6 +297,70 @@ class AppointmentControllerTest {
                 verify(appointmentService, times(1)).cancelAppointment(1L);
         }
 
+        @Test
+        @DisplayName("Should return 409 when the appointment may not move to the requested status")
+        @WithMockUser(roles = "DOCTOR")
+        void shouldRejectInvalidTransition() throws Exception {
+                when(appointmentService.cancelAppointment(1L)).thenThrow(new InvalidTransitionException(1L,
+                                AppointmentStatus.COMPLETED, AppointmentStatus.CANCELLED));
+
+                mockMvc.perform(put("/api/appointments/1/cancel")
+                                .with(csrf()))
+                                .andExpect(status().isConflict());
+        }
+
+        @Test
+        @DisplayName("Should apply a bulk transition")
+        @WithMockUser(roles = "DOCTOR")
+        void shouldApplyBulkTransition() throws Exception {
+                BulkTransitionRequest request = BulkTransitionRequest.builder()
+                                .requestId("eod-2025-03-10")
+                                .status(AppointmentStatus.NO_SHOW)
+                                .appointmentIds(List.of(1L, 2L, 3L))
+                                .build();
+                when(bulkTransitionService.transition(request)).thenReturn(BulkTransitionResult.builder()
+                                .requestId("eod-2025-03-10")
+                                .status(AppointmentStatus.NO_SHOW)
+                                .requested(3)
+                                .transitioned(2)
+                                .build());
+
+                mockMvc.perform(post("/api/appointments/transitions")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.transitioned").value(2))
+                                .andExpect(jsonPath("$.replayed").value(false));
+        }
+
+        @Test
+        @DisplayName("Should return 409 when a bulk request id is reused for a different request")
+        @WithMockUser(roles = "DOCTOR")
+        void shouldRejectReusedBulkRequestId() throws Exception {
+                when(bulkTransitionService.transition(any()))
+                                .thenThrow(new DuplicateResourceException("Bulk transition", "requestId", "eod"));
+
+                mockMvc.perform(post("/api/appointments/transitions")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"requestId\":\"eod\",\"status\":\"COMPLETED\",\"appointmentIds\":[1]}"))
+                                .andExpect(status().isConflict());
+        }
+
+        @Test
+        @DisplayName("Should return 400 for an invalid bulk transition")
+        @WithMockUser(roles = "DOCTOR")
+        void shouldRejectInvalidBulkTransition() throws Exception {
+                when(bulkTransitionService.transition(any())).thenThrow(new IllegalArgumentException("no id"));
+
+                mockMvc.perform(post("/api/appointments/transitions")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"status\":\"COMPLETED\",\"appointmentIds\":[1]}"))
+                                .andExpect(status().isBadRequest());
+        }
+
         @Test
         @DisplayName("Should complete appointment")
         @WithMockUser(roles = "DOCTOR")
@@ -5,7 +5,9 @@ import com.medinsight.doctor.config.TestSecurityConfig;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medinsight.doctor.dto.ConsultationSummary;
 import com.medinsight.doctor.entity.Consultation;
 import com.medinsight.doctor.service.ConsultationService;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +16,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -23,6 +27,8 @@ import java.util.Collections;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -110,7 +116,8 @@ class ConsultationControllerTest {
         @WithMockUser(roles = "DOCTOR")
         void shouldGetConsultationsByPatientId() throws Exception {
                 when(consultationService.getConsultationsByPatientId(100L))
-                                .thenReturn(Collections.singletonList(testConsultation));
+                                .thenReturn(Collections.singletonList(
+                                                new ConsultationSummary(1L, 500L, 100L, 200L, now)));
 
                 mockMvc.perform(get("/api/consultations/patient/100"))
                                 .andExpect(status().isOk())
@@ -124,7 +131,8 @@ class ConsultationControllerTest {
         @WithMockUser(roles = "DOCTOR")
         void shouldGetConsultationsByDoctorId() throws Exception {
                 when(consultationService.getConsultationsByDoctorId(200L))
-                                .thenReturn(Collections.singletonList(testConsultation));
+                                .thenReturn(Collections.singletonList(
+                                                new ConsultationSummary(1L, 500L, 100L, 200L, now)));
 
                 mockMvc.perform(get("/api/consultations/doctor/200"))
                                 .andExpect(status().isOk())
@@ -137,31 +145,68 @@ class ConsultationControllerTest {
         @DisplayName("Should get patient portal consultations")
         @WithMockUser(roles = "PATIENT")
         void shouldGetPatientPortalConsultations() throws Exception {
-                when(consultationService.getPatientPortalConsultations(100L))
-                                .thenReturn(Collections.singletonList(testConsultation));
+                when(consultationService.getPatientPortalConsultations(100L, 20))
+                                .thenReturn(Collections.singletonList(
+                                                new ConsultationSummary(1L, 500L, 100L, 200L, now)));
 
-                mockMvc.perform(get("/api/consultations/patient/100/portal"))
+                mockMvc.perform(get("/api/consultations/patient/100/portal").param("limit", "20"))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.length()").value(1))
-                                .andExpect(jsonPath("$[0].visibleInPortal").value(true));
+                                .andExpect(jsonPath("$[0].appointmentId").value(500))
+                                .andExpect(jsonPath("$[0].diagnosis").doesNotExist());
 
-                verify(consultationService, times(1)).getPatientPortalConsultations(100L);
+                verify(consultationService, times(1)).getPatientPortalConsultations(100L, 20);
         }
 
         @Test
         @DisplayName("Should update consultation successfully")
         @WithMockUser(roles = "DOCTOR")
         void shouldUpdateConsultation() throws Exception {
-                when(consultationService.updateConsultation(anyLong(), any(Consultation.class)))
+                testConsultation.setVersion(4L);
+                when(consultationService.updateConsultation(anyLong(), any(Consultation.class), eq(3L)))
                                 .thenReturn(testConsultation);
 
                 mockMvc.perform(put("/api/consultations/1")
                                 .with(csrf())
+                                .header(HttpHeaders.IF_MATCH, "\"3\"")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(testConsultation)))
                                 .andExpect(status().isOk())
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
                                 .andExpect(jsonPath("$.diagnosis").value("Migraine"));
 
-                verify(consultationService, times(1)).updateConsultation(anyLong(), any(Consultation.class));
+                verify(consultationService, times(1)).updateConsultation(anyLong(), any(Consultation.class), eq(3L));
+        }
+
+        @Test
+        @DisplayName("Should merge-patch consultation")
+        @WithMockUser(roles = "DOCTOR")
+        void shouldPatchConsultation() throws Exception {
+                testConsultation.setVersion(2L);
+                when(consultationService.patchConsultation(eq(1L), any(JsonNode.class), isNull()))
+                                .thenReturn(testConsultation);
+
+                mockMvc.perform(patch("/api/consultations/1")
+                                .with(csrf())
+                                .contentType("application/merge-patch+json")
+                                .content("{\"diagnosis\":\"Migraine\"}"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                                .andExpect(jsonPath("$.diagnosis").value("Migraine"));
+        }
+
+        @Test
+        @DisplayName("Should answer 412 when If-Match names a stale version")
+        @WithMockUser(roles = "DOCTOR")
+        void shouldRejectStalePatch() throws Exception {
+                when(consultationService.patchConsultation(eq(1L), any(JsonNode.class), eq(1L)))
+                                .thenThrow(new OptimisticLockingFailureException("Consultation 1 has been modified"));
+
+                mockMvc.perform(patch("/api/consultations/1")
+                                .with(csrf())
+                                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                                .contentType("application/merge-patch+json")
+                                .content("{\"notes\":null}"))
+                                .andExpect(status().isPreconditionFailed());
         }
 }
@@ -0,0 +1,136 @@
+package com.medinsight.doctor.noshow;
+
+import com.medinsight.doctor.dto.AppointmentSummary;
+import com.medinsight.doctor.enums.AppointmentStatus;
+import com.medinsight.doctor.enums.AppointmentType;
+import com.medinsight.doctor.event.AppointmentChangedEvent;
+import com.medinsight.doctor.repository.AppointmentRepository;
+import com.medinsight.doctor.slot.SlotIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("No-Show Sweeper Tests")
+class NoShowSweeperTest {
+
+    private static final Duration GRACE = Duration.ofMinutes(15);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private SlotIndex slotIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private NoShowSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new NoShowSweeper(appointmentRepository, slotIndex, eventPublisher, transactionTemplate,
+                Duration.ofMinutes(1), GRACE, Duration.ofDays(1), Duration.ofDays(7), 500);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Should mark appointments that ended while the service was down on the first sweep")
+    void shouldRecoverOverdueAppointmentsOnFirstSweep() {
+        AppointmentSummary missed = summary(1L, LocalDateTime.now().minusHours(3), AppointmentStatus.SCHEDULED);
+        AppointmentSummary upcoming = summary(2L, LocalDateTime.now().plusHours(3), AppointmentStatus.CONFIRMED);
+        when(appointmentRepository.findSummariesByStatusInAndRange(any(), any(), any()))
+                .thenReturn(List.of(missed, upcoming));
+        when(appointmentRepository.lockEndedBy(eq(List.of(1L)), any(), any())).thenReturn(List.of(1L));
+        when(appointmentRepository.updateStatus(List.of(1L),
+                AppointmentStatus.predecessors(AppointmentStatus.NO_SHOW), AppointmentStatus.NO_SHOW))
+                .thenReturn(1);
+        AppointmentSummary marked = summary(1L, missed.appointmentDateTime(), AppointmentStatus.NO_SHOW);
+        when(appointmentRepository.findSummariesByIdInAndStatus(List.of(1L), AppointmentStatus.NO_SHOW))
+                .thenReturn(List.of(marked));
+
+        sweeper.sweep();
+
+        verify(slotIndex).release(200L, 1L);
+        verify(eventPublisher).publishEvent(new AppointmentChangedEvent(marked));
+        assertThat(sweeper.pending()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should load the horizon once and not scan again on later ticks")
+    void shouldNotRescanOnEveryTick() {
+        when(appointmentRepository.findSummariesByStatusInAndRange(any(), any(), any())).thenReturn(List.of());
+
+        sweeper.sweep();
+        sweeper.sweep();
+        sweeper.sweep();
+
+        verify(appointmentRepository, times(1)).findSummariesByStatusInAndRange(any(), any(), any());
+        verify(appointmentRepository, never()).lockEndedBy(anyList(), anyList(), any());
+    }
+
+    @Test
+    @DisplayName("Should schedule booked appointments and leave ones already started alone")
+    void shouldScheduleOpenAppointmentsFromEvents() {
+        sweeper.onAppointmentChanged(new AppointmentChangedEvent(summary(3L, LocalDateTime.now().plusHours(1),
+                AppointmentStatus.SCHEDULED)));
+        sweeper.onAppointmentChanged(new AppointmentChangedEvent(summary(4L, LocalDateTime.now().plusHours(1),
+                AppointmentStatus.IN_PROGRESS)));
+
+        assertThat(sweeper.pending()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should skip due appointments that are no longer open or have not ended")
+    void shouldSkipAppointmentsTheDatabaseNoLongerHoldsOpen() {
+        when(appointmentRepository.findSummariesByStatusInAndRange(any(), any(), any()))
+                .thenReturn(List.of(summary(5L, LocalDateTime.now().minusHours(2), AppointmentStatus.SCHEDULED)));
+        when(appointmentRepository.lockEndedBy(anyList(), anyList(), any())).thenReturn(List.of());
+
+        sweeper.sweep();
+
+        verify(appointmentRepository, never()).updateStatus(any(), any(), any());
+        verifyNoInteractions(slotIndex, eventPublisher);
+        assertThat(sweeper.pending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should retry a batch on the next tick when marking fails")
+    void shouldRetryFailedBatch() {
+        when(appointmentRepository.findSummariesByStatusInAndRange(any(), any(), any()))
+                .thenReturn(List.of(summary(6L, LocalDateTime.now().minusHours(2), AppointmentStatus.SCHEDULED)));
+        when(appointmentRepository.lockEndedBy(anyList(), anyList(), any()))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(List.of());
+
+        sweeper.sweep();
+        assertThat(sweeper.pending()).isEqualTo(1);
+
+        sweeper.sweep();
+        verify(appointmentRepository, times(2)).lockEndedBy(eq(List.of(6L)), anyList(), any());
+        assertThat(sweeper.pending()).isZero();
+    }
+
+    private static AppointmentSummary summary(Long id, LocalDateTime start, AppointmentStatus status) {
+        return new AppointmentSummary(id, 100L, 200L, start, 30, AppointmentType.CONSULTATION, status);
+    }
+}
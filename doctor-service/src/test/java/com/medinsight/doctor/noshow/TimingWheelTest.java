@@ -0,0 +1,95 @@
+package com.medinsight.doctor.noshow;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Timing Wheel Tests")
+class TimingWheelTest {
+
+    @Test
+    @DisplayName("Should fire a deadline once the clock reaches its tick")
+    void shouldFireWhenDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        wheel.schedule("a", 25);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(29, fired::add);
+        assertThat(fired).isEmpty();
+
+        wheel.advance(30, fired::add);
+        assertThat(fired).containsExactly("a");
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should cascade deadlines beyond one rotation down from the overflow wheels")
+    void shouldCascadeFromOverflowWheels() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        wheel.schedule("next rotation", 55);
+        wheel.schedule("far", 1234);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(50, fired::add);
+        assertThat(fired).isEmpty();
+
+        wheel.advance(60, fired::add);
+        assertThat(fired).containsExactly("next rotation");
+
+        wheel.advance(1230, fired::add);
+        assertThat(fired).containsExactly("next rotation");
+
+        wheel.advance(1240, fired::add);
+        assertThat(fired).containsExactly("next rotation", "far");
+    }
+
+    @Test
+    @DisplayName("Should refuse deadlines that are already due")
+    void shouldRefuseOverdueDeadlines() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 100);
+
+        assertThat(wheel.schedule("late", 99)).isFalse();
+        assertThat(wheel.schedule("this tick", 100)).isTrue();
+        assertThat(wheel.pending()).isEqualTo(1);
+        assertThatThrownBy(() -> new TimingWheel<String>(0, 4, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should fire every deadline exactly once and never early")
+    void shouldMatchDeadlinesUnderRandomLoad() {
+        Random random = new Random(23);
+        TimingWheel<Integer> wheel = new TimingWheel<>(7, 5, -1000);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        Map<Integer, Long> firedAt = new HashMap<>();
+        long now = -1000;
+
+        for (int step = 0; step < 2000; step++) {
+            int id = step;
+            long deadline = now + random.nextInt(5000);
+            if (wheel.schedule(id, deadline)) {
+                deadlines.put(id, deadline);
+            }
+            now += random.nextInt(20);
+            long time = now;
+            wheel.advance(time, item -> assertThat(firedAt.put(item, time)).isNull());
+        }
+        wheel.advance(now + 10_000, item -> assertThat(firedAt.put(item, Long.MAX_VALUE)).isNull());
+
+        assertThat(firedAt.keySet()).isEqualTo(deadlines.keySet());
+        deadlines.forEach((id, deadline) -> {
+            long fired = firedAt.get(id);
+            if (fired != Long.MAX_VALUE) {
+                assertThat(fired).isGreaterThanOrEqualTo(deadline);
+            }
+        });
+        assertThat(wheel.pending()).isZero();
+    }
+}
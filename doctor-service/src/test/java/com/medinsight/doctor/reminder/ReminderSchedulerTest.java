@@ -0,0 +1,192 @@
+package com.medinsight.doctor.reminder;
+
+import com.medinsight.doctor.dto.AppointmentSummary;
+import com.medinsight.doctor.enums.AppointmentStatus;
+import com.medinsight.doctor.enums.AppointmentType;
+import com.medinsight.doctor.event.AppointmentChangedEvent;
+import com.medinsight.doctor.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Reminder Scheduler Tests")
+class ReminderSchedulerTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private ReminderSender reminderSender;
+
+    @Mock
+    private ThreadPoolExecutor reminderExecutor;
+
+    private ReminderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new ReminderScheduler(appointmentRepository, reminderSender, reminderExecutor,
+                Duration.ofHours(1), Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofMillis(10), 500);
+    }
+
+    @Test
+    @DisplayName("Should load each reminder kind by due time and not queue the same reminder twice")
+    void shouldLoadRemindersByDueTime() {
+        AppointmentSummary tomorrow = summary(1L, LocalDateTime.now().plusHours(24).plusMinutes(30),
+                AppointmentStatus.SCHEDULED);
+        AppointmentSummary soon = summary(2L, LocalDateTime.now().plusHours(2).plusMinutes(30),
+                AppointmentStatus.CONFIRMED);
+        when(appointmentRepository.findSummariesByStatusInAndRange(any(), any(), any()))
+                .thenReturn(List.of(tomorrow), List.of(soon));
+
+        scheduler.refill();
+        scheduler.onAppointmentChanged(new AppointmentChangedEvent(soon));
+
+        assertThat(scheduler.queued()).extracting(Reminder::key).containsExactlyInAnyOrder(
+                new Reminder.Key(1L, ReminderKind.DAY_BEFORE), new Reminder.Key(2L, ReminderKind.TWO_HOURS_BEFORE));
+        assertThat(scheduler.pending()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should drop the reminders of cancelled appointments without sending them")
+    void shouldSkipCancelledAppointments() {
+        AppointmentSummary appointment = summary(3L, LocalDateTime.now().plusHours(2).plusMinutes(10),
+                AppointmentStatus.SCHEDULED);
+        when(appointmentRepository.findSummariesByStatusInAndRange(any(), any(), any()))
+                .thenReturn(List.of(), List.of(appointment));
+        scheduler.refill();
+        List<Reminder> queued = scheduler.queued();
+
+        scheduler.onAppointmentChanged(new AppointmentChangedEvent(summary(3L, appointment.appointmentDateTime(),
+                AppointmentStatus.CANCELLED)));
+        scheduler.deliver(queued);
+
+        assertThat(scheduler.pending()).isZero();
+        verifyNoInteractions(reminderSender);
+    }
+
+    @Test
+    @DisplayName("Should replace the reminder of a rescheduled appointment")
+    void shouldRescheduleReminder() {
+        LocalDateTime start = LocalDateTime.now().plusHours(2).plusMinutes(10);
+        when(appointmentRepository.findSummariesByStatusInAndRange(any(), any(), any()))
+                .thenReturn(List.of(), List.of(summary(4L, start, AppointmentStatus.SCHEDULED)));
+        scheduler.refill();
+
+        AppointmentSummary moved = summary(4L, start.plusMinutes(20), AppointmentStatus.SCHEDULED);
+        scheduler.onAppointmentChanged(new AppointmentChangedEvent(moved));
+        when(appointmentRepository.findSummariesByIdInAndStatusIn(anyList(), any())).thenReturn(List.of(moved));
+        scheduler.deliver(scheduler.queued());
+
+        verify(reminderSender).send(argThat(reminders -> reminders.size() == 1
+                && reminders.get(0).appointmentDateTime().equals(moved.appointmentDateTime())));
+        assertThat(scheduler.pending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should skip reminders whose appointment another instance changed")
+    void shouldCheckTheDatabaseBeforeSending() {
+        AppointmentSummary appointment = summary(5L, LocalDateTime.now().plusHours(2).plusMinutes(10),
+                AppointmentStatus.SCHEDULED);
+        when(appointmentRepository.findSummariesByStatusInAndRange(any(), any(), any()))
+                .thenReturn(List.of(), List.of(appointment));
+        when(appointmentRepository.findSummariesByIdInAndStatusIn(List.of(5L),
+                AppointmentStatus.predecessors(AppointmentStatus.NO_SHOW))).thenReturn(List.of());
+        scheduler.refill();
+
+        scheduler.deliver(scheduler.queued());
+
+        verifyNoInteractions(reminderSender);
+        assertThat(scheduler.pending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should queue a failed batch again after the retry delay")
+    void shouldRetryFailedBatch() {
+        AppointmentSummary appointment = summary(6L, LocalDateTime.now().plusHours(2).plusMinutes(10),
+                AppointmentStatus.SCHEDULED);
+        when(appointmentRepository.findSummariesByStatusInAndRange(any(), any(), any()))
+                .thenReturn(List.of(), List.of(appointment));
+        when(appointmentRepository.findSummariesByIdInAndStatusIn(anyList(), any())).thenReturn(List.of(appointment));
+        when(reminderSender.send(anyList()))
+                .thenThrow(new IllegalStateException("notification-service unavailable"))
+                .thenReturn(List.of());
+        scheduler.refill();
+        List<Reminder> first = scheduler.queued();
+
+        scheduler.deliver(first);
+
+        assertThat(scheduler.pending()).isEqualTo(1);
+        List<Reminder> retried = scheduler.queued().stream().filter(reminder -> !first.contains(reminder)).toList();
+        assertThat(retried).singleElement()
+                .satisfies(reminder -> assertThat(reminder.dueAt()).isAfter(LocalDateTime.now()));
+
+        scheduler.deliver(first);
+        verify(reminderSender, times(1)).send(anyList());
+
+        scheduler.deliver(retried);
+        verify(reminderSender, times(2)).send(anyList());
+        assertThat(scheduler.pending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should queue again only the reminders notification-service could not deliver")
+    void shouldRetryUndeliveredReminders() {
+        AppointmentSummary delivered = summary(8L, LocalDateTime.now().plusHours(2).plusMinutes(10),
+                AppointmentStatus.SCHEDULED);
+        AppointmentSummary undelivered = summary(9L, LocalDateTime.now().plusHours(2).plusMinutes(20),
+                AppointmentStatus.CONFIRMED);
+        when(appointmentRepository.findSummariesByStatusInAndRange(any(), any(), any()))
+                .thenReturn(List.of(), List.of(delivered, undelivered));
+        when(appointmentRepository.findSummariesByIdInAndStatusIn(anyList(), any()))
+                .thenReturn(List.of(delivered, undelivered));
+        scheduler.refill();
+        List<Reminder> first = scheduler.queued();
+        Reminder failed = first.stream().filter(reminder -> reminder.appointmentId() == 9L).findFirst().orElseThrow();
+        when(reminderSender.send(anyList())).thenReturn(List.of(failed));
+
+        scheduler.deliver(first);
+
+        assertThat(scheduler.pending()).isEqualTo(1);
+        assertThat(scheduler.queued().stream().filter(reminder -> !first.contains(reminder)).toList())
+                .singleElement()
+                .satisfies(reminder -> {
+                    assertThat(reminder.key()).isEqualTo(new Reminder.Key(9L, ReminderKind.TWO_HOURS_BEFORE));
+                    assertThat(reminder.dueAt()).isAfter(LocalDateTime.now());
+                });
+    }
+
+    @Test
+    @DisplayName("Should ignore changes before the first load and reminders too late to send")
+    void shouldIgnoreUnloadedAndLateReminders() {
+        AppointmentSummary appointment = summary(7L, LocalDateTime.now().plusMinutes(30), AppointmentStatus.SCHEDULED);
+
+        scheduler.onAppointmentChanged(new AppointmentChangedEvent(appointment));
+        assertThat(scheduler.pending()).isZero();
+
+        when(appointmentRepository.findSummariesByStatusInAndRange(any(), any(), any())).thenReturn(List.of());
+        scheduler.refill();
+        scheduler.onAppointmentChanged(new AppointmentChangedEvent(appointment));
+
+        // The two-hour reminder fell due 90 minutes ago, beyond the hour a reminder may be late
+        assertThat(scheduler.pending()).isZero();
+    }
+
+    private static AppointmentSummary summary(Long id, LocalDateTime start, AppointmentStatus status) {
+        return new AppointmentSummary(id, 100L, 200L, start, 30, AppointmentType.CONSULTATION, status);
+    }
+}
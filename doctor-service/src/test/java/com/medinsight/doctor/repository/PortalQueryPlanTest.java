@@ -0,0 +1,124 @@
+package com.medinsight.doctor.repository;
+
+import com.medinsight.doctor.entity.Consultation;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the Flyway schema on a real Postgres, captures the SQL Hibernate
+ * generates for the portal consultation query and asserts that Postgres plans
+ * it through idx_consultations_portal without a separate sort.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class PortalQueryPlanTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.properties.hibernate.session_factory.statement_inspector",
+                CapturingInspector.class::getName);
+    }
+
+    // Keeps the slice to JPA only; the application class also scans commons and the web layer
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = Consultation.class)
+    @EnableJpaRepositories(basePackageClasses = ConsultationRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private ConsultationRepository consultationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO doctors (user_id, first_name, last_name, specialization, license_number, email)
+                SELECT 'user-' || g, 'First', 'Last', 'GENERAL', 'LIC-' || g, 'doctor' || g || '@medinsight.test'
+                FROM generate_series(1, 50) g""");
+        jdbcTemplate.update("""
+                INSERT INTO appointments (patient_id, doctor_id, appointment_date_time, status)
+                SELECT g % 500, (SELECT min(id) FROM doctors) + g % 50, TIMESTAMP '2000-01-01' + g * INTERVAL '1 hour',
+                       'COMPLETED'
+                FROM generate_series(1, 20000) g""");
+        jdbcTemplate.update("""
+                INSERT INTO consultations (appointment_id, patient_id, doctor_id, consultation_date, visible_in_portal)
+                SELECT id, patient_id, doctor_id, appointment_date_time, id % 3 <> 0
+                FROM appointments""");
+        jdbcTemplate.execute("ANALYZE appointments");
+        jdbcTemplate.execute("ANALYZE consultations");
+    }
+
+    @Test
+    @DisplayName("Portal consultation listing should use idx_consultations_portal without sorting")
+    void consultationPortalQueryUsesCompositeIndex() {
+        String plan = explain(() -> consultationRepository.findPortalSummaries(42L, Limit.of(20)));
+
+        assertThat(plan).contains("idx_consultations_portal").doesNotContain("Sort");
+    }
+
+    /**
+     * Runs {@code query}, then EXPLAINs the last statement Hibernate issued
+     * with the same parameter values bound through a prepared statement.
+     */
+    private String explain(Runnable query) {
+        CapturingInspector.LAST_SQL.remove();
+        query.run();
+        String sql = CapturingInspector.LAST_SQL.get();
+        assertThat(sql).isNotNull();
+
+        AtomicInteger parameter = new AtomicInteger();
+        String prepared = Pattern.compile("\\?").matcher(sql)
+                .replaceAll(match -> "\\$" + parameter.incrementAndGet());
+        jdbcTemplate.execute("PREPARE portal_query AS " + prepared);
+        try {
+            String arguments = parameter.get() == 2 ? "42, 20" : "42";
+            List<String> lines = jdbcTemplate.queryForList("EXPLAIN EXECUTE portal_query(" + arguments + ")",
+                    String.class);
+            return String.join("\n", lines);
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE portal_query");
+        }
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final ThreadLocal<String> LAST_SQL = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            LAST_SQL.set(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.medinsight.doctor.schedule;
+
+import com.medinsight.doctor.dto.TimeSlot;
+import com.medinsight.doctor.entity.Schedule;
+import com.medinsight.doctor.entity.ScheduleOverride;
+import com.medinsight.doctor.repository.ScheduleOverrideRepository;
+import com.medinsight.doctor.repository.ScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Working Calendar Tests")
+class WorkingCalendarTest {
+
+    // A Monday
+    private static final LocalDate MONDAY = LocalDate.of(2030, 3, 4);
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    @Mock
+    private ScheduleOverrideRepository scheduleOverrideRepository;
+
+    private WorkingCalendar workingCalendar;
+
+    @BeforeEach
+    void setUp() {
+        workingCalendar = new WorkingCalendar(scheduleRepository, scheduleOverrideRepository,
+                new ConcurrentMapCacheManager(WorkingCalendar.WORKING_WEEKS_CACHE), Duration.ofMinutes(10));
+        lenient().when(scheduleRepository.findByDoctorIdAndAvailable(any(), eq(true))).thenReturn(List.of(
+                period(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(17, 0)),
+                period(DayOfWeek.TUESDAY, LocalTime.of(20, 0), LocalTime.MIDNIGHT),
+                period(DayOfWeek.WEDNESDAY, LocalTime.of(0, 0), LocalTime.of(2, 0))));
+        lenient().when(scheduleOverrideRepository.findByDoctorIdAndDateBetweenOrderByDateAscStartTimeAsc(any(),
+                any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("Should apply date overrides on top of the weekly template")
+    void shouldApplyOverrides() {
+        LocalDate saturday = MONDAY.plusDays(5);
+        when(scheduleOverrideRepository.findByDoctorIdAndDateBetweenOrderByDateAscStartTimeAsc(7L, MONDAY,
+                MONDAY.plusDays(6))).thenReturn(List.of(
+                override(MONDAY, LocalTime.of(12, 0), LocalTime.of(13, 0), false),
+                override(MONDAY.plusDays(1), null, null, false),
+                override(saturday, LocalTime.of(10, 0), LocalTime.of(12, 0), true)));
+
+        assertThat(workingCalendar.isWorking(7L, MONDAY.atTime(11, 59))).isTrue();
+        assertThat(workingCalendar.isWorking(7L, MONDAY.atTime(12, 30))).isFalse();
+        assertThat(workingCalendar.isWorking(7L, MONDAY.plusDays(1).atTime(21, 0))).isFalse();
+        assertThat(workingCalendar.isWorking(7L, MONDAY.plusDays(2).atTime(1, 0))).isTrue();
+        assertThat(workingCalendar.isWorking(7L, saturday.atTime(10, 0))).isTrue();
+        assertThat(workingCalendar.isWorking(7L, saturday.atTime(12, 0))).isFalse();
+        assertThat(workingCalendar.isWorking(7L, MONDAY.plusWeeks(1).atTime(12, 30))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should list working intervals, joining time worked across midnight")
+    void shouldListWorkingIntervals() {
+        List<TimeSlot> intervals = workingCalendar.workingIntervals(7L, MONDAY, MONDAY.plusDays(2));
+
+        assertThat(intervals).containsExactly(
+                new TimeSlot(MONDAY.atTime(9, 0), MONDAY.atTime(17, 0)),
+                new TimeSlot(MONDAY.plusDays(1).atTime(20, 0), MONDAY.plusDays(2).atTime(2, 0)));
+        assertThat(workingCalendar.workingIntervals(7L, MONDAY.plusDays(1), MONDAY.plusDays(1)))
+                .containsExactly(new TimeSlot(MONDAY.plusDays(1).atTime(20, 0), MONDAY.plusDays(2).atStartOfDay()));
+    }
+
+    @Test
+    @DisplayName("Should read the weeks of a horizon together and then serve them from the cache")
+    void shouldCacheExpandedWeeks() {
+        workingCalendar.workingIntervals(7L, MONDAY, MONDAY.plusWeeks(3).plusDays(6));
+        workingCalendar.workingIntervals(7L, MONDAY.plusDays(3), MONDAY.plusWeeks(2));
+        workingCalendar.isWorking(7L, MONDAY.plusWeeks(1).atTime(9, 0));
+
+        verify(scheduleRepository, times(1)).findByDoctorIdAndAvailable(7L, true);
+        verify(scheduleOverrideRepository, times(1)).findByDoctorIdAndDateBetweenOrderByDateAscStartTimeAsc(7L,
+                MONDAY, MONDAY.plusWeeks(3).plusDays(6));
+    }
+
+    @Test
+    @DisplayName("Should expand again only the week of a changed override")
+    void shouldInvalidateOnlyTheOverriddenWeek() {
+        workingCalendar.workingIntervals(7L, MONDAY, MONDAY.plusWeeks(1).plusDays(6));
+        when(scheduleOverrideRepository.findByDoctorIdAndDateBetweenOrderByDateAscStartTimeAsc(7L,
+                MONDAY.plusWeeks(1), MONDAY.plusWeeks(1).plusDays(6)))
+                .thenReturn(List.of(override(MONDAY.plusWeeks(1), null, null, false)));
+
+        workingCalendar.overridesChanged(7L, MONDAY.plusWeeks(1).plusDays(2));
+
+        assertThat(workingCalendar.isWorking(7L, MONDAY.atTime(10, 0))).isTrue();
+        assertThat(workingCalendar.isWorking(7L, MONDAY.plusWeeks(1).atTime(10, 0))).isFalse();
+        verify(scheduleRepository, times(2)).findByDoctorIdAndAvailable(7L, true);
+    }
+
+    @Test
+    @DisplayName("Should expand again every week of a doctor whose template changed, and only theirs")
+    void shouldInvalidateTheDoctorsWeeksOnTemplateChange() {
+        workingCalendar.workingIntervals(7L, MONDAY, MONDAY.plusWeeks(1).plusDays(6));
+        workingCalendar.isWorking(8L, MONDAY.atTime(10, 0));
+
+        workingCalendar.templateChanged(7L);
+        workingCalendar.workingIntervals(7L, MONDAY, MONDAY.plusWeeks(1).plusDays(6));
+        workingCalendar.isWorking(8L, MONDAY.atTime(10, 0));
+
+        verify(scheduleRepository, times(2)).findByDoctorIdAndAvailable(7L, true);
+        verify(scheduleRepository, times(1)).findByDoctorIdAndAvailable(8L, true);
+    }
+
+    @Test
+    @DisplayName("Should return the weeks of a date range by Monday, reading the uncached ones together")
+    void shouldReadMissingWeeksTogether() {
+        workingCalendar.week(7L, MONDAY);
+
+        Map<LocalDate, WorkingWeek> weeks = workingCalendar.weeks(7L, MONDAY.plusDays(3), MONDAY.plusWeeks(2));
+
+        assertThat(weeks).containsOnlyKeys(MONDAY, MONDAY.plusWeeks(1), MONDAY.plusWeeks(2));
+        assertThat(weeks.get(MONDAY).isWorking(MONDAY.atTime(10, 0))).isTrue();
+        verify(scheduleOverrideRepository).findByDoctorIdAndDateBetweenOrderByDateAscStartTimeAsc(7L,
+                MONDAY.plusWeeks(1), MONDAY.plusWeeks(2).plusDays(6));
+        verify(scheduleRepository, times(2)).findByDoctorIdAndAvailable(7L, true);
+    }
+
+    private static Schedule period(DayOfWeek dayOfWeek, LocalTime start, LocalTime end) {
+        return Schedule.builder()
+                .doctorId(7L)
+                .dayOfWeek(dayOfWeek)
+                .startTime(start)
+                .endTime(end)
+                .available(true)
+                .build();
+    }
+
+    private static ScheduleOverride override(LocalDate date, LocalTime start, LocalTime end, boolean available) {
+        return ScheduleOverride.builder()
+                .doctorId(7L)
+                .date(date)
+                .startTime(start)
+                .endTime(end)
+                .available(available)
+                .build();
+    }
+}
@@ -0,0 +1,269 @@
+package com.medinsight.doctor.service;
+
+import com.medinsight.doctor.entity.Appointment;
+import com.medinsight.doctor.enums.AppointmentStatus;
+import com.medinsight.doctor.enums.AppointmentType;
+import com.medinsight.doctor.repository.AppointmentRepository;
+import com.medinsight.doctor.repository.ScheduleOverrideRepository;
+import com.medinsight.doctor.repository.ScheduleRepository;
+import com.medinsight.doctor.schedule.WorkingCalendar;
+import com.medinsight.doctor.slot.BookingLocks;
+import com.medinsight.doctor.slot.SlotIndex;
+import com.medinsight.doctor.slot.SlotUnavailableException;
+import com.medinsight.doctor.worklist.WorklistView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Fires 1,000 simultaneous bookings at a few doctors through two booking
+ * stacks that share only the Flyway schema on a real Postgres, standing in for
+ * two service instances, and checks that no doctor ends up double booked. Also
+ * brings cancelled appointments back against the real overlap checks.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AppointmentBookingLoadTest {
+
+    private static final int REQUESTS = 1000;
+    private static final int DOCTORS = 5;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        // The shared test configuration targets H2 and lets Hibernate create the schema
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    // Keeps the slice to JPA only; the application class also declares the web security chain
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = Appointment.class)
+    @EnableJpaRepositories(basePackageClasses = AppointmentRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ScheduleOverrideRepository scheduleOverrideRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("""
+                INSERT INTO doctors (id, user_id, first_name, last_name, specialization, license_number, email)
+                SELECT g, 'user-' || g, 'Doctor', 'No. ' || g, 'CARDIOLOGY', 'LIC-' || g, 'doctor' || g || '@test'
+                FROM generate_series(1, ?) g
+                ON CONFLICT DO NOTHING""", DOCTORS);
+    }
+
+    @Test
+    @DisplayName("1,000 concurrent bookings across two instances should never double book")
+    void shouldNeverDoubleBookUnderConcurrentLoad() throws Exception {
+        int booked = bookConcurrently();
+
+        assertThat(booked).isPositive();
+        assertThat(countRows()).isEqualTo(booked);
+        assertThat(countOverlaps()).isZero();
+    }
+
+    @Test
+    @DisplayName("Advisory locks alone should prevent double booking across instances")
+    void shouldNeverDoubleBookWithoutExclusionConstraint() throws Exception {
+        jdbcTemplate.execute("ALTER TABLE appointments DROP CONSTRAINT IF EXISTS appointments_no_overlap");
+        try {
+            int booked = bookConcurrently();
+
+            assertThat(countRows()).isEqualTo(booked);
+            assertThat(countOverlaps()).isZero();
+        } finally {
+            jdbcTemplate.update("DELETE FROM appointments");
+            jdbcTemplate.execute("""
+                    ALTER TABLE appointments ADD CONSTRAINT appointments_no_overlap EXCLUDE USING gist (
+                        doctor_id WITH =,
+                        tsrange(appointment_date_time, appointment_date_time + duration_minutes * INTERVAL '1 minute')
+                            WITH &&
+                    ) WHERE (status NOT IN ('CANCELLED', 'NO_SHOW'))""");
+        }
+    }
+
+    @Test
+    @DisplayName("A cancelled appointment should be restored while its time is still free")
+    void shouldRestoreCancelledAppointment() {
+        AppointmentService service = instance();
+        LocalDateTime start = nextWeekAt(9);
+        Appointment booked = service.createAppointment(appointment(1L, start));
+        inTransaction(() -> service.cancelAppointment(booked.getId()));
+
+        Appointment restored = inTransaction(() ->
+                service.updateAppointmentStatus(booked.getId(), AppointmentStatus.SCHEDULED));
+
+        assertThat(restored.getStatus()).isEqualTo(AppointmentStatus.SCHEDULED);
+        assertThat(appointmentRepository.findById(booked.getId())).get()
+                .extracting(Appointment::getStatus).isEqualTo(AppointmentStatus.SCHEDULED);
+    }
+
+    @Test
+    @DisplayName("A cancelled appointment should not be restored over a later booking of its time")
+    void shouldRefuseToRestoreOverAnotherBooking() {
+        AppointmentService service = instance();
+        LocalDateTime start = nextWeekAt(10);
+        Appointment cancelled = service.createAppointment(appointment(1L, start));
+        inTransaction(() -> service.cancelAppointment(cancelled.getId()));
+        instance().createAppointment(appointment(2L, start.plusMinutes(15)));
+
+        assertThatThrownBy(() -> inTransaction(() ->
+                service.updateAppointmentStatus(cancelled.getId(), AppointmentStatus.SCHEDULED)))
+                .isInstanceOf(SlotUnavailableException.class);
+
+        assertThat(appointmentRepository.findById(cancelled.getId())).get()
+                .extracting(Appointment::getStatus).isEqualTo(AppointmentStatus.CANCELLED);
+    }
+
+    /**
+     * Books {@link #REQUESTS} appointments released at once, alternating
+     * between two instances. Starts fall every 15 minutes over one morning and
+     * last 30 or 45 minutes, so most requests collide with others.
+     *
+     * @return how many bookings succeeded
+     */
+    private int bookConcurrently() throws Exception {
+        AppointmentService[] instances = {instance(), instance()};
+        LocalDateTime morning = LocalDateTime.now().plusDays(7).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        Random random = new Random(19);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        try {
+            List<Future<?>> futures = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                AppointmentService instance = instances[i % instances.length];
+                Appointment appointment = Appointment.builder()
+                        .patientId((long) i)
+                        .doctorId((long) (1 + random.nextInt(DOCTORS)))
+                        .appointmentDateTime(morning.plusMinutes(15L * random.nextInt(16)))
+                        .durationMinutes(random.nextBoolean() ? 30 : 45)
+                        .type(AppointmentType.CONSULTATION)
+                        .build();
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        instance.createAppointment(appointment);
+                        booked.incrementAndGet();
+                    } catch (SlotUnavailableException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(booked.get() + rejected.get()).isEqualTo(REQUESTS);
+        return booked.get();
+    }
+
+    // A booking stack with its own slot index and locks, as a separate instance would have
+    private AppointmentService instance() {
+        SlotIndex slotIndex = new SlotIndex(appointmentRepository, new WorkingCalendar(scheduleRepository,
+                scheduleOverrideRepository, new NoOpCacheManager(), Duration.ofMinutes(10)));
+        ReflectionTestUtils.setField(slotIndex, "enforceSchedule", false);
+        ReflectionTestUtils.setField(slotIndex, "stepMinutes", 15);
+        ReflectionTestUtils.setField(slotIndex, "refreshMinInterval", Duration.ofSeconds(1));
+        return new AppointmentService(appointmentRepository, slotIndex, new BookingLocks(1024, Duration.ofSeconds(30)),
+                new TransactionTemplate(transactionManager), event -> { }, new WorklistView(appointmentRepository));
+    }
+
+    // The service's class-level transaction, which the plain instances above do not get from a proxy
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+
+    private static Appointment appointment(Long patientId, LocalDateTime start) {
+        return Appointment.builder()
+                .patientId(patientId)
+                .doctorId(1L)
+                .appointmentDateTime(start)
+                .durationMinutes(30)
+                .type(AppointmentType.CONSULTATION)
+                .build();
+    }
+
+    private static LocalDateTime nextWeekAt(int hour) {
+        return LocalDateTime.now().plusDays(7).withHour(hour).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    private int countRows() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM appointments", Integer.class);
+    }
+
+    private int countOverlaps() {
+        return jdbcTemplate.queryForObject("""
+                WITH booked AS (
+                    SELECT id, doctor_id, tsrange(appointment_date_time,
+                           appointment_date_time + duration_minutes * INTERVAL '1 minute') AS span
+                    FROM appointments)
+                SELECT count(*) FROM booked a JOIN booked b
+                  ON a.doctor_id = b.doctor_id AND a.id < b.id AND a.span && b.span
+                """, Integer.class);
+    }
+}
@@ -1,26 +1,47 @@
 package com.medinsight.doctor.service;
 
+import com.medinsight.doctor.dto.AppointmentHistoryPage;
+import com.medinsight.doctor.dto.AppointmentSummary;
 import com.medinsight.doctor.entity.Appointment;
 import com.medinsight.doctor.enums.AppointmentStatus;
 import com.medinsight.doctor.enums.AppointmentType;
+import com.medinsight.doctor.event.AppointmentChangedEvent;
 import com.medinsight.doctor.repository.AppointmentRepository;
+import com.medinsight.doctor.slot.BookingLocks;
+import com.medinsight.doctor.slot.SlotIndex;
+import com.medinsight.doctor.slot.SlotUnavailableException;
+import com.medinsight.doctor.transition.InvalidTransitionException;
+import com.medinsight.doctor.worklist.WorklistView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,10 +51,26 @@ class AppointmentServiceTest {
     @Mock
     private AppointmentRepository appointmentRepository;
 
+    @Mock
+    private SlotIndex slotIndex;
+
+    @Spy
+    private BookingLocks bookingLocks = new BookingLocks(16, Duration.ofSeconds(1));
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private WorklistView worklistView;
+
     @InjectMocks
     private AppointmentService appointmentService;
 
     private Appointment testAppointment;
+    private AppointmentSummary testSummary;
     private LocalDateTime now;
 
     @BeforeEach
@@ -50,6 +87,11 @@ class AppointmentServiceTest {
                 .reason("Regular Checkup")
                 .notes("Some notes")
                 .build();
+        testSummary = new AppointmentSummary(1L, 100L, 200L, now, 30, AppointmentType.CONSULTATION,
+                AppointmentStatus.SCHEDULED);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(slotIndex.isFree(anyLong(), any(LocalDateTime.class), anyInt())).thenReturn(true);
     }
 
     @Test
@@ -63,6 +105,86 @@ class AppointmentServiceTest {
         assertThat(result.getStatus()).isEqualTo(AppointmentStatus.SCHEDULED); // Should be set to SCHEDULED by service
 
         verify(appointmentRepository, times(1)).save(any(Appointment.class));
+        verify(slotIndex).reserve(200L, now, 30);
+        verify(appointmentRepository).lockDoctorDay(Long.hashCode(200L), (int) now.toLocalDate().toEpochDay());
+        verify(appointmentRepository).existsOverlapping(200L, now, now.plusMinutes(30), 0L);
+    }
+
+    @Test
+    @DisplayName("Should turn away a booking for a slot already gone before locking")
+    void shouldRejectTakenSlotBeforeLocking() {
+        when(slotIndex.isFree(200L, now, 30)).thenReturn(false);
+
+        assertThatThrownBy(() -> appointmentService.createAppointment(testAppointment))
+                .isInstanceOf(SlotUnavailableException.class);
+
+        verifyNoInteractions(transactionTemplate);
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+    }
+
+    @Test
+    @DisplayName("Should not save an appointment another instance has booked")
+    void shouldNotSaveWhenBookedElsewhere() {
+        when(appointmentRepository.existsOverlapping(200L, now, now.plusMinutes(30), 0L)).thenReturn(true);
+
+        assertThatThrownBy(() -> appointmentService.createAppointment(testAppointment))
+                .isInstanceOf(SlotUnavailableException.class);
+
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+    }
+
+    @Test
+    @DisplayName("Should report an exclusion constraint violation as an unavailable slot")
+    void shouldTranslateExclusionViolation() {
+        when(appointmentRepository.save(any(Appointment.class))).thenThrow(new DataIntegrityViolationException(
+                "conflict", new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        assertThatThrownBy(() -> appointmentService.createAppointment(testAppointment))
+                .isInstanceOf(SlotUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("Should pass other integrity violations through")
+    void shouldPassOtherIntegrityViolationsThrough() {
+        when(appointmentRepository.save(any(Appointment.class))).thenThrow(new DataIntegrityViolationException(
+                "no doctor", new SQLException("violates foreign key constraint", "23503")));
+
+        assertThatThrownBy(() -> appointmentService.createAppointment(testAppointment))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("Should not save an appointment whose slot is taken")
+    void shouldNotSaveWhenSlotTaken() {
+        when(slotIndex.reserve(200L, now, 30)).thenThrow(new SlotUnavailableException("taken"));
+
+        assertThatThrownBy(() -> appointmentService.createAppointment(testAppointment))
+                .isInstanceOf(SlotUnavailableException.class);
+
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+    }
+
+    @Test
+    @DisplayName("Should default the duration before reserving the slot")
+    void shouldDefaultDurationBeforeReserving() {
+        testAppointment.setDurationMinutes(null);
+        when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
+
+        appointmentService.createAppointment(testAppointment);
+
+        verify(slotIndex).reserve(200L, now, SlotIndex.DEFAULT_DURATION_MINUTES);
+    }
+
+    @Test
+    @DisplayName("Should cap the free slot range and result count")
+    void shouldCapFreeSlotQuery() {
+        ReflectionTestUtils.setField(appointmentService, "maxRangeDays", 31);
+        ReflectionTestUtils.setField(appointmentService, "maxSlotResults", 500);
+        LocalDate from = LocalDate.of(2030, 3, 1);
+
+        appointmentService.findFreeSlots(200L, from, from.plusYears(1), 45, 10_000);
+
+        verify(slotIndex).findFreeSlots(200L, from, from.plusDays(30), 45, 500);
     }
 
     @Test
@@ -81,27 +203,65 @@ class AppointmentServiceTest {
     @Test
     @DisplayName("Should get appointments by patient ID")
     void shouldGetAppointmentsByPatientId() {
-        when(appointmentRepository.findByPatientId(100L)).thenReturn(Collections.singletonList(testAppointment));
+        when(appointmentRepository.findSummariesByPatientId(100L)).thenReturn(Collections.singletonList(testSummary));
 
-        List<Appointment> results = appointmentService.getAppointmentsByPatientId(100L);
+        List<AppointmentSummary> results = appointmentService.getAppointmentsByPatientId(100L);
 
         assertThat(results).hasSize(1);
-        assertThat(results.get(0).getPatientId()).isEqualTo(100L);
+        assertThat(results.get(0).patientId()).isEqualTo(100L);
 
-        verify(appointmentRepository, times(1)).findByPatientId(100L);
+        verify(appointmentRepository, times(1)).findSummariesByPatientId(100L);
     }
 
     @Test
-    @DisplayName("Should get appointments by doctor ID")
-    void shouldGetAppointmentsByDoctorId() {
-        when(appointmentRepository.findByDoctorId(200L)).thenReturn(Collections.singletonList(testAppointment));
+    @DisplayName("Should page doctor history newest first with a cursor to the next page")
+    void shouldPageDoctorHistory() {
+        AppointmentSummary older = new AppointmentSummary(2L, 100L, 200L, now.minusDays(1), 30,
+                AppointmentType.CONSULTATION, AppointmentStatus.COMPLETED);
+        AppointmentSummary oldest = new AppointmentSummary(3L, 100L, 200L, now.minusDays(2), 30,
+                AppointmentType.CONSULTATION, AppointmentStatus.COMPLETED);
+        when(appointmentRepository.findHistoryPage(eq(200L), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(testSummary, older, oldest));
+
+        AppointmentHistoryPage page = appointmentService.getDoctorAppointmentHistory(200L, null, null, null, null, 2);
+
+        assertThat(page.getContent()).containsExactly(testSummary, older);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getNextBefore()).isEqualTo(older.appointmentDateTime());
+        assertThat(page.getNextBeforeId()).isEqualTo(2L);
+        verify(appointmentRepository).findHistoryPage(eq(200L), any(), any(), eq(0L), eq(Limit.of(3)));
+    }
 
-        List<Appointment> results = appointmentService.getAppointmentsByDoctorId(200L);
+    @Test
+    @DisplayName("Should continue doctor history after the cursor within the date range")
+    void shouldContinueDoctorHistoryAfterCursor() {
+        LocalDate from = now.toLocalDate().minusDays(30);
+        LocalDate to = now.toLocalDate();
+        when(appointmentRepository.findHistoryPage(anyLong(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(testSummary));
+
+        AppointmentHistoryPage page = appointmentService.getDoctorAppointmentHistory(200L, from, to,
+                now.plusHours(1), 9L, 1000);
+
+        assertThat(page.getSize()).isEqualTo(1);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextBefore()).isNull();
+        verify(appointmentRepository).findHistoryPage(200L, from.atStartOfDay(), now.plusHours(1), 9L,
+                Limit.of(AppointmentService.MAX_PAGE_SIZE + 1));
+    }
 
-        assertThat(results).hasSize(1);
-        assertThat(results.get(0).getDoctorId()).isEqualTo(200L);
+    @Test
+    @DisplayName("Should publish a change event when an appointment's status changes")
+    void shouldPublishChangeOnStatusUpdate() {
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(appointmentRepository.updateStatus(List.of(1L), Set.of(AppointmentStatus.SCHEDULED),
+                AppointmentStatus.CANCELLED)).thenReturn(1);
 
-        verify(appointmentRepository, times(1)).findByDoctorId(200L);
+        appointmentService.updateAppointmentStatus(1L, AppointmentStatus.CANCELLED);
+
+        verify(eventPublisher).publishEvent(new AppointmentChangedEvent(new AppointmentSummary(1L, 100L, 200L,
+                testAppointment.getAppointmentDateTime(), testAppointment.getDurationMinutes(),
+                testAppointment.getType(), AppointmentStatus.CANCELLED)));
     }
 
     @Test
@@ -109,20 +269,20 @@ class AppointmentServiceTest {
     void shouldGetDoctorAppointmentsForDateRange() {
         LocalDateTime start = now.minusDays(1);
         LocalDateTime end = now.plusDays(1);
-        when(appointmentRepository.findByDoctorIdAndAppointmentDateTimeBetween(200L, start, end))
-                .thenReturn(Collections.singletonList(testAppointment));
+        when(appointmentRepository.findSummariesByDoctorIdAndRange(200L, start, end))
+                .thenReturn(Collections.singletonList(testSummary));
 
-        List<Appointment> results = appointmentService.getDoctorAppointmentsForDateRange(200L, start, end);
+        List<AppointmentSummary> results = appointmentService.getDoctorAppointmentsForDateRange(200L, start, end);
 
         assertThat(results).hasSize(1);
-        verify(appointmentRepository, times(1)).findByDoctorIdAndAppointmentDateTimeBetween(200L, start, end);
+        verify(appointmentRepository, times(1)).findSummariesByDoctorIdAndRange(200L, start, end);
     }
 
     @Test
     @DisplayName("Should update appointment status")
     void shouldUpdateAppointmentStatus() {
         when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
-        when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
+        when(appointmentRepository.updateStatus(any(), any(), any())).thenReturn(1);
 
         Appointment result = appointmentService.updateAppointmentStatus(1L, AppointmentStatus.CONFIRMED);
 
@@ -131,7 +291,9 @@ class AppointmentServiceTest {
         assertThat(testAppointment.getStatus()).isEqualTo(AppointmentStatus.CONFIRMED);
 
         verify(appointmentRepository, times(1)).findById(1L);
-        verify(appointmentRepository, times(1)).save(testAppointment);
+        verify(appointmentRepository, times(1)).updateStatus(List.of(1L), Set.of(AppointmentStatus.SCHEDULED),
+                AppointmentStatus.CONFIRMED);
+        verify(appointmentRepository, never()).save(any(Appointment.class));
     }
 
     @Test
@@ -144,14 +306,14 @@ class AppointmentServiceTest {
                 .hasMessageContaining("Appointment not found");
 
         verify(appointmentRepository, times(1)).findById(999L);
-        verify(appointmentRepository, never()).save(any(Appointment.class));
+        verify(appointmentRepository, never()).updateStatus(any(), any(), any());
     }
 
     @Test
     @DisplayName("Should confirm appointment")
     void shouldConfirmAppointment() {
         when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
-        when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
+        when(appointmentRepository.updateStatus(any(), any(), any())).thenReturn(1);
 
         appointmentService.confirmAppointment(1L);
 
@@ -162,18 +324,93 @@ class AppointmentServiceTest {
     @DisplayName("Should cancel appointment")
     void shouldCancelAppointment() {
         when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
-        when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
+        when(appointmentRepository.updateStatus(any(), any(), any())).thenReturn(1);
 
         appointmentService.cancelAppointment(1L);
 
         assertThat(testAppointment.getStatus()).isEqualTo(AppointmentStatus.CANCELLED);
+        verify(slotIndex).release(200L, 1L);
+    }
+
+    @Test
+    @DisplayName("Should reserve the slot again when a cancelled appointment is restored")
+    void shouldReserveSlotWhenRestoringCancelledAppointment() {
+        testAppointment.setStatus(AppointmentStatus.CANCELLED);
+        testAppointment.setAppointmentDateTime(now.plusDays(1));
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(appointmentRepository.updateStatus(any(), any(), any())).thenReturn(1);
+
+        appointmentService.updateAppointmentStatus(1L, AppointmentStatus.SCHEDULED);
+
+        verify(slotIndex).reserve(200L, now.plusDays(1), 30);
+        verify(appointmentRepository).existsOverlapping(200L, now.plusDays(1), now.plusDays(1).plusMinutes(30), 1L);
+        verify(slotIndex, never()).release(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should report an unavailable slot when the exclusion constraint rejects a restore")
+    void shouldMapExclusionViolationOnRestore() {
+        testAppointment.setStatus(AppointmentStatus.CANCELLED);
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(appointmentRepository.updateStatus(any(), any(), any())).thenThrow(new DataIntegrityViolationException(
+                "conflict", new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        assertThatThrownBy(() -> appointmentService.updateAppointmentStatus(1L, AppointmentStatus.SCHEDULED))
+                .isInstanceOf(SlotUnavailableException.class);
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("Should refuse a status change the transition graph does not allow")
+    void shouldRejectInvalidTransition() {
+        testAppointment.setStatus(AppointmentStatus.COMPLETED);
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+
+        assertThatThrownBy(() -> appointmentService.cancelAppointment(1L))
+                .isInstanceOf(InvalidTransitionException.class)
+                .hasMessageContaining("COMPLETED to CANCELLED");
+
+        verify(appointmentRepository, never()).updateStatus(any(), any(), any());
+        verify(slotIndex, never()).release(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should check a transition again against a status changed concurrently")
+    void shouldRecheckAfterConcurrentStatusChange() {
+        Appointment completed = Appointment.builder()
+                .id(1L).patientId(100L).doctorId(200L).appointmentDateTime(now)
+                .durationMinutes(30).status(AppointmentStatus.COMPLETED).build();
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment), Optional.of(completed));
+        when(appointmentRepository.updateStatus(List.of(1L), Set.of(AppointmentStatus.SCHEDULED),
+                AppointmentStatus.CANCELLED)).thenReturn(0);
+
+        assertThatThrownBy(() -> appointmentService.cancelAppointment(1L))
+                .isInstanceOf(InvalidTransitionException.class)
+                .hasMessageContaining("COMPLETED to CANCELLED");
+
+        verify(appointmentRepository, times(2)).findById(1L);
+        verify(slotIndex, never()).release(anyLong(), anyLong());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("Should leave the slot index alone between two statuses that hold the slot")
+    void shouldNotTouchSlotsWhenConfirming() {
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(appointmentRepository.updateStatus(any(), any(), any())).thenReturn(1);
+
+        appointmentService.confirmAppointment(1L);
+
+        verify(slotIndex, never()).reserve(anyLong(), any(LocalDateTime.class), anyInt());
+        verify(slotIndex, never()).release(anyLong(), anyLong());
     }
 
     @Test
     @DisplayName("Should complete appointment")
     void shouldCompleteAppointment() {
         when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
-        when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
+        when(appointmentRepository.updateStatus(any(), any(), any())).thenReturn(1);
 
         appointmentService.completeAppointment(1L);
 
@@ -0,0 +1,113 @@
+package com.medinsight.doctor.service;
+
+import com.medinsight.doctor.dto.DoctorSlot;
+import com.medinsight.doctor.dto.TimeSlot;
+import com.medinsight.doctor.entity.Doctor;
+import com.medinsight.doctor.repository.DoctorRepository;
+import com.medinsight.doctor.slot.SlotIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Availability Service Tests")
+class AvailabilityServiceTest {
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private SlotIndex slotIndex;
+
+    private ThreadPoolExecutor executor;
+    private AvailabilityService availabilityService;
+    private LocalDateTime tuesday;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        availabilityService = new AvailabilityService(doctorRepository, slotIndex,
+                new ConcurrentMapCacheManager(AvailabilityService.AVAILABILITY_CACHE), executor);
+        ReflectionTestUtils.setField(availabilityService, "maxRangeDays", 31);
+        ReflectionTestUtils.setField(availabilityService, "maxSlotResults", 500);
+        tuesday = LocalDateTime.now().plusDays(7).withHour(8).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should merge every doctor's slots earliest first up to the limit")
+    void shouldMergeSlotsAcrossDoctors() {
+        when(doctorRepository.findBySpecializationIgnoreCaseAndActive("cardiology", true))
+                .thenReturn(List.of(doctor(1L, "Ada"), doctor(2L, "Ben")));
+        when(slotIndex.findFreeSlots(1L, tuesday, tuesday.plusHours(4), 30, 3))
+                .thenReturn(List.of(slot(60), slot(90), slot(120)));
+        when(slotIndex.findFreeSlots(2L, tuesday, tuesday.plusHours(4), 30, 3))
+                .thenReturn(List.of(slot(30), slot(90)));
+
+        List<DoctorSlot> slots = availabilityService.search("Cardiology ", tuesday, tuesday.plusHours(4), 30, 3);
+
+        assertThat(slots).extracting(DoctorSlot::doctorId).containsExactly(2L, 1L, 1L);
+        assertThat(slots).extracting(DoctorSlot::start)
+                .containsExactly(tuesday.plusMinutes(30), tuesday.plusMinutes(60), tuesday.plusMinutes(90));
+        assertThat(slots.get(0).firstName()).isEqualTo("Ben");
+    }
+
+    @Test
+    @DisplayName("Should answer a repeated search from the cache")
+    void shouldCacheRepeatedSearch() {
+        when(doctorRepository.findBySpecializationIgnoreCaseAndActive("cardiology", true))
+                .thenReturn(List.of(doctor(1L, "Ada")));
+        when(slotIndex.findFreeSlots(1L, tuesday, tuesday.plusHours(4), 30, 50)).thenReturn(List.of(slot(0)));
+
+        availabilityService.search("cardiology", tuesday, tuesday.plusHours(4), null, null);
+        List<DoctorSlot> slots = availabilityService.search("CARDIOLOGY", tuesday, tuesday.plusHours(4), 30, 50);
+
+        assertThat(slots).hasSize(1);
+        verify(doctorRepository, times(1)).findBySpecializationIgnoreCaseAndActive("cardiology", true);
+        verify(slotIndex, times(1)).findFreeSlots(1L, tuesday, tuesday.plusHours(4), 30, 50);
+    }
+
+    @Test
+    @DisplayName("Should cap the search window")
+    void shouldCapSearchWindow() {
+        when(doctorRepository.findBySpecializationIgnoreCaseAndActive("cardiology", true))
+                .thenReturn(List.of(doctor(1L, "Ada")));
+
+        availabilityService.search("cardiology", tuesday, tuesday.plusYears(1), 30, 10);
+
+        verify(slotIndex).findFreeSlots(1L, tuesday, tuesday.plusDays(31), 30, 10);
+    }
+
+    private TimeSlot slot(int minutes) {
+        return new TimeSlot(tuesday.plusMinutes(minutes), tuesday.plusMinutes(minutes + 30));
+    }
+
+    private static Doctor doctor(Long id, String firstName) {
+        return Doctor.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName("Smith")
+                .specialization("Cardiology")
+                .active(true)
+                .build();
+    }
+}
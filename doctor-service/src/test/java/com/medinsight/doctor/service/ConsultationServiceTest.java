@@ -1,7 +1,10 @@
 package com.medinsight.doctor.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.medinsight.commons.exception.ResourceNotFoundException;
+import com.medinsight.doctor.dto.ConsultationSummary;
 import com.medinsight.doctor.entity.Consultation;
+import com.medinsight.doctor.event.ConsultationChangedEvent;
 import com.medinsight.doctor.repository.ConsultationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -9,7 +12,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -29,6 +36,12 @@ class ConsultationServiceTest {
     @Mock
     private ConsultationRepository consultationRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private ConsultationService consultationService;
 
@@ -50,6 +63,7 @@ class ConsultationServiceTest {
                 .notes("Rest advised")
                 .followUpInstructions("Come back in 1 week")
                 .visibleInPortal(true)
+                .version(3L)
                 .build();
     }
 
@@ -64,6 +78,7 @@ class ConsultationServiceTest {
         assertThat(result.getDiagnosis()).isEqualTo("Migraine");
 
         verify(consultationRepository, times(1)).save(any(Consultation.class));
+        verify(eventPublisher).publishEvent(new ConsultationChangedEvent(1L, 100L));
     }
 
     @Test
@@ -119,35 +134,48 @@ class ConsultationServiceTest {
     @Test
     @DisplayName("Should get consultations by patient ID")
     void shouldGetConsultationsByPatientId() {
-        when(consultationRepository.findByPatientId(100L)).thenReturn(Collections.singletonList(testConsultation));
+        when(consultationRepository.findSummariesByPatientId(100L))
+                .thenReturn(Collections.singletonList(new ConsultationSummary(1L, 500L, 100L, 200L, now)));
 
-        List<Consultation> results = consultationService.getConsultationsByPatientId(100L);
+        List<ConsultationSummary> results = consultationService.getConsultationsByPatientId(100L);
 
         assertThat(results).hasSize(1);
-        assertThat(results.get(0).getPatientId()).isEqualTo(100L);
+        assertThat(results.get(0).patientId()).isEqualTo(100L);
     }
 
     @Test
     @DisplayName("Should get consultations by doctor ID")
     void shouldGetConsultationsByDoctorId() {
-        when(consultationRepository.findByDoctorId(200L)).thenReturn(Collections.singletonList(testConsultation));
+        when(consultationRepository.findSummariesByDoctorId(200L))
+                .thenReturn(Collections.singletonList(new ConsultationSummary(1L, 500L, 100L, 200L, now)));
 
-        List<Consultation> results = consultationService.getConsultationsByDoctorId(200L);
+        List<ConsultationSummary> results = consultationService.getConsultationsByDoctorId(200L);
 
         assertThat(results).hasSize(1);
-        assertThat(results.get(0).getDoctorId()).isEqualTo(200L);
+        assertThat(results.get(0).doctorId()).isEqualTo(200L);
     }
 
     @Test
     @DisplayName("Should get patient portal consultations")
     void shouldGetPatientPortalConsultations() {
-        when(consultationRepository.findByPatientIdAndVisibleInPortal(100L, true))
-                .thenReturn(Collections.singletonList(testConsultation));
+        ConsultationSummary summary = new ConsultationSummary(1L, 500L, 100L, 200L, now);
+        when(consultationRepository.findPortalSummaries(100L, Limit.of(ConsultationService.DEFAULT_PORTAL_LIMIT)))
+                .thenReturn(Collections.singletonList(summary));
 
-        List<Consultation> results = consultationService.getPatientPortalConsultations(100L);
+        List<ConsultationSummary> results = consultationService.getPatientPortalConsultations(100L, null);
 
-        assertThat(results).hasSize(1);
-        assertThat(results.get(0).isVisibleInPortal()).isTrue();
+        assertThat(results).containsExactly(summary);
+    }
+
+    @Test
+    @DisplayName("Should cap the portal consultation limit")
+    void shouldCapPortalConsultationLimit() {
+        when(consultationRepository.findPortalSummaries(100L, Limit.of(ConsultationService.MAX_PORTAL_LIMIT)))
+                .thenReturn(Collections.emptyList());
+
+        consultationService.getPatientPortalConsultations(100L, 10_000);
+
+        verify(consultationRepository).findPortalSummaries(100L, Limit.of(ConsultationService.MAX_PORTAL_LIMIT));
     }
 
     @Test
@@ -165,7 +193,7 @@ class ConsultationServiceTest {
         when(consultationRepository.findById(1L)).thenReturn(Optional.of(testConsultation));
         when(consultationRepository.save(any(Consultation.class))).thenReturn(testConsultation);
 
-        Consultation result = consultationService.updateConsultation(1L, updateDetails);
+        Consultation result = consultationService.updateConsultation(1L, updateDetails, 3L);
 
         assertThat(result).isNotNull();
         // Check local object change
@@ -175,4 +203,49 @@ class ConsultationServiceTest {
         verify(consultationRepository, times(1)).findById(1L);
         verify(consultationRepository, times(1)).save(testConsultation);
     }
+
+    @Test
+    @DisplayName("Should reject an update made against a stale version")
+    void shouldRejectStaleUpdate() {
+        when(consultationRepository.findById(1L)).thenReturn(Optional.of(testConsultation));
+
+        assertThatThrownBy(() -> consultationService.updateConsultation(1L, Consultation.builder().build(), 2L))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(testConsultation.getDiagnosis()).isEqualTo("Migraine");
+        verify(consultationRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should merge-patch only the fields present and clear explicit nulls")
+    void shouldPatchConsultation() throws Exception {
+        when(consultationRepository.findById(1L)).thenReturn(Optional.of(testConsultation));
+
+        Consultation result = consultationService.patchConsultation(1L,
+                objectMapper.readTree("{\"diagnosis\":\"Tension headache\",\"notes\":null}"), 3L);
+
+        assertThat(result.getDiagnosis()).isEqualTo("Tension headache");
+        assertThat(result.getNotes()).isNull();
+        assertThat(result.getPrescription()).isEqualTo("Paracetamol");
+        assertThat(result.isVisibleInPortal()).isTrue();
+        verify(consultationRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(new ConsultationChangedEvent(1L, 100L));
+    }
+
+    @Test
+    @DisplayName("Should reject patches to fields outside the clinical ones")
+    void shouldRejectPatchOfProtectedField() throws Exception {
+        when(consultationRepository.findById(1L)).thenReturn(Optional.of(testConsultation));
+
+        assertThatThrownBy(() -> consultationService.patchConsultation(1L,
+                objectMapper.readTree("{\"patientId\":999}"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> consultationService.patchConsultation(1L,
+                objectMapper.readTree("{\"visibleInPortal\":null}"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(testConsultation.getPatientId()).isEqualTo(100L);
+        verifyNoInteractions(eventPublisher);
+    }
 }
@@ -0,0 +1,226 @@
+package com.medinsight.doctor.slot;
+
+import com.medinsight.doctor.dto.TimeSlot;
+import com.medinsight.doctor.entity.Schedule;
+import com.medinsight.doctor.entity.ScheduleOverride;
+import com.medinsight.doctor.schedule.WorkingWeek;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Doctor Calendar Tests")
+class DoctorCalendarTest {
+
+    // A Monday
+    private static final LocalDate MONDAY = LocalDate.of(2030, 3, 4);
+    private static final LocalDateTime TUESDAY_MIDNIGHT = MONDAY.plusDays(1).atStartOfDay();
+
+    private DoctorCalendar calendar;
+    private Map<LocalDate, WorkingWeek> weeks;
+
+    @BeforeEach
+    void setUp() {
+        List<Schedule> template = List.of(
+                period(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(12, 0)),
+                period(DayOfWeek.MONDAY, LocalTime.of(14, 0), LocalTime.of(16, 0)),
+                period(DayOfWeek.TUESDAY, LocalTime.of(20, 0), LocalTime.MIDNIGHT),
+                period(DayOfWeek.WEDNESDAY, LocalTime.of(0, 0), LocalTime.of(2, 0)));
+        weeks = expand(template, List.of());
+        calendar = new DoctorCalendar(7L);
+        calendar.load(List.of(), System.nanoTime());
+    }
+
+    @Test
+    @DisplayName("Should reserve free working time")
+    void shouldReserveFreeWorkingTime() {
+        SlotReservation reservation = calendar.reserve(MONDAY.atTime(9, 0), MONDAY.atTime(9, 30), true, weeks);
+
+        assertThat(reservation.getDoctorId()).isEqualTo(7L);
+        assertThat(reservation.getEnd()).isEqualTo(MONDAY.atTime(9, 30));
+    }
+
+    @Test
+    @DisplayName("Should reject any overlap with a booking")
+    void shouldRejectOverlap() {
+        calendar.reserve(MONDAY.atTime(10, 0), MONDAY.atTime(10, 30), true, weeks);
+
+        assertThat(calendar.isFree(MONDAY.atTime(10, 15), MONDAY.atTime(10, 45), true, weeks)).isFalse();
+        assertThat(calendar.isFree(MONDAY.atTime(10, 30), MONDAY.atTime(11, 0), true, weeks)).isTrue();
+        assertThatThrownBy(() -> calendar.reserve(MONDAY.atTime(9, 45), MONDAY.atTime(10, 1), true, weeks))
+                .isInstanceOf(SlotUnavailableException.class);
+        assertThatThrownBy(() -> calendar.reserve(MONDAY.atTime(10, 29), MONDAY.atTime(11, 0), true, weeks))
+                .isInstanceOf(SlotUnavailableException.class);
+        // Back to back is fine
+        calendar.reserve(MONDAY.atTime(10, 30), MONDAY.atTime(11, 0), true, weeks);
+        calendar.reserve(MONDAY.atTime(9, 30), MONDAY.atTime(10, 0), true, weeks);
+    }
+
+    @Test
+    @DisplayName("Should reject time outside working hours only when enforced")
+    void shouldRejectOutsideWorkingHours() {
+        assertThatThrownBy(() -> calendar.reserve(MONDAY.atTime(11, 45), MONDAY.atTime(12, 15), true, weeks))
+                .isInstanceOf(SlotUnavailableException.class);
+        assertThatThrownBy(() -> calendar.reserve(MONDAY.plusDays(3).atTime(10, 0),
+                MONDAY.plusDays(3).atTime(10, 30), true, weeks))
+                .isInstanceOf(SlotUnavailableException.class);
+
+        calendar.reserve(MONDAY.atTime(11, 45), MONDAY.atTime(12, 15), false, weeks);
+    }
+
+    @Test
+    @DisplayName("Should follow date overrides of the weekly template")
+    void shouldFollowOverrides() {
+        List<ScheduleOverride> overrides = List.of(
+                ScheduleOverride.builder().date(MONDAY).available(false).build(),
+                ScheduleOverride.builder().date(MONDAY.plusDays(5)).startTime(LocalTime.of(10, 0))
+                        .endTime(LocalTime.of(11, 0)).available(true).build());
+        Map<LocalDate, WorkingWeek> overriddenWeeks = expand(
+                List.of(period(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(12, 0))), overrides);
+        DoctorCalendar overridden = new DoctorCalendar(7L);
+
+        assertThat(overridden.isFree(MONDAY.atTime(9, 0), MONDAY.atTime(9, 30), true, overriddenWeeks)).isFalse();
+        assertThat(overridden.isFree(MONDAY.plusWeeks(1).atTime(9, 0), MONDAY.plusWeeks(1).atTime(9, 30), true,
+                overriddenWeeks))
+                .isTrue();
+        assertThat(overridden.freeSlots(MONDAY.atStartOfDay(), MONDAY.plusWeeks(1).atStartOfDay(), 30, 30, 10,
+                overriddenWeeks))
+                .extracting(TimeSlot::start)
+                .containsExactly(MONDAY.plusDays(5).atTime(10, 0), MONDAY.plusDays(5).atTime(10, 30));
+    }
+
+    @Test
+    @DisplayName("Should book across midnight when both days are worked")
+    void shouldBookAcrossMidnight() {
+        LocalDate tuesday = MONDAY.plusDays(1);
+        calendar.reserve(tuesday.atTime(23, 30), tuesday.plusDays(1).atTime(0, 30), true, weeks);
+
+        assertThatThrownBy(() -> calendar.reserve(tuesday.plusDays(1).atTime(0, 15),
+                tuesday.plusDays(1).atTime(0, 45), true, weeks))
+                .isInstanceOf(SlotUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("Should list step-aligned free slots around bookings")
+    void shouldListFreeSlots() {
+        calendar.reserve(MONDAY.atTime(9, 20), MONDAY.atTime(10, 0), true, weeks);
+
+        List<TimeSlot> slots = calendar.freeSlots(MONDAY.atStartOfDay(), TUESDAY_MIDNIGHT, 60, 15, 100, weeks);
+
+        assertThat(slots).extracting(TimeSlot::start).containsExactly(
+                MONDAY.atTime(10, 0), MONDAY.atTime(10, 15), MONDAY.atTime(10, 30), MONDAY.atTime(10, 45),
+                MONDAY.atTime(11, 0), MONDAY.atTime(14, 0), MONDAY.atTime(14, 15), MONDAY.atTime(14, 30),
+                MONDAY.atTime(14, 45), MONDAY.atTime(15, 0));
+        assertThat(slots.get(0).end()).isEqualTo(MONDAY.atTime(11, 0));
+    }
+
+    @Test
+    @DisplayName("Should only list slots lying wholly within the window")
+    void shouldListSlotsWithinWindow() {
+        List<TimeSlot> slots = calendar.freeSlots(MONDAY.atTime(9, 5), MONDAY.atTime(10, 10), 30, 15, 100, weeks);
+
+        assertThat(slots).extracting(TimeSlot::start).containsExactly(
+                MONDAY.atTime(9, 15), MONDAY.atTime(9, 30));
+    }
+
+    @Test
+    @DisplayName("Should not list slots before the given instant or beyond the limit")
+    void shouldHonourNotBeforeAndLimit() {
+        List<TimeSlot> slots = calendar.freeSlots(MONDAY.atTime(15, 10), MONDAY.plusWeeks(1).atStartOfDay(), 30, 30, 3,
+                weeks);
+
+        assertThat(slots).extracting(TimeSlot::start).containsExactly(
+                MONDAY.atTime(15, 30), MONDAY.plusDays(1).atTime(20, 0), MONDAY.plusDays(1).atTime(20, 30));
+    }
+
+    @Test
+    @DisplayName("Should free the time of a released appointment")
+    void shouldFreeReleasedAppointment() {
+        SlotReservation reservation = calendar.reserve(MONDAY.atTime(9, 0), MONDAY.atTime(12, 0), true, weeks);
+        calendar.bind(reservation, 42L);
+        assertThat(calendar.freeSlots(MONDAY.atStartOfDay(), TUESDAY_MIDNIGHT, 30, 15, 1, weeks)).first()
+                .extracting(TimeSlot::start).isEqualTo(MONDAY.atTime(14, 0));
+
+        assertThat(calendar.release(42L)).isTrue();
+
+        assertThat(calendar.freeSlots(MONDAY.atStartOfDay(), TUESDAY_MIDNIGHT, 30, 15, 1, weeks)).first()
+                .extracting(TimeSlot::start).isEqualTo(MONDAY.atTime(9, 0));
+        assertThat(calendar.release(42L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should refuse to check working time against weeks it was not given")
+    void shouldRequireWorkingWeeks() {
+        assertThatThrownBy(() -> calendar.reserve(MONDAY.atTime(9, 0), MONDAY.atTime(9, 30), true, Map.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        calendar.reserve(MONDAY.atTime(9, 0), MONDAY.atTime(9, 30), false, Map.of());
+    }
+
+    @Test
+    @DisplayName("Should keep overlapping bookings from older data when one is released")
+    void shouldKeepOverlappingBookingOnRelease() {
+        calendar.load(List.of(SlotReservation.loaded(7L, MONDAY.atTime(9, 0), MONDAY.atTime(10, 0), 1L),
+                SlotReservation.loaded(7L, MONDAY.atTime(9, 30), MONDAY.atTime(10, 30), 2L)),
+                System.nanoTime());
+
+        calendar.release(1L);
+
+        assertThatThrownBy(() -> calendar.reserve(MONDAY.atTime(10, 0), MONDAY.atTime(10, 15), true, weeks))
+                .isInstanceOf(SlotUnavailableException.class);
+        calendar.reserve(MONDAY.atTime(9, 0), MONDAY.atTime(9, 30), true, weeks);
+    }
+
+    @Test
+    @DisplayName("Should keep a pending reservation across a reload that cannot see it")
+    void shouldKeepPendingReservationOnReload() {
+        calendar.reserve(MONDAY.atTime(9, 0), MONDAY.atTime(9, 30), true, weeks);
+
+        calendar.load(List.of(), System.nanoTime());
+
+        assertThatThrownBy(() -> calendar.reserve(MONDAY.atTime(9, 0), MONDAY.atTime(9, 30), true, weeks))
+                .isInstanceOf(SlotUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("Should drop a committed reservation once a later reload has read it")
+    void shouldDropCommittedReservationOnLaterReload() {
+        SlotReservation reservation = calendar.reserve(MONDAY.atTime(9, 0), MONDAY.atTime(9, 30), true, weeks);
+        reservation.markCommitted();
+
+        // The reload started after the commit and found no appointment, e.g. it was deleted
+        calendar.load(List.of(), System.nanoTime());
+
+        calendar.reserve(MONDAY.atTime(9, 0), MONDAY.atTime(9, 30), true, weeks);
+    }
+
+    // Every week the tests touch, from the one before MONDAY to the one after
+    private static Map<LocalDate, WorkingWeek> expand(List<Schedule> template, List<ScheduleOverride> overrides) {
+        Map<LocalDate, WorkingWeek> weeks = new HashMap<>();
+        for (LocalDate monday = MONDAY.minusWeeks(1); !monday.isAfter(MONDAY.plusWeeks(1));
+                monday = monday.plusWeeks(1)) {
+            weeks.put(monday, WorkingWeek.expand(monday, template, overrides, System.nanoTime()));
+        }
+        return weeks;
+    }
+
+    private static Schedule period(DayOfWeek dayOfWeek, LocalTime start, LocalTime end) {
+        return Schedule.builder()
+                .doctorId(7L)
+                .dayOfWeek(dayOfWeek)
+                .startTime(start)
+                .endTime(end)
+                .available(true)
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.medinsight.doctor.slot;
+
+import com.medinsight.doctor.dto.BookedInterval;
+import com.medinsight.doctor.entity.Schedule;
+import com.medinsight.doctor.repository.AppointmentRepository;
+import com.medinsight.doctor.schedule.WorkingCalendar;
+import com.medinsight.doctor.schedule.WorkingWeek;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Slot Index Tests")
+class SlotIndexTest {
+
+    private static final LocalDateTime START = LocalDate.now().plusDays(2).atTime(LocalTime.of(10, 0));
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private WorkingCalendar workingCalendar;
+
+    private SlotIndex slotIndex;
+
+    @BeforeEach
+    void setUp() {
+        slotIndex = new SlotIndex(appointmentRepository, workingCalendar);
+        ReflectionTestUtils.setField(slotIndex, "enforceSchedule", false);
+        ReflectionTestUtils.setField(slotIndex, "stepMinutes", 15);
+        ReflectionTestUtils.setField(slotIndex, "refreshMinInterval", Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("Should reload and book time cancelled on another instance")
+    void shouldReloadBeforeRejecting() {
+        when(appointmentRepository.findBookedIntervals(eq(7L), any(LocalDateTime.class), anyCollection()))
+                .thenReturn(List.of(new BookedInterval(1L, START, 30)))
+                .thenReturn(List.of());
+
+        SlotReservation reservation = slotIndex.reserve(7L, START, 30);
+
+        assertThat(reservation.getStart()).isEqualTo(START);
+        verify(appointmentRepository, times(2)).findBookedIntervals(eq(7L), any(LocalDateTime.class),
+                anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should reject a booking the reloaded calendar confirms")
+    void shouldRejectConfirmedConflict() {
+        when(appointmentRepository.findBookedIntervals(eq(7L), any(LocalDateTime.class), anyCollection()))
+                .thenReturn(List.of(new BookedInterval(1L, START, 30)));
+
+        assertThat(slotIndex.isFree(7L, START.plusMinutes(15), 30)).isFalse();
+        assertThatThrownBy(() -> slotIndex.reserve(7L, START, 30)).isInstanceOf(SlotUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("Should trust a calendar reloaded within the minimum interval")
+    void shouldNotReloadFreshCalendar() {
+        ReflectionTestUtils.setField(slotIndex, "refreshMinInterval", Duration.ofHours(1));
+        when(appointmentRepository.findBookedIntervals(eq(7L), any(LocalDateTime.class), anyCollection()))
+                .thenReturn(List.of(new BookedInterval(1L, START, 30)));
+
+        assertThat(slotIndex.isFree(7L, START, 30)).isFalse();
+        assertThatThrownBy(() -> slotIndex.reserve(7L, START, 30)).isInstanceOf(SlotUnavailableException.class);
+
+        verify(appointmentRepository, times(1)).findBookedIntervals(eq(7L), any(LocalDateTime.class),
+                anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should free time cancelled elsewhere when all calendars are reloaded")
+    void shouldFreeCancelledTimeOnRebuildAll() {
+        ReflectionTestUtils.setField(slotIndex, "refreshMinInterval", Duration.ofHours(1));
+        when(appointmentRepository.findBookedIntervals(eq(7L), any(LocalDateTime.class), anyCollection()))
+                .thenReturn(List.of(new BookedInterval(1L, START, 30)))
+                .thenReturn(List.of());
+        assertThat(slotIndex.isFree(7L, START, 30)).isFalse();
+
+        assertThat(slotIndex.rebuildAll()).isEqualTo(1);
+
+        assertThat(slotIndex.isFree(7L, START, 30)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should check working time against weeks read before locking the calendar")
+    void shouldReadWorkingWeeksUpFront() {
+        ReflectionTestUtils.setField(slotIndex, "enforceSchedule", true);
+        LocalDate date = START.toLocalDate();
+        LocalDate monday = WorkingWeek.mondayOf(date);
+        Schedule morning = Schedule.builder().doctorId(7L).dayOfWeek(date.getDayOfWeek())
+                .startTime(LocalTime.of(9, 0)).endTime(LocalTime.of(12, 0)).available(true).build();
+        when(workingCalendar.weeks(7L, date, date)).thenReturn(
+                Map.of(monday, WorkingWeek.expand(monday, List.of(morning), List.of(), System.nanoTime())));
+
+        assertThat(slotIndex.isFree(7L, START, 30)).isTrue();
+        assertThat(slotIndex.isFree(7L, START.withHour(13), 30)).isFalse();
+
+        verify(workingCalendar, never()).week(any(), any());
+    }
+}
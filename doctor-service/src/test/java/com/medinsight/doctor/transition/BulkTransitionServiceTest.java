@@ -0,0 +1,178 @@
+package com.medinsight.doctor.transition;
+
+import com.medinsight.commons.exception.DuplicateResourceException;
+import com.medinsight.doctor.dto.AppointmentSummary;
+import com.medinsight.doctor.dto.BulkTransitionRequest;
+import com.medinsight.doctor.dto.BulkTransitionResult;
+import com.medinsight.doctor.entity.BulkTransition;
+import com.medinsight.doctor.enums.AppointmentStatus;
+import com.medinsight.doctor.enums.AppointmentType;
+import com.medinsight.doctor.event.AppointmentChangedEvent;
+import com.medinsight.doctor.repository.AppointmentRepository;
+import com.medinsight.doctor.repository.BulkTransitionRepository;
+import com.medinsight.doctor.slot.SlotIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Bulk Transition Service Tests")
+class BulkTransitionServiceTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private BulkTransitionRepository bulkTransitionRepository;
+
+    @Mock
+    private SlotIndex slotIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BulkTransitionService bulkTransitionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkTransitionService, "batchSize", 2);
+        ReflectionTestUtils.setField(bulkTransitionService, "maxIds", 10);
+    }
+
+    @Test
+    @DisplayName("Should update each batch with one statement guarded by the allowed source statuses")
+    void shouldUpdateInGuardedBatches() {
+        when(bulkTransitionRepository.claim(eq("eod"), eq("NO_SHOW"), eq(3), any())).thenReturn(1);
+        when(appointmentRepository.updateStatus(List.of(1L, 2L),
+                EnumSet.of(AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED), AppointmentStatus.NO_SHOW))
+                .thenReturn(2);
+        when(appointmentRepository.updateStatus(List.of(3L),
+                EnumSet.of(AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED), AppointmentStatus.NO_SHOW))
+                .thenReturn(0);
+        when(appointmentRepository.findSummariesByIdInAndStatus(List.of(1L, 2L), AppointmentStatus.NO_SHOW))
+                .thenReturn(List.of(summary(1L), summary(2L)));
+
+        BulkTransitionResult result = bulkTransitionService.transition(request("eod", AppointmentStatus.NO_SHOW,
+                3L, 1L, 2L, 1L, null));
+
+        assertThat(result.getRequested()).isEqualTo(3);
+        assertThat(result.getTransitioned()).isEqualTo(2);
+        assertThat(result.isReplayed()).isFalse();
+        verify(slotIndex).release(200L, 1L);
+        verify(slotIndex).release(200L, 2L);
+        verify(eventPublisher).publishEvent(new AppointmentChangedEvent(summary(1L)));
+        verify(bulkTransitionRepository).recordTransitioned("eod", 2);
+    }
+
+    @Test
+    @DisplayName("Should keep the slots of appointments moved to a status that holds them")
+    void shouldNotReleaseSlotsWhenCompleting() {
+        when(bulkTransitionRepository.claim(anyString(), anyString(), anyInt(), any())).thenReturn(1);
+        when(appointmentRepository.updateStatus(any(), any(), any())).thenReturn(1);
+        when(appointmentRepository.findSummariesByIdInAndStatus(any(), any())).thenReturn(List.of(summary(1L)));
+
+        bulkTransitionService.transition(request("eod", AppointmentStatus.COMPLETED, 1L));
+
+        verify(slotIndex, never()).release(any(), any());
+        verify(eventPublisher).publishEvent(any(AppointmentChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should return the stored outcome when a request id is retried")
+    void shouldReplayRetriedRequest() {
+        when(bulkTransitionRepository.claim(anyString(), anyString(), anyInt(), any())).thenReturn(0);
+        when(bulkTransitionRepository.findById("eod")).thenReturn(Optional.of(BulkTransition.builder()
+                .requestId("eod")
+                .status(AppointmentStatus.COMPLETED)
+                .requested(2)
+                .transitioned(2)
+                .createdAt(LocalDateTime.now())
+                .build()));
+
+        BulkTransitionResult result = bulkTransitionService.transition(request("eod", AppointmentStatus.COMPLETED,
+                1L, 2L));
+
+        assertThat(result.isReplayed()).isTrue();
+        assertThat(result.getTransitioned()).isEqualTo(2);
+        verify(appointmentRepository, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should refuse a request id already used for a different request")
+    void shouldRejectReusedRequestId() {
+        when(bulkTransitionRepository.claim(anyString(), anyString(), anyInt(), any())).thenReturn(0);
+        when(bulkTransitionRepository.findById("eod")).thenReturn(Optional.of(BulkTransition.builder()
+                .requestId("eod")
+                .status(AppointmentStatus.NO_SHOW)
+                .requested(2)
+                .build()));
+
+        assertThatThrownBy(() -> bulkTransitionService.transition(request("eod", AppointmentStatus.COMPLETED,
+                1L, 2L)))
+                .isInstanceOf(DuplicateResourceException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject restoring, missing request ids and oversized requests")
+    void shouldRejectInvalidRequests() {
+        assertThatThrownBy(() -> bulkTransitionService.transition(request("eod", AppointmentStatus.SCHEDULED, 1L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bulkTransitionService.transition(request(" ", AppointmentStatus.COMPLETED, 1L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        Long[] tooMany = new Long[11];
+        Arrays.setAll(tooMany, i -> (long) i);
+        assertThatThrownBy(() -> bulkTransitionService.transition(request("eod", AppointmentStatus.COMPLETED,
+                tooMany)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(bulkTransitionRepository, appointmentRepository);
+    }
+
+    @Test
+    @DisplayName("Should only allow the transitions in the appointment lifecycle")
+    void shouldFollowTransitionGraph() {
+        assertThat(AppointmentStatus.SCHEDULED.canBecome(AppointmentStatus.CONFIRMED)).isTrue();
+        assertThat(AppointmentStatus.CONFIRMED.canBecome(AppointmentStatus.IN_PROGRESS)).isTrue();
+        assertThat(AppointmentStatus.IN_PROGRESS.canBecome(AppointmentStatus.COMPLETED)).isTrue();
+        assertThat(AppointmentStatus.CANCELLED.canBecome(AppointmentStatus.SCHEDULED)).isTrue();
+        assertThat(AppointmentStatus.COMPLETED.canBecome(AppointmentStatus.COMPLETED)).isTrue();
+        assertThat(AppointmentStatus.COMPLETED.canBecome(AppointmentStatus.CANCELLED)).isFalse();
+        assertThat(AppointmentStatus.IN_PROGRESS.canBecome(AppointmentStatus.NO_SHOW)).isFalse();
+        assertThat(AppointmentStatus.CANCELLED.canBecome(AppointmentStatus.COMPLETED)).isFalse();
+        assertThat(AppointmentStatus.predecessors(AppointmentStatus.COMPLETED)).containsExactlyInAnyOrder(
+                AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED, AppointmentStatus.IN_PROGRESS);
+    }
+
+    private static BulkTransitionRequest request(String requestId, AppointmentStatus status, Long... ids) {
+        return BulkTransitionRequest.builder()
+                .requestId(requestId)
+                .status(status)
+                .appointmentIds(Arrays.asList(ids))
+                .build();
+    }
+
+    private static AppointmentSummary summary(Long id) {
+        return new AppointmentSummary(id, 100L, 200L, LocalDateTime.of(2025, 3, 10, 9, 0), 30,
+                AppointmentType.CONSULTATION, AppointmentStatus.NO_SHOW);
+    }
+}
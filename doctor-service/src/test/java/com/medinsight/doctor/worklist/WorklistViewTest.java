@@ -0,0 +1,149 @@
+package com.medinsight.doctor.worklist;
+
+import com.medinsight.doctor.dto.AppointmentSummary;
+import com.medinsight.doctor.enums.AppointmentStatus;
+import com.medinsight.doctor.enums.AppointmentType;
+import com.medinsight.doctor.event.AppointmentChangedEvent;
+import com.medinsight.doctor.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Worklist View Tests")
+class WorklistViewTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private WorklistView worklistView;
+
+    private LocalDateTime morning;
+
+    @BeforeEach
+    void setUp() {
+        morning = LocalDate.now().plusDays(1).atTime(9, 0);
+        ReflectionTestUtils.setField(worklistView, "ttl", Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Should load a doctor's worklist once and serve it from memory")
+    void shouldLoadOnceAndServeFromMemory() {
+        LocalDate today = LocalDate.now();
+        when(appointmentRepository.findWorklist(200L, today.atStartOfDay(), today.plusDays(8).atStartOfDay()))
+                .thenReturn(List.of(appointment(1L, 0, AppointmentStatus.SCHEDULED)));
+
+        Worklist first = worklistView.get(200L);
+        Worklist second = worklistView.get(200L);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.from()).isEqualTo(today);
+        assertThat(first.to()).isEqualTo(today.plusDays(WorklistView.DAYS_AHEAD));
+        assertThat(first.appointments()).extracting(AppointmentSummary::id).containsExactly(1L);
+        verify(appointmentRepository, times(1)).findWorklist(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should apply a new booking in time order without querying again")
+    void shouldInsertBookingInTimeOrder() {
+        when(appointmentRepository.findWorklist(any(), any(), any())).thenReturn(List.of(
+                appointment(1L, 0, AppointmentStatus.SCHEDULED), appointment(2L, 120, AppointmentStatus.CONFIRMED)));
+        Worklist before = worklistView.get(200L);
+
+        worklistView.onAppointmentChanged(event(3L, 60, AppointmentStatus.SCHEDULED));
+        Worklist after = worklistView.get(200L);
+
+        assertThat(after.appointments()).extracting(AppointmentSummary::id).containsExactly(1L, 3L, 2L);
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        verify(appointmentRepository, times(1)).findWorklist(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should replace a changed appointment and drop a cancelled one")
+    void shouldReplaceAndDropCancelled() {
+        when(appointmentRepository.findWorklist(any(), any(), any())).thenReturn(List.of(
+                appointment(1L, 0, AppointmentStatus.SCHEDULED), appointment(2L, 120, AppointmentStatus.SCHEDULED)));
+        worklistView.get(200L);
+
+        worklistView.onAppointmentChanged(event(1L, 0, AppointmentStatus.CONFIRMED));
+        worklistView.onAppointmentChanged(event(2L, 120, AppointmentStatus.CANCELLED));
+
+        assertThat(worklistView.get(200L).appointments())
+                .containsExactly(appointment(1L, 0, AppointmentStatus.CONFIRMED));
+    }
+
+    @Test
+    @DisplayName("Should keep the same worklist and ETag for changes outside it")
+    void shouldIgnoreChangesOutsideWindow() {
+        when(appointmentRepository.findWorklist(any(), any(), any()))
+                .thenReturn(List.of(appointment(1L, 0, AppointmentStatus.SCHEDULED)));
+        Worklist before = worklistView.get(200L);
+
+        worklistView.onAppointmentChanged(event(5L, 60 * 24 * 30, AppointmentStatus.SCHEDULED));
+        worklistView.onAppointmentChanged(event(6L, 60, AppointmentStatus.CANCELLED));
+
+        assertThat(worklistView.get(200L)).isSameAs(before);
+    }
+
+    @Test
+    @DisplayName("Should reload an expired worklist and pick up changes made elsewhere")
+    void shouldReloadExpiredWorklist() {
+        ReflectionTestUtils.setField(worklistView, "ttl", Duration.ZERO);
+        when(appointmentRepository.findWorklist(any(), any(), any()))
+                .thenReturn(List.of(appointment(1L, 0, AppointmentStatus.SCHEDULED)))
+                .thenReturn(List.of(appointment(1L, 0, AppointmentStatus.CONFIRMED)));
+        Worklist before = worklistView.get(200L);
+
+        Worklist after = worklistView.get(200L);
+
+        assertThat(after.appointments()).containsExactly(appointment(1L, 0, AppointmentStatus.CONFIRMED));
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        verify(appointmentRepository, times(2)).findWorklist(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should keep the ETag when a reload finds nothing new")
+    void shouldKeepEtagOfUnchangedReload() {
+        ReflectionTestUtils.setField(worklistView, "ttl", Duration.ZERO);
+        when(appointmentRepository.findWorklist(any(), any(), any()))
+                .thenReturn(List.of(appointment(1L, 0, AppointmentStatus.SCHEDULED)));
+        Worklist before = worklistView.get(200L);
+
+        Worklist after = worklistView.get(200L);
+
+        assertThat(after.etag()).isEqualTo(before.etag());
+        verify(appointmentRepository, times(2)).findWorklist(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should ignore changes for doctors whose worklist was never requested")
+    void shouldIgnoreUnrequestedDoctors() {
+        worklistView.onAppointmentChanged(event(1L, 0, AppointmentStatus.SCHEDULED));
+
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    private AppointmentChangedEvent event(Long id, int minutes, AppointmentStatus status) {
+        return new AppointmentChangedEvent(appointment(id, minutes, status));
+    }
+
+    private AppointmentSummary appointment(Long id, int minutes, AppointmentStatus status) {
+        return new AppointmentSummary(id, 100L, 200L, morning.plusMinutes(minutes), 30,
+                AppointmentType.CONSULTATION, status);
+    }
+}
@@ -23,6 +23,12 @@ public class NotificationController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<Notification>> createNotifications(@RequestBody List<Notification> notifications) {
+        List<Notification> created = notificationService.createNotifications(notifications);
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Notification> getNotificationById(@PathVariable String id) {
         Notification notification = notificationService.getNotificationById(id);
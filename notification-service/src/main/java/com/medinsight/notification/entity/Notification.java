@@ -9,6 +9,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -41,6 +42,10 @@ public class Notification {
 
     private LocalDateTime sentAt;
 
+    // Set by senders that may deliver the same notification more than once
+    @Indexed(unique = true, sparse = true)
+    private String deduplicationKey;
+
     @CreatedDate
     private LocalDateTime createdAt;
 }
@@ -3,8 +3,11 @@ package com.medinsight.notification.repository;
 import com.medinsight.notification.entity.Notification;
 import com.medinsight.notification.enums.NotificationStatus;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,4 +17,11 @@ public interface NotificationRepository extends MongoRepository<Notification, St
     List<Notification> findByRecipientUserIdAndStatus(String recipientUserId, NotificationStatus status);
 
     List<Notification> findByStatus(NotificationStatus status);
+
+    List<Notification> findByDeduplicationKeyIn(Collection<String> deduplicationKeys);
+
+    // Moves a failed notification back to pending; returns 0 if it is not failed or someone else moved it first
+    @Query("{ 'deduplicationKey' : ?0, 'status' : 'FAILED' }")
+    @Update("{ '$set' : { 'status' : 'PENDING' } }")
+    long claimFailedByDeduplicationKey(String deduplicationKey);
 }
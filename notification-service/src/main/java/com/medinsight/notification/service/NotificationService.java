@@ -5,11 +5,18 @@ import com.medinsight.notification.entity.Notification;
 import com.medinsight.notification.enums.NotificationStatus;
 import com.medinsight.notification.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -21,7 +28,55 @@ public class NotificationService {
     private final EmailService emailService;
 
     public Notification createNotification(Notification notification) {
-        Notification savedNotification = notificationRepository.save(notification);
+        return send(notificationRepository.save(notification));
+    }
+
+    /**
+     * Creates and sends each notification. A notification whose
+     * deduplication key has been seen before, earlier in this batch or in an
+     * earlier call, is skipped, unless the earlier one failed: that one is
+     * sent again. Notifications are sent straight away; {@code scheduledAt}
+     * is kept as the time the sender meant them to go out.
+     *
+     * @return the notifications created or sent again, each in the status its
+     *         sending left it; a {@link NotificationStatus#FAILED FAILED} one
+     *         may be retried with the same key
+     */
+    public List<Notification> createNotifications(List<Notification> notifications) {
+        Map<String, Notification> existing = new HashMap<>();
+        List<String> keys = notifications.stream()
+                .map(Notification::getDeduplicationKey)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!keys.isEmpty()) {
+            notificationRepository.findByDeduplicationKeyIn(keys)
+                    .forEach(notification -> existing.put(notification.getDeduplicationKey(), notification));
+        }
+
+        Set<String> seen = new HashSet<>();
+        List<Notification> created = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            String key = notification.getDeduplicationKey();
+            if (key != null && !seen.add(key)) {
+                continue;
+            }
+            Notification previous = key == null ? null : existing.get(key);
+            if (previous == null) {
+                try {
+                    created.add(createNotification(notification));
+                } catch (DuplicateKeyException e) {
+                    // Another sender delivered the same key between the lookup and the insert
+                }
+            } else if (previous.getStatus() == NotificationStatus.FAILED
+                    && notificationRepository.claimFailedByDeduplicationKey(key) > 0) {
+                created.add(send(previous));
+            }
+        }
+        return created;
+    }
+
+    // Emails a saved notification and records whether it went out
+    private Notification send(Notification notification) {
         try {
             // Send email immediately (for simplicity in this phase)
             // In production, this might be async via Kafka consumer
@@ -29,12 +84,12 @@ public class NotificationService {
                     notification.getRecipientEmail(),
                     notification.getSubject(),
                     notification.getMessage());
-            savedNotification.setStatus(NotificationStatus.SENT);
-            savedNotification.setSentAt(LocalDateTime.now());
+            notification.setStatus(NotificationStatus.SENT);
+            notification.setSentAt(LocalDateTime.now());
         } catch (Exception e) {
-            savedNotification.setStatus(NotificationStatus.FAILED);
+            notification.setStatus(NotificationStatus.FAILED);
         }
-        return notificationRepository.save(savedNotification);
+        return notificationRepository.save(notification);
     }
 
     public Notification getNotificationById(String id) {
@@ -0,0 +1,194 @@
+package com.medinsight.patient.cache;
+
+import com.medinsight.patient.entity.Patient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for patient lookups. The entity is stored once, keyed by
+ * id; the userId and email caches only hold aliases pointing at that id, so an
+ * update has a single entry to invalidate and an alias can never resolve to a
+ * record whose email or userId has since changed.
+ *
+ * <p>A reader that loaded a patient before an update committed could otherwise
+ * put the old row back after the update's eviction. Every eviction, local or
+ * broadcast by another instance, advances a generation; readers take a
+ * {@link #readStamp()} before loading and {@link #put} drops the row if an
+ * eviction has happened since.
+ */
+@Component
+@Slf4j
+public class PatientCache {
+
+    public static final String BY_ID = "patients.byId";
+    public static final String BY_USER_ID = "patients.byUserId";
+    public static final String BY_EMAIL = "patients.byEmail";
+    public static final List<String> CACHE_NAMES = List.of(BY_ID, BY_USER_ID, BY_EMAIL);
+
+    public static final String INVALIDATION_CHANNEL = "patient-cache-invalidation";
+
+    private final Cache byId;
+    private final Cache byUserId;
+    private final Cache byEmail;
+    private final StringRedisTemplate redisTemplate;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public PatientCache(CacheManager cacheManager,
+            ObjectProvider<StringRedisTemplate> redisTemplate,
+            @Value("${patient.cache.shared.enabled:false}") boolean sharedEnabled) {
+        this.byId = Objects.requireNonNull(cacheManager.getCache(BY_ID));
+        this.byUserId = Objects.requireNonNull(cacheManager.getCache(BY_USER_ID));
+        this.byEmail = Objects.requireNonNull(cacheManager.getCache(BY_EMAIL));
+        this.redisTemplate = sharedEnabled ? redisTemplate.getIfAvailable() : null;
+    }
+
+    public Patient getById(Long id) {
+        return id == null ? null : byId.get(id, Patient.class);
+    }
+
+    public Patient getByUserId(UUID userId) {
+        return resolveAlias(byUserId, userId, Patient::getUserId);
+    }
+
+    public Patient getByEmail(String email) {
+        return resolveAlias(byEmail, email, Patient::getEmail);
+    }
+
+    /**
+     * The stamp to take before loading a patient from the database and hand
+     * to {@link #put}.
+     */
+    public long readStamp() {
+        return evictions.get();
+    }
+
+    /**
+     * Caches {@code patient} unless an eviction has happened since
+     * {@code readStamp} was taken, in which case the row may predate it. An
+     * eviction racing the put itself is caught by checking again afterwards.
+     */
+    public void put(Patient patient, long readStamp) {
+        // Soft-deleted rows are invisible through the @Where clause, so they must never be served from cache either
+        if (patient == null || patient.getId() == null || patient.isDeleted() || evictions.get() != readStamp) {
+            return;
+        }
+        byId.put(patient.getId(), patient);
+        if (patient.getUserId() != null) {
+            byUserId.put(patient.getUserId(), patient.getId());
+        }
+        if (patient.getEmail() != null) {
+            byEmail.put(patient.getEmail(), patient.getId());
+        }
+        if (evictions.get() != readStamp) {
+            evictEverywhere(patient.getId(), patient.getUserId(), patient.getEmail());
+        }
+    }
+
+    /**
+     * Evicts every key under which {@code patient} is currently reachable. The
+     * keys are captured now, so call this before mutating the entity to drop the
+     * old aliases and again afterwards to drop the new ones. Inside a transaction
+     * the eviction is repeated after commit, closing the window in which a
+     * concurrent reader could re-populate the cache with the pre-commit row.
+     */
+    public void evict(Patient patient) {
+        if (patient == null) {
+            return;
+        }
+        Long id = patient.getId();
+        UUID userId = patient.getUserId();
+        String email = patient.getEmail();
+
+        evictEverywhere(id, userId, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictEverywhere(id, userId, email);
+                }
+            });
+        }
+    }
+
+    /**
+     * Applies an invalidation broadcast by another instance to this instance's
+     * local tier.
+     */
+    public void onRemoteInvalidation(String payload) {
+        String[] parts = payload.split("\n", -1);
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed patient cache invalidation: {}", payload);
+            return;
+        }
+        evictions.incrementAndGet();
+        if (!parts[0].isEmpty()) {
+            evictLocal(byId, Long.valueOf(parts[0]));
+        }
+        if (!parts[1].isEmpty()) {
+            evictLocal(byUserId, UUID.fromString(parts[1]));
+        }
+        if (!parts[2].isEmpty()) {
+            evictLocal(byEmail, parts[2]);
+        }
+    }
+
+    private Patient resolveAlias(Cache aliases, Object key, Function<Patient, Object> attribute) {
+        if (key == null) {
+            return null;
+        }
+        Long id = aliases.get(key, Long.class);
+        if (id == null) {
+            return null;
+        }
+        Patient patient = getById(id);
+        if (patient != null && !key.equals(attribute.apply(patient))) {
+            aliases.evict(key);
+            return null;
+        }
+        return patient;
+    }
+
+    private void evictEverywhere(Long id, UUID userId, String email) {
+        evictions.incrementAndGet();
+        if (id != null) {
+            byId.evict(id);
+        }
+        if (userId != null) {
+            byUserId.evict(userId);
+        }
+        if (email != null) {
+            byEmail.evict(email);
+        }
+        if (redisTemplate != null) {
+            String payload = (id == null ? "" : id.toString()) + "\n"
+                    + (userId == null ? "" : userId.toString()) + "\n"
+                    + (email == null ? "" : email);
+            try {
+                redisTemplate.convertAndSend(INVALIDATION_CHANNEL, payload);
+            } catch (RuntimeException e) {
+                log.warn("Failed to broadcast patient cache invalidation for id {}: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    private static void evictLocal(Cache cache, Object key) {
+        if (cache instanceof TieredCache tiered) {
+            tiered.evictLocal(key);
+        } else {
+            cache.evict(key);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.medinsight.patient.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Two-level {@link Cache}: a bounded in-process tier in front of a shared tier.
+ * Reads fall through local then shared and back-fill the local tier; writes and
+ * evictions go to both. Failures of the shared tier are logged and treated as
+ * misses so a Redis outage degrades to local-only caching instead of failing
+ * lookups.
+ */
+@Slf4j
+public class TieredCache implements Cache {
+
+    private final Cache local;
+    private final Cache shared;
+
+    public TieredCache(Cache local, Cache shared) {
+        this.local = local;
+        this.shared = shared;
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper hit = local.get(key);
+        if (hit != null) {
+            return hit;
+        }
+        try {
+            ValueWrapper sharedHit = shared.get(key);
+            if (sharedHit != null && sharedHit.get() != null) {
+                local.put(key, sharedHit.get());
+                return new SimpleValueWrapper(sharedHit.get());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Shared cache read failed for {}[{}]: {}", getName(), key, e.getMessage());
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        try {
+            T value = valueLoader.call();
+            if (value != null) {
+                put(key, value);
+            }
+            return value;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        local.put(key, value);
+        try {
+            shared.put(key, value);
+        } catch (RuntimeException e) {
+            log.warn("Shared cache write failed for {}[{}]: {}", getName(), key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.evict(key);
+        try {
+            shared.evict(key);
+        } catch (RuntimeException e) {
+            log.warn("Shared cache evict failed for {}[{}]: {}", getName(), key, e.getMessage());
+        }
+    }
+
+    /**
+     * Drops the entry from this instance only. Used when another instance has
+     * already evicted the shared tier and broadcast the invalidation.
+     */
+    public void evictLocal(Object key) {
+        local.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        try {
+            shared.clear();
+        } catch (RuntimeException e) {
+            log.warn("Shared cache clear failed for {}: {}", getName(), e.getMessage());
+        }
+    }
+}
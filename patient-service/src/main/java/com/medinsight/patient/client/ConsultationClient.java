@@ -0,0 +1,26 @@
+package com.medinsight.patient.client;
+
+import com.medinsight.patient.dto.ConsultationDetail;
+import com.medinsight.patient.dto.ConsultationSummary;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+@FeignClient(name = "doctor-service", url = "${doctor-service.url:http://doctor-service:8080}")
+public interface ConsultationClient {
+
+    @GetMapping("/api/consultations/patient/{patientId}/portal")
+    List<ConsultationSummary> getPortalConsultations(@RequestHeader("Authorization") String token,
+            @PathVariable("patientId") Long patientId, @RequestParam("limit") int limit);
+
+    @GetMapping("/api/consultations/patient/{patientId}")
+    List<ConsultationSummary> getConsultations(@RequestHeader("Authorization") String token,
+            @PathVariable("patientId") Long patientId);
+
+    @GetMapping("/api/consultations/{id}")
+    ConsultationDetail getConsultation(@RequestHeader("Authorization") String token, @PathVariable("id") Long id);
+}
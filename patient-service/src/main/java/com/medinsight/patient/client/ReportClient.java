@@ -0,0 +1,30 @@
+package com.medinsight.patient.client;
+
+import com.medinsight.patient.dto.ReportDetail;
+import com.medinsight.patient.dto.ReportSummary;
+import feign.Response;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+
+import java.net.URI;
+import java.util.List;
+
+@FeignClient(name = "report-service", url = "${report-service.url:http://report-service:8080}")
+public interface ReportClient {
+
+    @GetMapping("/api/reports/patient/{patientId}")
+    List<ReportSummary> getReports(@RequestHeader("Authorization") String token,
+            @PathVariable("patientId") Long patientId);
+
+    @GetMapping("/api/reports/{id}")
+    ReportDetail getReport(@RequestHeader("Authorization") String token, @PathVariable("id") Long id);
+
+    /**
+     * A report's file at {@code file}, which replaces the client's base url;
+     * the body is left unread for the caller to stream and close.
+     */
+    @GetMapping
+    Response getFile(URI file, @RequestHeader("Authorization") String token);
+}
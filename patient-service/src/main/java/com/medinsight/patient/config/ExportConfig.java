@@ -0,0 +1,32 @@
+package com.medinsight.patient.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ExportConfig {
+
+    // Exports compress on the CPU and hold disk bandwidth for minutes, so a few platform threads and a
+    // bounded queue; a full queue rejects new exports instead of piling them up
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor exportExecutor(@Value("${patient.export.workers:2}") int workers,
+            @Value("${patient.export.queue-capacity:50}") int queueCapacity) {
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofPlatform().name("patient-export-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Each worker holds a pooled connection for the length of a partition's cursor, so keep this well under
+    // the connection pool size. Only one bulk export runs at a time, which bounds the queued partitions.
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor bulkExportExecutor(@Value("${patient.bulk-export.workers:4}") int workers) {
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("bulk-export-", 0).factory());
+    }
+}
@@ -0,0 +1,10 @@
+package com.medinsight.patient.config;
+
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Configuration;
+
+// Kept off the application class so @WebMvcTest slices do not try to build Feign clients
+@Configuration
+@EnableFeignClients(basePackages = "com.medinsight.patient.client")
+public class FeignClientConfig {
+}
@@ -0,0 +1,22 @@
+package com.medinsight.patient.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@ConditionalOnProperty(name = "patient.integrity.scan.enabled", havingValue = "true")
+public class IntegrityScanConfig {
+
+    // The scan paces itself by sleeping, so it gets a thread of its own instead of the shared scheduler's;
+    // a tick that finds the previous run still going is dropped rather than queued
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor integrityScanExecutor() {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>(),
+                Thread.ofPlatform().name("integrity-scan-", 0).factory(), new ThreadPoolExecutor.DiscardPolicy());
+    }
+}
@@ -0,0 +1,10 @@
+package com.medinsight.patient.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+// Populates @CreatedDate/@LastModifiedDate; the search index sync reads patients.updated_at
+@Configuration
+@EnableJpaAuditing
+public class JpaAuditingConfig {
+}
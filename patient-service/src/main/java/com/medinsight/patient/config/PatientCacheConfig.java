@@ -0,0 +1,118 @@
+package com.medinsight.patient.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medinsight.patient.cache.PatientCache;
+import com.medinsight.patient.cache.TieredCache;
+import com.medinsight.patient.entity.Patient;
+import com.medinsight.patient.service.GeocodingService;
+import com.medinsight.patient.service.PatientTimelineService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class PatientCacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${patient.cache.local.max-size:10000}") long maxSize,
+            @Value("${patient.cache.local.ttl:10m}") Duration localTtl,
+            @Value("${patient.cache.shared.enabled:false}") boolean sharedEnabled,
+            @Value("${patient.cache.shared.ttl:30m}") Duration sharedTtl,
+            @Value("${patient.timeline.cache.max-size:5000}") long timelineMaxSize,
+            @Value("${patient.timeline.cache.ttl:5m}") Duration timelineTtl,
+            @Value("${patient.geo.cache.max-size:50000}") long geocodeMaxSize,
+            @Value("${patient.geo.cache.ttl:24h}") Duration geocodeTtl,
+            ObjectProvider<RedisConnectionFactory> redisConnectionFactory,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        RedisCacheManager shared = sharedEnabled
+                ? sharedCacheManager(redisConnectionFactory.getObject(), objectMapper, sharedTtl)
+                : null;
+
+        List<Cache> caches = new ArrayList<>();
+        for (String name : PatientCache.CACHE_NAMES) {
+            Cache local = localCache(name, maxSize, localTtl, meterRegistry);
+            caches.add(shared == null ? local : new TieredCache(local, shared.getCache(name)));
+        }
+        // Timelines are invalidated by events on every instance, so they stay local. The TTL
+        // only bounds staleness if a consultation event is lost.
+        caches.add(localCache(PatientTimelineService.TIMELINE_CACHE, timelineMaxSize, timelineTtl, meterRegistry));
+        // The gazetteer is read once at startup, so geocodes only need bounding, not sharing
+        caches.add(localCache(GeocodingService.GEOCODE_CACHE, geocodeMaxSize, geocodeTtl, meterRegistry));
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        return cacheManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "patient.cache.shared.enabled", havingValue = "true")
+    public RedisMessageListenerContainer patientCacheInvalidationListener(RedisConnectionFactory connectionFactory,
+            PatientCache patientCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> patientCache
+                        .onRemoteInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(PatientCache.INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    private static Cache localCache(String name, long maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Publishes cache.gets{result=hit|miss}, cache.evictions and cache.size to actuator
+        CaffeineCacheMetrics.monitor(meterRegistry, nativeCache, name);
+        return new CaffeineCache(name, nativeCache, false);
+    }
+
+    private RedisCacheManager sharedCacheManager(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper,
+            Duration ttl) {
+        RedisCacheConfiguration entityConfig = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(ttl)
+                .disableCachingNullValues()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair
+                        .fromSerializer(new Jackson2JsonRedisSerializer<>(objectMapper, Patient.class)));
+        RedisCacheConfiguration aliasConfig = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(ttl)
+                .disableCachingNullValues()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair
+                        .fromSerializer(new Jackson2JsonRedisSerializer<>(objectMapper, Long.class)));
+
+        RedisCacheManager cacheManager = RedisCacheManager.builder(connectionFactory)
+                .withInitialCacheConfigurations(Map.of(
+                        PatientCache.BY_ID, entityConfig,
+                        PatientCache.BY_USER_ID, aliasConfig,
+                        PatientCache.BY_EMAIL, aliasConfig))
+                .enableStatistics()
+                .build();
+        cacheManager.afterPropertiesSet();
+        return cacheManager;
+    }
+}
@@ -0,0 +1,17 @@
+package com.medinsight.patient.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class TimelineConfig {
+
+    // Timeline fan-out is I/O bound (JDBC and HTTP), so one virtual thread per source lookup
+    @Bean(destroyMethod = "close")
+    public ExecutorService timelineExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("timeline-", 0).factory());
+    }
+}
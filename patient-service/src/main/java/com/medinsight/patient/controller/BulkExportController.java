@@ -0,0 +1,162 @@
+package com.medinsight.patient.controller;
+
+import com.medinsight.patient.entity.BulkExportJob;
+import com.medinsight.patient.enums.BulkExportResourceType;
+import com.medinsight.patient.export.BulkExportInProgressException;
+import com.medinsight.patient.service.BulkExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * FHIR Bulk Data {@code $export} over the whole patient population: kick-off,
+ * status polling, cancellation and file download.
+ */
+@RestController
+@RequestMapping("/api/patients/$export")
+@RequiredArgsConstructor
+public class BulkExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/fhir+ndjson");
+    private static final Set<String> OUTPUT_FORMATS = Set.of("application/fhir+ndjson", "application/ndjson",
+            "ndjson");
+
+    private final BulkExportService bulkExportService;
+
+    @RequestMapping(method = {RequestMethod.GET, RequestMethod.POST})
+    public ResponseEntity<Void> kickOff(
+            @RequestParam(name = "_type", required = false) String type,
+            @RequestParam(name = "_since", required = false) String since,
+            @RequestParam(name = "_outputFormat", required = false) String outputFormat,
+            HttpServletRequest request) {
+        if (outputFormat != null && !OUTPUT_FORMATS.contains(outputFormat)) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<List<BulkExportResourceType>> types = parseTypes(type);
+        if (types.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDateTime sinceTime = null;
+        if (since != null) {
+            try {
+                sinceTime = parseInstant(since);
+            } catch (DateTimeParseException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        String requestUrl = request.getRequestURL()
+                + (request.getQueryString() == null ? "" : "?" + request.getQueryString());
+        try {
+            BulkExportJob job = bulkExportService.kickOff(types.get(), sinceTime, requestUrl);
+            return ResponseEntity.accepted()
+                    .header(HttpHeaders.CONTENT_LOCATION, "/api/patients/$export/" + job.getId())
+                    .build();
+        } catch (BulkExportInProgressException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "120")
+                    .header(HttpHeaders.CONTENT_LOCATION, "/api/patients/$export/" + e.getJobId())
+                    .build();
+        }
+    }
+
+    /**
+     * 202 with an {@code X-Progress} header while the export runs, then 200
+     * with the completion manifest.
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getStatus(@PathVariable Long jobId) {
+        BulkExportJob job = bulkExportService.getJob(jobId).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return switch (job.getStatus()) {
+            case QUEUED, RUNNING -> ResponseEntity.accepted()
+                    .header("X-Progress", job.getPartitionsCompleted() + "/" + job.getPartitionsTotal()
+                            + " partitions, " + job.getRowsWritten() + " rows")
+                    .header(HttpHeaders.RETRY_AFTER, "10")
+                    .build();
+            case COMPLETED -> {
+                String fileBaseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().toUriString()
+                        + "/api/patients/$export/" + jobId + "/files/";
+                HttpHeaders headers = new HttpHeaders();
+                headers.setExpires(ZonedDateTime.of(job.getExpiresAt(), ZoneId.systemDefault()));
+                yield ResponseEntity.ok()
+                        .headers(headers)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(bulkExportService.getManifest(job, fileBaseUrl));
+            }
+            case FAILED -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of(
+                            "resourceType", "OperationOutcome",
+                            "issue", List.of(Map.of(
+                                    "severity", "error",
+                                    "code", "exception",
+                                    "diagnostics", String.valueOf(job.getErrorMessage())))));
+            default -> ResponseEntity.notFound().build();
+        };
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<Void> cancel(@PathVariable Long jobId) {
+        return bulkExportService.cancel(jobId)
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/{jobId}/files/{fileName:.+}")
+    public ResponseEntity<Resource> downloadFile(@PathVariable Long jobId, @PathVariable String fileName) {
+        return bulkExportService.getFile(jobId, fileName)
+                .map(file -> ResponseEntity.ok()
+                        .contentType(NDJSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .<Resource>body(new FileSystemResource(file)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Every supported type when _type is absent; empty if any requested type is unknown
+    private static Optional<List<BulkExportResourceType>> parseTypes(String type) {
+        if (type == null || type.isBlank()) {
+            return Optional.of(List.of(BulkExportResourceType.values()));
+        }
+        List<BulkExportResourceType> types = new ArrayList<>();
+        for (String name : Arrays.stream(type.split(",")).map(String::trim).distinct().toList()) {
+            Optional<BulkExportResourceType> parsed = BulkExportResourceType.fromFhirType(name);
+            if (parsed.isEmpty()) {
+                return Optional.empty();
+            }
+            types.add(parsed.get());
+        }
+        return Optional.of(types);
+    }
+
+    // An unencoded '+' in the offset arrives as a space
+    private static LocalDateTime parseInstant(String since) {
+        String value = since.trim().replace(' ', '+');
+        try {
+            return OffsetDateTime.parse(value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(value);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.medinsight.patient.controller;
+
+import com.medinsight.patient.dto.DocumentStorageStats;
+import com.medinsight.patient.service.MedicalDocumentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/patients/documents")
+@RequiredArgsConstructor
+public class DocumentStorageController {
+
+    private final MedicalDocumentService medicalDocumentService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<DocumentStorageStats> getStorageStats() {
+        return ResponseEntity.ok(medicalDocumentService.getStorageStats());
+    }
+}
@@ -0,0 +1,115 @@
+package com.medinsight.patient.controller;
+
+import com.medinsight.patient.dto.GeoPoint;
+import com.medinsight.patient.dto.GeocodeResult;
+import com.medinsight.patient.dto.NearbyFacility;
+import com.medinsight.patient.entity.CareFacility;
+import com.medinsight.patient.enums.AddressType;
+import com.medinsight.patient.enums.FacilityType;
+import com.medinsight.patient.service.FacilityService;
+import com.medinsight.patient.service.GeocodingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/facilities")
+@RequiredArgsConstructor
+public class FacilityController {
+
+    private final FacilityService facilityService;
+    private final GeocodingService geocodingService;
+
+    /**
+     * Registers a facility at the given coordinates, or geocodes its address
+     * when they are omitted; 422 if the address cannot be placed.
+     */
+    @PostMapping
+    public ResponseEntity<CareFacility> createFacility(@RequestBody CareFacility facility) {
+        try {
+            return facilityService.createFacility(facility)
+                    .map(created -> ResponseEntity.created(URI.create("/api/facilities/" + created.getId()))
+                            .body(created))
+                    .orElse(ResponseEntity.unprocessableEntity().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CareFacility> getFacility(@PathVariable Long id) {
+        return facilityService.getFacility(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deactivateFacility(@PathVariable Long id) {
+        return facilityService.deactivateFacility(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Nearest facilities to a position, or to an address geocoded for the
+     * purpose; 422 if the address cannot be placed.
+     */
+    @GetMapping("/nearest")
+    public ResponseEntity<List<NearbyFacility>> findNearest(
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) String street,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String zipCode,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) FacilityType type,
+            @RequestParam(required = false) Double maxDistanceKm) {
+        GeoPoint origin;
+        if (latitude != null && longitude != null) {
+            try {
+                origin = new GeoPoint(latitude, longitude);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        } else if (city != null || zipCode != null) {
+            GeocodeResult result = geocodingService.geocode(street, city, zipCode, country);
+            if (!result.resolved()) {
+                return ResponseEntity.unprocessableEntity().build();
+            }
+            origin = result.point();
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(facilityService.findNearest(origin, limit, type, maxDistanceKm));
+    }
+
+    @GetMapping("/nearest/patient/{patientId}")
+    public ResponseEntity<List<NearbyFacility>> findNearestToPatient(
+            @PathVariable Long patientId,
+            @RequestParam(required = false) AddressType addressType,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) FacilityType type,
+            @RequestParam(required = false) Double maxDistanceKm) {
+        GeocodeResult location = facilityService.locatePatient(patientId, addressType).orElse(null);
+        if (location == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!location.resolved()) {
+            return ResponseEntity.unprocessableEntity().build();
+        }
+        return ResponseEntity.ok(facilityService.findNearest(location.point(), limit, type, maxDistanceKm));
+    }
+
+    @GetMapping("/geocode")
+    public ResponseEntity<GeocodeResult> geocode(
+            @RequestParam(required = false) String street,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String zipCode,
+            @RequestParam(required = false) String country) {
+        return ResponseEntity.ok(geocodingService.geocode(street, city, zipCode, country));
+    }
+}
@@ -0,0 +1,151 @@
+package com.medinsight.patient.controller;
+
+import com.medinsight.patient.entity.MedicalDocument;
+import com.medinsight.patient.enums.DocumentType;
+import com.medinsight.patient.service.MedicalDocumentService;
+import com.medinsight.patient.storage.BlobSizeLimitExceededException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/patients/{patientId}/documents")
+@RequiredArgsConstructor
+public class MedicalDocumentController {
+
+    private final MedicalDocumentService medicalDocumentService;
+
+    // The raw request body is streamed to storage; multipart would be spooled by the container first
+    @PostMapping(consumes = MediaType.ALL_VALUE)
+    public ResponseEntity<MedicalDocument> uploadDocument(
+            @PathVariable Long patientId,
+            @RequestParam String fileName,
+            @RequestParam DocumentType documentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body) throws IOException {
+        try {
+            return medicalDocumentService.upload(patientId, fileName, documentType, contentType, body)
+                    .map(document -> ResponseEntity
+                            .created(URI.create("/api/patients/" + patientId + "/documents/" + document.getId()))
+                            .eTag(document.getContentHash())
+                            .body(document))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (BlobSizeLimitExceededException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+    }
+
+    @GetMapping("/{documentId}")
+    public ResponseEntity<MedicalDocument> getDocument(@PathVariable Long patientId, @PathVariable Long documentId) {
+        return medicalDocumentService.getDocument(patientId, documentId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{documentId}")
+    public ResponseEntity<Void> deleteDocument(@PathVariable Long patientId, @PathVariable Long documentId) {
+        return medicalDocumentService.deleteDocument(patientId, documentId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Streams the stored bytes. The content hash is a strong ETag, so
+     * If-None-Match yields 304 and If-Range can safely resume a partial
+     * download. A single byte range is served as 206; multiple ranges are
+     * answered with the whole document, as RFC 9110 permits.
+     */
+    @GetMapping("/{documentId}/content")
+    public ResponseEntity<StreamingResponseBody> downloadContent(
+            @PathVariable Long patientId,
+            @PathVariable Long documentId,
+            @RequestHeader HttpHeaders requestHeaders,
+            WebRequest webRequest) {
+        MedicalDocument document = medicalDocumentService.getStoredDocument(patientId, documentId).orElse(null);
+        if (document == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String etag = "\"" + document.getContentHash() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        long size = document.getFileSize();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setContentType(mediaType(document.getContentType()));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(document.getFileName(), StandardCharsets.UTF_8)
+                .build());
+
+        HttpRange range = singleRange(requestHeaders, etag);
+        if (range == null) {
+            headers.setContentLength(size);
+            return new ResponseEntity<>(body(document, 0, size), headers, HttpStatus.OK);
+        }
+
+        long start;
+        long end;
+        try {
+            start = range.getRangeStart(size);
+            end = range.getRangeEnd(size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                    .build();
+        }
+        long length = end - start + 1;
+        headers.setContentLength(length);
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        return new ResponseEntity<>(body(document, start, length), headers, HttpStatus.PARTIAL_CONTENT);
+    }
+
+    private StreamingResponseBody body(MedicalDocument document, long position, long count) {
+        // The channel wraps the servlet stream, which Spring closes; closing it here would end the response early
+        return out -> medicalDocumentService.transferContent(document, position, count, Channels.newChannel(out));
+    }
+
+    private static HttpRange singleRange(HttpHeaders requestHeaders, String etag) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        List<HttpRange> ranges;
+        try {
+            ranges = requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            // A malformed Range header is ignored rather than rejected
+            return null;
+        }
+        return ranges.size() == 1 ? ranges.get(0) : null;
+    }
+
+    private static MediaType mediaType(String contentType) {
+        if (contentType == null) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+        try {
+            return MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.medinsight.patient.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medinsight.commons.web.EntityTags;
+import com.medinsight.commons.web.JsonMergePatch;
 import com.medinsight.patient.entity.MedicalRecord;
 import com.medinsight.patient.service.MedicalRecordService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,16 +28,36 @@ public class MedicalRecordController {
     @GetMapping("/patient/{patientId}")
     public ResponseEntity<MedicalRecord> getMedicalRecordByPatientId(@PathVariable Long patientId) {
         return medicalRecordService.getMedicalRecordByPatientId(patientId)
-                .map(ResponseEntity::ok)
+                .map(record -> ResponseEntity.ok().eTag(EntityTags.of(record.getVersion())).body(record))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<MedicalRecord> updateMedicalRecord(@PathVariable Long id,
-            @RequestBody MedicalRecord medicalRecord) {
+            @RequestBody MedicalRecord medicalRecord,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            MedicalRecord updated = medicalRecordService.updateMedicalRecord(id, medicalRecord);
-            return ResponseEntity.ok(updated);
+            MedicalRecord updated = medicalRecordService.updateMedicalRecord(id, medicalRecord,
+                    EntityTags.expectedVersion(ifMatch));
+            return ResponseEntity.ok().eTag(EntityTags.of(updated.getVersion())).body(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(EntityTags.conflictStatus(ifMatch)).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    public ResponseEntity<MedicalRecord> patchMedicalRecord(@PathVariable Long id, @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            MedicalRecord patched = medicalRecordService.patchMedicalRecord(id, patch,
+                    EntityTags.expectedVersion(ifMatch));
+            return ResponseEntity.ok().eTag(EntityTags.of(patched.getVersion())).body(patched);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(EntityTags.conflictStatus(ifMatch)).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -1,13 +1,23 @@
 package com.medinsight.patient.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medinsight.commons.web.EntityTags;
+import com.medinsight.commons.web.JsonMergePatch;
+import com.medinsight.patient.dto.KeysetPage;
 import com.medinsight.patient.entity.Patient;
 import com.medinsight.patient.service.PatientService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.UUID;
 
 @RestController
@@ -16,6 +26,7 @@ import java.util.UUID;
 public class PatientController {
 
     private final PatientService patientService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<Patient> createPatient(@RequestBody Patient patient) {
@@ -26,7 +37,7 @@ public class PatientController {
     @GetMapping("/{id}")
     public ResponseEntity<Patient> getPatientById(@PathVariable Long id) {
         return patientService.getPatientById(id)
-                .map(ResponseEntity::ok)
+                .map(patient -> ResponseEntity.ok().eTag(EntityTags.of(patient.getVersion())).body(patient))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -38,16 +49,51 @@ public class PatientController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Patient>> getAllPatients() {
-        List<Patient> patients = patientService.getAllPatients();
-        return ResponseEntity.ok(patients);
+    public ResponseEntity<KeysetPage<Patient>> getPatients(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size) {
+        KeysetPage<Patient> page = patientService.getPatientsPage(after, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPatients() {
+        StreamingResponseBody body = out -> patientService.streamPatients(patient -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(patient));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Patient> updatePatient(@PathVariable Long id, @RequestBody Patient patient) {
+    public ResponseEntity<Patient> updatePatient(@PathVariable Long id, @RequestBody Patient patient,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            Patient updated = patientService.updatePatient(id, patient, EntityTags.expectedVersion(ifMatch));
+            return ResponseEntity.ok().eTag(EntityTags.of(updated.getVersion())).body(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(EntityTags.conflictStatus(ifMatch)).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    public ResponseEntity<Patient> patchPatient(@PathVariable Long id, @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Patient updated = patientService.updatePatient(id, patient);
-            return ResponseEntity.ok(updated);
+            Patient patched = patientService.patchPatient(id, patch, EntityTags.expectedVersion(ifMatch));
+            return ResponseEntity.ok().eTag(EntityTags.of(patched.getVersion())).body(patched);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(EntityTags.conflictStatus(ifMatch)).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,90 @@
+package com.medinsight.patient.controller;
+
+import com.medinsight.patient.entity.PatientExportJob;
+import com.medinsight.patient.enums.ExportJobStatus;
+import com.medinsight.patient.export.ExportCapacityExceededException;
+import com.medinsight.patient.service.PatientExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/api/patients/{patientId}/exports")
+@RequiredArgsConstructor
+public class PatientExportController {
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final PatientExportService patientExportService;
+
+    @PostMapping
+    public ResponseEntity<PatientExportJob> startExport(
+            @PathVariable Long patientId,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        try {
+            return patientExportService.startExport(patientId, authorization)
+                    .map(job -> ResponseEntity.accepted()
+                            .location(URI.create("/api/patients/" + patientId + "/exports/" + job.getId()))
+                            .body(job))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (ExportCapacityExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .build();
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<PatientExportJob> getExport(@PathVariable Long patientId, @PathVariable Long jobId) {
+        return patientExportService.getJob(patientId, jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Streams a completed archive. The archive's SHA-256 is a strong ETag and a
+     * single {@code Range} is answered with 206, so an interrupted download can
+     * be resumed; 409 while the export is still running.
+     */
+    @GetMapping("/{jobId}/archive")
+    public ResponseEntity<Resource> downloadArchive(@PathVariable Long patientId, @PathVariable Long jobId,
+            WebRequest webRequest) {
+        PatientExportJob job = patientExportService.getJob(patientId, jobId).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != ExportJobStatus.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        Path archive = patientExportService.getArchivePath(job);
+        if (!Files.isRegularFile(archive)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String etag = "\"" + job.getArchiveSha256() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(GZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(archive.getFileName().toString())
+                        .build()
+                        .toString())
+                .body(new FileSystemResource(archive));
+    }
+}
@@ -0,0 +1,34 @@
+package com.medinsight.patient.controller;
+
+import com.medinsight.patient.dto.BulkImportResult;
+import com.medinsight.patient.enums.ImportFormat;
+import com.medinsight.patient.service.PatientImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/patients/import")
+@RequiredArgsConstructor
+public class PatientImportController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final PatientImportService patientImportService;
+
+    @PostMapping(consumes = { TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<BulkImportResult> importPatients(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        ImportFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ImportFormat.NDJSON
+                : ImportFormat.CSV;
+        BulkImportResult result = patientImportService.importPatients(body, format);
+        return ResponseEntity.ok(result);
+    }
+}
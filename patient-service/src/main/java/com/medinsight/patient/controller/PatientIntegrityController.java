@@ -0,0 +1,34 @@
+package com.medinsight.patient.controller;
+
+import com.medinsight.patient.dto.IntegrityVerificationResult;
+import com.medinsight.patient.entity.IntegrityScanCheckpoint;
+import com.medinsight.patient.service.PatientIntegrityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/patients/integrity")
+@RequiredArgsConstructor
+public class PatientIntegrityController {
+
+    private final PatientIntegrityService patientIntegrityService;
+
+    @GetMapping("/verify")
+    public ResponseEntity<IntegrityVerificationResult> verifyRange(
+            @RequestParam(defaultValue = "1") long fromId,
+            @RequestParam(defaultValue = "9223372036854775807") long toId) {
+        if (fromId > toId) {
+            return ResponseEntity.badRequest().build();
+        }
+        IntegrityVerificationResult result = patientIntegrityService.verifyRange(fromId, toId);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/scan")
+    public ResponseEntity<IntegrityScanCheckpoint> getScanStatus() {
+        return patientIntegrityService.getScanStatus()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
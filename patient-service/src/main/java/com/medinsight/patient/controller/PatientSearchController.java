@@ -0,0 +1,40 @@
+package com.medinsight.patient.controller;
+
+import com.medinsight.patient.dto.PatientSearchHit;
+import com.medinsight.patient.dto.PatientSearchIndexStatus;
+import com.medinsight.patient.service.PatientSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/patients/search")
+@RequiredArgsConstructor
+public class PatientSearchController {
+
+    private final PatientSearchService patientSearchService;
+
+    @GetMapping
+    public ResponseEntity<List<PatientSearchHit>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "true") boolean fuzzy,
+            @RequestParam(defaultValue = "true") boolean phonetic) {
+        return ResponseEntity.ok(patientSearchService.search(q, limit, fuzzy, phonetic));
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuildIndex() {
+        return patientSearchService.startRebuild()
+                ? ResponseEntity.status(HttpStatus.ACCEPTED).build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<PatientSearchIndexStatus> getIndexStatus() {
+        return ResponseEntity.ok(patientSearchService.getStatus());
+    }
+}
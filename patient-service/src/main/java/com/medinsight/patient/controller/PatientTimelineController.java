@@ -0,0 +1,25 @@
+package com.medinsight.patient.controller;
+
+import com.medinsight.patient.dto.PatientTimelineResponse;
+import com.medinsight.patient.service.PatientTimelineService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/patients/{patientId}/timeline")
+@RequiredArgsConstructor
+public class PatientTimelineController {
+
+    private final PatientTimelineService patientTimelineService;
+
+    @GetMapping
+    public ResponseEntity<PatientTimelineResponse> getTimeline(
+            @PathVariable Long patientId,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(patientTimelineService.getTimeline(patientId, authorization, page, size));
+    }
+}
@@ -0,0 +1,14 @@
+package com.medinsight.patient.dto;
+
+/**
+ * Aggregate over {@code document_blobs}. {@code logicalBytes} is what storage
+ * would cost without deduplication: each blob's size times its references.
+ */
+public record BlobUsage(
+        long blobs,
+        long storedBytes,
+        long logicalBytes,
+        long references,
+        long unreferencedBlobs,
+        long reclaimableBytes) {
+}
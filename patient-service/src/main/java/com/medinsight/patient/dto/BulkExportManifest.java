@@ -0,0 +1,19 @@
+package com.medinsight.patient.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The FHIR Bulk Data completion manifest: one {@code output} entry per file,
+ * with the number of resources it holds.
+ */
+public record BulkExportManifest(
+        LocalDateTime transactionTime,
+        String request,
+        boolean requiresAccessToken,
+        List<Output> output,
+        List<Output> error) {
+
+    public record Output(String type, String url, long count) {
+    }
+}
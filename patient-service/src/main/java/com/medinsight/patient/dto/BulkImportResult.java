@@ -0,0 +1,22 @@
+package com.medinsight.patient.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResult {
+    private long received;
+    private long imported;
+    private long failed;
+    private long durationMillis;
+    // Capped so a badly formatted file cannot blow up the response; failed holds the true count
+    private List<ImportRowError> errors;
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,31 @@
+package com.medinsight.patient.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Doctor-service's full consultation, clinical notes included, as its detail
+ * endpoint serves it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ConsultationDetail {
+    private Long id;
+    private Long appointmentId;
+    private Long patientId;
+    private Long doctorId;
+    private LocalDateTime consultationDate;
+    private String chiefComplaint;
+    private String diagnosis;
+    private String prescription;
+    private String notes;
+    private String followUpInstructions;
+}
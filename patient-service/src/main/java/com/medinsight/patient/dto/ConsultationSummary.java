@@ -0,0 +1,25 @@
+package com.medinsight.patient.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Doctor-service's portal consultation summary; clinical notes are only served
+ * by its detail endpoint.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ConsultationSummary {
+    private Long id;
+    private Long appointmentId;
+    private Long doctorId;
+    private LocalDateTime consultationDate;
+}
@@ -0,0 +1,22 @@
+package com.medinsight.patient.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentStorageStats {
+    private long documents;
+    private long blobs;
+    private long logicalBytes;
+    private long storedBytes;
+    private long savedBytes;
+    // logicalBytes / storedBytes; 1.0 means no duplicate content
+    private double dedupRatio;
+    private long unreferencedBlobs;
+    private long reclaimableBytes;
+}
@@ -0,0 +1,17 @@
+package com.medinsight.patient.dto;
+
+import com.medinsight.patient.enums.FacilityType;
+
+/**
+ * What the facility index keeps per active facility: enough to answer a
+ * nearest-facility query without loading the entity.
+ */
+public record FacilityLocation(
+        Long id,
+        String name,
+        FacilityType type,
+        Long doctorId,
+        String city,
+        Double latitude,
+        Double longitude) {
+}
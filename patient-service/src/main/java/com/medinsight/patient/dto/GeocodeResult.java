@@ -0,0 +1,16 @@
+package com.medinsight.patient.dto;
+
+import com.medinsight.patient.enums.GeocodePrecision;
+
+/**
+ * The position found for an address; {@code point} is {@code null} when the
+ * gazetteer has neither its postal code nor its city.
+ */
+public record GeocodeResult(GeoPoint point, GeocodePrecision precision) {
+
+    public static final GeocodeResult UNRESOLVED = new GeocodeResult(null, GeocodePrecision.NONE);
+
+    public boolean resolved() {
+        return point != null;
+    }
+}
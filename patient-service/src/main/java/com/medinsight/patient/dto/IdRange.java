@@ -0,0 +1,7 @@
+package com.medinsight.patient.dto;
+
+/**
+ * Lowest and highest id in a table, inclusive.
+ */
+public record IdRange(long min, long max) {
+}
@@ -0,0 +1,22 @@
+package com.medinsight.patient.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntegrityVerificationResult {
+    private long fromId;
+    private long toId;
+    private long scanned;
+    private long mismatched;
+    private List<Long> mismatchedIds;
+    private boolean mismatchedIdsTruncated;
+    private long durationMillis;
+}
@@ -0,0 +1,19 @@
+package com.medinsight.patient.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+    private List<T> content;
+    private int size;
+    private Long nextCursor;
+    private boolean hasMore;
+}
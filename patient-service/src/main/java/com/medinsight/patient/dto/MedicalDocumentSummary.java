@@ -0,0 +1,16 @@
+package com.medinsight.patient.dto;
+
+import com.medinsight.patient.enums.DocumentType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Portal listing view of a {@code MedicalDocument}.
+ */
+public record MedicalDocumentSummary(
+        Long id,
+        String fileName,
+        DocumentType documentType,
+        Long fileSize,
+        LocalDateTime uploadDate) {
+}
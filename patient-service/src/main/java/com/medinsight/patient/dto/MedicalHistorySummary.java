@@ -0,0 +1,19 @@
+package com.medinsight.patient.dto;
+
+import com.medinsight.patient.enums.HistoryStatus;
+import com.medinsight.patient.enums.HistoryType;
+
+import java.time.LocalDate;
+
+/**
+ * Portal listing view of a {@code MedicalHistory}; leaves out the TEXT
+ * {@code description}.
+ */
+public record MedicalHistorySummary(
+        Long id,
+        HistoryType type,
+        String condition,
+        LocalDate startDate,
+        LocalDate endDate,
+        HistoryStatus status) {
+}
@@ -0,0 +1,14 @@
+package com.medinsight.patient.dto;
+
+import com.medinsight.patient.enums.FacilityType;
+
+public record NearbyFacility(
+        Long id,
+        String name,
+        FacilityType type,
+        Long doctorId,
+        String city,
+        double latitude,
+        double longitude,
+        double distanceKm) {
+}
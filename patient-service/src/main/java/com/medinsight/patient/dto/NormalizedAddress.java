@@ -0,0 +1,14 @@
+package com.medinsight.patient.dto;
+
+/**
+ * An address reduced to a canonical form: upper case, no accents or
+ * punctuation, common street words abbreviated and the country as an ISO 3166
+ * alpha-2 code. Addresses that differ only in spelling details share a
+ * {@link #key()}.
+ */
+public record NormalizedAddress(String street, String city, String zipCode, String country) {
+
+    public String key() {
+        return String.join("|", country, zipCode, city, street);
+    }
+}
@@ -0,0 +1,28 @@
+package com.medinsight.patient.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.medinsight.patient.entity.OutboxEvent;
+import com.medinsight.patient.enums.OutboxAggregateType;
+import com.medinsight.patient.enums.OutboxEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * What consumers receive for one outbox event. Delivery is at least once, so
+ * a consumer may see an event again; {@code sequence} increases with every
+ * event and lets it discard one it has already applied.
+ */
+public record OutboxMessage(
+        long sequence,
+        OutboxAggregateType aggregateType,
+        Long aggregateId,
+        Long patientId,
+        OutboxEventType eventType,
+        LocalDateTime occurredAt,
+        @JsonRawValue String payload) {
+
+    public static OutboxMessage of(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getAggregateType(), event.getAggregateId(),
+                event.getPatientId(), event.getEventType(), event.getCreatedAt(), event.getPayload());
+    }
+}
@@ -0,0 +1,10 @@
+package com.medinsight.patient.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A live patient's email, with the position it was read at, for loading the
+ * email membership filter.
+ */
+public record PatientEmailRow(Long id, String email, LocalDateTime updatedAt) {
+}
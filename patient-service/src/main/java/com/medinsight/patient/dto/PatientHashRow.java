@@ -0,0 +1,14 @@
+package com.medinsight.patient.dto;
+
+/**
+ * The columns that feed the integrity hash, and nothing else, so verification
+ * sweeps never read the TEXT history column.
+ */
+public record PatientHashRow(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        String medicalRecordNumber,
+        String dataHash) {
+}
@@ -0,0 +1,28 @@
+package com.medinsight.patient.dto;
+
+import com.medinsight.patient.entity.Patient;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The patient columns the search index holds. Captured when the entity
+ * changes, so indexing after commit does not depend on the managed entity.
+ */
+public record PatientIndexRow(
+        Long id,
+        String medicalRecordNumber,
+        String firstName,
+        String lastName,
+        String email,
+        String phoneNumber,
+        LocalDate dateOfBirth,
+        boolean deleted,
+        LocalDateTime updatedAt) {
+
+    public static PatientIndexRow of(Patient patient, boolean deleted) {
+        return new PatientIndexRow(patient.getId(), patient.getMedicalRecordNumber(), patient.getFirstName(),
+                patient.getLastName(), patient.getEmail(), patient.getPhoneNumber(), patient.getDateOfBirth(),
+                deleted || patient.isDeleted(), patient.getUpdatedAt());
+    }
+}
@@ -0,0 +1,18 @@
+package com.medinsight.patient.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One search result, served from fields stored in the index without a
+ * database round trip.
+ */
+public record PatientSearchHit(
+        Long id,
+        String medicalRecordNumber,
+        String firstName,
+        String lastName,
+        String email,
+        String phoneNumber,
+        LocalDate dateOfBirth,
+        float score) {
+}
@@ -0,0 +1,22 @@
+package com.medinsight.patient.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSearchIndexStatus {
+    private long documents;
+    private boolean rebuilding;
+    private LocalDateTime lastRebuildStartedAt;
+    private LocalDateTime lastRebuildCompletedAt;
+    private long lastRebuildDocuments;
+    // Patient changes up to this time (less the sync overlap) are reflected in the index
+    private LocalDateTime syncedThrough;
+}
@@ -0,0 +1,23 @@
+package com.medinsight.patient.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientTimelineResponse {
+    private Long patientId;
+    private List<TimelineEntry> entries;
+    private int page;
+    private int size;
+    private int totalEntries;
+    private boolean hasMore;
+    // True when a source (doctor-service) could not be reached and its entries are missing
+    private boolean partial;
+}
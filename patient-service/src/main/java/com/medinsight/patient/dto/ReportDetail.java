@@ -0,0 +1,29 @@
+package com.medinsight.patient.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Report-service's full report, content included, as its detail endpoint
+ * serves it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ReportDetail {
+    private Long id;
+    private Long patientId;
+    private Long doctorId;
+    private String reportType;
+    private String title;
+    private String content;
+    private String pdfUrl;
+    private LocalDateTime generatedAt;
+}
@@ -0,0 +1,27 @@
+package com.medinsight.patient.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Report-service's report summary; the report content is only served by its
+ * detail endpoint.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ReportSummary {
+    private Long id;
+    private Long doctorId;
+    private String reportType;
+    private String title;
+    private String pdfUrl;
+    private LocalDateTime generatedAt;
+}
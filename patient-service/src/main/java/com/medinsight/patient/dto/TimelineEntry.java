@@ -0,0 +1,13 @@
+package com.medinsight.patient.dto;
+
+import com.medinsight.patient.enums.TimelineEntryType;
+
+import java.time.LocalDateTime;
+
+public record TimelineEntry(
+        TimelineEntryType type,
+        Long sourceId,
+        LocalDateTime occurredAt,
+        String title,
+        String summary) {
+}
@@ -0,0 +1,45 @@
+package com.medinsight.patient.entity;
+
+import com.medinsight.patient.enums.BulkExportResourceType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "bulk_export_files")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkExportFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private BulkExportResourceType resourceType;
+
+    @Column(nullable = false)
+    private int partitionIndex;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private long rowCount;
+
+    @Column(nullable = false)
+    private long sizeBytes;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
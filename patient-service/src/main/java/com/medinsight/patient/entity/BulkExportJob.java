@@ -0,0 +1,74 @@
+package com.medinsight.patient.entity;
+
+import com.medinsight.patient.enums.ExportJobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.LocalDateTime;
+
+/**
+ * A population-level {@code $export}. Its output is one
+ * {@link BulkExportFile} per non-empty id-range partition. Progress counters
+ * are incremented in place by the workers, so status changes must not write
+ * them back.
+ */
+@Entity
+@Table(name = "bulk_export_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@DynamicUpdate
+public class BulkExportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ExportJobStatus status;
+
+    // FHIR type names, comma separated, as in _type
+    @Column(nullable = false)
+    private String resourceTypes;
+
+    private LocalDateTime since;
+
+    @Column(nullable = false, length = 2000)
+    private String requestUrl;
+
+    // Rows changed after this instant may or may not be in the output
+    @Column(nullable = false)
+    private LocalDateTime transactionTime;
+
+    @Column(nullable = false)
+    private int partitionsTotal;
+
+    @Column(nullable = false)
+    private int partitionsCompleted;
+
+    @Column(nullable = false)
+    private long rowsWritten;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Advanced by every finished partition; a running export that stops advancing it is abandoned
+    @Column(nullable = false)
+    private LocalDateTime heartbeatAt;
+
+    private LocalDateTime completedAt;
+
+    private LocalDateTime expiresAt;
+
+    @Version
+    private Long version;
+}
@@ -0,0 +1,76 @@
+package com.medinsight.patient.entity;
+
+import com.medinsight.patient.enums.FacilityType;
+import com.medinsight.patient.enums.GeocodePrecision;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * A place where patients are seen. Its position is either given when it is
+ * registered or geocoded from its address; facilities without one are left
+ * out of nearest-facility searches.
+ */
+@Entity
+@Table(name = "care_facilities")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class CareFacility {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private FacilityType type;
+
+    // The doctor practising here, when the facility is a single doctor's practice
+    private Long doctorId;
+
+    @Column(nullable = false)
+    private String street;
+
+    @Column(nullable = false)
+    private String city;
+
+    private String state;
+
+    @Column(nullable = false)
+    private String zipCode;
+
+    @Column(nullable = false)
+    private String country;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private GeocodePrecision geocodePrecision;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean active = true;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,39 @@
+package com.medinsight.patient.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reference count for one content-addressed blob. Every {@link MedicalDocument}
+ * with a {@code contentHash} holds one reference; blobs left at zero are
+ * removed by the storage garbage collector after a grace period.
+ */
+@Entity
+@Table(name = "document_blobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentBlob {
+
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(nullable = false)
+    private long refCount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Set when the last reference goes away; the garbage collector measures the grace period from here
+    private LocalDateTime unreferencedSince;
+}
@@ -0,0 +1,46 @@
+package com.medinsight.patient.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "integrity_scan_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntegrityScanCheckpoint {
+
+    @Id
+    private String scanName;
+
+    // Highest patient id verified in the current pass; 0 means the pass has not started
+    @Column(nullable = false)
+    private long lastScannedId;
+
+    @Column(nullable = false)
+    private long passRowsScanned;
+
+    @Column(nullable = false)
+    private long passMismatches;
+
+    @Column(nullable = false)
+    private long completedPasses;
+
+    private LocalDateTime passStartedAt;
+
+    private LocalDateTime lastPassCompletedAt;
+
+    private LocalDateTime nextPassAt;
+
+    private LocalDateTime updatedAt;
+
+    // Lets concurrent instances detect that another scanner already advanced the checkpoint
+    @Version
+    private Long version;
+}
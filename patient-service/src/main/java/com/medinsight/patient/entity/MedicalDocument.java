@@ -1,6 +1,8 @@
 package com.medinsight.patient.entity;
 
 import com.medinsight.patient.enums.DocumentType;
+import com.medinsight.patient.listener.OutboxListener;
+import com.medinsight.patient.listener.TimelineInvalidationListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,7 +19,7 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({ AuditingEntityListener.class, TimelineInvalidationListener.class, OutboxListener.class })
 public class MedicalDocument {
 
     @Id
@@ -39,6 +41,12 @@ public class MedicalDocument {
 
     private Long fileSize;
 
+    // SHA-256 of the stored bytes; null for documents that only reference an external fileUrl
+    @Column(length = 64)
+    private String contentHash;
+
+    private String contentType;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime uploadDate;
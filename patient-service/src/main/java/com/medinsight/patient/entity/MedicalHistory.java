@@ -2,6 +2,8 @@ package com.medinsight.patient.entity;
 
 import com.medinsight.patient.enums.HistoryStatus;
 import com.medinsight.patient.enums.HistoryType;
+import com.medinsight.patient.listener.OutboxListener;
+import com.medinsight.patient.listener.TimelineInvalidationListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,6 +18,7 @@ import java.time.LocalDate;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@EntityListeners({ TimelineInvalidationListener.class, OutboxListener.class })
 public class MedicalHistory {
 
     @Id
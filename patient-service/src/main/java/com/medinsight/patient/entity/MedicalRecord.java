@@ -1,10 +1,13 @@
 package com.medinsight.patient.entity;
 
+import com.medinsight.patient.listener.OutboxListener;
+import com.medinsight.patient.listener.TimelineInvalidationListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -12,11 +15,12 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "medical_records")
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({ AuditingEntityListener.class, TimelineInvalidationListener.class, OutboxListener.class })
 public class MedicalRecord {
 
     @Id
@@ -45,4 +49,7 @@ public class MedicalRecord {
 
     @LastModifiedDate
     private LocalDateTime lastUpdated;
+
+    @Version
+    private Long version;
 }
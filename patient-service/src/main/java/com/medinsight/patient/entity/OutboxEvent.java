@@ -0,0 +1,51 @@
+package com.medinsight.patient.entity;
+
+import com.medinsight.patient.enums.OutboxAggregateType;
+import com.medinsight.patient.enums.OutboxEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change to patient data waiting to be relayed to other services. Written in
+ * the transaction that made the change and deleted once the transport has
+ * acknowledged it. The id gives the relay its order; within one patient, ids
+ * follow commit order (see {@code OutboxRecorder}).
+ */
+@Entity
+@Table(name = "patient_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OutboxAggregateType aggregateType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false)
+    private Long patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OutboxEventType eventType;
+
+    // JSON snapshot of the entity after the change
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
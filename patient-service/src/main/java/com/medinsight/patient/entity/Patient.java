@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
 import org.springframework.data.annotation.CreatedDate;
@@ -22,9 +23,12 @@ import java.util.UUID;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@SQLDelete(sql = "UPDATE patients SET deleted = true WHERE id=?")
+@DynamicUpdate
+@SQLDelete(sql = "UPDATE patients SET deleted = true, updated_at = LOCALTIMESTAMP WHERE id=? AND version=?")
 @Where(clause = "deleted=false")
-@EntityListeners({ AuditingEntityListener.class, com.medinsight.patient.listener.DataIntegrityListener.class })
+@EntityListeners({ AuditingEntityListener.class, com.medinsight.patient.listener.DataIntegrityListener.class,
+        com.medinsight.patient.listener.PatientSearchIndexListener.class,
+        com.medinsight.patient.listener.OutboxListener.class })
 public class Patient {
 
     @Id
@@ -69,6 +73,9 @@ public class Patient {
     @Column(nullable = false)
     private boolean deleted = Boolean.FALSE;
 
+    @Version
+    private Long version;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
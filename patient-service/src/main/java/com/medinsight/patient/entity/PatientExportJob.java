@@ -0,0 +1,110 @@
+package com.medinsight.patient.entity;
+
+import com.medinsight.patient.enums.ExportJobStatus;
+import com.medinsight.patient.enums.ExportPhase;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An export of one patient's chart, and the checkpoint it resumes from. The
+ * archive is written as numbered parts; {@code partsWritten} and
+ * {@code lastDocumentId} only advance once a part is safely on disk, so a job
+ * picked up again after a crash discards anything past them and carries on.
+ */
+@Entity
+@Table(name = "patient_export_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientExportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ExportJobStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ExportPhase phase;
+
+    @Column(nullable = false)
+    private int partsWritten;
+
+    // Documents with ids up to this one were in the bundle; later uploads are not part of the snapshot
+    private Long maxDocumentId;
+
+    @Column(nullable = false)
+    private long lastDocumentId;
+
+    @Column(nullable = false)
+    private int documentsTotal;
+
+    @Column(nullable = false)
+    private int documentsExported;
+
+    @Column(nullable = false)
+    private int documentsSkipped;
+
+    @Column(nullable = false)
+    private long bytesTotal;
+
+    @Column(nullable = false)
+    private long bytesExported;
+
+    // Consultations or reports could not be fetched from their services
+    @Column(nullable = false)
+    private boolean partial;
+
+    private Long archiveSize;
+
+    @Column(length = 64)
+    private String archiveSha256;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    private LocalDateTime snapshotAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    // Refreshed at every checkpoint; a running job that stops refreshing it is taken over
+    @Column(nullable = false)
+    private LocalDateTime heartbeatAt;
+
+    private LocalDateTime completedAt;
+
+    private LocalDateTime expiresAt;
+
+    @Version
+    private Long version;
+
+    /**
+     * Fraction done: the bundle is a tenth of the work and the document bytes
+     * the rest.
+     */
+    public double getProgress() {
+        if (status == ExportJobStatus.COMPLETED || status == ExportJobStatus.EXPIRED) {
+            return 1;
+        }
+        return switch (phase) {
+            case BUNDLE -> 0;
+            case DOCUMENTS -> 0.1 + 0.89 * (bytesTotal == 0 ? 1 : (double) bytesExported / bytesTotal);
+            case ASSEMBLY -> 0.99;
+        };
+    }
+}
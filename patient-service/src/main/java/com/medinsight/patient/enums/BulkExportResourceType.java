@@ -0,0 +1,28 @@
+package com.medinsight.patient.enums;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Resource types a bulk export can produce, under the FHIR names used in
+ * {@code _type} and the manifest.
+ */
+public enum BulkExportResourceType {
+    PATIENT("Patient"),
+    CONDITION("Condition"),
+    BASIC("Basic");
+
+    private final String fhirType;
+
+    BulkExportResourceType(String fhirType) {
+        this.fhirType = fhirType;
+    }
+
+    public String getFhirType() {
+        return fhirType;
+    }
+
+    public static Optional<BulkExportResourceType> fromFhirType(String fhirType) {
+        return Arrays.stream(values()).filter(type -> type.fhirType.equals(fhirType)).findFirst();
+    }
+}
@@ -0,0 +1,10 @@
+package com.medinsight.patient.enums;
+
+public enum ExportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED,
+    EXPIRED
+}
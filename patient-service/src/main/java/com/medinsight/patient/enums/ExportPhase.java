@@ -0,0 +1,7 @@
+package com.medinsight.patient.enums;
+
+public enum ExportPhase {
+    BUNDLE,
+    DOCUMENTS,
+    ASSEMBLY
+}
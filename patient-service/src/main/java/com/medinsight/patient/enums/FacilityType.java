@@ -0,0 +1,9 @@
+package com.medinsight.patient.enums;
+
+public enum FacilityType {
+    CLINIC,
+    HOSPITAL,
+    PRACTICE,
+    LABORATORY,
+    PHARMACY
+}
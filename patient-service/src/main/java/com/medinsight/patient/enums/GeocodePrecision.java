@@ -0,0 +1,11 @@
+package com.medinsight.patient.enums;
+
+/**
+ * How closely a geocoded position matches the address: the centroid of its
+ * postal code, the centroid of its city, or not found.
+ */
+public enum GeocodePrecision {
+    POSTAL_CODE,
+    CITY,
+    NONE
+}
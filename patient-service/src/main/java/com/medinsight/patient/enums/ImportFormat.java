@@ -0,0 +1,6 @@
+package com.medinsight.patient.enums;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,8 @@
+package com.medinsight.patient.enums;
+
+public enum OutboxAggregateType {
+    PATIENT,
+    MEDICAL_RECORD,
+    MEDICAL_HISTORY,
+    MEDICAL_DOCUMENT
+}
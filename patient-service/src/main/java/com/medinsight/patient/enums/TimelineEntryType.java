@@ -0,0 +1,8 @@
+package com.medinsight.patient.enums;
+
+public enum TimelineEntryType {
+    HISTORY,
+    DOCUMENT,
+    RECORD,
+    CONSULTATION
+}
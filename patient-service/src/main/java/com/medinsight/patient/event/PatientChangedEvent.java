@@ -0,0 +1,6 @@
+package com.medinsight.patient.event;
+
+import com.medinsight.patient.dto.PatientIndexRow;
+
+public record PatientChangedEvent(PatientIndexRow patient) {
+}
@@ -0,0 +1,10 @@
+package com.medinsight.patient.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a patient's stored {@code dataHash} no longer matches its
+ * fields, i.e. the row was changed without going through the entity listener.
+ */
+public record PatientIntegrityViolationEvent(Long patientId, String storedHash, LocalDateTime detectedAt) {
+}
@@ -0,0 +1,4 @@
+package com.medinsight.patient.event;
+
+public record PatientTimelineChangedEvent(Long patientId) {
+}
@@ -0,0 +1,15 @@
+package com.medinsight.patient.export;
+
+public class BulkExportInProgressException extends RuntimeException {
+
+    private final Long jobId;
+
+    public BulkExportInProgressException(Long jobId) {
+        super("Bulk export " + jobId + " is still running");
+        this.jobId = jobId;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+}
@@ -0,0 +1,14 @@
+package com.medinsight.patient.export;
+
+import com.medinsight.patient.enums.BulkExportResourceType;
+
+/**
+ * One unit of bulk export work: the rows of a resource type with ids in
+ * [{@code fromId}, {@code toId}], written to their own file.
+ */
+public record BulkExportPartition(BulkExportResourceType type, int index, long fromId, long toId) {
+
+    public String fileName() {
+        return String.format("%s-%04d.ndjson.gz", type.getFhirType(), index);
+    }
+}
@@ -0,0 +1,124 @@
+package com.medinsight.patient.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medinsight.patient.dto.IdRange;
+import com.medinsight.patient.entity.BulkExportFile;
+import com.medinsight.patient.enums.BulkExportResourceType;
+import com.medinsight.patient.repository.BulkExportJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuts a bulk export into id-range partitions and writes each one to a gzipped
+ * NDJSON file. A partition is read through one cursor in its own read-only
+ * transaction, so partitions can run in parallel on separate connections and
+ * none of them holds more than a fetch of rows in memory.
+ */
+@Component
+public class BulkExportWriter {
+
+    private final BulkExportJdbcRepository bulkExportJdbcRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate cursorTransaction;
+    private final Path root;
+
+    @Value("${patient.bulk-export.partition-size:250000}")
+    private long partitionSize;
+
+    @Value("${patient.bulk-export.buffer-size:65536}")
+    private int bufferSize;
+
+    public BulkExportWriter(BulkExportJdbcRepository bulkExportJdbcRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${patient.bulk-export.root:/var/lib/medinsight/bulk-exports}") Path root) {
+        this.bulkExportJdbcRepository = bulkExportJdbcRepository;
+        this.objectMapper = objectMapper;
+        this.root = root;
+        this.cursorTransaction = new TransactionTemplate(transactionManager);
+        cursorTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Partitions of {@code partition-size} ids over each type's current id
+     * range. Gaps in the ids only make partitions smaller.
+     */
+    public List<BulkExportPartition> plan(List<BulkExportResourceType> types) {
+        List<BulkExportPartition> partitions = new ArrayList<>();
+        for (BulkExportResourceType type : types) {
+            IdRange range = bulkExportJdbcRepository.findIdRange(type);
+            if (range == null) {
+                continue;
+            }
+            int index = 0;
+            for (long from = range.min(); from <= range.max(); from += partitionSize) {
+                partitions.add(new BulkExportPartition(type, index++, from,
+                        Math.min(from + partitionSize - 1, range.max())));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Writes the partition's rows and describes the file, or returns
+     * {@code null} and leaves no file if it had none.
+     */
+    public BulkExportFile write(Long jobId, LocalDateTime since, BulkExportPartition partition) throws IOException {
+        Path directory = Files.createDirectories(directory(jobId));
+        Path file = directory.resolve(partition.fileName());
+        long rows;
+        try (NdjsonRowWriter writer = new NdjsonRowWriter(file, partition.type().getFhirType(),
+                objectMapper.getFactory(), bufferSize)) {
+            cursorTransaction.executeWithoutResult(status -> bulkExportJdbcRepository.streamRows(partition.type(),
+                    partition.fromId(), partition.toId(), since, writer));
+            rows = writer.getRows();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (rows == 0) {
+            Files.delete(file);
+            return null;
+        }
+        return BulkExportFile.builder()
+                .jobId(jobId)
+                .resourceType(partition.type())
+                .partitionIndex(partition.index())
+                .fileName(partition.fileName())
+                .rowCount(rows)
+                .sizeBytes(Files.size(file))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    public Path file(Long jobId, String fileName) {
+        return directory(jobId).resolve(fileName);
+    }
+
+    public void deleteFiles(Long jobId) throws IOException {
+        Path directory = directory(jobId);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    private Path directory(Long jobId) {
+        return root.resolve(String.valueOf(jobId));
+    }
+}
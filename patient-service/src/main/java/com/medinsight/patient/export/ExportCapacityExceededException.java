@@ -0,0 +1,8 @@
+package com.medinsight.patient.export;
+
+public class ExportCapacityExceededException extends RuntimeException {
+
+    public ExportCapacityExceededException() {
+        super("The export queue is full");
+    }
+}
@@ -0,0 +1,129 @@
+package com.medinsight.patient.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes each row it is handed as one gzipped NDJSON line: the FHIR resource
+ * type, then every non-null column under its camel-cased name. Rows go
+ * straight from the result set to the compressor, so memory use does not grow
+ * with the number of rows.
+ */
+class NdjsonRowWriter implements RowCallbackHandler, Closeable {
+
+    private final JsonGenerator json;
+    private final String resourceType;
+
+    private String[] fields;
+    private int[] types;
+    private long rows;
+
+    NdjsonRowWriter(Path file, String resourceType, JsonFactory jsonFactory, int bufferSize) throws IOException {
+        this.json = jsonFactory.createGenerator(new GZIPOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), bufferSize), bufferSize));
+        // Lines are ended explicitly; the default separator would put a space before each one
+        json.setRootValueSeparator(null);
+        this.resourceType = resourceType;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+        if (fields == null) {
+            describe(rs.getMetaData());
+        }
+        try {
+            json.writeStartObject();
+            json.writeStringField("resourceType", resourceType);
+            for (int i = 0; i < fields.length; i++) {
+                writeColumn(rs, i + 1);
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        rows++;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        json.close();
+    }
+
+    private void writeColumn(ResultSet rs, int column) throws SQLException, IOException {
+        String field = fields[column - 1];
+        switch (types[column - 1]) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> {
+                long value = rs.getLong(column);
+                if (!rs.wasNull()) {
+                    json.writeNumberField(field, value);
+                }
+            }
+            case Types.BOOLEAN, Types.BIT -> {
+                boolean value = rs.getBoolean(column);
+                if (!rs.wasNull()) {
+                    json.writeBooleanField(field, value);
+                }
+            }
+            case Types.DATE -> {
+                LocalDate value = rs.getObject(column, LocalDate.class);
+                if (value != null) {
+                    json.writeStringField(field, value.toString());
+                }
+            }
+            case Types.TIMESTAMP -> {
+                LocalDateTime value = rs.getObject(column, LocalDateTime.class);
+                if (value != null) {
+                    json.writeStringField(field, value.toString());
+                }
+            }
+            default -> {
+                String value = rs.getString(column);
+                if (value != null) {
+                    json.writeStringField(field, value);
+                }
+            }
+        }
+    }
+
+    private void describe(ResultSetMetaData metaData) throws SQLException {
+        int columns = metaData.getColumnCount();
+        fields = new String[columns];
+        types = new int[columns];
+        for (int i = 0; i < columns; i++) {
+            fields[i] = camelCase(metaData.getColumnLabel(i + 1));
+            types[i] = metaData.getColumnType(i + 1);
+        }
+    }
+
+    static String camelCase(String column) {
+        String[] words = column.toLowerCase(Locale.ROOT).split("_");
+        StringBuilder name = new StringBuilder(words[0]);
+        for (int i = 1; i < words.length; i++) {
+            if (!words[i].isEmpty()) {
+                name.append(Character.toUpperCase(words[i].charAt(0))).append(words[i], 1, words[i].length());
+            }
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,582 @@
+package com.medinsight.patient.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.medinsight.patient.client.ConsultationClient;
+import com.medinsight.patient.client.ReportClient;
+import com.medinsight.patient.dto.ConsultationDetail;
+import com.medinsight.patient.dto.ReportDetail;
+import com.medinsight.patient.entity.MedicalDocument;
+import com.medinsight.patient.entity.MedicalHistory;
+import com.medinsight.patient.entity.Patient;
+import com.medinsight.patient.entity.PatientExportJob;
+import com.medinsight.patient.enums.ExportJobStatus;
+import com.medinsight.patient.enums.ExportPhase;
+import com.medinsight.patient.repository.AddressRepository;
+import com.medinsight.patient.repository.MedicalDocumentRepository;
+import com.medinsight.patient.repository.MedicalHistoryRepository;
+import com.medinsight.patient.repository.MedicalRecordRepository;
+import com.medinsight.patient.repository.PatientExportJobRepository;
+import com.medinsight.patient.repository.PatientRepository;
+import com.medinsight.patient.storage.BlobStore;
+import feign.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes a patient's chart to a {@code .tar.gz} on disk: a FHIR-style
+ * {@code bundle.json} (a {@code collection} Bundle whose entries carry FHIR
+ * resource type names around this service's own representations) followed by
+ * the report files and the content of every document it references.
+ * Consultations and reports are read from the detail endpoints of their
+ * services, so the bundle carries their clinical content and not the
+ * summaries the list endpoints serve.
+ *
+ * <p>The bundle is read in one repeatable-read transaction, so it is a single
+ * point-in-time view of the chart, and streamed to a staging file rather than
+ * built in memory. Report files are downloaded to staging files next to it
+ * and written one archive part each with the bundle. Document content is
+ * copied from the blob store in bounded buffers, one archive part per
+ * document. Every part is checkpointed on the
+ * job before the next one starts; {@link #export} called again on the same job
+ * discards any part past the checkpoint and carries on from there. Copies that
+ * outlast a checkpoint interval refresh the job's heartbeat as they go, so
+ * another worker does not take the job over and delete the part being written.
+ */
+@Component
+@Slf4j
+public class PatientArchiveExporter {
+
+    static final String BUNDLE_ENTRY = "bundle.json";
+
+    private static final Pattern PART_NAME = Pattern.compile("part-(\\d+)\\.tar\\.gz");
+
+    // Copies are cut into slices of this many bytes so the heartbeat can be refreshed between them
+    private static final long COPY_SLICE = 8L * 1024 * 1024;
+
+    private final PatientRepository patientRepository;
+    private final AddressRepository addressRepository;
+    private final MedicalRecordRepository medicalRecordRepository;
+    private final MedicalHistoryRepository medicalHistoryRepository;
+    private final MedicalDocumentRepository medicalDocumentRepository;
+    private final PatientExportJobRepository jobRepository;
+    private final ConsultationClient consultationClient;
+    private final ReportClient reportClient;
+    private final BlobStore blobStore;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate snapshotTransaction;
+    private final Path root;
+    private final URI reportServiceUrl;
+
+    @Value("${patient.export.buffer-size:65536}")
+    private int bufferSize;
+
+    @Value("${patient.export.page-size:500}")
+    private int pageSize;
+
+    @Value("${patient.export.retention:24h}")
+    private Duration retention;
+
+    // Well inside patient.export.stale-after, so a long copy is never mistaken for a dead worker
+    @Value("${patient.export.heartbeat-interval:PT1M}")
+    private Duration heartbeatInterval;
+
+    public PatientArchiveExporter(PatientRepository patientRepository,
+            AddressRepository addressRepository,
+            MedicalRecordRepository medicalRecordRepository,
+            MedicalHistoryRepository medicalHistoryRepository,
+            MedicalDocumentRepository medicalDocumentRepository,
+            PatientExportJobRepository jobRepository,
+            ConsultationClient consultationClient,
+            ReportClient reportClient,
+            BlobStore blobStore,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${patient.export.root:/var/lib/medinsight/exports}") Path root,
+            @Value("${report-service.url:http://report-service:8080}") URI reportServiceUrl) {
+        this.patientRepository = patientRepository;
+        this.addressRepository = addressRepository;
+        this.medicalRecordRepository = medicalRecordRepository;
+        this.medicalHistoryRepository = medicalHistoryRepository;
+        this.medicalDocumentRepository = medicalDocumentRepository;
+        this.jobRepository = jobRepository;
+        this.consultationClient = consultationClient;
+        this.reportClient = reportClient;
+        this.blobStore = blobStore;
+        this.objectMapper = objectMapper;
+        this.root = root;
+        this.reportServiceUrl = reportServiceUrl;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        snapshotTransaction.setReadOnly(true);
+        snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Runs {@code job} from its checkpoint to completion and returns it
+     * completed. On failure the checkpointed parts are left in place for a
+     * resumed run; the caller deletes them once it gives the job up.
+     *
+     * @throws OptimisticLockingFailureException if another worker claims the
+     *                                           job while it runs
+     */
+    public PatientExportJob export(PatientExportJob job, String authorization) throws IOException {
+        Path directory = Files.createDirectories(jobDirectory(job.getId()));
+        discardUncheckpointedParts(directory, job.getPartsWritten());
+        if (job.getPhase() == ExportPhase.BUNDLE) {
+            job = writeBundle(job, directory, authorization);
+        }
+        if (job.getPhase() == ExportPhase.DOCUMENTS) {
+            job = writeDocuments(job, directory);
+        }
+        return assemble(job, directory);
+    }
+
+    public Path archivePath(PatientExportJob job) {
+        return jobDirectory(job.getId())
+                .resolve("patient-" + job.getPatientId() + "-export-" + job.getId() + ".tar.gz");
+    }
+
+    public void deleteFiles(Long jobId) throws IOException {
+        Path directory = jobDirectory(jobId);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    static String documentEntryName(MedicalDocument document) {
+        return TarGzPartWriter.entryName("documents/" + document.getId() + "-", document.getFileName());
+    }
+
+    static String reportEntryName(ReportDetail report) {
+        String path = URI.create(report.getPdfUrl()).getPath();
+        String fileName = path == null || path.endsWith("/") ? "report.pdf" : path.substring(path.lastIndexOf('/') + 1);
+        return TarGzPartWriter.entryName("reports/" + report.getId() + "-", fileName);
+    }
+
+    private PatientExportJob writeBundle(PatientExportJob job, Path directory, String authorization)
+            throws IOException {
+        Long patientId = job.getPatientId();
+        // Fetched before the snapshot transaction so a slow service does not hold it open
+        List<ConsultationDetail> consultations = fetchRemote("consultations", patientId,
+                () -> details(consultationClient.getConsultations(authorization, patientId),
+                        consultation -> consultationClient.getConsultation(authorization, consultation.getId())));
+        List<ReportDetail> reports = fetchRemote("reports", patientId,
+                () -> details(reportClient.getReports(authorization, patientId),
+                        report -> reportClient.getReport(authorization, report.getId())));
+        Map<ReportDetail, Path> reportFiles = fetchReportFiles(reports, directory, authorization);
+
+        LocalDateTime snapshotAt = LocalDateTime.now();
+        Path staging = directory.resolve(BUNDLE_ENTRY + ".tmp");
+        BundleContents contents = snapshotTransaction.execute(status -> {
+            try {
+                return writeBundleJson(job, staging, snapshotAt, consultations, reports, reportFiles);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (contents == null) {
+            throw new IllegalStateException("Patient not found with id: " + patientId);
+        }
+
+        Instant modified = snapshotAt.atZone(ZoneId.systemDefault()).toInstant();
+        writePart(directory, 0, writer -> writer.putFile(BUNDLE_ENTRY, staging, modified));
+        Files.deleteIfExists(staging);
+        int parts = 1;
+        for (Map.Entry<ReportDetail, Path> file : reportFiles.entrySet()) {
+            Instant generated = file.getKey().getGeneratedAt() == null ? modified
+                    : file.getKey().getGeneratedAt().atZone(ZoneId.systemDefault()).toInstant();
+            writePart(directory, parts++, writer -> writer.putFile(reportEntryName(file.getKey()), file.getValue(),
+                    generated));
+            Files.deleteIfExists(file.getValue());
+        }
+
+        job.setSnapshotAt(snapshotAt);
+        job.setPartial(consultations == null || reports == null || reportFiles.size() < withFile(reports));
+        job.setMaxDocumentId(contents.maxDocumentId());
+        job.setDocumentsTotal(contents.documents());
+        job.setBytesTotal(contents.bytes());
+        job.setPartsWritten(parts);
+        job.setPhase(ExportPhase.DOCUMENTS);
+        return checkpoint(job);
+    }
+
+    /**
+     * Downloads the file of every report that has one to a staging file in
+     * {@code directory}. A file that cannot be fetched is left out and logged;
+     * the export is then marked partial.
+     */
+    private Map<ReportDetail, Path> fetchReportFiles(List<ReportDetail> reports, Path directory,
+            String authorization) {
+        Map<ReportDetail, Path> files = new LinkedHashMap<>();
+        if (reports == null) {
+            return files;
+        }
+        byte[] buffer = new byte[bufferSize];
+        for (ReportDetail report : reports) {
+            if (!hasFile(report)) {
+                continue;
+            }
+            Path staging = directory.resolve("report-" + report.getId() + ".tmp");
+            try (Response response = reportClient.getFile(reportServiceUrl.resolve(report.getPdfUrl()),
+                    authorization)) {
+                if (response.status() != 200 || response.body() == null) {
+                    throw new IOException("HTTP " + response.status());
+                }
+                try (InputStream in = response.body().asInputStream();
+                        OutputStream out = Files.newOutputStream(staging)) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                }
+                files.put(report, staging);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Exporting report {} without its file: {}", report.getId(), e.getMessage());
+                deleteQuietly(staging);
+            }
+        }
+        return files;
+    }
+
+    private BundleContents writeBundleJson(PatientExportJob job, Path staging, LocalDateTime snapshotAt,
+            List<ConsultationDetail> consultations, List<ReportDetail> reports, Map<ReportDetail, Path> reportFiles)
+            throws IOException {
+        Long patientId = job.getPatientId();
+        Patient patient = patientRepository.findById(patientId).orElse(null);
+        if (patient == null) {
+            return null;
+        }
+
+        Long maxDocumentId = null;
+        int documents = 0;
+        long bytes = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(staging), bufferSize);
+                JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("resourceType", "Bundle");
+            json.writeStringField("type", "collection");
+            json.writeStringField("timestamp", snapshotAt.toString());
+            json.writeObjectFieldStart("meta");
+            json.writeNumberField("patientId", patientId);
+            json.writeNumberField("exportJobId", job.getId());
+            json.writeBooleanField("consultationsIncluded", consultations != null);
+            json.writeBooleanField("reportsIncluded", reports != null);
+            json.writeEndObject();
+            json.writeArrayFieldStart("entry");
+
+            ObjectNode patientResource = resource("Patient", patient);
+            patientResource.set("address", objectMapper.valueToTree(addressRepository.findByPatientId(patientId)));
+            writeEntry(json, patientResource);
+            medicalRecordRepository.findByPatientId(patientId).ifPresent(record -> writeEntry(json,
+                    resource("Basic", record)));
+
+            long afterId = 0;
+            List<MedicalHistory> history;
+            while (!(history = medicalHistoryRepository.findByPatientIdAndIdGreaterThanOrderByIdAsc(patientId,
+                    afterId, Limit.of(pageSize))).isEmpty()) {
+                history.forEach(entry -> writeEntry(json, resource("Condition", entry)));
+                afterId = history.get(history.size() - 1).getId();
+            }
+
+            afterId = 0;
+            List<MedicalDocument> page;
+            while (!(page = medicalDocumentRepository.findByPatientIdAndIdGreaterThanOrderByIdAsc(patientId,
+                    afterId, Limit.of(pageSize))).isEmpty()) {
+                for (MedicalDocument document : page) {
+                    ObjectNode resource = resource("DocumentReference", document);
+                    if (document.getContentHash() != null && blobStore.exists(document.getContentHash())) {
+                        long size = blobStore.size(document.getContentHash());
+                        ObjectNode attachment = resource.putArray("content").addObject().putObject("attachment");
+                        attachment.put("url", documentEntryName(document));
+                        attachment.put("contentType", document.getContentType());
+                        attachment.put("size", size);
+                        attachment.put("hash", document.getContentHash());
+                        documents++;
+                        bytes += size;
+                    }
+                    writeEntry(json, resource);
+                    maxDocumentId = document.getId();
+                }
+                afterId = page.get(page.size() - 1).getId();
+            }
+
+            if (consultations != null) {
+                consultations.forEach(consultation -> writeEntry(json, resource("Encounter", consultation)));
+            }
+            if (reports != null) {
+                for (ReportDetail report : reports) {
+                    ObjectNode resource = resource("DiagnosticReport", report);
+                    Path file = reportFiles.get(report);
+                    if (file != null) {
+                        ObjectNode form = resource.putArray("presentedForm").addObject();
+                        form.put("url", reportEntryName(report));
+                        form.put("contentType", "application/pdf");
+                        form.put("size", Files.size(file));
+                    }
+                    writeEntry(json, resource);
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        return new BundleContents(maxDocumentId, documents, bytes);
+    }
+
+    private PatientExportJob writeDocuments(PatientExportJob job, Path directory) throws IOException {
+        Long maxDocumentId = job.getMaxDocumentId();
+        boolean done = maxDocumentId == null || job.getLastDocumentId() >= maxDocumentId;
+        while (!done) {
+            List<MedicalDocument> page = medicalDocumentRepository.findByPatientIdAndIdGreaterThanOrderByIdAsc(
+                    job.getPatientId(), job.getLastDocumentId(), Limit.of(pageSize));
+            done = page.isEmpty();
+            for (MedicalDocument document : page) {
+                if (document.getId() > maxDocumentId) {
+                    done = true;
+                    break;
+                }
+                String contentHash = document.getContentHash();
+                if (contentHash == null || !blobStore.exists(contentHash)) {
+                    // Not in the bundle, or collected since; either way there is nothing to copy
+                    job.setLastDocumentId(document.getId());
+                    continue;
+                }
+                long size = blobStore.size(contentHash);
+                Instant modified = document.getUploadDate().atZone(ZoneId.systemDefault()).toInstant();
+                Heartbeat heartbeat = new Heartbeat(job);
+                writePart(directory, job.getPartsWritten(), writer -> writer.putEntry(documentEntryName(document),
+                        size, modified, target -> copy(contentHash, size, target, heartbeat)));
+
+                job.setPartsWritten(job.getPartsWritten() + 1);
+                job.setLastDocumentId(document.getId());
+                job.setDocumentsExported(job.getDocumentsExported() + 1);
+                job.setBytesExported(job.getBytesExported() + size);
+                job = checkpoint(job);
+            }
+        }
+        // Documents deleted since the snapshot are counted here rather than failing the export
+        job.setDocumentsSkipped(job.getDocumentsTotal() - job.getDocumentsExported());
+        job.setPhase(ExportPhase.ASSEMBLY);
+        return checkpoint(job);
+    }
+
+    private PatientExportJob assemble(PatientExportJob job, Path directory) throws IOException {
+        int parts = job.getPartsWritten();
+        writePart(directory, parts, TarGzPartWriter::finishArchive);
+
+        Path archive = archivePath(job);
+        Path staging = directory.resolve(archive.getFileName() + ".tmp");
+        MessageDigest sha256 = sha256();
+        byte[] buffer = new byte[bufferSize];
+        Heartbeat heartbeat = new Heartbeat(job);
+        try (OutputStream out = Files.newOutputStream(staging)) {
+            for (int i = 0; i <= parts; i++) {
+                try (InputStream in = Files.newInputStream(directory.resolve(partName(i)))) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        sha256.update(buffer, 0, read);
+                        out.write(buffer, 0, read);
+                        heartbeat.beatIfDue();
+                    }
+                }
+            }
+        }
+        Files.move(staging, archive, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        LocalDateTime now = LocalDateTime.now();
+        job.setArchiveSize(Files.size(archive));
+        job.setArchiveSha256(HexFormat.of().formatHex(sha256.digest()));
+        job.setStatus(ExportJobStatus.COMPLETED);
+        job.setCompletedAt(now);
+        job.setExpiresAt(now.plus(retention));
+        job = checkpoint(job);
+
+        for (int i = 0; i <= parts; i++) {
+            Files.deleteIfExists(directory.resolve(partName(i)));
+        }
+        return job;
+    }
+
+    private void writePart(Path directory, int index, PartContent content) throws IOException {
+        Path part = directory.resolve(partName(index));
+        Path staging = directory.resolve(part.getFileName() + ".tmp");
+        try (TarGzPartWriter writer = new TarGzPartWriter(staging, bufferSize)) {
+            content.writeTo(writer);
+        }
+        Files.move(staging, part, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Parts past the checkpoint may be incomplete, or written by a run whose checkpoint never landed
+    private static void discardUncheckpointedParts(Path directory, int partsWritten) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher part = PART_NAME.matcher(name);
+                if (name.endsWith(".tmp") || (part.matches() && Integer.parseInt(part.group(1)) >= partsWritten)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private long copy(String contentHash, long size, WritableByteChannel target, Heartbeat heartbeat)
+            throws IOException {
+        long copied = 0;
+        while (copied < size) {
+            long transferred = blobStore.transferTo(contentHash, copied, Math.min(COPY_SLICE, size - copied), target);
+            if (transferred <= 0) {
+                break;
+            }
+            copied += transferred;
+            heartbeat.beatIfDue();
+        }
+        return copied;
+    }
+
+    private PatientExportJob checkpoint(PatientExportJob job) {
+        job.setHeartbeatAt(LocalDateTime.now());
+        return jobRepository.save(job);
+    }
+
+    private <T> List<T> fetchRemote(String source, Long patientId, Supplier<List<T>> fetch) {
+        try {
+            List<T> items = fetch.get();
+            return items == null ? List.of() : items;
+        } catch (RuntimeException e) {
+            log.warn("Exporting patient {} without {}: {}", patientId, source, e.getMessage());
+            return null;
+        }
+    }
+
+    // The list endpoints only serve summaries; each item is read again in full
+    private static <S, D> List<D> details(List<S> summaries, Function<S, D> fetch) {
+        List<D> details = new ArrayList<>();
+        if (summaries != null) {
+            summaries.forEach(summary -> details.add(fetch.apply(summary)));
+        }
+        return details;
+    }
+
+    private static boolean hasFile(ReportDetail report) {
+        return report.getPdfUrl() != null && !report.getPdfUrl().isBlank();
+    }
+
+    private static int withFile(List<ReportDetail> reports) {
+        return reports == null ? 0 : (int) reports.stream().filter(PatientArchiveExporter::hasFile).count();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private ObjectNode resource(String resourceType, Object value) {
+        ObjectNode resource = objectMapper.createObjectNode();
+        resource.put("resourceType", resourceType);
+        resource.setAll((ObjectNode) objectMapper.valueToTree(value));
+        return resource;
+    }
+
+    private void writeEntry(JsonGenerator json, ObjectNode resource) {
+        try {
+            json.writeStartObject();
+            json.writeFieldName("resource");
+            objectMapper.writeTree(json, resource);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path jobDirectory(Long jobId) {
+        return root.resolve(String.valueOf(jobId));
+    }
+
+    private static String partName(int index) {
+        return String.format("part-%05d.tar.gz", index);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Refreshes a job's heartbeat at most every {@code heartbeatInterval}
+     * during one long step, and stops the step if the job has been claimed by
+     * another worker meanwhile.
+     */
+    private final class Heartbeat {
+
+        private final PatientExportJob job;
+        private long lastBeat = System.nanoTime();
+
+        Heartbeat(PatientExportJob job) {
+            this.job = job;
+        }
+
+        void beatIfDue() {
+            long now = System.nanoTime();
+            if (now - lastBeat < heartbeatInterval.toNanos()) {
+                return;
+            }
+            if (jobRepository.touchHeartbeat(job.getId(), job.getVersion(), LocalDateTime.now()) == 0) {
+                throw new OptimisticLockingFailureException("Export " + job.getId() + " was claimed by another worker");
+            }
+            lastBeat = now;
+        }
+    }
+
+    private record BundleContents(Long maxDocumentId, int documents, long bytes) {
+    }
+
+    @FunctionalInterface
+    private interface PartContent {
+        void writeTo(TarGzPartWriter writer) throws IOException;
+    }
+}
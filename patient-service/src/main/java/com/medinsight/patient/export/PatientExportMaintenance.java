@@ -0,0 +1,46 @@
+package com.medinsight.patient.export;
+
+import com.medinsight.patient.service.BulkExportService;
+import com.medinsight.patient.service.PatientExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Takes over export jobs whose worker stopped checkpointing (a restart, a
+ * crashed instance) and deletes patient archives and bulk exports past their
+ * retention.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.export.maintenance.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PatientExportMaintenance {
+
+    private final PatientExportService patientExportService;
+    private final BulkExportService bulkExportService;
+
+    @Scheduled(initialDelayString = "${patient.export.maintenance.initial-delay:PT30S}",
+            fixedDelayString = "${patient.export.maintenance.interval:PT1M}")
+    public void resumeStalledJobs() {
+        int resumed = patientExportService.resumeStalledJobs();
+        if (resumed > 0) {
+            log.info("Resumed {} stalled patient exports", resumed);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${patient.export.maintenance.initial-delay:PT30S}",
+            fixedDelayString = "${patient.export.maintenance.interval:PT1M}")
+    public void expireArchives() {
+        int expired = patientExportService.expireArchives();
+        if (expired > 0) {
+            log.info("Deleted {} expired patient export archives", expired);
+        }
+        int expiredBulk = bulkExportService.expireExports();
+        if (expiredBulk > 0) {
+            log.info("Deleted the files of {} expired bulk exports", expiredBulk);
+        }
+    }
+}
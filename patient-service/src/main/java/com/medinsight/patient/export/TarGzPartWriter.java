@@ -0,0 +1,132 @@
+package com.medinsight.patient.export;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes whole ustar entries into one gzip member. Gzip members concatenate
+ * into a valid gzip stream (RFC 1952) and tar entries into a valid tar stream,
+ * so an archive assembled from parts written by separate runs reads as a single
+ * {@code .tar.gz}. Only the last part calls {@link #finishArchive()}.
+ */
+class TarGzPartWriter implements Closeable {
+
+    private static final int BLOCK = 512;
+    private static final int NAME_LENGTH = 100;
+    // Eleven octal digits in the size field
+    static final long MAX_ENTRY_SIZE = 077777777777L;
+
+    private final OutputStream out;
+
+    TarGzPartWriter(Path file, int bufferSize) throws IOException {
+        this.out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file), bufferSize),
+                bufferSize);
+    }
+
+    /**
+     * Adds an entry whose {@code size} bytes are written by {@code content}. The
+     * channel handed to it must not be closed.
+     */
+    void putEntry(String name, long size, Instant modified, EntryContent content) throws IOException {
+        if (size < 0 || size > MAX_ENTRY_SIZE) {
+            throw new IllegalArgumentException("Entry " + name + " is too large for a tar header: " + size);
+        }
+        out.write(header(name, size, modified));
+        long written = content.writeTo(Channels.newChannel(out));
+        if (written != size) {
+            throw new IOException("Entry " + name + " declared " + size + " bytes but " + written + " were written");
+        }
+        int padding = (int) ((BLOCK - size % BLOCK) % BLOCK);
+        out.write(new byte[padding]);
+    }
+
+    void putFile(String name, Path source, Instant modified) throws IOException {
+        putEntry(name, Files.size(source), modified, target -> Files.copy(source, Channels.newOutputStream(target)));
+    }
+
+    /**
+     * Writes the two zero blocks that end a tar stream.
+     */
+    void finishArchive() throws IOException {
+        out.write(new byte[BLOCK * 2]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Reduces {@code name} to the portable filename characters and to what fits
+     * the ustar name field, keeping the extension.
+     */
+    static String entryName(String directory, String fileName) {
+        String safe = fileName == null ? "" : fileName.replaceAll("[^A-Za-z0-9._-]", "_");
+        int room = NAME_LENGTH - directory.length();
+        if (safe.length() > room) {
+            int dot = safe.lastIndexOf('.');
+            String extension = dot > 0 && safe.length() - dot <= 10 ? safe.substring(dot) : "";
+            safe = safe.substring(0, room - extension.length()) + extension;
+        }
+        return directory + safe;
+    }
+
+    private static byte[] header(String name, long size, Instant modified) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.US_ASCII);
+        if (nameBytes.length > NAME_LENGTH) {
+            throw new IllegalArgumentException("Entry name longer than " + NAME_LENGTH + " bytes: " + name);
+        }
+        byte[] header = new byte[BLOCK];
+        System.arraycopy(nameBytes, 0, header, 0, nameBytes.length);
+        octal(header, 100, 8, 0644);
+        octal(header, 108, 8, 0);
+        octal(header, 116, 8, 0);
+        octal(header, 124, 12, size);
+        octal(header, 136, 12, modified.getEpochSecond());
+        header[156] = '0';
+        System.arraycopy("ustar\0".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 6);
+        header[263] = '0';
+        header[264] = '0';
+
+        // The checksum is taken with its own field read as spaces
+        for (int i = 148; i < 156; i++) {
+            header[i] = ' ';
+        }
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        octal(header, 148, 7, checksum);
+        return header;
+    }
+
+    // Zero-padded octal digits followed by a NUL, filling the field
+    private static void octal(byte[] header, int offset, int length, long value) {
+        String digits = Long.toOctalString(value);
+        int width = length - 1;
+        int start = offset + width - digits.length();
+        for (int i = offset; i < start; i++) {
+            header[i] = '0';
+        }
+        System.arraycopy(digits.getBytes(StandardCharsets.US_ASCII), 0, header, start, digits.length());
+        header[offset + width] = 0;
+    }
+
+    @FunctionalInterface
+    interface EntryContent {
+
+        /**
+         * Writes the entry's bytes and returns how many were written.
+         */
+        long writeTo(WritableByteChannel target) throws IOException;
+    }
+}
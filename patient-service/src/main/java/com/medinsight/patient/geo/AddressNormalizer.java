@@ -0,0 +1,108 @@
+package com.medinsight.patient.geo;
+
+import com.medinsight.patient.dto.NormalizedAddress;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces free-text addresses to the canonical form used as the geocoding
+ * cache key and for gazetteer lookups. Only the spelling is normalized; no
+ * component is inferred from another.
+ */
+public final class AddressNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^A-Z0-9]+");
+
+    // Street words in English and French, reduced to one abbreviation each
+    private static final Map<String, String> STREET_WORDS = Map.ofEntries(
+            Map.entry("STREET", "ST"),
+            Map.entry("AVENUE", "AVE"),
+            Map.entry("AV", "AVE"),
+            Map.entry("BOULEVARD", "BD"),
+            Map.entry("BLVD", "BD"),
+            Map.entry("ROAD", "RD"),
+            Map.entry("DRIVE", "DR"),
+            Map.entry("LANE", "LN"),
+            Map.entry("PLACE", "PL"),
+            Map.entry("SQUARE", "SQ"),
+            Map.entry("COURT", "CT"),
+            Map.entry("HIGHWAY", "HWY"),
+            Map.entry("ROUTE", "RTE"),
+            Map.entry("APARTMENT", "APT"),
+            Map.entry("APPARTEMENT", "APT"),
+            Map.entry("NUMERO", "NO"),
+            Map.entry("NUMBER", "NO"),
+            Map.entry("NORTH", "N"),
+            Map.entry("SOUTH", "S"),
+            Map.entry("EAST", "E"),
+            Map.entry("WEST", "W"));
+
+    // English and French country names, plus alpha-3 codes, mapped to alpha-2
+    private static final Map<String, String> COUNTRIES = countries();
+
+    private AddressNormalizer() {
+    }
+
+    public static NormalizedAddress normalize(String street, String city, String zipCode, String country) {
+        return new NormalizedAddress(normalizeStreet(street), normalizeText(city), normalizeZipCode(zipCode),
+                normalizeCountry(country));
+    }
+
+    /**
+     * Upper case, without accents, with every run of punctuation and spaces
+     * turned into one space.
+     */
+    public static String normalizeText(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(stripped.toUpperCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    static String normalizeStreet(String street) {
+        String text = normalizeText(street);
+        if (text.isEmpty()) {
+            return text;
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (String word : text.split(" ")) {
+            if (!normalized.isEmpty()) {
+                normalized.append(' ');
+            }
+            normalized.append(STREET_WORDS.getOrDefault(word, word));
+        }
+        return normalized.toString();
+    }
+
+    static String normalizeZipCode(String zipCode) {
+        return normalizeText(zipCode).replace(" ", "");
+    }
+
+    /**
+     * The ISO 3166 alpha-2 code for a code or an English or French country
+     * name; otherwise the normalized text as given.
+     */
+    public static String normalizeCountry(String country) {
+        String text = normalizeText(country);
+        return COUNTRIES.getOrDefault(text, text);
+    }
+
+    private static Map<String, String> countries() {
+        Map<String, String> countries = new HashMap<>();
+        for (String code : Locale.getISOCountries()) {
+            Locale locale = Locale.of("", code);
+            countries.put(code, code);
+            countries.put(locale.getISO3Country(), code);
+            countries.put(normalizeText(locale.getDisplayCountry(Locale.ENGLISH)), code);
+            countries.put(normalizeText(locale.getDisplayCountry(Locale.FRENCH)), code);
+        }
+        countries.put("UK", "GB");
+        return Map.copyOf(countries);
+    }
+}
@@ -0,0 +1,47 @@
+package com.medinsight.patient.geo;
+
+import com.medinsight.patient.dto.FacilityLocation;
+import com.medinsight.patient.dto.GeoPoint;
+import com.medinsight.patient.repository.CareFacilityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * In-memory {@link SpatialIndex} of the active facilities that have a
+ * position. Rebuilt from the database after a local change and periodically
+ * by {@link FacilityIndexRefresher} to pick up other instances' changes; a
+ * rebuild swaps the whole tree, so queries never wait on it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FacilityIndex {
+
+    private final CareFacilityRepository careFacilityRepository;
+
+    private volatile SpatialIndex<FacilityLocation> index;
+
+    public synchronized int rebuild() {
+        List<SpatialIndex.Entry<FacilityLocation>> entries = careFacilityRepository.findActiveLocations().stream()
+                .map(facility -> new SpatialIndex.Entry<>(facility,
+                        new GeoPoint(facility.latitude(), facility.longitude())))
+                .toList();
+        index = SpatialIndex.build(entries);
+        log.debug("Facility index rebuilt with {} facilities", entries.size());
+        return entries.size();
+    }
+
+    public List<SpatialIndex.Neighbor<FacilityLocation>> nearest(GeoPoint origin, int n, double maxKm,
+            Predicate<FacilityLocation> filter) {
+        SpatialIndex<FacilityLocation> current = index;
+        if (current == null) {
+            rebuild();
+            current = index;
+        }
+        return current.nearest(origin, n, maxKm, filter);
+    }
+}
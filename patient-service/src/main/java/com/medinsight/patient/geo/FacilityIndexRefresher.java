@@ -0,0 +1,33 @@
+package com.medinsight.patient.geo;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the facility index at startup and rebuilds it on an interval so
+ * facilities registered through other instances become searchable here.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.geo.index.refresh.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class FacilityIndexRefresher {
+
+    private final FacilityIndex facilityIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        log.info("Facility index built with {} facilities", facilityIndex.rebuild());
+    }
+
+    @Scheduled(initialDelayString = "${patient.geo.index.refresh.interval:PT5M}",
+            fixedDelayString = "${patient.geo.index.refresh.interval:PT5M}")
+    public void refresh() {
+        facilityIndex.rebuild();
+    }
+}
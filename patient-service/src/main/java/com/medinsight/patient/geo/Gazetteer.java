@@ -0,0 +1,145 @@
+package com.medinsight.patient.geo;
+
+import com.medinsight.patient.dto.GeoPoint;
+import com.medinsight.patient.dto.GeocodeResult;
+import com.medinsight.patient.dto.NormalizedAddress;
+import com.medinsight.patient.enums.GeocodePrecision;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Offline postal-code gazetteer loaded from a GeoNames postal code dump
+ * ({@code allCountries.txt} or a per-country file: tab-separated country code,
+ * postal code, place name, three admin levels as name and code, latitude,
+ * longitude, accuracy).
+ *
+ * <p>Lookups are by country and postal code, falling back to the centroid of
+ * every postal code of the city. Both tables are plain hash maps held in
+ * memory; {@code patient.geo.gazetteer.countries} limits them to the countries
+ * the deployment serves. A missing file leaves the gazetteer empty, so only
+ * facilities registered with coordinates can be found.
+ */
+@Component
+@Slf4j
+public class Gazetteer {
+
+    private static final int COUNTRY = 0;
+    private static final int POSTAL_CODE = 1;
+    private static final int PLACE_NAME = 2;
+    private static final int LATITUDE = 9;
+    private static final int LONGITUDE = 10;
+
+    private final Map<String, GeoPoint> byPostalCode;
+    private final Map<String, GeoPoint> byCity;
+
+    public Gazetteer(@Value("${patient.geo.gazetteer.path:/var/lib/medinsight/geo/postal-codes.txt}") Path path,
+            @Value("${patient.geo.gazetteer.countries:}") List<String> countries) {
+        Set<String> included = countries.stream()
+                .filter(country -> !country.isBlank())
+                .map(AddressNormalizer::normalizeCountry)
+                .collect(Collectors.toSet());
+        Map<String, GeoPoint> postalCodes = new HashMap<>();
+        Map<String, double[]> citySums = new HashMap<>();
+        if (Files.isRegularFile(path)) {
+            try {
+                load(path, included, postalCodes, citySums);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read the gazetteer " + path, e);
+            }
+        } else {
+            log.warn("No gazetteer at {}; addresses will not be geocoded", path);
+        }
+
+        Map<String, GeoPoint> cities = new HashMap<>(citySums.size() * 4 / 3 + 1);
+        citySums.forEach((key, sum) -> cities.put(key, new GeoPoint(sum[0] / sum[2], sum[1] / sum[2])));
+        this.byPostalCode = postalCodes;
+        this.byCity = cities;
+        if (!postalCodes.isEmpty()) {
+            log.info("Loaded gazetteer {}: {} postal codes, {} cities", path, postalCodes.size(), cities.size());
+        }
+    }
+
+    /**
+     * The postal code centroid of the address, else its city's centroid.
+     */
+    public GeocodeResult lookup(NormalizedAddress address) {
+        if (!address.zipCode().isEmpty()) {
+            GeoPoint point = byPostalCode.get(key(address.country(), address.zipCode()));
+            if (point == null && address.zipCode().length() > 5) {
+                // Extended codes such as ZIP+4 resolve to their base code
+                point = byPostalCode.get(key(address.country(), address.zipCode().substring(0, 5)));
+            }
+            if (point != null) {
+                return new GeocodeResult(point, GeocodePrecision.POSTAL_CODE);
+            }
+        }
+        if (!address.city().isEmpty()) {
+            GeoPoint point = byCity.get(key(address.country(), address.city()));
+            if (point != null) {
+                return new GeocodeResult(point, GeocodePrecision.CITY);
+            }
+        }
+        return GeocodeResult.UNRESOLVED;
+    }
+
+    public int size() {
+        return byPostalCode.size();
+    }
+
+    private static void load(Path path, Set<String> included, Map<String, GeoPoint> postalCodes,
+            Map<String, double[]> citySums) throws IOException {
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split("\t", -1);
+                if (columns.length <= LONGITUDE) {
+                    skipped++;
+                    continue;
+                }
+                String country = columns[COUNTRY].trim();
+                if (!included.isEmpty() && !included.contains(country)) {
+                    continue;
+                }
+                GeoPoint point;
+                try {
+                    point = new GeoPoint(Double.parseDouble(columns[LATITUDE]),
+                            Double.parseDouble(columns[LONGITUDE]));
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                    continue;
+                }
+                postalCodes.putIfAbsent(key(country, AddressNormalizer.normalizeZipCode(columns[POSTAL_CODE])),
+                        point);
+                double[] sum = citySums.computeIfAbsent(
+                        key(country, AddressNormalizer.normalizeText(columns[PLACE_NAME])), city -> new double[3]);
+                sum[0] += point.latitude();
+                sum[1] += point.longitude();
+                sum[2]++;
+            }
+        }
+        if (skipped > 0) {
+            log.warn("Skipped {} malformed gazetteer lines in {}", skipped, path);
+        }
+    }
+
+    private static String key(String country, String value) {
+        return country + "|" + value;
+    }
+}
@@ -0,0 +1,203 @@
+package com.medinsight.patient.geo;
+
+import com.medinsight.patient.dto.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Immutable R-tree over points, bulk-loaded with Sort-Tile-Recursive packing
+ * so every node is full and siblings barely overlap. Built once from a
+ * snapshot and replaced wholesale, so readers need no locking.
+ *
+ * <p>{@link #nearest} is a best-first search: nodes and points share one
+ * queue ordered by their minimum great-circle distance to the query, so
+ * points come off it in exact distance order and the search stops after the
+ * {@code n}th match, only opening the nodes that could still hold a nearer
+ * one. Boxes do not wrap the antimeridian; a box either side of it is simply
+ * larger.
+ *
+ * @param <T> the value stored with each point
+ */
+public final class SpatialIndex<T> {
+
+    static final int NODE_CAPACITY = 16;
+
+    public record Entry<T>(T value, GeoPoint point) {
+    }
+
+    public record Neighbor<T>(T value, GeoPoint point, double distanceKm) {
+    }
+
+    private final Node root;
+    private final int size;
+
+    private SpatialIndex(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static <T> SpatialIndex<T> build(List<Entry<T>> entries) {
+        if (entries.isEmpty()) {
+            return new SpatialIndex<>(null, 0);
+        }
+        List<Node> level = pack(new ArrayList<>(entries), Entry::point, Node::leaf);
+        while (level.size() > 1) {
+            level = pack(level, Node::center, Node::branch);
+        }
+        return new SpatialIndex<>(level.get(0), entries.size());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Up to {@code n} values matching {@code filter} within {@code maxKm} of
+     * {@code origin}, nearest first.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Neighbor<T>> nearest(GeoPoint origin, int n, double maxKm, Predicate<? super T> filter) {
+        List<Neighbor<T>> found = new ArrayList<>(Math.min(n, size));
+        if (root == null || n <= 0) {
+            return found;
+        }
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distanceKm));
+        queue.add(new Candidate(root, null, root.minDistanceKm(origin)));
+        while (!queue.isEmpty()) {
+            Candidate next = queue.poll();
+            if (next.distanceKm() > maxKm) {
+                break;
+            }
+            if (next.entry() != null) {
+                found.add(new Neighbor<>((T) next.entry().value(), next.entry().point(), next.distanceKm()));
+                if (found.size() == n) {
+                    break;
+                }
+                continue;
+            }
+            Node node = next.node();
+            if (node.entries != null) {
+                for (Entry<?> entry : node.entries) {
+                    if (filter.test((T) entry.value())) {
+                        queue.add(new Candidate(null, entry, origin.distanceKm(entry.point())));
+                    }
+                }
+            } else {
+                for (Node child : node.children) {
+                    queue.add(new Candidate(child, null, child.minDistanceKm(origin)));
+                }
+            }
+        }
+        return found;
+    }
+
+    private record Candidate(Node node, Entry<?> entry, double distanceKm) {
+    }
+
+    /**
+     * One STR level: sort by longitude, cut into vertical slices, sort each
+     * slice by latitude and group runs of {@link #NODE_CAPACITY} into nodes.
+     */
+    private static <E> List<Node> pack(List<E> items, Function<E, GeoPoint> position, Function<List<E>, Node> group) {
+        int nodes = (items.size() + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int slices = (int) Math.ceil(Math.sqrt(nodes));
+        int sliceSize = slices * NODE_CAPACITY;
+        items.sort(Comparator.comparingDouble(item -> position.apply(item).longitude()));
+        List<Node> packed = new ArrayList<>(nodes);
+        for (int start = 0; start < items.size(); start += sliceSize) {
+            List<E> slice = items.subList(start, Math.min(start + sliceSize, items.size()));
+            slice.sort(Comparator.comparingDouble(item -> position.apply(item).latitude()));
+            for (int from = 0; from < slice.size(); from += NODE_CAPACITY) {
+                int to = Math.min(from + NODE_CAPACITY, slice.size());
+                packed.add(group.apply(List.copyOf(slice.subList(from, to))));
+            }
+        }
+        return packed;
+    }
+
+    private static final class Node {
+
+        private final Node[] children;
+        private final Entry<?>[] entries;
+        private double minLat = Double.POSITIVE_INFINITY;
+        private double maxLat = Double.NEGATIVE_INFINITY;
+        private double minLon = Double.POSITIVE_INFINITY;
+        private double maxLon = Double.NEGATIVE_INFINITY;
+
+        private Node(Node[] children, Entry<?>[] entries) {
+            this.children = children;
+            this.entries = entries;
+        }
+
+        static <V> Node leaf(List<Entry<V>> entries) {
+            Node node = new Node(null, entries.toArray(new Entry<?>[0]));
+            for (Entry<V> entry : entries) {
+                node.extend(entry.point().latitude(), entry.point().latitude(),
+                        entry.point().longitude(), entry.point().longitude());
+            }
+            return node;
+        }
+
+        static Node branch(List<Node> children) {
+            Node node = new Node(children.toArray(new Node[0]), null);
+            for (Node child : children) {
+                node.extend(child.minLat, child.maxLat, child.minLon, child.maxLon);
+            }
+            return node;
+        }
+
+        GeoPoint center() {
+            return new GeoPoint((minLat + maxLat) / 2, (minLon + maxLon) / 2);
+        }
+
+        private void extend(double fromLat, double toLat, double fromLon, double toLon) {
+            minLat = Math.min(minLat, fromLat);
+            maxLat = Math.max(maxLat, toLat);
+            minLon = Math.min(minLon, fromLon);
+            maxLon = Math.max(maxLon, toLon);
+        }
+
+        /**
+         * A lower bound on the distance from {@code point} to anything in the
+         * box. Inside the longitude span the nearest point lies on the same
+         * meridian; outside it, it lies on the nearer meridian edge, at the
+         * foot of the great-circle perpendicular when that falls within the
+         * latitude span and at a corner otherwise.
+         */
+        double minDistanceKm(GeoPoint point) {
+            double lat = point.latitude();
+            double lon = point.longitude();
+            if (lon >= minLon && lon <= maxLon) {
+                if (lat >= minLat && lat <= maxLat) {
+                    return 0;
+                }
+                return GeoPoint.distanceKm(lat, lon, Math.max(minLat, Math.min(maxLat, lat)), lon);
+            }
+            double toMin = longitudeGap(lon, minLon);
+            double toMax = longitudeGap(lon, maxLon);
+            double edgeLon = toMin <= toMax ? minLon : maxLon;
+            double gap = Math.min(toMin, toMax);
+            if (gap >= 90) {
+                return 0;
+            }
+            double latRad = Math.toRadians(lat);
+            double gapRad = Math.toRadians(gap);
+            double footLat = Math.toDegrees(Math.atan(Math.tan(latRad) / Math.cos(gapRad)));
+            if (footLat >= minLat && footLat <= maxLat) {
+                return GeoPoint.EARTH_RADIUS_KM * Math.asin(Math.abs(Math.cos(latRad) * Math.sin(gapRad)));
+            }
+            return Math.min(GeoPoint.distanceKm(lat, lon, minLat, edgeLon),
+                    GeoPoint.distanceKm(lat, lon, maxLat, edgeLon));
+        }
+
+        private static double longitudeGap(double from, double to) {
+            double gap = Math.abs(from - to);
+            return gap > 180 ? 360 - gap : gap;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.medinsight.patient.integrity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Per-thread SHA-256 engine for the patient integrity hash.
+ *
+ * <p>Produces exactly the same value as hashing
+ * {@code firstName + "|" + lastName + "|" + email + "|" + medicalRecordNumber}
+ * encoded as UTF-8 and Base64, but encodes each field straight into a reusable
+ * scratch buffer instead of building the concatenated string and its byte
+ * array. The digest instance and all buffers are reused, so hashing allocates
+ * nothing except the final Base64 string and verification allocates nothing at
+ * all.
+ *
+ * <p>Instances are not thread-safe; obtain one through {@link #current()}.
+ */
+public final class PatientHasher {
+
+    private static final ThreadLocal<PatientHasher> LOCAL = ThreadLocal.withInitial(PatientHasher::new);
+
+    private static final int DIGEST_LENGTH = 32;
+    private static final int ENCODED_LENGTH = 44;
+    private static final byte SEPARATOR = '|';
+    private static final String NULL_FIELD = "null";
+
+    private final MessageDigest digest;
+    private final byte[] scratch = new byte[256];
+    private final byte[] hash = new byte[DIGEST_LENGTH];
+    private final byte[] encoded = new byte[ENCODED_LENGTH];
+    private final Base64.Encoder base64 = Base64.getEncoder();
+    private int position;
+
+    private PatientHasher() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static PatientHasher current() {
+        return LOCAL.get();
+    }
+
+    public String hash(String firstName, String lastName, String email, String medicalRecordNumber) {
+        int length = encode(firstName, lastName, email, medicalRecordNumber);
+        return new String(encoded, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Recomputes the hash and compares it with {@code expected} without
+     * allocating.
+     */
+    public boolean matches(String firstName, String lastName, String email, String medicalRecordNumber,
+            String expected) {
+        if (expected == null || expected.length() != ENCODED_LENGTH) {
+            return false;
+        }
+        int length = encode(firstName, lastName, email, medicalRecordNumber);
+        int diff = length ^ expected.length();
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            diff |= encoded[i] ^ expected.charAt(i);
+        }
+        return diff == 0;
+    }
+
+    private int encode(String firstName, String lastName, String email, String medicalRecordNumber) {
+        position = 0;
+        digest.reset();
+        appendUtf8(firstName);
+        put(SEPARATOR);
+        appendUtf8(lastName);
+        put(SEPARATOR);
+        appendUtf8(email);
+        put(SEPARATOR);
+        appendUtf8(medicalRecordNumber);
+        if (position > 0) {
+            digest.update(scratch, 0, position);
+        }
+        try {
+            digest.digest(hash, 0, DIGEST_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException("Failed to compute data integrity hash", e);
+        }
+        return base64.encode(hash, encoded);
+    }
+
+    /**
+     * Encodes like {@link String#getBytes(java.nio.charset.Charset)} with UTF-8,
+     * including its replacement of unpaired surrogates with {@code '?'}, so the
+     * result stays byte-for-byte compatible with hashes already stored.
+     */
+    private void appendUtf8(String value) {
+        String text = value == null ? NULL_FIELD : value;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                put((byte) c);
+            } else if (c < 0x800) {
+                put((byte) (0xC0 | (c >> 6)));
+                put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    put((byte) (0xF0 | (codePoint >> 18)));
+                    put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    put((byte) (0x80 | (codePoint & 0x3F)));
+                } else {
+                    put((byte) '?');
+                }
+            } else {
+                put((byte) (0xE0 | (c >> 12)));
+                put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private void put(byte b) {
+        if (position == scratch.length) {
+            digest.update(scratch, 0, position);
+            position = 0;
+        }
+        scratch[position++] = b;
+    }
+}
@@ -0,0 +1,191 @@
+package com.medinsight.patient.integrity;
+
+import com.medinsight.patient.dto.PatientHashRow;
+import com.medinsight.patient.entity.IntegrityScanCheckpoint;
+import com.medinsight.patient.event.PatientIntegrityViolationEvent;
+import com.medinsight.patient.repository.IntegrityScanCheckpointRepository;
+import com.medinsight.patient.repository.PatientRepository;
+import com.medinsight.patient.service.PatientIntegrityService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background sweep that re-verifies {@code Patient.dataHash} across the whole
+ * table.
+ *
+ * <p>Each run resumes from the persisted {@link IntegrityScanCheckpoint}, reads
+ * id-ordered chunks of the hashed columns only, verifies them in parallel and
+ * advances the checkpoint after every chunk, so a restart loses at most one
+ * chunk of progress. Mismatches are published as
+ * {@link PatientIntegrityViolationEvent}s.
+ *
+ * <p>The sweep stays out of the way of OLTP traffic: it is rate limited to
+ * {@code rows-per-second}, reads at most {@code max-rows-per-run} rows per run,
+ * and yields as soon as the connection pool is busier than
+ * {@code max-pool-utilization}. Runs execute on the {@code integrityScanExecutor}
+ * rather than the shared scheduling thread, so pacing a run never delays the
+ * other scheduled tasks. The checkpoint is versioned, so when several
+ * instances run the scanner only one advances it per chunk.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.integrity.scan.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PatientIntegrityScanner {
+
+    private final PatientRepository patientRepository;
+    private final PatientIntegrityService patientIntegrityService;
+    private final IntegrityScanCheckpointRepository checkpointRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor integrityScanExecutor;
+
+    @Value("${patient.integrity.scan.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${patient.integrity.scan.rows-per-second:2000}")
+    private long rowsPerSecond;
+
+    @Value("${patient.integrity.scan.max-rows-per-run:50000}")
+    private long maxRowsPerRun;
+
+    @Value("${patient.integrity.scan.pass-interval:6h}")
+    private Duration passInterval;
+
+    @Value("${patient.integrity.scan.max-pool-utilization:0.5}")
+    private double maxPoolUtilization;
+
+    @Scheduled(initialDelayString = "${patient.integrity.scan.initial-delay:PT1M}",
+            fixedDelayString = "${patient.integrity.scan.interval:PT1M}")
+    public void scan() {
+        integrityScanExecutor.execute(this::scanNow);
+    }
+
+    void scanNow() {
+        if (poolIsBusy()) {
+            log.debug("Skipping integrity scan run, connection pool is busy");
+            return;
+        }
+        try {
+            runOnce();
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            log.debug("Integrity scan checkpoint was advanced by another instance, yielding");
+        }
+    }
+
+    void runOnce() {
+        LocalDateTime now = LocalDateTime.now();
+        IntegrityScanCheckpoint checkpoint = checkpointRepository.findById(PatientIntegrityService.PATIENT_SCAN)
+                .orElseGet(() -> IntegrityScanCheckpoint.builder()
+                        .scanName(PatientIntegrityService.PATIENT_SCAN)
+                        .build());
+
+        if (checkpoint.getLastScannedId() == 0) {
+            if (checkpoint.getNextPassAt() != null && now.isBefore(checkpoint.getNextPassAt())) {
+                return;
+            }
+            if (checkpoint.getPassStartedAt() == null) {
+                checkpoint.setPassStartedAt(now);
+                checkpoint.setPassRowsScanned(0);
+                checkpoint.setPassMismatches(0);
+            }
+        }
+
+        long runStarted = System.nanoTime();
+        long scannedThisRun = 0;
+        while (scannedThisRun < maxRowsPerRun) {
+            int limit = (int) Math.min(chunkSize, maxRowsPerRun - scannedThisRun);
+            List<PatientHashRow> rows = patientRepository.findHashRows(checkpoint.getLastScannedId(), Long.MAX_VALUE,
+                    Limit.of(limit));
+            if (rows.isEmpty()) {
+                completePass(checkpoint);
+                checkpointRepository.save(checkpoint);
+                return;
+            }
+
+            List<PatientHashRow> mismatches = patientIntegrityService.findMismatches(rows);
+            LocalDateTime detectedAt = LocalDateTime.now();
+            for (PatientHashRow row : mismatches) {
+                log.warn("Integrity mismatch for patient {}", row.id());
+                eventPublisher.publishEvent(new PatientIntegrityViolationEvent(row.id(), row.dataHash(), detectedAt));
+            }
+            meterRegistry.counter("patient.integrity.scan.rows").increment(rows.size());
+            meterRegistry.counter("patient.integrity.mismatches").increment(mismatches.size());
+
+            checkpoint.setLastScannedId(rows.get(rows.size() - 1).id());
+            checkpoint.setPassRowsScanned(checkpoint.getPassRowsScanned() + rows.size());
+            checkpoint.setPassMismatches(checkpoint.getPassMismatches() + mismatches.size());
+            checkpoint.setUpdatedAt(detectedAt);
+            checkpoint = checkpointRepository.save(checkpoint);
+
+            scannedThisRun += rows.size();
+            if (!throttle(runStarted, scannedThisRun) || poolIsBusy()) {
+                return;
+            }
+        }
+    }
+
+    private void completePass(IntegrityScanCheckpoint checkpoint) {
+        LocalDateTime now = LocalDateTime.now();
+        log.info("Integrity scan pass complete: {} rows, {} mismatches",
+                checkpoint.getPassRowsScanned(), checkpoint.getPassMismatches());
+        checkpoint.setLastScannedId(0);
+        checkpoint.setCompletedPasses(checkpoint.getCompletedPasses() + 1);
+        checkpoint.setLastPassCompletedAt(now);
+        checkpoint.setNextPassAt(now.plus(passInterval));
+        checkpoint.setPassStartedAt(null);
+        checkpoint.setUpdatedAt(now);
+    }
+
+    /**
+     * Sleeps just long enough to keep the run at or below the configured rate.
+     * Returns {@code false} if the thread was interrupted.
+     */
+    private boolean throttle(long runStartedNanos, long rowsScanned) {
+        if (rowsPerSecond <= 0) {
+            return true;
+        }
+        long targetNanos = TimeUnit.SECONDS.toNanos(rowsScanned) / rowsPerSecond;
+        long aheadNanos = targetNanos - (System.nanoTime() - runStartedNanos);
+        if (aheadNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean poolIsBusy() {
+        if (!(dataSource instanceof HikariDataSource hikari)) {
+            return false;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return false;
+        }
+        return pool.getThreadsAwaitingConnection() > 0
+                || pool.getActiveConnections() >= maxPoolUtilization * hikari.getMaximumPoolSize();
+    }
+}
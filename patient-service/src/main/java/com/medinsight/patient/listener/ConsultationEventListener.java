@@ -0,0 +1,45 @@
+package com.medinsight.patient.listener;
+
+import com.medinsight.patient.service.PatientTimelineService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached timelines when doctor-service reports a consultation change.
+ * The record key is the patient id; the payload is not needed.
+ *
+ * <p>Every instance holds its own timeline cache, so every instance must see
+ * every event: each instance subscribes under a consumer group of its own
+ * rather than splitting the partitions with the others. The subscription
+ * needs no partition metadata up front, so the service starts without a
+ * broker and the container joins once one is reachable. Groups left behind
+ * by stopped instances expire with their offsets.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.timeline.consultation-events.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ConsultationEventListener {
+
+    private final PatientTimelineService patientTimelineService;
+
+    @KafkaListener(groupId = "patient-timeline-${random.uuid}",
+            topics = "${patient.timeline.consultation-events.topic:consultation-events}",
+            properties = {
+                    "key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+                    "value.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+                    "auto.offset.reset=latest"
+            })
+    public void onConsultationEvent(@Header(KafkaHeaders.RECEIVED_KEY) String patientId) {
+        try {
+            patientTimelineService.evict(Long.valueOf(patientId));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring consultation event with key {}", patientId);
+        }
+    }
+}
@@ -1,32 +1,36 @@
 package com.medinsight.patient.listener;
 
 import com.medinsight.patient.entity.Patient;
+import com.medinsight.patient.integrity.PatientHasher;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
 
 public class DataIntegrityListener {
 
     @PrePersist
     @PreUpdate
     public void computeHash(Patient patient) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            String dataToHash = patient.getFirstName() + "|" +
-                    patient.getLastName() + "|" +
-                    patient.getEmail() + "|" +
-                    patient.getMedicalRecordNumber();
-
-            byte[] encodedhash = digest.digest(dataToHash.getBytes(StandardCharsets.UTF_8));
-            String hash = Base64.getEncoder().encodeToString(encodedhash);
+        patient.setDataHash(hash(patient));
+    }
 
-            patient.setDataHash(hash);
+    /**
+     * Computes the integrity hash without touching the entity, for write paths
+     * that bypass JPA (bulk import) and for verification.
+     */
+    public static String hash(Patient patient) {
+        return PatientHasher.current().hash(
+                patient.getFirstName(),
+                patient.getLastName(),
+                patient.getEmail(),
+                patient.getMedicalRecordNumber());
+    }
 
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Failed to compute data integrity hash", e);
-        }
+    public static boolean verify(Patient patient) {
+        return PatientHasher.current().matches(
+                patient.getFirstName(),
+                patient.getLastName(),
+                patient.getEmail(),
+                patient.getMedicalRecordNumber(),
+                patient.getDataHash());
     }
 }
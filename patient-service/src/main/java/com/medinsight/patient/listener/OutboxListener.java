@@ -0,0 +1,55 @@
+package com.medinsight.patient.listener;
+
+import com.medinsight.patient.entity.MedicalDocument;
+import com.medinsight.patient.entity.MedicalHistory;
+import com.medinsight.patient.entity.MedicalRecord;
+import com.medinsight.patient.entity.Patient;
+import com.medinsight.patient.enums.OutboxAggregateType;
+import com.medinsight.patient.enums.OutboxEventType;
+import com.medinsight.patient.outbox.OutboxRecorder;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Records every write to patient data in the outbox. The callbacks run during
+ * the flush, inside the transaction making the change. Instantiated by
+ * Hibernate through Spring's bean container.
+ */
+@RequiredArgsConstructor
+public class OutboxListener {
+
+    private final OutboxRecorder outboxRecorder;
+
+    @PostPersist
+    public void onCreate(Object entity) {
+        record(entity, OutboxEventType.CREATED);
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        record(entity, OutboxEventType.UPDATED);
+    }
+
+    // A patient's soft delete runs as an UPDATE but is reported as a removal
+    @PostRemove
+    public void onRemove(Object entity) {
+        record(entity, OutboxEventType.DELETED);
+    }
+
+    private void record(Object entity, OutboxEventType eventType) {
+        switch (entity) {
+            case Patient patient -> outboxRecorder.record(OutboxAggregateType.PATIENT, patient.getId(),
+                    patient.getId(), eventType, patient);
+            case MedicalRecord record -> outboxRecorder.record(OutboxAggregateType.MEDICAL_RECORD, record.getId(),
+                    record.getPatientId(), eventType, record);
+            case MedicalHistory history -> outboxRecorder.record(OutboxAggregateType.MEDICAL_HISTORY,
+                    history.getId(), history.getPatientId(), eventType, history);
+            case MedicalDocument document -> outboxRecorder.record(OutboxAggregateType.MEDICAL_DOCUMENT,
+                    document.getId(), document.getPatientId(), eventType, document);
+            default -> {
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.medinsight.patient.listener;
+
+import com.medinsight.patient.dto.PatientIndexRow;
+import com.medinsight.patient.entity.Patient;
+import com.medinsight.patient.event.PatientChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Announces patient writes to the search index. The event carries a snapshot
+ * of the indexed columns; the index applies it once the transaction commits.
+ */
+@RequiredArgsConstructor
+public class PatientSearchIndexListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Patient patient) {
+        eventPublisher.publishEvent(new PatientChangedEvent(PatientIndexRow.of(patient, false)));
+    }
+
+    // Soft delete runs as an UPDATE, but Hibernate still reports it as a removal
+    @PostRemove
+    public void onRemove(Patient patient) {
+        eventPublisher.publishEvent(new PatientChangedEvent(PatientIndexRow.of(patient, true)));
+    }
+}
@@ -0,0 +1,36 @@
+package com.medinsight.patient.listener;
+
+import com.medinsight.patient.entity.MedicalDocument;
+import com.medinsight.patient.entity.MedicalHistory;
+import com.medinsight.patient.entity.MedicalRecord;
+import com.medinsight.patient.event.PatientTimelineChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Announces writes to anything shown on the patient timeline. Instantiated by
+ * Hibernate through Spring's bean container, so it can take injected beans.
+ */
+@RequiredArgsConstructor
+public class TimelineInvalidationListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Long patientId = switch (entity) {
+            case MedicalHistory history -> history.getPatientId();
+            case MedicalDocument document -> document.getPatientId();
+            case MedicalRecord record -> record.getPatientId();
+            default -> null;
+        };
+        if (patientId != null) {
+            eventPublisher.publishEvent(new PatientTimelineChangedEvent(patientId));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.medinsight.patient.membership;
+
+import com.medinsight.patient.service.PatientEmailFilterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the patient email filter at startup, polls for emails this instance
+ * did not write itself, and reloads the filter periodically to drop deleted
+ * ones. Until the first load completes, email checks go to the database.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.email-filter.sync.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PatientEmailFilterSynchronizer {
+
+    private final PatientEmailFilterService patientEmailFilterService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        patientEmailFilterService.rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${patient.email-filter.sync.interval:PT5S}",
+            fixedDelayString = "${patient.email-filter.sync.interval:PT5S}")
+    public void sync() {
+        int synced = patientEmailFilterService.syncChanges();
+        if (synced > 0) {
+            log.debug("Synced {} changed patient emails into the membership filter", synced);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${patient.email-filter.rebuild-interval:PT6H}",
+            fixedDelayString = "${patient.email-filter.rebuild-interval:PT6H}")
+    public void rebuild() {
+        patientEmailFilterService.rebuild();
+    }
+}
@@ -0,0 +1,73 @@
+package com.medinsight.patient.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medinsight.patient.dto.OutboxMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes outbox messages to Kafka keyed by patient id, so all changes to
+ * one patient land on one partition in order. The whole batch is sent before
+ * waiting for acknowledgements. With the producer's default idempotence a
+ * failed record also fails every later record for its partition, which keeps
+ * a retry from overtaking it.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.outbox.transport", havingValue = "kafka")
+@RequiredArgsConstructor
+@Slf4j
+public class KafkaOutboxTransport implements OutboxTransport {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${patient.outbox.kafka.topic:patient-events}")
+    private String topic;
+
+    @Value("${patient.outbox.kafka.send-timeout:PT10S}")
+    private Duration sendTimeout;
+
+    @Override
+    public int publish(List<OutboxMessage> messages) {
+        List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(messages.size());
+        for (OutboxMessage message : messages) {
+            sends.add(kafkaTemplate.send(topic, String.valueOf(message.patientId()), serialize(message)));
+        }
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("Failed to publish outbox event {}: {}", messages.get(i).sequence(), e.getMessage());
+                return i;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return i;
+            }
+        }
+        return messages.size();
+    }
+
+    private String serialize(OutboxMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox event " + message.sequence(), e);
+        }
+    }
+}
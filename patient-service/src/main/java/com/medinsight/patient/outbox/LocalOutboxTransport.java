@@ -0,0 +1,27 @@
+package com.medinsight.patient.outbox;
+
+import com.medinsight.patient.dto.OutboxMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Delivers outbox messages as application events inside this service. The
+ * default transport, for tests and setups without a broker.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.outbox.transport", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalOutboxTransport implements OutboxTransport {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public int publish(List<OutboxMessage> messages) {
+        messages.forEach(eventPublisher::publishEvent);
+        return messages.size();
+    }
+}
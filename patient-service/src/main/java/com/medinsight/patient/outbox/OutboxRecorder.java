@@ -0,0 +1,99 @@
+package com.medinsight.patient.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medinsight.patient.entity.OutboxEvent;
+import com.medinsight.patient.entity.Patient;
+import com.medinsight.patient.enums.OutboxAggregateType;
+import com.medinsight.patient.enums.OutboxEventType;
+import com.medinsight.patient.repository.OutboxJdbcRepository;
+import com.medinsight.patient.repository.PatientJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes outbox events. Callers must already be inside the transaction that
+ * makes the change, so the event and the change commit or roll back together.
+ *
+ * <p>An outbox id is taken when its row is inserted, not when it commits. A
+ * later transaction could otherwise commit a higher id for the same patient
+ * first, and the relay would publish the two events out of order. Each event
+ * is therefore inserted under the patient's row lock, held until commit, so a
+ * patient's events get their ids in commit order.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxRecorder {
+
+    private final OutboxJdbcRepository outboxJdbcRepository;
+    private final PatientJdbcRepository patientJdbcRepository;
+    private final ObjectMapper objectMapper;
+
+    public void record(OutboxAggregateType aggregateType, Long aggregateId, Long patientId,
+            OutboxEventType eventType, Object snapshot) {
+        patientJdbcRepository.lockPatient(patientId);
+        outboxJdbcRepository.insert(event(aggregateType, aggregateId, patientId, eventType, snapshot));
+    }
+
+    /**
+     * Records creation of the patients a bulk insert reported as inserted (a
+     * positive update count). The JDBC batch does not return generated keys,
+     * so the ids are looked up by medical record number. Rows the driver
+     * reported as {@link Statement#SUCCESS_NO_INFO} may have been skipped as
+     * duplicates, so they are only recorded if this transaction wrote them.
+     * The rows this transaction inserted are already locked by the insert.
+     */
+    public void recordImported(List<Patient> patients, int[] counts) {
+        List<Patient> candidates = new ArrayList<>();
+        List<String> inserted = new ArrayList<>();
+        List<String> unknown = new ArrayList<>();
+        for (int i = 0; i < patients.size(); i++) {
+            int count = counts == null ? Statement.SUCCESS_NO_INFO : counts[i];
+            if (count > 0) {
+                inserted.add(patients.get(i).getMedicalRecordNumber());
+            } else if (count == Statement.SUCCESS_NO_INFO) {
+                unknown.add(patients.get(i).getMedicalRecordNumber());
+            } else {
+                continue;
+            }
+            candidates.add(patients.get(i));
+        }
+        Map<String, Long> ids = new HashMap<>(patientJdbcRepository.findIdsByMedicalRecordNumbers(inserted));
+        ids.putAll(patientJdbcRepository.findIdsInsertedInCurrentTransaction(unknown));
+
+        List<OutboxEvent> events = new ArrayList<>(ids.size());
+        for (Patient patient : candidates) {
+            Long id = ids.get(patient.getMedicalRecordNumber());
+            if (id != null) {
+                patient.setId(id);
+                events.add(event(OutboxAggregateType.PATIENT, id, id, OutboxEventType.CREATED, patient));
+            }
+        }
+        if (!events.isEmpty()) {
+            outboxJdbcRepository.insertBatch(events);
+        }
+    }
+
+    private OutboxEvent event(OutboxAggregateType aggregateType, Long aggregateId, Long patientId,
+            OutboxEventType eventType, Object snapshot) {
+        try {
+            return OutboxEvent.builder()
+                    .aggregateType(aggregateType)
+                    .aggregateId(aggregateId)
+                    .patientId(patientId)
+                    .eventType(eventType)
+                    .payload(objectMapper.writeValueAsString(snapshot))
+                    .createdAt(LocalDateTime.now())
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + aggregateType + " " + aggregateId, e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.medinsight.patient.outbox;
+
+import com.medinsight.patient.dto.OutboxMessage;
+import com.medinsight.patient.entity.OutboxEvent;
+import com.medinsight.patient.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox to the configured {@link OutboxTransport}, oldest event
+ * first. Each batch is locked, published and deleted in one transaction; if
+ * the transport acknowledges only part of a batch, the acknowledged prefix is
+ * deleted and the rest is retried on the next run, so delivery is at least
+ * once and never reorders events.
+ *
+ * <p>{@code patient.outbox.lag} is the age of the oldest undelivered event and
+ * {@code patient.outbox.pending} the number waiting; a lag beyond
+ * {@code patient.outbox.max-lag} is logged on every run until it recovers.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.outbox.relay.enabled", havingValue = "true")
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxTransport outboxTransport;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter published;
+    private final Counter failures;
+    private final Timer publishTimer;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    @Value("${patient.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${patient.outbox.max-lag:PT1M}")
+    private Duration maxLag;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxTransport outboxTransport,
+            TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxTransport = outboxTransport;
+        this.transactionTemplate = transactionTemplate;
+        this.published = meterRegistry.counter("patient.outbox.published");
+        this.failures = meterRegistry.counter("patient.outbox.failures");
+        this.publishTimer = meterRegistry.timer("patient.outbox.publish");
+        Gauge.builder("patient.outbox.pending", pending, AtomicLong::get).register(meterRegistry);
+        TimeGauge.builder("patient.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${patient.outbox.relay.interval:PT0.5S}")
+    public void relay() {
+        Batch batch;
+        do {
+            batch = transactionTemplate.execute(status -> relayBatch());
+        } while (batch.read() == batchSize && batch.published() == batch.read());
+        updateLag();
+    }
+
+    Batch relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.findNextBatch(Limit.of(batchSize));
+        if (events.isEmpty()) {
+            return new Batch(0, 0);
+        }
+        List<OutboxMessage> messages = events.stream().map(OutboxMessage::of).toList();
+        int acknowledged;
+        try {
+            acknowledged = publishTimer.record(() -> outboxTransport.publish(messages));
+        } catch (RuntimeException e) {
+            log.warn("Outbox transport failed for a batch of {} events: {}", events.size(), e.getMessage());
+            acknowledged = 0;
+        }
+        if (acknowledged > 0) {
+            outboxEventRepository.deleteAllByIdInBatch(
+                    events.subList(0, acknowledged).stream().map(OutboxEvent::getId).toList());
+            published.increment(acknowledged);
+        }
+        if (acknowledged < events.size()) {
+            failures.increment();
+        }
+        return new Batch(events.size(), acknowledged);
+    }
+
+    void updateLag() {
+        LocalDateTime oldest = outboxEventRepository.findOldestCreatedAt();
+        long lag = oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis());
+        lagMillis.set(lag);
+        pending.set(oldest == null ? 0 : outboxEventRepository.count());
+        if (lag > maxLag.toMillis()) {
+            log.warn("Outbox lag is {} ms with {} events pending, above the {} ms bound", lag, pending.get(),
+                    maxLag.toMillis());
+        }
+    }
+
+    record Batch(int read, int published) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.medinsight.patient.outbox;
+
+import com.medinsight.patient.dto.OutboxMessage;
+
+import java.util.List;
+
+/**
+ * Where the outbox relay delivers events.
+ */
+public interface OutboxTransport {
+
+    /**
+     * Publishes {@code messages} in order and returns how many of them, counted
+     * from the first, were acknowledged. The relay retries the rest, so an
+     * implementation may deliver a message more than once but must not
+     * acknowledge one after a predecessor failed.
+     */
+    int publish(List<OutboxMessage> messages);
+}
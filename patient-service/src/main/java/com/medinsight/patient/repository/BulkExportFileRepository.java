@@ -0,0 +1,16 @@
+package com.medinsight.patient.repository;
+
+import com.medinsight.patient.entity.BulkExportFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BulkExportFileRepository extends JpaRepository<BulkExportFile, Long> {
+
+    List<BulkExportFile> findByJobIdOrderByResourceTypeAscPartitionIndexAsc(Long jobId);
+
+    Optional<BulkExportFile> findByJobIdAndFileName(Long jobId, String fileName);
+}
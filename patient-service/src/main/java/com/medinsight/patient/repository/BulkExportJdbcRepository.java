@@ -0,0 +1,105 @@
+package com.medinsight.patient.repository;
+
+import com.medinsight.patient.dto.IdRange;
+import com.medinsight.patient.enums.BulkExportResourceType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reads for the bulk export. Rows are pushed to a
+ * {@link RowCallbackHandler} as the driver fetches them, {@code fetch-size} at a
+ * time; on Postgres that is a server-side cursor, which needs the caller to be
+ * inside a transaction. Rows of soft-deleted patients are never returned.
+ */
+@Repository
+public class BulkExportJdbcRepository {
+
+    private static final String SELECT_PATIENTS = """
+            SELECT id, user_id, medical_record_number, first_name, last_name, email, phone_number,
+                   date_of_birth, gender, blood_type, portal_active, version, created_at, updated_at
+            FROM patients
+            WHERE id BETWEEN ? AND ? AND deleted = false
+            """;
+
+    private static final String SELECT_CONDITIONS = """
+            SELECT h.id, h.patient_id, h.type, h.condition, h.description, h.start_date, h.end_date,
+                   h.status, h.visible_in_portal
+            FROM medical_histories h
+            JOIN patients p ON p.id = h.patient_id AND p.deleted = false
+            WHERE h.id BETWEEN ? AND ?
+            """;
+
+    private static final String SELECT_RECORDS = """
+            SELECT r.id, r.patient_id, r.blood_group, r.allergies, r.chronic_conditions,
+                   r.current_medications, r.general_notes, r.visible_in_portal, r.version, r.last_updated
+            FROM medical_records r
+            JOIN patients p ON p.id = r.patient_id AND p.deleted = false
+            WHERE r.id BETWEEN ? AND ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BulkExportJdbcRepository(DataSource dataSource,
+            @Value("${patient.bulk-export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Id bounds of the table behind {@code type}, or {@code null} if it is
+     * empty. Partitions are cut from this range.
+     */
+    public IdRange findIdRange(BulkExportResourceType type) {
+        return jdbcTemplate.query("SELECT MIN(id), MAX(id) FROM " + table(type), (ResultSet rs) -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new IdRange(min, rs.getLong(2));
+        });
+    }
+
+    /**
+     * Streams the rows of {@code type} with ids in [{@code fromId},
+     * {@code toId}], in id order, changed at or after {@code since} where the
+     * table records it.
+     */
+    public void streamRows(BulkExportResourceType type, long fromId, long toId, LocalDateTime since,
+            RowCallbackHandler handler) {
+        ExportQuery query = query(type);
+        StringBuilder sql = new StringBuilder(query.select());
+        List<Object> args = new ArrayList<>(List.of(fromId, toId));
+        if (since != null && query.changedColumn() != null) {
+            sql.append("AND ").append(query.changedColumn()).append(" >= ? ");
+            args.add(since);
+        }
+        sql.append("ORDER BY ").append(query.idColumn());
+        jdbcTemplate.query(sql.toString(), handler, args.toArray());
+    }
+
+    private static ExportQuery query(BulkExportResourceType type) {
+        return switch (type) {
+            case PATIENT -> new ExportQuery(SELECT_PATIENTS, "id", "updated_at");
+            // medical_histories carries no timestamps, so _since cannot narrow it
+            case CONDITION -> new ExportQuery(SELECT_CONDITIONS, "h.id", null);
+            case BASIC -> new ExportQuery(SELECT_RECORDS, "r.id", "r.last_updated");
+        };
+    }
+
+    private static String table(BulkExportResourceType type) {
+        return switch (type) {
+            case PATIENT -> "patients";
+            case CONDITION -> "medical_histories";
+            case BASIC -> "medical_records";
+        };
+    }
+
+    private record ExportQuery(String select, String idColumn, String changedColumn) {
+    }
+}
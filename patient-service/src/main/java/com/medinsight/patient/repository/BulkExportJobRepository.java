@@ -0,0 +1,41 @@
+package com.medinsight.patient.repository;
+
+import com.medinsight.patient.entity.BulkExportJob;
+import com.medinsight.patient.enums.ExportJobStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BulkExportJobRepository extends JpaRepository<BulkExportJob, Long> {
+
+    Optional<BulkExportJob> findFirstByStatusInOrderByIdDesc(Collection<ExportJobStatus> statuses);
+
+    List<BulkExportJob> findByStatusAndExpiresAtBefore(ExportJobStatus status, LocalDateTime expiresBefore,
+            Limit limit);
+
+    /**
+     * Counts a finished partition. Workers finish partitions concurrently, so
+     * the counters are incremented in place rather than read and saved.
+     */
+    @Modifying
+    @Query("""
+            UPDATE BulkExportJob j
+            SET j.partitionsCompleted = j.partitionsCompleted + 1,
+                j.rowsWritten = j.rowsWritten + :rows,
+                j.heartbeatAt = :now
+            WHERE j.id = :id
+            """)
+    int recordPartition(@Param("id") Long id, @Param("rows") long rows, @Param("now") LocalDateTime now);
+
+    @Query("SELECT j.status FROM BulkExportJob j WHERE j.id = :id")
+    Optional<ExportJobStatus> findStatusById(@Param("id") Long id);
+}
@@ -0,0 +1,20 @@
+package com.medinsight.patient.repository;
+
+import com.medinsight.patient.dto.FacilityLocation;
+import com.medinsight.patient.entity.CareFacility;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CareFacilityRepository extends JpaRepository<CareFacility, Long> {
+
+    @Query("""
+            SELECT new com.medinsight.patient.dto.FacilityLocation(
+                f.id, f.name, f.type, f.doctorId, f.city, f.latitude, f.longitude)
+            FROM CareFacility f
+            WHERE f.active = true AND f.latitude IS NOT NULL AND f.longitude IS NOT NULL""")
+    List<FacilityLocation> findActiveLocations();
+}
@@ -0,0 +1,80 @@
+package com.medinsight.patient.repository;
+
+import com.medinsight.patient.dto.BlobUsage;
+import com.medinsight.patient.entity.DocumentBlob;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DocumentBlobRepository extends JpaRepository<DocumentBlob, String> {
+
+    /**
+     * Adds one reference, creating the row for a first upload. A single
+     * statement, so concurrent uploads of the same content cannot lose counts.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO document_blobs (content_hash, size, ref_count, created_at, unreferenced_since)
+            VALUES (:contentHash, :size, 1, :now, NULL)
+            ON CONFLICT (content_hash)
+            DO UPDATE SET ref_count = document_blobs.ref_count + 1, unreferenced_since = NULL
+            """, nativeQuery = true)
+    int acquire(@Param("contentHash") String contentHash, @Param("size") long size, @Param("now") LocalDateTime now);
+
+    /**
+     * Records a stored blob that nothing references yet, so the garbage
+     * collector can reclaim it. Used when an upload fails after the bytes were
+     * written.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO document_blobs (content_hash, size, ref_count, created_at, unreferenced_since)
+            VALUES (:contentHash, :size, 0, :now, :now)
+            ON CONFLICT (content_hash) DO NOTHING
+            """, nativeQuery = true)
+    int registerUnreferenced(@Param("contentHash") String contentHash, @Param("size") long size,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+            UPDATE DocumentBlob b
+            SET b.refCount = b.refCount - 1,
+                b.unreferencedSince = CASE WHEN b.refCount = 1 THEN :now ELSE b.unreferencedSince END
+            WHERE b.contentHash = :contentHash AND b.refCount > 0
+            """)
+    int release(@Param("contentHash") String contentHash, @Param("now") LocalDateTime now);
+
+    // SKIP LOCKED lets several instances collect side by side without waiting on each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("""
+            SELECT b FROM DocumentBlob b
+            WHERE b.refCount = 0 AND b.unreferencedSince < :cutoff
+            ORDER BY b.unreferencedSince
+            """)
+    List<DocumentBlob> findCollectable(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Query("""
+            SELECT new com.medinsight.patient.dto.BlobUsage(
+                COUNT(b),
+                COALESCE(SUM(b.size), 0),
+                COALESCE(SUM(b.size * b.refCount), 0),
+                COALESCE(SUM(b.refCount), 0),
+                COALESCE(SUM(CASE WHEN b.refCount = 0 THEN 1 ELSE 0 END), 0),
+                COALESCE(SUM(CASE WHEN b.refCount = 0 THEN b.size ELSE 0 END), 0))
+            FROM DocumentBlob b
+            """)
+    BlobUsage summarize();
+}
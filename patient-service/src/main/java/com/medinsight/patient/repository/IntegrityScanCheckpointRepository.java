@@ -0,0 +1,9 @@
+package com.medinsight.patient.repository;
+
+import com.medinsight.patient.entity.IntegrityScanCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IntegrityScanCheckpointRepository extends JpaRepository<IntegrityScanCheckpoint, String> {
+}
@@ -1,8 +1,12 @@
 package com.medinsight.patient.repository;
 
+import com.medinsight.patient.dto.MedicalDocumentSummary;
 import com.medinsight.patient.entity.MedicalDocument;
 import com.medinsight.patient.enums.DocumentType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +18,14 @@ public interface MedicalDocumentRepository extends JpaRepository<MedicalDocument
     List<MedicalDocument> findByPatientIdAndDocumentType(Long patientId, DocumentType documentType);
 
     List<MedicalDocument> findByPatientIdAndVisibleInPortal(Long patientId, boolean visibleInPortal);
+
+    // Served by idx_medical_documents_portal, read backwards
+    @Query("SELECT new com.medinsight.patient.dto.MedicalDocumentSummary(d.id, d.fileName, d.documentType, "
+            + "d.fileSize, d.uploadDate) FROM MedicalDocument d "
+            + "WHERE d.patientId = :patientId AND d.visibleInPortal = true "
+            + "ORDER BY d.uploadDate DESC, d.id DESC")
+    List<MedicalDocumentSummary> findPortalSummaries(@Param("patientId") Long patientId, Limit limit);
+
+    // Keyset pages over a patient's documents, for exports
+    List<MedicalDocument> findByPatientIdAndIdGreaterThanOrderByIdAsc(Long patientId, Long afterId, Limit limit);
 }
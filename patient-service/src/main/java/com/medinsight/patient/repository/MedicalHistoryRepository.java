@@ -1,7 +1,11 @@
 package com.medinsight.patient.repository;
 
+import com.medinsight.patient.dto.MedicalHistorySummary;
 import com.medinsight.patient.entity.MedicalHistory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +15,14 @@ public interface MedicalHistoryRepository extends JpaRepository<MedicalHistory,
     List<MedicalHistory> findByPatientId(Long patientId);
 
     List<MedicalHistory> findByPatientIdAndVisibleInPortal(Long patientId, boolean visibleInPortal);
+
+    // Served by idx_medical_histories_portal, read backwards
+    @Query("SELECT new com.medinsight.patient.dto.MedicalHistorySummary(h.id, h.type, h.condition, h.startDate, "
+            + "h.endDate, h.status) FROM MedicalHistory h "
+            + "WHERE h.patientId = :patientId AND h.visibleInPortal = true "
+            + "ORDER BY h.startDate DESC, h.id DESC")
+    List<MedicalHistorySummary> findPortalSummaries(@Param("patientId") Long patientId, Limit limit);
+
+    // Keyset pages over a patient's history, for exports
+    List<MedicalHistory> findByPatientIdAndIdGreaterThanOrderByIdAsc(Long patientId, Long afterId, Limit limit);
 }
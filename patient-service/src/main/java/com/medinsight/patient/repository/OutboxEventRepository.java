@@ -0,0 +1,30 @@
+package com.medinsight.patient.repository;
+
+import com.medinsight.patient.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * The oldest pending events, locked. Without {@code SKIP LOCKED} a second
+     * relay instance waits behind the first rather than taking later events,
+     * so events are never relayed out of order. A patient's events get their
+     * ids in commit order, so no earlier event of that patient can commit
+     * behind a batch already read.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OutboxEvent e ORDER BY e.id")
+    List<OutboxEvent> findNextBatch(Limit limit);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e")
+    LocalDateTime findOldestCreatedAt();
+}
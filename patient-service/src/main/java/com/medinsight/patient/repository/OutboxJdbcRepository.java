@@ -0,0 +1,38 @@
+package com.medinsight.patient.repository;
+
+import com.medinsight.patient.entity.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Outbox inserts over plain JDBC. They are made from entity callbacks during
+ * a flush, where the EntityManager must not be used; JdbcTemplate runs on the
+ * same connection and so in the same transaction as the change it records.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxJdbcRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO patient_outbox (aggregate_type, aggregate_id, patient_id, event_type, payload, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(OutboxEvent event) {
+        jdbcTemplate.update(INSERT_SQL, args(event));
+    }
+
+    public void insertBatch(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, events.stream().map(OutboxJdbcRepository::args).toList());
+    }
+
+    private static Object[] args(OutboxEvent event) {
+        return new Object[] { event.getAggregateType().name(), event.getAggregateId(), event.getPatientId(),
+                event.getEventType().name(), event.getPayload(), event.getCreatedAt() };
+    }
+}
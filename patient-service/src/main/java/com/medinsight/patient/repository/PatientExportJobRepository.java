@@ -0,0 +1,42 @@
+package com.medinsight.patient.repository;
+
+import com.medinsight.patient.entity.PatientExportJob;
+import com.medinsight.patient.enums.ExportJobStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PatientExportJobRepository extends JpaRepository<PatientExportJob, Long> {
+
+    Optional<PatientExportJob> findByIdAndPatientId(Long id, Long patientId);
+
+    Optional<PatientExportJob> findFirstByPatientIdAndStatusInOrderByIdDesc(Long patientId,
+            Collection<ExportJobStatus> statuses);
+
+    // Served by idx_patient_export_jobs_status
+    List<PatientExportJob> findByStatusInAndHeartbeatAtBeforeOrderByIdAsc(Collection<ExportJobStatus> statuses,
+            LocalDateTime heartbeatBefore, Limit limit);
+
+    List<PatientExportJob> findByStatusAndExpiresAtBefore(ExportJobStatus status, LocalDateTime expiresBefore,
+            Limit limit);
+
+    /**
+     * Refreshes the heartbeat of a job still at {@code version} without
+     * bumping the version, so a worker inside one long copy is not taken for
+     * stalled. Returns 0 if another worker has claimed the job since.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PatientExportJob j SET j.heartbeatAt = :now WHERE j.id = :id AND j.version = :version")
+    int touchHeartbeat(@Param("id") Long id, @Param("version") Long version, @Param("now") LocalDateTime now);
+}
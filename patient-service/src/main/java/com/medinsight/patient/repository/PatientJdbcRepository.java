@@ -0,0 +1,187 @@
+package com.medinsight.patient.repository;
+
+import com.medinsight.patient.dto.PatientEmailRow;
+import com.medinsight.patient.dto.PatientIndexRow;
+import com.medinsight.patient.entity.Patient;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC access for patients. Hibernate cannot batch inserts for
+ * IDENTITY-generated ids, so high-volume paths go through here and let the
+ * database assign ids from the column default. The search index reads go
+ * through here too, because they must see soft-deleted rows that the entity's
+ * {@code @Where} clause hides.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PatientJdbcRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO patients (user_id, medical_record_number, first_name, last_name, email, phone_number,
+                                  date_of_birth, gender, blood_type, medical_history_summary, portal_active,
+                                  data_hash, deleted, version, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, 0, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String SELECT_INDEX_ROWS = """
+            SELECT id, medical_record_number, first_name, last_name, email, phone_number, date_of_birth,
+                   deleted, updated_at
+            FROM patients
+            """;
+
+    private static final RowMapper<PatientIndexRow> INDEX_ROW_MAPPER = (rs, rowNum) -> new PatientIndexRow(
+            rs.getLong("id"),
+            rs.getString("medical_record_number"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("email"),
+            rs.getString("phone_number"),
+            rs.getObject("date_of_birth", LocalDate.class),
+            rs.getBoolean("deleted"),
+            rs.getObject("updated_at", LocalDateTime.class));
+
+    private static final String SELECT_EMAIL_ROWS = """
+            SELECT id, email, updated_at
+            FROM patients
+            """;
+
+    private static final RowMapper<PatientEmailRow> EMAIL_ROW_MAPPER = (rs, rowNum) -> new PatientEmailRow(
+            rs.getLong("id"),
+            rs.getString("email"),
+            rs.getObject("updated_at", LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts all rows in one JDBC batch. Rows that collide with an existing
+     * email or medical record number are skipped and report an update count
+     * of {@code 0}.
+     */
+    public int[] insertBatch(List<Patient> patients) {
+        return jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Patient patient = patients.get(i);
+                ps.setObject(1, patient.getUserId());
+                ps.setString(2, patient.getMedicalRecordNumber());
+                ps.setString(3, patient.getFirstName());
+                ps.setString(4, patient.getLastName());
+                ps.setString(5, patient.getEmail());
+                ps.setString(6, patient.getPhoneNumber());
+                ps.setObject(7, patient.getDateOfBirth());
+                ps.setString(8, patient.getGender().name());
+                ps.setString(9, patient.getBloodType());
+                ps.setString(10, patient.getMedicalHistorySummary());
+                ps.setBoolean(11, patient.isPortalActive());
+                ps.setString(12, patient.getDataHash());
+                ps.setObject(13, patient.getCreatedAt());
+                ps.setObject(14, patient.getUpdatedAt());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return patients.size();
+            }
+        });
+    }
+
+    /**
+     * Live patients after {@code afterId} in id order, for rebuilding the
+     * search index.
+     */
+    public List<PatientIndexRow> findIndexRows(long afterId, int limit) {
+        return jdbcTemplate.query(SELECT_INDEX_ROWS + "WHERE id > ? AND deleted = false ORDER BY id LIMIT ?",
+                INDEX_ROW_MAPPER, afterId, limit);
+    }
+
+    /**
+     * Patients, deleted ones included, changed after the ({@code since},
+     * {@code afterId}) position. Served by idx_patients_updated_at.
+     */
+    public List<PatientIndexRow> findIndexRowsChangedSince(LocalDateTime since, long afterId, int limit) {
+        return jdbcTemplate.query(SELECT_INDEX_ROWS
+                + "WHERE (updated_at, id) > (?, ?) ORDER BY updated_at, id LIMIT ?",
+                INDEX_ROW_MAPPER, since, afterId, limit);
+    }
+
+    /**
+     * Emails of live patients after {@code afterId} in id order, for loading
+     * the email membership filter.
+     */
+    public List<PatientEmailRow> findEmailRows(long afterId, int limit) {
+        return jdbcTemplate.query(SELECT_EMAIL_ROWS + "WHERE id > ? AND deleted = false ORDER BY id LIMIT ?",
+                EMAIL_ROW_MAPPER, afterId, limit);
+    }
+
+    /**
+     * Emails of live patients changed after the ({@code since}, {@code afterId})
+     * position. Served by idx_patients_updated_at.
+     */
+    public List<PatientEmailRow> findEmailRowsChangedSince(LocalDateTime since, long afterId, int limit) {
+        return jdbcTemplate.query(SELECT_EMAIL_ROWS
+                + "WHERE (updated_at, id) > (?, ?) AND deleted = false ORDER BY updated_at, id LIMIT ?",
+                EMAIL_ROW_MAPPER, since, afterId, limit);
+    }
+
+    /**
+     * Locks the patient's row until the current transaction ends. A deleted
+     * patient has no row left to lock, but the transaction that deleted it
+     * holds the lock until it commits.
+     */
+    public void lockPatient(Long patientId) {
+        jdbcTemplate.queryForList("SELECT id FROM patients WHERE id = ? FOR UPDATE", Long.class, patientId);
+    }
+
+    /**
+     * Ids of the patients with the given medical record numbers, for the bulk
+     * import to record outbox events for the rows it inserted.
+     */
+    public Map<String, Long> findIdsByMedicalRecordNumbers(List<String> medicalRecordNumbers) {
+        if (medicalRecordNumbers.isEmpty()) {
+            return Map.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(medicalRecordNumbers.size(), "?"));
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, medical_record_number FROM patients WHERE medical_record_number IN ("
+                + placeholders + ")", (ResultSet rs) -> {
+                    ids.put(rs.getString("medical_record_number"), rs.getLong("id"));
+                }, medicalRecordNumbers.toArray());
+        return ids;
+    }
+
+    /**
+     * Ids of the patients with the given medical record numbers that the
+     * current transaction inserted, for batch rows whose update count the
+     * driver reported as {@code SUCCESS_NO_INFO}. A row's {@code xmin} is the
+     * id of the transaction that wrote it; rows skipped by {@code ON CONFLICT}
+     * keep the xmin of an earlier one.
+     */
+    public Map<String, Long> findIdsInsertedInCurrentTransaction(List<String> medicalRecordNumbers) {
+        if (medicalRecordNumbers.isEmpty()) {
+            return Map.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(medicalRecordNumbers.size(), "?"));
+        Map<String, Long> ids = new HashMap<>();
+        // xmin is a 32-bit xid; txid_current() carries the epoch in its upper bits
+        jdbcTemplate.query("SELECT id, medical_record_number FROM patients WHERE medical_record_number IN ("
+                + placeholders + ") AND xmin::text::bigint = txid_current() % 4294967296", (ResultSet rs) -> {
+                    ids.put(rs.getString("medical_record_number"), rs.getLong("id"));
+                }, medicalRecordNumbers.toArray());
+        return ids;
+    }
+}
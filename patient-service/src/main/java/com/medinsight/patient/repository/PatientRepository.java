@@ -1,10 +1,19 @@
 package com.medinsight.patient.repository;
 
+import com.medinsight.patient.dto.PatientHashRow;
 import com.medinsight.patient.entity.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
@@ -13,4 +22,22 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     Optional<Patient> findByUserId(java.util.UUID userId);
 
     boolean existsByEmail(String email);
+
+    List<Patient> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @Query("SELECT p FROM Patient p ORDER BY p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Patient> streamAllOrderById();
+
+    @Query("""
+            SELECT new com.medinsight.patient.dto.PatientHashRow(
+                p.id, p.firstName, p.lastName, p.email, p.medicalRecordNumber, p.dataHash)
+            FROM Patient p
+            WHERE p.id > :afterId AND p.id <= :toId
+            ORDER BY p.id
+            """)
+    List<PatientHashRow> findHashRows(@Param("afterId") Long afterId, @Param("toId") Long toId, Limit limit);
 }
@@ -0,0 +1,418 @@
+package com.medinsight.patient.search;
+
+import com.medinsight.patient.dto.PatientIndexRow;
+import com.medinsight.patient.dto.PatientSearchHit;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.phonetic.DoubleMetaphoneFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded Lucene index over patient names, MRN, email and phone number.
+ *
+ * <p>Names are indexed folded to lower-case ASCII for exact, prefix and fuzzy
+ * matching, and a second time as Double Metaphone codes for phonetic matching
+ * ("Smyth" finds "Smith"). MRN, email and phone are single lower-case keyword
+ * terms matched by prefix; phone numbers are reduced to digits. Every result
+ * field is stored, so a search never touches the database.
+ *
+ * <p>Writes go to an {@link IndexWriter} and become searchable when the
+ * {@link SearcherManager} refreshes, about once a second. Commits are periodic
+ * and carry the sync watermark and rebuild generation in their user data, so
+ * both survive a restart. Each document records the generation it was written
+ * in; a rebuild re-indexes every live patient under a new generation and then
+ * drops whatever is older, while searches keep serving the previous contents.
+ */
+@Component
+@Slf4j
+public class PatientSearchIndex {
+
+    static final String ID = "id";
+    static final String GENERATION = "generation";
+    static final String NAME = "name";
+    static final String NAME_PHONETIC = "name_phonetic";
+    static final String MRN = "mrn";
+    static final String EMAIL = "email";
+    static final String PHONE = "phone";
+
+    private static final String FIRST_NAME_VALUE = "first_name_value";
+    private static final String LAST_NAME_VALUE = "last_name_value";
+    private static final String MRN_VALUE = "mrn_value";
+    private static final String EMAIL_VALUE = "email_value";
+    private static final String PHONE_VALUE = "phone_value";
+    private static final String DATE_OF_BIRTH_VALUE = "date_of_birth_value";
+
+    private static final String GENERATION_KEY = "generation";
+    private static final String SYNCED_THROUGH_KEY = "synced-through";
+
+    private static final int MAX_QUERY_TERMS = 5;
+    private static final int MIN_PHONE_DIGITS = 3;
+    private static final int NATIONAL_PHONE_DIGITS = 10;
+    private static final Pattern PHONE_LIKE = Pattern.compile("[+()\\d\\s.-]*\\d[+()\\d\\s.-]*");
+    private static final Pattern NON_DIGITS = Pattern.compile("\\D");
+
+    static final Analyzer ANALYZER = new PerFieldAnalyzerWrapper(new NameAnalyzer(false),
+            Map.of(NAME_PHONETIC, new NameAnalyzer(true)));
+
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final boolean existed;
+    private volatile long generation;
+    private volatile LocalDateTime syncedThrough;
+
+    public PatientSearchIndex(@Value("${patient.search.index.path:/var/lib/medinsight/patient-search}") Path path)
+            throws IOException {
+        Files.createDirectories(path);
+        this.directory = FSDirectory.open(path);
+        this.existed = DirectoryReader.indexExists(directory);
+        IndexWriterConfig config = new IndexWriterConfig(ANALYZER)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                .setRAMBufferSizeMB(64);
+        this.writer = new IndexWriter(directory, config);
+        this.searcherManager = new SearcherManager(writer, null);
+
+        Map<String, String> committed = new HashMap<>();
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            commitData.forEach(entry -> committed.put(entry.getKey(), entry.getValue()));
+        }
+        this.generation = Long.parseLong(committed.getOrDefault(GENERATION_KEY, "0"));
+        String synced = committed.get(SYNCED_THROUGH_KEY);
+        this.syncedThrough = synced == null ? null : LocalDateTime.parse(synced);
+    }
+
+    /**
+     * {@code true} when no index was found on disk at startup and it has to be
+     * built from the database.
+     */
+    public boolean isNew() {
+        return !existed;
+    }
+
+    public void index(PatientIndexRow row) {
+        try {
+            Term id = new Term(ID, String.valueOf(row.id()));
+            if (row.deleted()) {
+                writer.deleteDocuments(id);
+            } else {
+                writer.updateDocument(id, toDocument(row, generation));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to index patient " + row.id(), e);
+        }
+    }
+
+    public void indexAll(List<PatientIndexRow> rows) {
+        rows.forEach(this::index);
+    }
+
+    /**
+     * Starts a rebuild: documents written from now on belong to the returned
+     * generation.
+     */
+    public synchronized long startGeneration() {
+        generation = generation + 1;
+        return generation;
+    }
+
+    /**
+     * Completes a rebuild by dropping every document written before
+     * {@code completed} started, then commits.
+     */
+    public void finishGeneration(long completed) {
+        try {
+            writer.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, completed - 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to drop stale patient documents", e);
+        }
+        commit();
+        refresh();
+    }
+
+    public LocalDateTime getSyncedThrough() {
+        return syncedThrough;
+    }
+
+    /**
+     * Moves the sync watermark forward; an older value is ignored.
+     */
+    public synchronized void advanceSyncedThrough(LocalDateTime time) {
+        if (syncedThrough == null || time.isAfter(syncedThrough)) {
+            syncedThrough = time;
+        }
+    }
+
+    public List<PatientSearchHit> search(Query query, int limit) {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.search(query, limit);
+                StoredFields storedFields = searcher.storedFields();
+                List<PatientSearchHit> hits = new ArrayList<>(top.scoreDocs.length);
+                for (ScoreDoc scoreDoc : top.scoreDocs) {
+                    hits.add(toHit(storedFields.document(scoreDoc.doc), scoreDoc.score));
+                }
+                return hits;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Patient search failed", e);
+        }
+    }
+
+    public long documentCount() {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return searcher.getIndexReader().numDocs();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${patient.search.refresh-interval:PT1S}")
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Failed to refresh patient search index", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${patient.search.commit-interval:PT1M}")
+    public synchronized void commit() {
+        Map<String, String> commitData = new HashMap<>();
+        commitData.put(GENERATION_KEY, String.valueOf(generation));
+        if (syncedThrough != null) {
+            commitData.put(SYNCED_THROUGH_KEY, syncedThrough.toString());
+        }
+        try {
+            writer.setLiveCommitData(commitData.entrySet());
+            writer.commit();
+        } catch (IOException e) {
+            log.warn("Failed to commit patient search index", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        commit();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Turns free text into a query where every whitespace-separated term must
+     * match some field. A name term matches exactly, by prefix, within one or
+     * two edits when {@code fuzzy}, and by sound when {@code phonetic}; exact
+     * and prefix hits score highest. Input that looks like a phone number is
+     * treated as a single digit string. Returns {@code null} for blank input.
+     */
+    public static Query buildQuery(String text, boolean fuzzy, boolean phonetic) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String trimmed = text.trim();
+        if (PHONE_LIKE.matcher(trimmed).matches()) {
+            String digits = digits(trimmed);
+            BooleanQuery.Builder numeric = new BooleanQuery.Builder()
+                    .add(new PrefixQuery(new Term(MRN, digits)), BooleanClause.Occur.SHOULD);
+            if (digits.length() >= MIN_PHONE_DIGITS) {
+                numeric.add(new BoostQuery(new PrefixQuery(new Term(PHONE, digits)), 3f), BooleanClause.Occur.SHOULD);
+            }
+            return numeric.build();
+        }
+
+        BooleanQuery.Builder all = new BooleanQuery.Builder();
+        int terms = 0;
+        for (String raw : trimmed.split("\\s+")) {
+            if (terms == MAX_QUERY_TERMS) {
+                break;
+            }
+            BooleanQuery.Builder any = new BooleanQuery.Builder();
+            for (String token : analyze(NAME, raw)) {
+                Term term = new Term(NAME, token);
+                any.add(new BoostQuery(new TermQuery(term), 4f), BooleanClause.Occur.SHOULD);
+                any.add(new BoostQuery(new PrefixQuery(term), 2f), BooleanClause.Occur.SHOULD);
+                if (fuzzy && token.length() >= 3) {
+                    // A fixed first character keeps the automaton small on a large term dictionary
+                    any.add(new FuzzyQuery(term, token.length() >= 6 ? 2 : 1, 1), BooleanClause.Occur.SHOULD);
+                }
+            }
+            if (phonetic) {
+                for (String code : analyze(NAME_PHONETIC, raw)) {
+                    any.add(new BoostQuery(new TermQuery(new Term(NAME_PHONETIC, code)), 0.5f),
+                            BooleanClause.Occur.SHOULD);
+                }
+            }
+            String keyword = raw.toLowerCase(Locale.ROOT);
+            any.add(new BoostQuery(new PrefixQuery(new Term(MRN, keyword)), 3f), BooleanClause.Occur.SHOULD);
+            any.add(new PrefixQuery(new Term(EMAIL, keyword)), BooleanClause.Occur.SHOULD);
+            all.add(any.build(), BooleanClause.Occur.MUST);
+            terms++;
+        }
+        return all.build();
+    }
+
+    private static Document toDocument(PatientIndexRow row, long generation) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(row.id()), Field.Store.YES));
+        document.add(new LongPoint(GENERATION, generation));
+
+        String fullName = join(row.firstName(), row.lastName());
+        document.add(new TextField(NAME, fullName, Field.Store.NO));
+        document.add(new TextField(NAME_PHONETIC, fullName, Field.Store.NO));
+        addKeyword(document, MRN, row.medicalRecordNumber());
+        addKeyword(document, EMAIL, row.email());
+        if (row.phoneNumber() != null) {
+            String digits = digits(row.phoneNumber());
+            if (digits.length() >= MIN_PHONE_DIGITS) {
+                document.add(new StringField(PHONE, digits, Field.Store.NO));
+                // Also match numbers typed without the country code
+                if (digits.length() > NATIONAL_PHONE_DIGITS) {
+                    document.add(new StringField(PHONE, digits.substring(digits.length() - NATIONAL_PHONE_DIGITS),
+                            Field.Store.NO));
+                }
+            }
+        }
+
+        addStored(document, FIRST_NAME_VALUE, row.firstName());
+        addStored(document, LAST_NAME_VALUE, row.lastName());
+        addStored(document, MRN_VALUE, row.medicalRecordNumber());
+        addStored(document, EMAIL_VALUE, row.email());
+        addStored(document, PHONE_VALUE, row.phoneNumber());
+        addStored(document, DATE_OF_BIRTH_VALUE, row.dateOfBirth() == null ? null : row.dateOfBirth().toString());
+        return document;
+    }
+
+    private static PatientSearchHit toHit(Document document, float score) {
+        String dateOfBirth = document.get(DATE_OF_BIRTH_VALUE);
+        return new PatientSearchHit(
+                Long.parseLong(document.get(ID)),
+                document.get(MRN_VALUE),
+                document.get(FIRST_NAME_VALUE),
+                document.get(LAST_NAME_VALUE),
+                document.get(EMAIL_VALUE),
+                document.get(PHONE_VALUE),
+                dateOfBirth == null ? null : LocalDate.parse(dateOfBirth),
+                score);
+    }
+
+    private static void addKeyword(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new StringField(field, value.toLowerCase(Locale.ROOT), Field.Store.NO));
+        }
+    }
+
+    private static void addStored(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new StoredField(field, value));
+        }
+    }
+
+    private static String join(String first, String last) {
+        return (first == null ? "" : first) + " " + (last == null ? "" : last);
+    }
+
+    private static String digits(String value) {
+        return NON_DIGITS.matcher(value).replaceAll("");
+    }
+
+    private static List<String> analyze(String field, String text) {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream stream = ANALYZER.tokenStream(field, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tokens;
+    }
+
+    /**
+     * Standard tokenization, lower-cased and folded to ASCII so "José" matches
+     * "jose"; optionally reduced to Double Metaphone codes.
+     */
+    private static final class NameAnalyzer extends Analyzer {
+
+        private static final int MAX_PHONETIC_CODE_LENGTH = 6;
+
+        private final boolean phonetic;
+
+        NameAnalyzer(boolean phonetic) {
+            this.phonetic = phonetic;
+        }
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer source = new StandardTokenizer();
+            TokenStream result = new ASCIIFoldingFilter(new LowerCaseFilter(source));
+            if (phonetic) {
+                result = new DoubleMetaphoneFilter(result, MAX_PHONETIC_CODE_LENGTH, false);
+            }
+            return new TokenStreamComponents(source, result);
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+        }
+    }
+}
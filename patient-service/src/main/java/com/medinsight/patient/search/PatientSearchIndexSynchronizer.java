@@ -0,0 +1,41 @@
+package com.medinsight.patient.search;
+
+import com.medinsight.patient.service.PatientSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the search index on first start and then polls the database for
+ * patient changes this instance did not make itself.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.search.sync.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PatientSearchIndexSynchronizer {
+
+    private final PatientSearchIndex patientSearchIndex;
+    private final PatientSearchService patientSearchService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfMissing() {
+        if (patientSearchIndex.isNew()) {
+            log.info("No patient search index on disk, building it from the database");
+            patientSearchService.startRebuild();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${patient.search.sync.interval:PT5S}",
+            fixedDelayString = "${patient.search.sync.interval:PT5S}")
+    public void sync() {
+        int synced = patientSearchService.syncChanges();
+        if (synced > 0) {
+            log.debug("Synced {} changed patients into the search index", synced);
+        }
+    }
+}
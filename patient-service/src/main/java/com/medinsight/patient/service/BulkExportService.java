@@ -0,0 +1,257 @@
+package com.medinsight.patient.service;
+
+import com.medinsight.patient.dto.BulkExportManifest;
+import com.medinsight.patient.entity.BulkExportFile;
+import com.medinsight.patient.entity.BulkExportJob;
+import com.medinsight.patient.enums.BulkExportResourceType;
+import com.medinsight.patient.enums.ExportJobStatus;
+import com.medinsight.patient.export.BulkExportInProgressException;
+import com.medinsight.patient.export.BulkExportPartition;
+import com.medinsight.patient.export.BulkExportWriter;
+import com.medinsight.patient.repository.BulkExportFileRepository;
+import com.medinsight.patient.repository.BulkExportJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Population-level export modelled on FHIR Bulk Data {@code $export}.
+ *
+ * <p>A kick-off cuts every requested resource type into id-range partitions
+ * and hands them to the {@code bulkExportExecutor}, whose workers each stream
+ * one partition at a time through a server-side cursor into its own gzipped
+ * NDJSON file. Memory use therefore depends on the worker count and fetch size,
+ * not on the number of rows. Progress is counted per finished partition on the
+ * job row, which any instance can report.
+ *
+ * <p>One export runs at a time. Partitions read in separate transactions, so
+ * the output is not a single snapshot: rows changed after
+ * {@code transactionTime} may or may not be included, as the FHIR specification
+ * allows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkExportService {
+
+    private static final Set<ExportJobStatus> ACTIVE = EnumSet.of(ExportJobStatus.QUEUED, ExportJobStatus.RUNNING);
+
+    private final BulkExportJobRepository jobRepository;
+    private final BulkExportFileRepository fileRepository;
+    private final BulkExportWriter writer;
+    private final ThreadPoolExecutor bulkExportExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${patient.bulk-export.stale-after:PT10M}")
+    private Duration staleAfter;
+
+    @Value("${patient.bulk-export.retention:24h}")
+    private Duration retention;
+
+    @Value("${patient.export.maintenance.batch-size:20}")
+    private int batchSize;
+
+    /**
+     * Starts an export of {@code types} changed at or after {@code since}
+     * (everything if {@code null}).
+     *
+     * @throws BulkExportInProgressException if another export is still running
+     */
+    public synchronized BulkExportJob kickOff(List<BulkExportResourceType> types, LocalDateTime since,
+            String requestUrl) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<BulkExportJob> active = jobRepository.findFirstByStatusInOrderByIdDesc(ACTIVE);
+        if (active.isPresent()) {
+            BulkExportJob running = active.get();
+            if (running.getHeartbeatAt().isAfter(now.minus(staleAfter))) {
+                throw new BulkExportInProgressException(running.getId());
+            }
+            log.warn("Abandoning bulk export {}, which has not progressed since {}", running.getId(),
+                    running.getHeartbeatAt());
+            markFailed(running.getId(), "Abandoned: no progress since " + running.getHeartbeatAt());
+        }
+
+        BulkExportJob job = jobRepository.save(BulkExportJob.builder()
+                .status(ExportJobStatus.QUEUED)
+                .resourceTypes(String.join(",", types.stream().map(BulkExportResourceType::getFhirType).toList()))
+                .since(since)
+                .requestUrl(requestUrl)
+                .transactionTime(now)
+                .createdAt(now)
+                .heartbeatAt(now)
+                .build());
+        Long jobId = job.getId();
+        CompletableFuture.supplyAsync(() -> plan(jobId, types), bulkExportExecutor)
+                .thenCompose(partitions -> CompletableFuture.allOf(partitions.stream()
+                        .map(partition -> CompletableFuture.runAsync(() -> exportPartition(jobId, since, partition),
+                                bulkExportExecutor))
+                        .toArray(CompletableFuture[]::new)))
+                .whenComplete((ignored, error) -> finish(jobId, error));
+        return job;
+    }
+
+    public Optional<BulkExportJob> getJob(Long jobId) {
+        return jobRepository.findById(jobId);
+    }
+
+    /**
+     * The completion manifest, with file URLs under {@code fileBaseUrl}.
+     */
+    public BulkExportManifest getManifest(BulkExportJob job, String fileBaseUrl) {
+        List<BulkExportManifest.Output> output = fileRepository.findByJobIdOrderByResourceTypeAscPartitionIndexAsc(
+                        job.getId()).stream()
+                .map(file -> new BulkExportManifest.Output(file.getResourceType().getFhirType(),
+                        fileBaseUrl + file.getFileName(), file.getRowCount()))
+                .toList();
+        return new BulkExportManifest(job.getTransactionTime(), job.getRequestUrl(), true, output, List.of());
+    }
+
+    /**
+     * A file of a completed export, if it is still on disk.
+     */
+    public Optional<Path> getFile(Long jobId, String fileName) {
+        return jobRepository.findById(jobId)
+                .filter(job -> job.getStatus() == ExportJobStatus.COMPLETED)
+                .flatMap(job -> fileRepository.findByJobIdAndFileName(jobId, fileName))
+                .map(file -> writer.file(jobId, file.getFileName()))
+                .filter(Files::isRegularFile);
+    }
+
+    /**
+     * Stops a running export or deletes the output of a finished one. Returns
+     * {@code false} if there is no such export.
+     */
+    public boolean cancel(Long jobId) {
+        BulkExportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == ExportJobStatus.CANCELLED
+                || job.getStatus() == ExportJobStatus.EXPIRED) {
+            return false;
+        }
+        boolean active = ACTIVE.contains(job.getStatus());
+        job.setStatus(ExportJobStatus.CANCELLED);
+        job.setCompletedAt(LocalDateTime.now());
+        jobRepository.save(job);
+        // A running export's files are removed once its workers have stopped
+        if (!active) {
+            deleteFiles(jobId);
+        }
+        return true;
+    }
+
+    public int expireExports() {
+        List<BulkExportJob> expired = jobRepository.findByStatusAndExpiresAtBefore(ExportJobStatus.COMPLETED,
+                LocalDateTime.now(), Limit.of(batchSize));
+        int deleted = 0;
+        for (BulkExportJob job : expired) {
+            try {
+                writer.deleteFiles(job.getId());
+                job.setStatus(ExportJobStatus.EXPIRED);
+                jobRepository.save(job);
+                deleted++;
+            } catch (IOException | OptimisticLockingFailureException e) {
+                log.warn("Could not expire bulk export {}: {}", job.getId(), e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    private List<BulkExportPartition> plan(Long jobId, List<BulkExportResourceType> types) {
+        List<BulkExportPartition> partitions = writer.plan(types);
+        BulkExportJob job = jobRepository.findById(jobId).orElseThrow();
+        if (job.getStatus() != ExportJobStatus.QUEUED) {
+            return List.of();
+        }
+        job.setStatus(ExportJobStatus.RUNNING);
+        job.setPartitionsTotal(partitions.size());
+        job.setHeartbeatAt(LocalDateTime.now());
+        jobRepository.save(job);
+        log.info("Bulk export {} started: {} partitions of {}", jobId, partitions.size(), types);
+        return partitions;
+    }
+
+    private void exportPartition(Long jobId, LocalDateTime since, BulkExportPartition partition) {
+        // Cancelled, or failed in another partition
+        if (jobRepository.findStatusById(jobId).orElse(null) != ExportJobStatus.RUNNING) {
+            return;
+        }
+        try {
+            BulkExportFile file = writer.write(jobId, since, partition);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (file != null) {
+                    fileRepository.save(file);
+                }
+                jobRepository.recordPartition(jobId, file == null ? 0 : file.getRowCount(), LocalDateTime.now());
+            });
+        } catch (IOException e) {
+            markFailed(jobId, partition.fileName() + ": " + e.getMessage());
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            markFailed(jobId, partition.fileName() + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private void finish(Long jobId, Throwable error) {
+        try {
+            BulkExportJob job = jobRepository.findById(jobId).orElseThrow();
+            if (job.getStatus() == ExportJobStatus.RUNNING && error == null) {
+                LocalDateTime now = LocalDateTime.now();
+                job.setStatus(ExportJobStatus.COMPLETED);
+                job.setCompletedAt(now);
+                job.setExpiresAt(now.plus(retention));
+                jobRepository.save(job);
+                log.info("Bulk export {} completed: {} rows", jobId, job.getRowsWritten());
+                return;
+            }
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                log.error("Bulk export {} failed", jobId, cause);
+                markFailed(jobId, String.valueOf(cause.getMessage()));
+            }
+            deleteFiles(jobId);
+        } catch (RuntimeException e) {
+            log.warn("Could not finish bulk export {}", jobId, e);
+        }
+    }
+
+    private void markFailed(Long jobId, String message) {
+        try {
+            jobRepository.findById(jobId)
+                    .filter(job -> ACTIVE.contains(job.getStatus()))
+                    .ifPresent(job -> {
+                        job.setStatus(ExportJobStatus.FAILED);
+                        job.setErrorMessage(message.length() > 1000 ? message.substring(0, 1000) : message);
+                        job.setCompletedAt(LocalDateTime.now());
+                        jobRepository.save(job);
+                    });
+        } catch (OptimisticLockingFailureException e) {
+            // Another partition, or a cancel, got there first
+        }
+    }
+
+    private void deleteFiles(Long jobId) {
+        try {
+            writer.deleteFiles(jobId);
+        } catch (IOException e) {
+            log.warn("Could not delete the files of bulk export {}", jobId, e);
+        }
+    }
+}
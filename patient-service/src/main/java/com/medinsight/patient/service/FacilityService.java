@@ -0,0 +1,128 @@
+package com.medinsight.patient.service;
+
+import com.medinsight.patient.dto.FacilityLocation;
+import com.medinsight.patient.dto.GeoPoint;
+import com.medinsight.patient.dto.GeocodeResult;
+import com.medinsight.patient.dto.NearbyFacility;
+import com.medinsight.patient.entity.Address;
+import com.medinsight.patient.entity.CareFacility;
+import com.medinsight.patient.enums.AddressType;
+import com.medinsight.patient.enums.FacilityType;
+import com.medinsight.patient.geo.FacilityIndex;
+import com.medinsight.patient.repository.AddressRepository;
+import com.medinsight.patient.repository.CareFacilityRepository;
+import com.medinsight.patient.repository.PatientRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Registers care facilities and answers nearest-facility queries from the
+ * in-memory {@link FacilityIndex}. A facility registered without coordinates
+ * is geocoded from its address and refused if the gazetteer cannot place it.
+ */
+@Service
+@RequiredArgsConstructor
+public class FacilityService {
+
+    static final int DEFAULT_LIMIT = 10;
+
+    // Addresses tried, in order, when locating a patient without a requested type
+    private static final Comparator<Address> ADDRESS_PREFERENCE = Comparator.comparing(Address::getType,
+            Comparator.comparingInt(type -> type == AddressType.HOME ? 0 : type == AddressType.WORK ? 1 : 2));
+
+    private final CareFacilityRepository careFacilityRepository;
+    private final AddressRepository addressRepository;
+    private final PatientRepository patientRepository;
+    private final GeocodingService geocodingService;
+    private final FacilityIndex facilityIndex;
+
+    @Value("${patient.geo.nearest.max-results:100}")
+    private int maxResults;
+
+    @Value("${patient.geo.nearest.default-max-distance-km:200}")
+    private double defaultMaxDistanceKm;
+
+    /**
+     * Saves a new facility; empty if it has no coordinates and its address
+     * cannot be geocoded.
+     *
+     * @throws IllegalArgumentException if the given coordinates are out of range
+     */
+    public Optional<CareFacility> createFacility(CareFacility facility) {
+        facility.setId(null);
+        facility.setActive(true);
+        if (facility.getLatitude() != null && facility.getLongitude() != null) {
+            // Rejects out-of-range coordinates
+            new GeoPoint(facility.getLatitude(), facility.getLongitude());
+            facility.setGeocodePrecision(null);
+        } else {
+            GeocodeResult result = geocodingService.geocode(facility.getStreet(), facility.getCity(),
+                    facility.getZipCode(), facility.getCountry());
+            if (!result.resolved()) {
+                return Optional.empty();
+            }
+            facility.setLatitude(result.point().latitude());
+            facility.setLongitude(result.point().longitude());
+            facility.setGeocodePrecision(result.precision());
+        }
+        CareFacility saved = careFacilityRepository.save(facility);
+        facilityIndex.rebuild();
+        return Optional.of(saved);
+    }
+
+    public Optional<CareFacility> getFacility(Long id) {
+        return careFacilityRepository.findById(id);
+    }
+
+    public boolean deactivateFacility(Long id) {
+        CareFacility facility = careFacilityRepository.findById(id).orElse(null);
+        if (facility == null) {
+            return false;
+        }
+        if (facility.isActive()) {
+            facility.setActive(false);
+            careFacilityRepository.save(facility);
+            facilityIndex.rebuild();
+        }
+        return true;
+    }
+
+    /**
+     * The position of the patient's address of {@code addressType}, or of
+     * their home, work or billing address in that order of preference. Empty
+     * if the patient does not exist or has no such address.
+     */
+    public Optional<GeocodeResult> locatePatient(Long patientId, AddressType addressType) {
+        if (!patientRepository.existsById(patientId)) {
+            return Optional.empty();
+        }
+        return addressRepository.findByPatientId(patientId).stream()
+                .filter(address -> addressType == null || address.getType() == addressType)
+                .min(ADDRESS_PREFERENCE)
+                .map(geocodingService::geocode);
+    }
+
+    /**
+     * Up to {@code limit} active facilities nearest to {@code origin}, of
+     * {@code type} if given, within {@code maxDistanceKm}
+     * ({@code patient.geo.nearest.default-max-distance-km} if not given).
+     */
+    public List<NearbyFacility> findNearest(GeoPoint origin, Integer limit, FacilityType type,
+            Double maxDistanceKm) {
+        int n = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, maxResults);
+        double maxKm = maxDistanceKm == null || maxDistanceKm <= 0 ? defaultMaxDistanceKm : maxDistanceKm;
+        Predicate<FacilityLocation> filter = type == null ? facility -> true : facility -> facility.type() == type;
+        return facilityIndex.nearest(origin, n, maxKm, filter).stream()
+                .map(neighbor -> new NearbyFacility(neighbor.value().id(), neighbor.value().name(),
+                        neighbor.value().type(), neighbor.value().doctorId(), neighbor.value().city(),
+                        neighbor.point().latitude(), neighbor.point().longitude(),
+                        Math.round(neighbor.distanceKm() * 1000) / 1000.0))
+                .toList();
+    }
+}
@@ -0,0 +1,39 @@
+package com.medinsight.patient.service;
+
+import com.medinsight.patient.dto.GeocodeResult;
+import com.medinsight.patient.dto.NormalizedAddress;
+import com.medinsight.patient.entity.Address;
+import com.medinsight.patient.geo.AddressNormalizer;
+import com.medinsight.patient.geo.Gazetteer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+/**
+ * Geocodes addresses against the offline {@link Gazetteer}. Results, including
+ * misses, are cached by normalized address, so a repeated lookup costs one
+ * normalization and one cache hit however the address was spelled.
+ */
+@Service
+@RequiredArgsConstructor
+public class GeocodingService {
+
+    public static final String GEOCODE_CACHE = "geocodes";
+
+    private final Gazetteer gazetteer;
+    private final CacheManager cacheManager;
+
+    public GeocodeResult geocode(Address address) {
+        return geocode(address.getStreet(), address.getCity(), address.getZipCode(), address.getCountry());
+    }
+
+    public GeocodeResult geocode(String street, String city, String zipCode, String country) {
+        NormalizedAddress address = AddressNormalizer.normalize(street, city, zipCode, country);
+        Cache cache = cacheManager.getCache(GEOCODE_CACHE);
+        if (cache == null) {
+            return gazetteer.lookup(address);
+        }
+        return cache.get(address.key(), () -> gazetteer.lookup(address));
+    }
+}
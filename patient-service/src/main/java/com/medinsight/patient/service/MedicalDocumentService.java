@@ -0,0 +1,154 @@
+package com.medinsight.patient.service;
+
+import com.medinsight.patient.dto.BlobUsage;
+import com.medinsight.patient.dto.DocumentStorageStats;
+import com.medinsight.patient.entity.MedicalDocument;
+import com.medinsight.patient.enums.DocumentType;
+import com.medinsight.patient.repository.DocumentBlobRepository;
+import com.medinsight.patient.repository.MedicalDocumentRepository;
+import com.medinsight.patient.repository.PatientRepository;
+import com.medinsight.patient.storage.BlobStore;
+import com.medinsight.patient.storage.StoredBlob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Uploads and serves the bytes behind {@link MedicalDocument}s. Content is
+ * streamed straight between the request or response and the {@link BlobStore};
+ * only the metadata row goes through JPA.
+ *
+ * <p>Blobs are shared between documents with identical content. Each document
+ * holds one reference in {@code document_blobs}, taken in the same transaction
+ * that inserts the document and dropped in the one that deletes it; unreferenced
+ * blobs are left to {@code BlobGarbageCollector}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MedicalDocumentService {
+
+    private final MedicalDocumentRepository medicalDocumentRepository;
+    private final PatientRepository patientRepository;
+    private final DocumentBlobRepository documentBlobRepository;
+    private final BlobStore blobStore;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${patient.documents.max-size:2GB}")
+    private DataSize maxSize;
+
+    /**
+     * Stores {@code content} and records it as a document of the patient.
+     * Returns empty if the patient does not exist, in which case the body is
+     * not read. The blob is written before the row, outside any transaction,
+     * so a slow upload never holds a connection.
+     */
+    public Optional<MedicalDocument> upload(Long patientId, String fileName, DocumentType documentType,
+            String contentType, InputStream content) throws IOException {
+        if (!patientRepository.existsById(patientId)) {
+            return Optional.empty();
+        }
+
+        StoredBlob blob = blobStore.write(Channels.newChannel(content), maxSize.toBytes());
+        log.debug("Stored {} bytes for patient {} as blob {} (new: {})", blob.size(), patientId,
+                blob.contentHash(), blob.created());
+
+        LocalDateTime now = LocalDateTime.now();
+        MedicalDocument document = MedicalDocument.builder()
+                .patientId(patientId)
+                .fileName(fileName)
+                .fileUrl(blob.uri())
+                .documentType(documentType)
+                .fileSize(blob.size())
+                .contentHash(blob.contentHash())
+                .contentType(contentType)
+                .uploadDate(now)
+                .visibleInPortal(true)
+                .build();
+        try {
+            return Optional.of(transactionTemplate.execute(status -> {
+                documentBlobRepository.acquire(blob.contentHash(), blob.size(), now);
+                // The row lock taken by acquire keeps the collector away from here on; this catches
+                // the rare case where it removed the blob between our write and that lock
+                if (!blobStore.exists(blob.contentHash())) {
+                    throw new IllegalStateException("Blob " + blob.contentHash() + " was collected during upload");
+                }
+                return medicalDocumentRepository.save(document);
+            }));
+        } catch (RuntimeException e) {
+            if (blob.created()) {
+                releaseOrphan(blob, now);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes the document and drops its reference to the content. Returns
+     * {@code false} if the patient has no such document.
+     */
+    public boolean deleteDocument(Long patientId, Long documentId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> getDocument(patientId, documentId)
+                .map(document -> {
+                    medicalDocumentRepository.delete(document);
+                    if (document.getContentHash() != null) {
+                        documentBlobRepository.release(document.getContentHash(), LocalDateTime.now());
+                    }
+                    return true;
+                })
+                .orElse(false)));
+    }
+
+    public DocumentStorageStats getStorageStats() {
+        BlobUsage usage = documentBlobRepository.summarize();
+        long liveBytes = usage.storedBytes() - usage.reclaimableBytes();
+        return DocumentStorageStats.builder()
+                .documents(usage.references())
+                .blobs(usage.blobs() - usage.unreferencedBlobs())
+                .logicalBytes(usage.logicalBytes())
+                .storedBytes(liveBytes)
+                .savedBytes(usage.logicalBytes() - liveBytes)
+                .dedupRatio(liveBytes == 0 ? 1.0 : (double) usage.logicalBytes() / liveBytes)
+                .unreferencedBlobs(usage.unreferencedBlobs())
+                .reclaimableBytes(usage.reclaimableBytes())
+                .build();
+    }
+
+    public Optional<MedicalDocument> getDocument(Long patientId, Long documentId) {
+        return medicalDocumentRepository.findById(documentId)
+                .filter(document -> document.getPatientId().equals(patientId));
+    }
+
+    /**
+     * Returns the document only if its content is held by the blob store, as
+     * opposed to one that merely points at an external {@code fileUrl}.
+     */
+    public Optional<MedicalDocument> getStoredDocument(Long patientId, Long documentId) {
+        return getDocument(patientId, documentId)
+                .filter(document -> document.getContentHash() != null);
+    }
+
+    public long transferContent(MedicalDocument document, long position, long count, WritableByteChannel target)
+            throws IOException {
+        return blobStore.transferTo(document.getContentHash(), position, count, target);
+    }
+
+    private void releaseOrphan(StoredBlob blob, LocalDateTime now) {
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> documentBlobRepository.registerUnreferenced(blob.contentHash(), blob.size(), now));
+        } catch (RuntimeException e) {
+            log.warn("Could not register orphaned blob {} for collection", blob.contentHash(), e);
+        }
+    }
+}
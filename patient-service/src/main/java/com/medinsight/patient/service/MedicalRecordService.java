@@ -1,19 +1,29 @@
 package com.medinsight.patient.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medinsight.commons.web.JsonMergePatch;
 import com.medinsight.patient.entity.MedicalRecord;
 import com.medinsight.patient.repository.MedicalRecordRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class MedicalRecordService {
 
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("bloodGroup", "allergies", "chronicConditions",
+            "currentMedications", "generalNotes", "visibleInPortal");
+    private static final Set<String> REQUIRED_FIELDS = Set.of("visibleInPortal");
+
     private final MedicalRecordRepository medicalRecordRepository;
+    private final ObjectMapper objectMapper;
 
     public MedicalRecord createMedicalRecord(MedicalRecord medicalRecord) {
         return medicalRecordRepository.save(medicalRecord);
@@ -23,9 +33,8 @@ public class MedicalRecordService {
         return medicalRecordRepository.findByPatientId(patientId);
     }
 
-    public MedicalRecord updateMedicalRecord(Long id, MedicalRecord recordDetails) {
-        MedicalRecord record = medicalRecordRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Medical record not found with id: " + id));
+    public MedicalRecord updateMedicalRecord(Long id, MedicalRecord recordDetails, Long expectedVersion) {
+        MedicalRecord record = findForUpdate(id, expectedVersion);
 
         record.setBloodGroup(recordDetails.getBloodGroup());
         record.setAllergies(recordDetails.getAllergies());
@@ -36,4 +45,21 @@ public class MedicalRecordService {
 
         return medicalRecordRepository.save(record);
     }
+
+    /**
+     * Applies a JSON Merge Patch; only the columns it changes are written.
+     */
+    public MedicalRecord patchMedicalRecord(Long id, JsonNode patch, Long expectedVersion) {
+        MedicalRecord record = findForUpdate(id, expectedVersion);
+        return JsonMergePatch.apply(objectMapper, record, patch, PATCHABLE_FIELDS, REQUIRED_FIELDS);
+    }
+
+    private MedicalRecord findForUpdate(Long id, Long expectedVersion) {
+        MedicalRecord record = medicalRecordRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Medical record not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(record.getVersion())) {
+            throw new OptimisticLockingFailureException("Medical record " + id + " has been modified");
+        }
+        return record;
+    }
 }
@@ -0,0 +1,112 @@
+package com.medinsight.patient.service;
+
+import com.medinsight.commons.membership.MembershipFilter;
+import com.medinsight.patient.dto.PatientEmailRow;
+import com.medinsight.patient.repository.PatientJdbcRepository;
+import com.medinsight.patient.repository.PatientRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Email existence checks behind a Bloom filter of patient emails, so the
+ * registration form's per-keystroke check only reaches the database when the
+ * email may already be taken.
+ *
+ * <p>Emails saved through {@link PatientService} are added before their
+ * transaction commits. Everything else (other instances, the JDBC bulk import)
+ * is picked up by {@link #syncChanges()}, which reads rows by
+ * {@code updated_at} from the watermark less an overlap. Deleted and changed
+ * emails stay in the filter, costing only a confirming query, until the next
+ * {@link #rebuild()}.
+ */
+@Service
+@Slf4j
+public class PatientEmailFilterService {
+
+    private final PatientRepository patientRepository;
+    private final PatientJdbcRepository patientJdbcRepository;
+    private final MembershipFilter filter;
+
+    @Value("${patient.email-filter.sync.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${patient.email-filter.sync.overlap:PT30S}")
+    private Duration overlap;
+
+    private volatile LocalDateTime syncedThrough;
+
+    public PatientEmailFilterService(PatientRepository patientRepository,
+            PatientJdbcRepository patientJdbcRepository,
+            MeterRegistry meterRegistry,
+            @Value("${patient.email-filter.expected-emails:100000}") long expectedEmails,
+            @Value("${patient.email-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.patientRepository = patientRepository;
+        this.patientJdbcRepository = patientJdbcRepository;
+        this.filter = new MembershipFilter("patient.email", expectedEmails, falsePositiveProbability,
+                meterRegistry);
+    }
+
+    public boolean existsByEmail(String email) {
+        return filter.exists(email, patientRepository::existsByEmail);
+    }
+
+    public void add(String email) {
+        if (email != null) {
+            filter.add(email);
+        }
+    }
+
+    /**
+     * Replaces the filter with one loaded from the table, dropping deleted and
+     * changed emails.
+     */
+    public synchronized void rebuild() {
+        LocalDateTime started = LocalDateTime.now();
+        filter.rebuild(sink -> {
+            long afterId = 0;
+            List<PatientEmailRow> rows;
+            while (!(rows = patientJdbcRepository.findEmailRows(afterId, chunkSize)).isEmpty()) {
+                rows.forEach(row -> sink.accept(row.email()));
+                afterId = rows.get(rows.size() - 1).id();
+            }
+        });
+        // Emails committed while the load ran are caught by the next sync from here
+        syncedThrough = started;
+        log.info("Loaded {} patient emails into the membership filter in {} ms", filter.keyCount(),
+                Duration.between(started, LocalDateTime.now()).toMillis());
+    }
+
+    /**
+     * Adds every email changed since the watermark. Does nothing until the
+     * filter has been loaded once.
+     */
+    public synchronized int syncChanges() {
+        LocalDateTime watermark = syncedThrough;
+        if (watermark == null) {
+            return 0;
+        }
+        LocalDateTime since = watermark.minus(overlap);
+        long afterId = 0;
+        LocalDateTime newest = watermark;
+        int synced = 0;
+        List<PatientEmailRow> rows;
+        while (!(rows = patientJdbcRepository.findEmailRowsChangedSince(since, afterId, chunkSize)).isEmpty()) {
+            rows.forEach(row -> filter.add(row.email()));
+            PatientEmailRow last = rows.get(rows.size() - 1);
+            since = last.updatedAt();
+            afterId = last.id();
+            if (last.updatedAt().isAfter(newest)) {
+                newest = last.updatedAt();
+            }
+            synced += rows.size();
+        }
+        syncedThrough = newest;
+        return synced;
+    }
+}
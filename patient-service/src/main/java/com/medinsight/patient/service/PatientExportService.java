@@ -0,0 +1,221 @@
+package com.medinsight.patient.service;
+
+import com.medinsight.patient.entity.PatientExportJob;
+import com.medinsight.patient.enums.ExportJobStatus;
+import com.medinsight.patient.enums.ExportPhase;
+import com.medinsight.patient.export.ExportCapacityExceededException;
+import com.medinsight.patient.export.PatientArchiveExporter;
+import com.medinsight.patient.repository.PatientExportJobRepository;
+import com.medinsight.patient.repository.PatientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Starts, tracks and serves patient chart exports.
+ *
+ * <p>Jobs run on the bounded {@code exportExecutor}; when its queue is full a
+ * new export is refused rather than queued without limit. A job is claimed by
+ * moving it to {@code RUNNING} under its version, and its worker refreshes the
+ * heartbeat at every checkpoint and during long copies. A job that fails is
+ * marked {@code FAILED} and its files are deleted; it is not resumed. A job
+ * whose heartbeat goes stale is taken over
+ * by {@link #resumeStalledJobs()} on any instance and continues from its last
+ * checkpoint, which requires {@code patient.export.root} to be shared storage
+ * when several instances run.
+ *
+ * <p>The caller's bearer token, needed to fetch consultations and reports, is
+ * kept in memory only. A job resumed after a restart runs without it and
+ * records the export as {@code partial} if those services refuse it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PatientExportService {
+
+    private static final Set<ExportJobStatus> ACTIVE = EnumSet.of(ExportJobStatus.QUEUED, ExportJobStatus.RUNNING);
+
+    private final PatientExportJobRepository jobRepository;
+    private final PatientRepository patientRepository;
+    private final PatientArchiveExporter exporter;
+    private final ThreadPoolExecutor exportExecutor;
+
+    // Jobs queued or running on this instance, so recovery does not queue them twice
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+    private final Map<Long, String> authorizations = new ConcurrentHashMap<>();
+
+    @Value("${patient.export.stale-after:PT10M}")
+    private Duration staleAfter;
+
+    @Value("${patient.export.maintenance.batch-size:20}")
+    private int batchSize;
+
+    /**
+     * Queues an export of the patient's chart, or returns the one already
+     * queued or running for them. Empty if the patient does not exist.
+     *
+     * @throws ExportCapacityExceededException if the export queue is full
+     */
+    public Optional<PatientExportJob> startExport(Long patientId, String authorization) {
+        if (!patientRepository.existsById(patientId)) {
+            return Optional.empty();
+        }
+        Optional<PatientExportJob> active = jobRepository.findFirstByPatientIdAndStatusInOrderByIdDesc(patientId,
+                ACTIVE);
+        if (active.isPresent()) {
+            return active;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        PatientExportJob job = jobRepository.save(PatientExportJob.builder()
+                .patientId(patientId)
+                .status(ExportJobStatus.QUEUED)
+                .phase(ExportPhase.BUNDLE)
+                .createdAt(now)
+                .heartbeatAt(now)
+                .build());
+        if (!submit(job.getId(), authorization)) {
+            jobRepository.delete(job);
+            throw new ExportCapacityExceededException();
+        }
+        return Optional.of(job);
+    }
+
+    public Optional<PatientExportJob> getJob(Long patientId, Long jobId) {
+        return jobRepository.findByIdAndPatientId(jobId, patientId);
+    }
+
+    public Path getArchivePath(PatientExportJob job) {
+        return exporter.archivePath(job);
+    }
+
+    /**
+     * Queues jobs whose worker has not checkpointed within
+     * {@code patient.export.stale-after}, as many as the queue has room for.
+     */
+    public int resumeStalledJobs() {
+        int room = exportExecutor.getQueue().remainingCapacity();
+        if (room == 0) {
+            return 0;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+        List<PatientExportJob> stalled = jobRepository.findByStatusInAndHeartbeatAtBeforeOrderByIdAsc(ACTIVE, cutoff,
+                Limit.of(Math.min(room, batchSize)));
+        int resumed = 0;
+        for (PatientExportJob job : stalled) {
+            if (!scheduled.contains(job.getId()) && submit(job.getId(), null)) {
+                resumed++;
+            }
+        }
+        return resumed;
+    }
+
+    public int expireArchives() {
+        List<PatientExportJob> expired = jobRepository.findByStatusAndExpiresAtBefore(ExportJobStatus.COMPLETED,
+                LocalDateTime.now(), Limit.of(batchSize));
+        int deleted = 0;
+        for (PatientExportJob job : expired) {
+            try {
+                exporter.deleteFiles(job.getId());
+                job.setStatus(ExportJobStatus.EXPIRED);
+                jobRepository.save(job);
+                deleted++;
+            } catch (IOException | OptimisticLockingFailureException e) {
+                log.warn("Could not expire export {}: {}", job.getId(), e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    private boolean submit(Long jobId, String authorization) {
+        if (!scheduled.add(jobId)) {
+            return true;
+        }
+        if (authorization != null) {
+            authorizations.put(jobId, authorization);
+        }
+        try {
+            exportExecutor.execute(() -> run(jobId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            scheduled.remove(jobId);
+            authorizations.remove(jobId);
+            return false;
+        }
+    }
+
+    void run(Long jobId) {
+        try {
+            PatientExportJob job = claim(jobId);
+            if (job == null) {
+                return;
+            }
+            log.info("Exporting patient {} (job {}, phase {})", job.getPatientId(), jobId, job.getPhase());
+            job = exporter.export(job, authorizations.get(jobId));
+            log.info("Exported patient {} (job {}): {} documents, {} bytes", job.getPatientId(), jobId,
+                    job.getDocumentsExported(), job.getArchiveSize());
+        } catch (OptimisticLockingFailureException e) {
+            log.info("Export {} was taken over by another worker", jobId);
+        } catch (ClosedByInterruptException e) {
+            // Shutting down; the job keeps its checkpoint and is resumed once its heartbeat is stale
+            log.info("Export {} interrupted", jobId);
+        } catch (Exception e) {
+            log.error("Export {} failed", jobId, e);
+            fail(jobId, e);
+        } finally {
+            scheduled.remove(jobId);
+            authorizations.remove(jobId);
+        }
+    }
+
+    // A queued job, or a running one whose worker has gone quiet, moves to RUNNING under its version
+    private PatientExportJob claim(Long jobId) {
+        PatientExportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        boolean stale = job.getHeartbeatAt().isBefore(now.minus(staleAfter));
+        if (job.getStatus() != ExportJobStatus.QUEUED && !(job.getStatus() == ExportJobStatus.RUNNING && stale)) {
+            return null;
+        }
+        job.setStatus(ExportJobStatus.RUNNING);
+        if (job.getStartedAt() == null) {
+            job.setStartedAt(now);
+        }
+        job.setHeartbeatAt(now);
+        return jobRepository.save(job);
+    }
+
+    private void fail(Long jobId, Exception cause) {
+        try {
+            jobRepository.findById(jobId).ifPresent(job -> {
+                String message = String.valueOf(cause.getMessage());
+                job.setStatus(ExportJobStatus.FAILED);
+                job.setErrorMessage(message.length() > 1000 ? message.substring(0, 1000) : message);
+                job.setCompletedAt(LocalDateTime.now());
+                jobRepository.save(job);
+            });
+            exporter.deleteFiles(jobId);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not record the failure of export {}", jobId, e);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.medinsight.patient.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medinsight.patient.dto.BulkImportResult;
+import com.medinsight.patient.dto.ImportRowError;
+import com.medinsight.patient.dto.PatientRequest;
+import com.medinsight.patient.entity.Patient;
+import com.medinsight.patient.enums.Gender;
+import com.medinsight.patient.enums.ImportFormat;
+import com.medinsight.patient.listener.DataIntegrityListener;
+import com.medinsight.patient.outbox.OutboxRecorder;
+import com.medinsight.patient.repository.PatientJdbcRepository;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a CSV or NDJSON patient file into the database. Rows are read in
+ * chunks; each chunk is parsed, validated and hashed in parallel, then written
+ * with a single JDBC batch in its own transaction. A bad row is reported with
+ * its line number and never aborts the rest of the load.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PatientImportService {
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final PatientJdbcRepository patientJdbcRepository;
+    private final OutboxRecorder outboxRecorder;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${patient.import.batch-size:1000}")
+    private int batchSize;
+
+    public BulkImportResult importPatients(InputStream input, ImportFormat format) throws IOException {
+        long started = System.currentTimeMillis();
+        Tally tally = new Tally();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            Map<String, Integer> header = null;
+            if (format == ImportFormat.CSV) {
+                String headerLine = reader.readLine();
+                lineNumber++;
+                if (headerLine == null) {
+                    return tally.toResult(started);
+                }
+                header = parseHeader(headerLine);
+            }
+
+            List<RawLine> chunk = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(new RawLine(lineNumber, line));
+                if (chunk.size() >= batchSize) {
+                    flush(chunk, header, format, tally);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flush(chunk, header, format, tally);
+            }
+        }
+
+        BulkImportResult result = tally.toResult(started);
+        log.info("Patient import finished: {} received, {} imported, {} failed in {} ms",
+                result.getReceived(), result.getImported(), result.getFailed(), result.getDurationMillis());
+        return result;
+    }
+
+    private void flush(List<RawLine> chunk, Map<String, Integer> header, ImportFormat format, Tally tally) {
+        tally.received += chunk.size();
+
+        // Parsing, bean validation and SHA-256 hashing are CPU bound and independent per row
+        List<ParsedRow> parsed = chunk.parallelStream()
+                .map(raw -> parse(raw, header, format))
+                .toList();
+
+        List<ParsedRow> valid = new ArrayList<>(parsed.size());
+        for (ParsedRow row : parsed) {
+            if (row.error() != null) {
+                tally.fail(row.line(), row.error());
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        List<Patient> patients = valid.stream().map(ParsedRow::patient).toList();
+        String[] outcomes = insert(patients);
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i] == null) {
+                tally.imported++;
+            } else {
+                tally.fail(valid.get(i).line(), outcomes[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns one entry per patient: {@code null} when inserted, otherwise the
+     * reason it was not. If the batch itself fails (a constraint validation did
+     * not anticipate) the chunk is retried row by row so only the offending rows
+     * are rejected.
+     */
+    private String[] insert(List<Patient> patients) {
+        String[] outcomes = new String[patients.size()];
+        try {
+            int[] counts = transactionTemplate.execute(status -> insertAndRecord(patients));
+            for (int i = 0; i < outcomes.length; i++) {
+                if (counts != null && counts[i] == 0) {
+                    outcomes[i] = "Duplicate email or medical record number";
+                }
+            }
+        } catch (DataAccessException batchFailure) {
+            log.warn("Batch insert of {} patients failed, retrying row by row: {}", patients.size(),
+                    batchFailure.getMostSpecificCause().getMessage());
+            for (int i = 0; i < outcomes.length; i++) {
+                List<Patient> single = List.of(patients.get(i));
+                try {
+                    int[] counts = transactionTemplate.execute(status -> insertAndRecord(single));
+                    if (counts != null && counts[0] == 0) {
+                        outcomes[i] = "Duplicate email or medical record number";
+                    }
+                } catch (DataAccessException rowFailure) {
+                    outcomes[i] = rowFailure.getMostSpecificCause().getMessage();
+                }
+            }
+        }
+        return outcomes;
+    }
+
+    private int[] insertAndRecord(List<Patient> patients) {
+        int[] counts = patientJdbcRepository.insertBatch(patients);
+        outboxRecorder.recordImported(patients, counts);
+        return counts;
+    }
+
+    private ParsedRow parse(RawLine raw, Map<String, Integer> header, ImportFormat format) {
+        PatientRequest request;
+        try {
+            request = format == ImportFormat.NDJSON
+                    ? objectMapper.readValue(raw.text(), PatientRequest.class)
+                    : fromCsv(raw.text(), header);
+        } catch (Exception e) {
+            return ParsedRow.failed(raw.line(), "Unparseable row: " + e.getMessage());
+        }
+
+        var violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return ParsedRow.failed(raw.line(), message);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Patient patient = Patient.builder()
+                .userId(request.getUserId())
+                .medicalRecordNumber(request.getMedicalRecordNumber())
+                .firstName(request.getFirstName())
+                .lastName(request.getLastName())
+                .email(request.getEmail())
+                .phoneNumber(request.getPhoneNumber())
+                .dateOfBirth(request.getDateOfBirth())
+                .gender(request.getGender())
+                .bloodType(request.getBloodType())
+                .medicalHistorySummary(request.getMedicalHistorySummary())
+                .portalActive(request.isPortalActive())
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        patient.setDataHash(DataIntegrityListener.hash(patient));
+        return new ParsedRow(raw.line(), patient, null);
+    }
+
+    private static PatientRequest fromCsv(String line, Map<String, Integer> header) {
+        List<String> cells = splitCsv(line);
+        return PatientRequest.builder()
+                .userId(uuid(cell(cells, header, "userid")))
+                .medicalRecordNumber(cell(cells, header, "medicalrecordnumber"))
+                .firstName(cell(cells, header, "firstname"))
+                .lastName(cell(cells, header, "lastname"))
+                .email(cell(cells, header, "email"))
+                .phoneNumber(cell(cells, header, "phonenumber"))
+                .dateOfBirth(date(cell(cells, header, "dateofbirth")))
+                .gender(gender(cell(cells, header, "gender")))
+                .bloodType(cell(cells, header, "bloodtype"))
+                .medicalHistorySummary(cell(cells, header, "medicalhistorysummary"))
+                .portalActive(Boolean.parseBoolean(cell(cells, header, "portalactive")))
+                .build();
+    }
+
+    private static Map<String, Integer> parseHeader(String headerLine) {
+        List<String> names = splitCsv(headerLine);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            // Accept camelCase, snake_case and spaced column names alike
+            header.put(names.get(i).replaceAll("[\\s_\\-]", "").toLowerCase(Locale.ROOT), i);
+        }
+        return header;
+    }
+
+    private static String cell(List<String> cells, Map<String, Integer> header, String column) {
+        Integer index = header.get(column);
+        if (index == null || index >= cells.size()) {
+            return null;
+        }
+        String value = cells.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one RFC 4180 record. Quoted fields may contain commas and doubled
+     * quotes; records spanning several lines are not supported.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cells.add(current.toString());
+        return cells;
+    }
+
+    private static UUID uuid(String value) {
+        return value == null ? null : UUID.fromString(value);
+    }
+
+    private static LocalDate date(String value) {
+        return value == null ? null : LocalDate.parse(value);
+    }
+
+    private static Gender gender(String value) {
+        return value == null ? null : Gender.valueOf(value.toUpperCase(Locale.ROOT));
+    }
+
+    private record RawLine(long line, String text) {
+    }
+
+    private record ParsedRow(long line, Patient patient, String error) {
+        static ParsedRow failed(long line, String error) {
+            return new ParsedRow(line, null, error);
+        }
+    }
+
+    private static final class Tally {
+        private long received;
+        private long imported;
+        private long failed;
+        private final List<ImportRowError> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(ImportRowError.builder().line(line).message(message).build());
+            }
+        }
+
+        BulkImportResult toResult(long started) {
+            return BulkImportResult.builder()
+                    .received(received)
+                    .imported(imported)
+                    .failed(failed)
+                    .durationMillis(System.currentTimeMillis() - started)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.medinsight.patient.service;
+
+import com.medinsight.patient.dto.IntegrityVerificationResult;
+import com.medinsight.patient.dto.PatientHashRow;
+import com.medinsight.patient.entity.IntegrityScanCheckpoint;
+import com.medinsight.patient.integrity.PatientHasher;
+import com.medinsight.patient.repository.IntegrityScanCheckpointRepository;
+import com.medinsight.patient.repository.PatientRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class PatientIntegrityService {
+
+    static final int VERIFY_PAGE_SIZE = 5000;
+    static final int MAX_REPORTED_MISMATCHES = 1000;
+
+    public static final String PATIENT_SCAN = "patients";
+
+    private final PatientRepository patientRepository;
+    private final IntegrityScanCheckpointRepository checkpointRepository;
+
+    /**
+     * Returns the rows whose stored hash no longer matches their fields. Rows
+     * are checked on the parallel stream pool, each worker reusing its own
+     * {@link PatientHasher}.
+     */
+    public List<PatientHashRow> findMismatches(List<PatientHashRow> rows) {
+        return rows.parallelStream()
+                .filter(row -> !PatientHasher.current().matches(row.firstName(), row.lastName(), row.email(),
+                        row.medicalRecordNumber(), row.dataHash()))
+                .toList();
+    }
+
+    public Optional<IntegrityScanCheckpoint> getScanStatus() {
+        return checkpointRepository.findById(PATIENT_SCAN);
+    }
+
+    /**
+     * Re-checks {@code dataHash} for every live patient with an id in
+     * {@code [fromId, toId]}, reading only the hashed columns in keyset pages.
+     */
+    public IntegrityVerificationResult verifyRange(long fromId, long toId) {
+        long started = System.currentTimeMillis();
+        long scanned = 0;
+        long mismatched = 0;
+        List<Long> mismatchedIds = new ArrayList<>();
+
+        long cursor = Math.max(fromId, 1L) - 1;
+        while (cursor < toId) {
+            List<PatientHashRow> page = patientRepository.findHashRows(cursor, toId, Limit.of(VERIFY_PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            scanned += page.size();
+            List<PatientHashRow> pageMismatches = findMismatches(page);
+            mismatched += pageMismatches.size();
+            for (PatientHashRow row : pageMismatches) {
+                if (mismatchedIds.size() < MAX_REPORTED_MISMATCHES) {
+                    mismatchedIds.add(row.id());
+                }
+            }
+            cursor = page.get(page.size() - 1).id();
+        }
+
+        return IntegrityVerificationResult.builder()
+                .fromId(fromId)
+                .toId(toId)
+                .scanned(scanned)
+                .mismatched(mismatched)
+                .mismatchedIds(mismatchedIds)
+                .mismatchedIdsTruncated(mismatched > mismatchedIds.size())
+                .durationMillis(System.currentTimeMillis() - started)
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+package com.medinsight.patient.service;
+
+import com.medinsight.patient.dto.PatientIndexRow;
+import com.medinsight.patient.dto.PatientSearchHit;
+import com.medinsight.patient.dto.PatientSearchIndexStatus;
+import com.medinsight.patient.event.PatientChangedEvent;
+import com.medinsight.patient.repository.PatientJdbcRepository;
+import com.medinsight.patient.search.PatientSearchIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.search.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Patient search over the embedded {@link PatientSearchIndex}, and everything
+ * that keeps the index in step with the {@code patients} table.
+ *
+ * <p>Writes made through JPA on this instance reach the index as soon as their
+ * transaction commits. Everything else (other instances, the JDBC bulk import,
+ * changes made while this instance was down) is picked up by
+ * {@link #syncChanges()}, which re-reads rows by {@code updated_at} from the
+ * watermark less an overlap that covers transactions committing out of order.
+ * {@link #startRebuild()} re-creates the index from scratch without taking
+ * search offline.
+ */
+@Service
+@Slf4j
+public class PatientSearchService {
+
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 100;
+
+    private final PatientSearchIndex patientSearchIndex;
+    private final PatientJdbcRepository patientJdbcRepository;
+    private final Timer searchTimer;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    @Value("${patient.search.sync.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${patient.search.sync.overlap:PT30S}")
+    private Duration overlap;
+
+    private volatile LocalDateTime lastRebuildStartedAt;
+    private volatile LocalDateTime lastRebuildCompletedAt;
+    private volatile long lastRebuildDocuments;
+
+    public PatientSearchService(PatientSearchIndex patientSearchIndex, PatientJdbcRepository patientJdbcRepository,
+            MeterRegistry meterRegistry) {
+        this.patientSearchIndex = patientSearchIndex;
+        this.patientJdbcRepository = patientJdbcRepository;
+        this.searchTimer = Timer.builder("patient.search")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public List<PatientSearchHit> search(String text, Integer limit, boolean fuzzy, boolean phonetic) {
+        Query query = PatientSearchIndex.buildQuery(text, fuzzy, phonetic);
+        if (query == null) {
+            return List.of();
+        }
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        return searchTimer.record(() -> patientSearchIndex.search(query, size));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        patientSearchIndex.index(event.patient());
+    }
+
+    /**
+     * Indexes every patient changed since the watermark. Does nothing until the
+     * index has been built once.
+     */
+    public int syncChanges() {
+        LocalDateTime watermark = patientSearchIndex.getSyncedThrough();
+        if (watermark == null) {
+            return 0;
+        }
+        LocalDateTime since = watermark.minus(overlap);
+        long afterId = 0;
+        LocalDateTime newest = watermark;
+        int synced = 0;
+        List<PatientIndexRow> rows;
+        while (!(rows = patientJdbcRepository.findIndexRowsChangedSince(since, afterId, chunkSize)).isEmpty()) {
+            patientSearchIndex.indexAll(rows);
+            PatientIndexRow last = rows.get(rows.size() - 1);
+            since = last.updatedAt();
+            afterId = last.id();
+            if (last.updatedAt().isAfter(newest)) {
+                newest = last.updatedAt();
+            }
+            synced += rows.size();
+        }
+        patientSearchIndex.advanceSyncedThrough(newest);
+        return synced;
+    }
+
+    /**
+     * Starts a rebuild from the database in the background. Returns
+     * {@code false} if one is already running.
+     */
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("patient-search-rebuild").start(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Patient search index rebuild failed", e);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    void rebuild() {
+        LocalDateTime started = LocalDateTime.now();
+        lastRebuildStartedAt = started;
+        long generation = patientSearchIndex.startGeneration();
+        long afterId = 0;
+        long indexed = 0;
+        List<PatientIndexRow> rows;
+        while (!(rows = patientJdbcRepository.findIndexRows(afterId, chunkSize)).isEmpty()) {
+            patientSearchIndex.indexAll(rows);
+            afterId = rows.get(rows.size() - 1).id();
+            indexed += rows.size();
+        }
+        // Changes committed while the rebuild ran are caught by the next sync from here
+        patientSearchIndex.advanceSyncedThrough(started);
+        patientSearchIndex.finishGeneration(generation);
+
+        lastRebuildDocuments = indexed;
+        lastRebuildCompletedAt = LocalDateTime.now();
+        log.info("Rebuilt patient search index with {} patients in {} ms", indexed,
+                Duration.between(started, lastRebuildCompletedAt).toMillis());
+    }
+
+    public PatientSearchIndexStatus getStatus() {
+        return PatientSearchIndexStatus.builder()
+                .documents(patientSearchIndex.documentCount())
+                .rebuilding(rebuilding.get())
+                .lastRebuildStartedAt(lastRebuildStartedAt)
+                .lastRebuildCompletedAt(lastRebuildCompletedAt)
+                .lastRebuildDocuments(lastRebuildDocuments)
+                .syncedThrough(patientSearchIndex.getSyncedThrough())
+                .build();
+    }
+}
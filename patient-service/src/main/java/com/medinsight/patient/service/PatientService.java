@@ -1,49 +1,133 @@
 package com.medinsight.patient.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medinsight.commons.web.JsonMergePatch;
+import com.medinsight.patient.cache.PatientCache;
+import com.medinsight.patient.dto.KeysetPage;
 import com.medinsight.patient.entity.Patient;
 import com.medinsight.patient.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class PatientService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("firstName", "lastName", "email", "phoneNumber",
+            "dateOfBirth", "gender", "bloodType", "medicalHistorySummary", "portalActive");
+    private static final Set<String> REQUIRED_FIELDS = Set.of("firstName", "lastName", "email", "dateOfBirth",
+            "gender", "portalActive");
+
     private final PatientRepository patientRepository;
+    private final PatientCache patientCache;
+    private final EntityManager entityManager;
+    private final PatientEmailFilterService patientEmailFilterService;
+    private final ObjectMapper objectMapper;
 
     public Patient createPatient(Patient patient) {
+        patientEmailFilterService.add(patient.getEmail());
         return patientRepository.save(patient);
     }
 
     public Optional<Patient> getPatientById(Long id) {
-        return patientRepository.findById(id);
+        Patient cached = patientCache.getById(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long readStamp = patientCache.readStamp();
+        Optional<Patient> patient = patientRepository.findById(id);
+        patient.ifPresent(found -> patientCache.put(found, readStamp));
+        return patient;
     }
 
     public Optional<Patient> getPatientByUserId(UUID userId) {
-        return patientRepository.findByUserId(userId);
+        Patient cached = patientCache.getByUserId(userId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long readStamp = patientCache.readStamp();
+        Optional<Patient> patient = patientRepository.findByUserId(userId);
+        patient.ifPresent(found -> patientCache.put(found, readStamp));
+        return patient;
     }
 
     public Optional<Patient> getPatientByEmail(String email) {
-        return patientRepository.findByEmail(email);
+        Patient cached = patientCache.getByEmail(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long readStamp = patientCache.readStamp();
+        Optional<Patient> patient = patientRepository.findByEmail(email);
+        patient.ifPresent(found -> patientCache.put(found, readStamp));
+        return patient;
     }
 
-    public List<Patient> getAllPatients() {
-        return patientRepository.findAll();
+    /**
+     * Seeks past {@code afterId} on the primary key instead of using OFFSET, so
+     * every page costs the same regardless of how deep the caller has scrolled.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Patient> getPatientsPage(Long afterId, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long cursor = afterId == null ? 0L : afterId;
+
+        // Fetch one extra row to learn whether another page exists without a COUNT(*)
+        List<Patient> rows = patientRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<Patient> content = hasMore ? rows.subList(0, pageSize) : rows;
+        Long nextCursor = hasMore ? content.get(content.size() - 1).getId() : null;
+
+        return KeysetPage.<Patient>builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
-    public Patient updatePatient(Long id, Patient patientDetails) {
-        Patient patient = patientRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Patient not found with id: " + id));
+    /**
+     * Pushes every patient through {@code sink} from a server-side cursor. Each
+     * entity is detached once consumed so the persistence context stays empty and
+     * heap use does not grow with the table.
+     */
+    @Transactional(readOnly = true)
+    public void streamPatients(Consumer<Patient> sink) {
+        try (Stream<Patient> patients = patientRepository.streamAllOrderById()) {
+            patients.forEach(patient -> {
+                sink.accept(patient);
+                entityManager.detach(patient);
+            });
+        }
+    }
+
+    /**
+     * Replaces the editable fields. A non-null {@code expectedVersion} makes
+     * the update conditional on the version the caller read.
+     */
+    public Patient updatePatient(Long id, Patient patientDetails, Long expectedVersion) {
+        Patient patient = findForUpdate(id, expectedVersion);
 
         patient.setFirstName(patientDetails.getFirstName());
         patient.setLastName(patientDetails.getLastName());
         patient.setEmail(patientDetails.getEmail());
+        patientEmailFilterService.add(patient.getEmail());
         patient.setPhoneNumber(patientDetails.getPhoneNumber());
         patient.setDateOfBirth(patientDetails.getDateOfBirth());
         patient.setGender(patientDetails.getGender());
@@ -51,14 +135,46 @@ public class PatientService {
         patient.setMedicalHistorySummary(patientDetails.getMedicalHistorySummary());
         patient.setPortalActive(patientDetails.isPortalActive());
 
-        return patientRepository.save(patient);
+        Patient saved = patientRepository.save(patient);
+        patientCache.evict(saved);
+        return saved;
+    }
+
+    /**
+     * Applies a JSON Merge Patch to the editable fields. Only the columns the
+     * patch actually changes are written, and an empty or no-op patch writes
+     * nothing.
+     */
+    public Patient patchPatient(Long id, JsonNode patch, Long expectedVersion) {
+        Patient patient = findForUpdate(id, expectedVersion);
+
+        JsonMergePatch.apply(objectMapper, patient, patch, PATCHABLE_FIELDS, REQUIRED_FIELDS);
+        patientEmailFilterService.add(patient.getEmail());
+
+        patientCache.evict(patient);
+        return patient;
+    }
+
+    private Patient findForUpdate(Long id, Long expectedVersion) {
+        Patient patient = patientRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Patient not found with id: " + id));
+        patientCache.evict(patient);
+        if (expectedVersion != null && !expectedVersion.equals(patient.getVersion())) {
+            throw new OptimisticLockingFailureException("Patient " + id + " has been modified");
+        }
+        return patient;
     }
 
     public void deletePatient(Long id) {
-        patientRepository.deleteById(id);
+        patientRepository.findById(id).ifPresent(patient -> {
+            patientCache.evict(patient);
+            patientRepository.delete(patient);
+        });
     }
 
+    // No surrounding transaction: a negative from the filter must not take a connection
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean existsByEmail(String email) {
-        return patientRepository.existsByEmail(email);
+        return patientEmailFilterService.existsByEmail(email);
     }
 }
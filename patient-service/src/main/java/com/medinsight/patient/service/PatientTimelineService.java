@@ -0,0 +1,240 @@
+package com.medinsight.patient.service;
+
+import com.medinsight.patient.client.ConsultationClient;
+import com.medinsight.patient.dto.ConsultationSummary;
+import com.medinsight.patient.dto.MedicalDocumentSummary;
+import com.medinsight.patient.dto.MedicalHistorySummary;
+import com.medinsight.patient.dto.PatientTimelineResponse;
+import com.medinsight.patient.dto.TimelineEntry;
+import com.medinsight.patient.enums.TimelineEntryType;
+import com.medinsight.patient.event.PatientTimelineChangedEvent;
+import com.medinsight.patient.repository.MedicalDocumentRepository;
+import com.medinsight.patient.repository.MedicalHistoryRepository;
+import com.medinsight.patient.repository.MedicalRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Assembles the portal timeline for a patient: medical history, documents, the
+ * medical record and doctor-service consultations, merged newest first.
+ *
+ * <p>The four sources are queried concurrently on virtual threads, so a cold
+ * timeline costs roughly the slowest source rather than the sum of all four.
+ * Complete views are cached per patient and caller, because the consultations
+ * doctor-service returns depend on the forwarded token; one caller's view is
+ * never served to another. {@link PatientTimelineChangedEvent} (local writes)
+ * and consultation events from doctor-service invalidate every caller's view
+ * of the patient by bumping its generation. If doctor-service is unavailable
+ * the local entries are still returned, flagged {@code partial}, and not
+ * cached.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PatientTimelineService {
+
+    public static final String TIMELINE_CACHE = "patientTimeline";
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    // 2^12, matching stripe(); patients sharing a stripe also drop each other's views, which only costs a rebuild
+    private static final int GENERATION_STRIPES = 1 << 12;
+
+    private static final Comparator<TimelineEntry> NEWEST_FIRST = Comparator
+            .comparing(TimelineEntry::occurredAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(TimelineEntry::type)
+            .thenComparing(TimelineEntry::sourceId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final MedicalHistoryRepository medicalHistoryRepository;
+    private final MedicalDocumentRepository medicalDocumentRepository;
+    private final MedicalRecordRepository medicalRecordRepository;
+    private final ConsultationClient consultationClient;
+    private final CacheManager cacheManager;
+    private final ExecutorService timelineExecutor;
+
+    // Per-patient (striped) generation, bumped on eviction. Cached views carry the generation they
+    // were assembled under, so an eviction drops every caller's view without enumerating cache keys,
+    // and a view assembled across an eviction is never cached.
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @Value("${patient.timeline.fanout-timeout:3s}")
+    private Duration fanoutTimeout;
+
+    // Newest entries taken from each source; older ones stay reachable through the source endpoints
+    @Value("${patient.timeline.max-entries-per-source:200}")
+    private int maxEntriesPerSource;
+
+    public PatientTimelineResponse getTimeline(Long patientId, String authorization, Integer page, Integer size) {
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        Cache cache = cacheManager.getCache(TIMELINE_CACHE);
+        TimelineKey key = new TimelineKey(patientId, caller(authorization));
+        int stripe = stripe(patientId);
+        long generation = generations.get(stripe);
+        CachedTimeline cached = cache == null ? null : cache.get(key, CachedTimeline.class);
+        List<TimelineEntry> entries;
+        boolean partial = false;
+        if (cached != null && cached.generation() == generation) {
+            entries = cached.entries();
+        } else {
+            Assembled assembled = assemble(patientId, authorization);
+            entries = assembled.entries();
+            partial = assembled.partial();
+            if (!partial && cache != null && generation == generations.get(stripe)) {
+                cache.put(key, new CachedTimeline(generation, entries));
+            }
+        }
+
+        int from = (int) Math.min((long) pageNumber * pageSize, entries.size());
+        int to = Math.min(from + pageSize, entries.size());
+        return PatientTimelineResponse.builder()
+                .patientId(patientId)
+                .entries(entries.subList(from, to))
+                .page(pageNumber)
+                .size(pageSize)
+                .totalEntries(entries.size())
+                .hasMore(to < entries.size())
+                .partial(partial)
+                .build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTimelineChanged(PatientTimelineChangedEvent event) {
+        evict(event.patientId());
+    }
+
+    /**
+     * Invalidates every caller's cached view of the patient. Superseded entries
+     * are no longer served and age out of the cache with its TTL.
+     */
+    public void evict(Long patientId) {
+        generations.incrementAndGet(stripe(patientId));
+    }
+
+    private static int stripe(Long patientId) {
+        return (Long.hashCode(patientId) * 0x9E3779B9) >>> 20;
+    }
+
+    /**
+     * Digest of the Authorization header, so cached views are scoped to the
+     * credentials they were fetched with without keeping raw tokens in the cache.
+     */
+    private static String caller(String authorization) {
+        if (authorization == null || authorization.isBlank()) {
+            return "";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(authorization.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private Assembled assemble(Long patientId, String authorization) {
+        CompletableFuture<List<TimelineEntry>> histories = CompletableFuture.supplyAsync(
+                () -> medicalHistoryRepository.findPortalSummaries(patientId, Limit.of(maxEntriesPerSource)).stream()
+                        .map(PatientTimelineService::toEntry).toList(),
+                timelineExecutor);
+        CompletableFuture<List<TimelineEntry>> documents = CompletableFuture.supplyAsync(
+                () -> medicalDocumentRepository.findPortalSummaries(patientId, Limit.of(maxEntriesPerSource)).stream()
+                        .map(PatientTimelineService::toEntry).toList(),
+                timelineExecutor);
+        CompletableFuture<List<TimelineEntry>> record = CompletableFuture.supplyAsync(
+                () -> medicalRecordRepository.findByPatientId(patientId)
+                        .filter(r -> r.isVisibleInPortal())
+                        .map(r -> List.of(new TimelineEntry(TimelineEntryType.RECORD, r.getId(), r.getLastUpdated(),
+                                "Medical record updated", r.getChronicConditions())))
+                        .orElse(List.of()),
+                timelineExecutor);
+        CompletableFuture<List<ConsultationSummary>> consultations = CompletableFuture.supplyAsync(
+                () -> consultationClient.getPortalConsultations(authorization, patientId, maxEntriesPerSource),
+                timelineExecutor);
+
+        long deadline = System.nanoTime() + fanoutTimeout.toNanos();
+        List<TimelineEntry> merged = new ArrayList<>();
+        merged.addAll(await(histories, deadline));
+        merged.addAll(await(documents, deadline));
+        merged.addAll(await(record, deadline));
+
+        boolean partial = false;
+        try {
+            List<ConsultationSummary> remote = await(consultations, deadline);
+            if (remote != null) {
+                remote.stream().map(PatientTimelineService::toEntry).forEach(merged::add);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Consultations unavailable for patient {} timeline: {}", patientId, e.getMessage());
+            partial = true;
+        }
+
+        merged.sort(NEWEST_FIRST);
+        return new Assembled(List.copyOf(merged), partial);
+    }
+
+    private static <T> T await(CompletableFuture<T> future, long deadlineNanos) {
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new IllegalStateException("Timeline source timed out", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while assembling timeline", e);
+        }
+    }
+
+    private static TimelineEntry toEntry(MedicalHistorySummary history) {
+        return new TimelineEntry(TimelineEntryType.HISTORY, history.id(),
+                history.startDate() == null ? null : history.startDate().atStartOfDay(),
+                history.condition(), history.type() + " (" + history.status() + ")");
+    }
+
+    private static TimelineEntry toEntry(MedicalDocumentSummary document) {
+        return new TimelineEntry(TimelineEntryType.DOCUMENT, document.id(), document.uploadDate(),
+                document.fileName(), document.documentType().name());
+    }
+
+    private static TimelineEntry toEntry(ConsultationSummary consultation) {
+        return new TimelineEntry(TimelineEntryType.CONSULTATION, consultation.getId(),
+                consultation.getConsultationDate(), "Consultation", null);
+    }
+
+    private record Assembled(List<TimelineEntry> entries, boolean partial) {
+    }
+
+    private record TimelineKey(Long patientId, String caller) {
+    }
+
+    private record CachedTimeline(long generation, List<TimelineEntry> entries) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.medinsight.patient.storage;
+
+import com.medinsight.patient.entity.DocumentBlob;
+import com.medinsight.patient.repository.DocumentBlobRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Removes blobs that no document references any more.
+ *
+ * <p>A blob becomes collectable once its reference count has been zero for the
+ * grace period and its file has not been written in that time either; the
+ * second check covers an upload that has just deduplicated against the blob
+ * but not yet taken its reference. Candidates are locked with
+ * {@code SKIP LOCKED} and deleted in batches, each in its own transaction, so
+ * an upload acquiring the same blob waits for the batch and then recreates the
+ * row rather than racing the delete.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.documents.gc.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class BlobGarbageCollector {
+
+    private final DocumentBlobRepository documentBlobRepository;
+    private final BlobStore blobStore;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${patient.documents.gc.grace-period:1h}")
+    private Duration gracePeriod;
+
+    @Value("${patient.documents.gc.batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${patient.documents.gc.initial-delay:PT5M}",
+            fixedDelayString = "${patient.documents.gc.interval:PT15M}")
+    public void collect() {
+        long blobs = 0;
+        long bytes = 0;
+        Batch batch;
+        do {
+            batch = transactionTemplate.execute(status -> collectBatch());
+            blobs += batch.blobs();
+            bytes += batch.bytes();
+        } while (batch.full());
+
+        if (blobs > 0) {
+            log.info("Collected {} unreferenced blobs, {} bytes", blobs, bytes);
+        }
+    }
+
+    Batch collectBatch() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(gracePeriod);
+        Instant writtenCutoff = Instant.now().minus(gracePeriod);
+        List<DocumentBlob> candidates = documentBlobRepository.findCollectable(cutoff, Limit.of(batchSize));
+
+        long blobs = 0;
+        long bytes = 0;
+        for (DocumentBlob candidate : candidates) {
+            String contentHash = candidate.getContentHash();
+            try {
+                if (blobStore.exists(contentHash) && blobStore.lastWritten(contentHash).isAfter(writtenCutoff)) {
+                    continue;
+                }
+                documentBlobRepository.delete(candidate);
+                blobStore.delete(contentHash);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete blob " + contentHash, e);
+            }
+            blobs++;
+            bytes += candidate.getSize();
+        }
+        meterRegistry.counter("patient.documents.gc.blobs").increment(blobs);
+        meterRegistry.counter("patient.documents.gc.bytes").increment(bytes);
+        return new Batch(blobs, bytes, candidates.size() == batchSize && blobs > 0);
+    }
+
+    record Batch(long blobs, long bytes, boolean full) {
+    }
+}
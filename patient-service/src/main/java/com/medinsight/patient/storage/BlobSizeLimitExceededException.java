@@ -0,0 +1,17 @@
+package com.medinsight.patient.storage;
+
+import java.io.IOException;
+
+public class BlobSizeLimitExceededException extends IOException {
+
+    private final long maxBytes;
+
+    public BlobSizeLimitExceededException(long maxBytes) {
+        super("Content exceeds the maximum size of " + maxBytes + " bytes");
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -0,0 +1,46 @@
+package com.medinsight.patient.storage;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+
+/**
+ * Content-addressed storage for document bytes. Blobs are keyed by the SHA-256
+ * of their content, so writing the same bytes twice stores them once.
+ *
+ * <p>Implementations move data channel to channel in bounded buffers; no
+ * method may hold a whole blob in memory.
+ */
+public interface BlobStore {
+
+    /**
+     * Streams {@code source} into the store, hashing it on the way, and fails
+     * with {@link BlobSizeLimitExceededException} once more than
+     * {@code maxBytes} have been read. The source is not closed. Writing
+     * content that is already stored refreshes its {@link #lastWritten} time.
+     */
+    StoredBlob write(ReadableByteChannel source, long maxBytes) throws IOException;
+
+    boolean exists(String contentHash);
+
+    /**
+     * Size in bytes of the stored blob.
+     */
+    long size(String contentHash) throws IOException;
+
+    /**
+     * When the blob was last written or deduplicated against. The garbage
+     * collector leaves recently written blobs alone, since an upload may be
+     * about to reference them.
+     */
+    Instant lastWritten(String contentHash) throws IOException;
+
+    /**
+     * Copies {@code count} bytes starting at {@code position} to
+     * {@code target}, which is not closed. Returns the number of bytes copied.
+     */
+    long transferTo(String contentHash, long position, long count, WritableByteChannel target) throws IOException;
+
+    void delete(String contentHash) throws IOException;
+}
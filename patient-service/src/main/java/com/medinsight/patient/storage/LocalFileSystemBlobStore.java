@@ -0,0 +1,170 @@
+package com.medinsight.patient.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * {@link BlobStore} on the local filesystem.
+ *
+ * <p>Uploads are streamed through a direct buffer into a temporary file under
+ * {@code <root>/tmp} while the SHA-256 is computed over the same buffer, then
+ * fsynced and atomically renamed to {@code <root>/sha256/ab/cd/abcd...}. If
+ * that path already exists the temporary file is discarded and the existing
+ * file's modification time refreshed, which the garbage collector reads as
+ * {@link #lastWritten}. Reads use {@link FileChannel#transferTo}, which the
+ * kernel can serve without copying through the heap when the target is a file
+ * or socket channel.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.documents.storage.type", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class LocalFileSystemBlobStore implements BlobStore {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+    private final Path tmp;
+    private final int bufferSize;
+
+    public LocalFileSystemBlobStore(
+            @Value("${patient.documents.storage.local.root:/var/lib/medinsight/documents}") Path root,
+            @Value("${patient.documents.storage.buffer-size:65536}") int bufferSize) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        this.tmp = this.root.resolve("tmp");
+        this.bufferSize = bufferSize;
+        Files.createDirectories(tmp);
+    }
+
+    @Override
+    public StoredBlob write(ReadableByteChannel source, long maxBytes) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        Path partial = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            long size = 0;
+            try (FileChannel out = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                while (source.read(buffer) >= 0) {
+                    buffer.flip();
+                    size += buffer.remaining();
+                    if (size > maxBytes) {
+                        throw new BlobSizeLimitExceededException(maxBytes);
+                    }
+                    buffer.mark();
+                    digest.update(buffer);
+                    buffer.reset();
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                out.force(true);
+            }
+
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(contentHash);
+            if (touch(target)) {
+                Files.delete(partial);
+                log.debug("Deduplicated upload of {} bytes against blob {}", size, contentHash);
+                return new StoredBlob(contentHash, size, false);
+            }
+            Files.createDirectories(target.getParent());
+            // Concurrent uploads of the same content race here harmlessly: the bytes are identical
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return new StoredBlob(contentHash, size, true);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    @Override
+    public boolean exists(String contentHash) {
+        return Files.exists(resolve(contentHash));
+    }
+
+    @Override
+    public long size(String contentHash) throws IOException {
+        return Files.size(resolve(contentHash));
+    }
+
+    @Override
+    public Instant lastWritten(String contentHash) throws IOException {
+        return Files.getLastModifiedTime(resolve(contentHash)).toInstant();
+    }
+
+    @Override
+    public long transferTo(String contentHash, long position, long count, WritableByteChannel target)
+            throws IOException {
+        try (FileChannel in = FileChannel.open(resolve(contentHash), StandardOpenOption.READ)) {
+            long end = Math.min(position + count, in.size());
+            long offset = position;
+            while (offset < end) {
+                long transferred = in.transferTo(offset, end - offset, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                offset += transferred;
+            }
+            return offset - position;
+        }
+    }
+
+    @Override
+    public void delete(String contentHash) throws IOException {
+        try {
+            Files.delete(resolve(contentHash));
+        } catch (NoSuchFileException e) {
+            log.debug("Blob {} was already deleted", contentHash);
+        }
+    }
+
+    /**
+     * Refreshes the modification time of an existing blob. Returns
+     * {@code false} if there is none, including when the garbage collector
+     * removed it a moment ago.
+     */
+    private static boolean touch(Path blob) throws IOException {
+        try {
+            Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    Path resolve(String contentHash) {
+        if (contentHash == null || !SHA256_HEX.matcher(contentHash).matches()) {
+            throw new IllegalArgumentException("Not a SHA-256 content hash: " + contentHash);
+        }
+        return root.resolve("sha256")
+                .resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
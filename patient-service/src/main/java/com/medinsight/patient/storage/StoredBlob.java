@@ -0,0 +1,15 @@
+package com.medinsight.patient.storage;
+
+/**
+ * Result of writing content to a {@link BlobStore}.
+ *
+ * @param contentHash lower-case hex SHA-256 of the content, also its key in the store
+ * @param size        content length in bytes
+ * @param created     {@code false} when identical content was already stored and the upload was deduplicated
+ */
+public record StoredBlob(String contentHash, long size, boolean created) {
+
+    public String uri() {
+        return "blob://sha256/" + contentHash;
+    }
+}
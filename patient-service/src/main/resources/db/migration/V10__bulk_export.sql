@@ -0,0 +1,36 @@
+-- V10__bulk_export.sql
+-- Population-level $export jobs and the NDJSON files each one produced, one row per non-empty
+-- id-range partition.
+
+CREATE TABLE IF NOT EXISTS bulk_export_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    status VARCHAR(16) NOT NULL,
+    resource_types VARCHAR(255) NOT NULL,
+    since TIMESTAMP,
+    request_url VARCHAR(2000) NOT NULL,
+    transaction_time TIMESTAMP NOT NULL,
+    partitions_total INTEGER NOT NULL DEFAULT 0,
+    partitions_completed INTEGER NOT NULL DEFAULT 0,
+    rows_written BIGINT NOT NULL DEFAULT 0,
+    error_message VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    heartbeat_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP,
+    expires_at TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_bulk_export_jobs_status
+    ON bulk_export_jobs (status, expires_at);
+
+CREATE TABLE IF NOT EXISTS bulk_export_files (
+    id BIGSERIAL PRIMARY KEY,
+    job_id BIGINT NOT NULL REFERENCES bulk_export_jobs (id) ON DELETE CASCADE,
+    resource_type VARCHAR(32) NOT NULL,
+    partition_index INTEGER NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    row_count BIGINT NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    UNIQUE (job_id, file_name)
+);
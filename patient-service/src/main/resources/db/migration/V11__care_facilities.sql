@@ -0,0 +1,25 @@
+-- V11__care_facilities.sql
+-- Facilities answered by nearest-facility searches. The spatial index is held in memory and
+-- rebuilt from the active rows with a position, so no spatial index is needed here.
+
+CREATE TABLE IF NOT EXISTS care_facilities (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    type VARCHAR(16) NOT NULL,
+    doctor_id BIGINT,
+    street VARCHAR(255) NOT NULL,
+    city VARCHAR(255) NOT NULL,
+    state VARCHAR(255),
+    zip_code VARCHAR(255) NOT NULL,
+    country VARCHAR(255) NOT NULL,
+    latitude DOUBLE PRECISION,
+    longitude DOUBLE PRECISION,
+    geocode_precision VARCHAR(16),
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    CHECK (latitude BETWEEN -90 AND 90),
+    CHECK (longitude BETWEEN -180 AND 180)
+);
+
+CREATE INDEX IF NOT EXISTS idx_care_facilities_doctor ON care_facilities (doctor_id);
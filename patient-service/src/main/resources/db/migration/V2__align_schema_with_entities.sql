@@ -0,0 +1,73 @@
+-- V2__align_schema_with_entities.sql
+-- Patient Service ran on ddl-auto until Flyway was enabled, so V1 never matched the entities.
+-- Existing databases are baselined at V1 and already have everything below; every statement is
+-- idempotent so it is a no-op there and brings a fresh V1 schema up to the entity mapping.
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'patients' AND column_name = 'user_id' AND data_type <> 'uuid') THEN
+        ALTER TABLE patients ALTER COLUMN user_id TYPE UUID USING user_id::uuid;
+    END IF;
+END $$;
+
+ALTER TABLE patients ADD COLUMN IF NOT EXISTS medical_record_number VARCHAR(255) UNIQUE;
+ALTER TABLE patients ADD COLUMN IF NOT EXISTS phone_number VARCHAR(255);
+ALTER TABLE patients ADD COLUMN IF NOT EXISTS medical_history_summary TEXT;
+ALTER TABLE patients ADD COLUMN IF NOT EXISTS portal_active BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE patients ADD COLUMN IF NOT EXISTS data_hash VARCHAR(255);
+
+ALTER TABLE medical_records ADD COLUMN IF NOT EXISTS blood_group VARCHAR(255);
+ALTER TABLE medical_records ADD COLUMN IF NOT EXISTS chronic_conditions TEXT;
+ALTER TABLE medical_records ADD COLUMN IF NOT EXISTS general_notes TEXT;
+ALTER TABLE medical_records ADD COLUMN IF NOT EXISTS visible_in_portal BOOLEAN NOT NULL DEFAULT TRUE;
+ALTER TABLE medical_records ADD COLUMN IF NOT EXISTS last_updated TIMESTAMP;
+
+CREATE TABLE IF NOT EXISTS addresses (
+    id BIGSERIAL PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    street VARCHAR(255) NOT NULL,
+    city VARCHAR(255) NOT NULL,
+    state VARCHAR(255),
+    zip_code VARCHAR(255) NOT NULL,
+    country VARCHAR(255) NOT NULL,
+    type VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS medical_histories (
+    id BIGSERIAL PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    condition VARCHAR(255) NOT NULL,
+    description TEXT,
+    start_date DATE,
+    end_date DATE,
+    status VARCHAR(255) NOT NULL,
+    visible_in_portal BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS medical_documents (
+    id BIGSERIAL PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    file_url VARCHAR(255) NOT NULL,
+    document_type VARCHAR(255) NOT NULL,
+    file_size BIGINT,
+    upload_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    visible_in_portal BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS integrity_scan_checkpoints (
+    scan_name VARCHAR(255) PRIMARY KEY,
+    last_scanned_id BIGINT NOT NULL DEFAULT 0,
+    pass_rows_scanned BIGINT NOT NULL DEFAULT 0,
+    pass_mismatches BIGINT NOT NULL DEFAULT 0,
+    completed_passes BIGINT NOT NULL DEFAULT 0,
+    pass_started_at TIMESTAMP,
+    last_pass_completed_at TIMESTAMP,
+    next_pass_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    version BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_addresses_patient_id ON addresses(patient_id);
@@ -0,0 +1,12 @@
+-- V3__portal_visibility_indexes.sql
+-- Composite indexes for the patient portal listings. Equality on (patient_id, visible_in_portal)
+-- followed by the listing date and id lets the newest-first, limited queries read the index
+-- backwards and stop after LIMIT rows instead of sorting every row for the patient.
+-- Plain findByPatientId lookups use the same indexes through their patient_id prefix.
+
+CREATE INDEX IF NOT EXISTS idx_medical_histories_portal
+    ON medical_histories (patient_id, visible_in_portal, start_date, id);
+
+CREATE INDEX IF NOT EXISTS idx_medical_documents_portal
+    ON medical_documents (patient_id, visible_in_portal, upload_date, id);
+
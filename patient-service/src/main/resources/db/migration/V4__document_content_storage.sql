@@ -0,0 +1,9 @@
+-- V4__document_content_storage.sql
+-- Uploaded document bytes live in the blob store keyed by their SHA-256, which also serves
+-- as the download ETag. Documents that only reference an external file_url keep a null hash.
+
+ALTER TABLE medical_documents ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+ALTER TABLE medical_documents ADD COLUMN IF NOT EXISTS content_type VARCHAR(255);
+
+CREATE INDEX IF NOT EXISTS idx_medical_documents_content_hash
+    ON medical_documents (content_hash);
@@ -0,0 +1,24 @@
+-- V5__document_blob_references.sql
+-- One row per stored blob with the number of documents referencing it. Blobs at zero
+-- references are collected after a grace period; the partial index keeps that lookup
+-- independent of how many live blobs exist.
+
+CREATE TABLE IF NOT EXISTS document_blobs (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    size BIGINT NOT NULL,
+    ref_count BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    unreferenced_since TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_document_blobs_unreferenced
+    ON document_blobs (unreferenced_since)
+    WHERE ref_count = 0;
+
+-- Documents uploaded before reference counting each hold one reference
+INSERT INTO document_blobs (content_hash, size, ref_count, created_at)
+SELECT content_hash, MAX(file_size), COUNT(*), MIN(upload_date)
+FROM medical_documents
+WHERE content_hash IS NOT NULL
+GROUP BY content_hash
+ON CONFLICT (content_hash) DO NOTHING;
@@ -0,0 +1,8 @@
+-- V6__patient_search_sync_index.sql
+-- The search index catches up on patient changes by seeking on (updated_at, id). Rows written
+-- before updated_at was maintained fall back to created_at so the first sync sees them in order.
+
+UPDATE patients SET updated_at = created_at WHERE updated_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_patients_updated_at
+    ON patients (updated_at, id);
@@ -0,0 +1,6 @@
+-- V7__optimistic_locking.sql
+-- Version columns for optimistic concurrency on patient and medical record updates.
+-- Existing rows start at 0; the constant default makes this a metadata-only change.
+
+ALTER TABLE patients ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE medical_records ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,13 @@
+-- V8__patient_outbox.sql
+-- Transactional outbox for patient data changes. Rows are written in the transaction making the
+-- change and deleted once relayed; the relay reads in id order, served by the primary key.
+
+CREATE TABLE IF NOT EXISTS patient_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    patient_id BIGINT NOT NULL,
+    event_type VARCHAR(16) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,35 @@
+-- V9__patient_export_jobs.sql
+-- Chart export jobs and their resume checkpoints. Workers look for jobs to take over by status
+-- and heartbeat, and for archives to expire by status and expiry.
+
+CREATE TABLE IF NOT EXISTS patient_export_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    phase VARCHAR(16) NOT NULL,
+    parts_written INTEGER NOT NULL DEFAULT 0,
+    max_document_id BIGINT,
+    last_document_id BIGINT NOT NULL DEFAULT 0,
+    documents_total INTEGER NOT NULL DEFAULT 0,
+    documents_exported INTEGER NOT NULL DEFAULT 0,
+    documents_skipped INTEGER NOT NULL DEFAULT 0,
+    bytes_total BIGINT NOT NULL DEFAULT 0,
+    bytes_exported BIGINT NOT NULL DEFAULT 0,
+    partial BOOLEAN NOT NULL DEFAULT FALSE,
+    archive_size BIGINT,
+    archive_sha256 VARCHAR(64),
+    error_message VARCHAR(1000),
+    snapshot_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    started_at TIMESTAMP,
+    heartbeat_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP,
+    expires_at TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_patient_export_jobs_patient
+    ON patient_export_jobs (patient_id, status);
+
+CREATE INDEX IF NOT EXISTS idx_patient_export_jobs_status
+    ON patient_export_jobs (status, heartbeat_at);
@@ -34,6 +34,23 @@ class PatientServiceIntegrationTest {
                 registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
                 registry.add("spring.flyway.enabled", () -> "false");
                 registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+                registry.add("patient.integrity.scan.enabled", () -> "false");
+                registry.add("patient.timeline.consultation-events.enabled", () -> "false");
+                registry.add("patient.documents.gc.enabled", () -> "false");
+                registry.add("patient.search.sync.enabled", () -> "false");
+                registry.add("patient.email-filter.sync.enabled", () -> "false");
+                registry.add("patient.outbox.transport", () -> "local");
+                registry.add("patient.outbox.relay.enabled", () -> "false");
+                registry.add("patient.export.maintenance.enabled", () -> "false");
+                registry.add("patient.geo.index.refresh.enabled", () -> "false");
+                registry.add("patient.search.index.path",
+                                () -> System.getProperty("java.io.tmpdir") + "/medinsight-test-search-" + System.nanoTime());
+                registry.add("patient.documents.storage.local.root",
+                                () -> System.getProperty("java.io.tmpdir") + "/medinsight-test-documents");
+                registry.add("patient.export.root",
+                                () -> System.getProperty("java.io.tmpdir") + "/medinsight-test-exports");
+                registry.add("patient.bulk-export.root",
+                                () -> System.getProperty("java.io.tmpdir") + "/medinsight-test-bulk-exports");
         }
 
         @BeforeEach
@@ -0,0 +1,75 @@
+package com.medinsight.patient.cache;
+
+import com.medinsight.patient.entity.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class PatientCacheTest {
+
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    private PatientCache patientCache;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        patientCache = new PatientCache(new ConcurrentMapCacheManager(), redisTemplate, false);
+        patient = Patient.builder()
+                .id(1L)
+                .userId(UUID.randomUUID())
+                .email("john.doe@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should cache a patient loaded with no eviction since")
+    void shouldCacheWhenNothingWasEvicted() {
+        long readStamp = patientCache.readStamp();
+
+        patientCache.put(patient, readStamp);
+
+        assertThat(patientCache.getById(1L)).isSameAs(patient);
+        assertThat(patientCache.getByUserId(patient.getUserId())).isSameAs(patient);
+        assertThat(patientCache.getByEmail("john.doe@example.com")).isSameAs(patient);
+    }
+
+    @Test
+    @DisplayName("Should not put back a row loaded before an update's eviction")
+    void shouldDropPutAfterEviction() {
+        long readStamp = patientCache.readStamp();
+        Patient stale = Patient.builder().id(1L).userId(patient.getUserId()).email("old@example.com").build();
+
+        // An update commits and evicts while the reader is still loading
+        patientCache.evict(patient);
+        patientCache.put(stale, readStamp);
+
+        assertThat(patientCache.getById(1L)).isNull();
+        assertThat(patientCache.getByEmail("old@example.com")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not put back a row loaded before another instance's eviction")
+    void shouldDropPutAfterRemoteInvalidation() {
+        long readStamp = patientCache.readStamp();
+
+        patientCache.onRemoteInvalidation("1\n\n");
+        patientCache.put(patient, readStamp);
+
+        assertThat(patientCache.getById(1L)).isNull();
+    }
+}
@@ -1,6 +1,8 @@
 package com.medinsight.patient.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medinsight.patient.dto.KeysetPage;
 import com.medinsight.patient.entity.Patient;
 import com.medinsight.patient.enums.Gender;
 import com.medinsight.patient.service.PatientService;
@@ -10,18 +12,21 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -107,9 +112,9 @@ class PatientControllerTest {
         }
 
         @Test
-        @DisplayName("Should get all patients successfully")
+        @DisplayName("Should get a keyset page of patients")
         @WithMockUser(roles = "DOCTOR")
-        void shouldGetAllPatients() throws Exception {
+        void shouldGetPatientsPage() throws Exception {
                 Patient patient2 = Patient.builder()
                                 .id(2L)
                                 .userId(UUID.randomUUID())
@@ -121,16 +126,23 @@ class PatientControllerTest {
                                 .dateOfBirth(LocalDate.of(1995, 5, 5))
                                 .build();
 
-                List<Patient> patients = Arrays.asList(testPatient, patient2);
-                when(patientService.getAllPatients()).thenReturn(patients);
+                KeysetPage<Patient> page = KeysetPage.<Patient>builder()
+                                .content(Arrays.asList(testPatient, patient2))
+                                .size(2)
+                                .nextCursor(2L)
+                                .hasMore(true)
+                                .build();
+                when(patientService.getPatientsPage(0L, 2)).thenReturn(page);
 
-                mockMvc.perform(get("/api/patients"))
+                mockMvc.perform(get("/api/patients").param("after", "0").param("size", "2"))
                                 .andExpect(status().isOk())
-                                .andExpect(jsonPath("$.length()").value(2))
-                                .andExpect(jsonPath("$[0].firstName").value("John"))
-                                .andExpect(jsonPath("$[1].firstName").value("Jane"));
+                                .andExpect(jsonPath("$.content.length()").value(2))
+                                .andExpect(jsonPath("$.content[0].firstName").value("John"))
+                                .andExpect(jsonPath("$.content[1].firstName").value("Jane"))
+                                .andExpect(jsonPath("$.nextCursor").value(2))
+                                .andExpect(jsonPath("$.hasMore").value(true));
 
-                verify(patientService, times(1)).getAllPatients();
+                verify(patientService, times(1)).getPatientsPage(0L, 2);
         }
 
         @Test
@@ -148,17 +160,59 @@ class PatientControllerTest {
                                 .medicalRecordNumber(testPatient.getMedicalRecordNumber())
                                 .build();
 
-                when(patientService.updatePatient(anyLong(), any(Patient.class))).thenReturn(updatedPatient);
+                updatedPatient.setVersion(2L);
+                when(patientService.updatePatient(anyLong(), any(Patient.class), eq(1L))).thenReturn(updatedPatient);
 
                 mockMvc.perform(put("/api/patients/1")
                                 .with(csrf())
+                                .header(HttpHeaders.IF_MATCH, "\"1\"")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(updatedPatient)))
                                 .andExpect(status().isOk())
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
                                 .andExpect(jsonPath("$.lastName").value("Doe Updated"))
                                 .andExpect(jsonPath("$.email").value("john.updated@example.com"));
 
-                verify(patientService, times(1)).updatePatient(anyLong(), any(Patient.class));
+                verify(patientService, times(1)).updatePatient(anyLong(), any(Patient.class), eq(1L));
+        }
+
+        @Test
+        @DisplayName("Should answer 412 when If-Match names a stale version")
+        @WithMockUser(roles = "DOCTOR")
+        void shouldRejectStaleUpdate() throws Exception {
+                when(patientService.updatePatient(anyLong(), any(Patient.class), eq(1L)))
+                                .thenThrow(new OptimisticLockingFailureException("Patient 1 has been modified"));
+
+                mockMvc.perform(put("/api/patients/1")
+                                .with(csrf())
+                                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(testPatient)))
+                                .andExpect(status().isPreconditionFailed());
+        }
+
+        @Test
+        @DisplayName("Should merge-patch patient and reject invalid patches")
+        @WithMockUser(roles = "DOCTOR")
+        void shouldPatchPatient() throws Exception {
+                testPatient.setVersion(3L);
+                when(patientService.patchPatient(eq(1L), any(JsonNode.class), isNull())).thenReturn(testPatient);
+
+                mockMvc.perform(patch("/api/patients/1")
+                                .with(csrf())
+                                .contentType("application/merge-patch+json")
+                                .content("{\"phoneNumber\":\"+1234567890\"}"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+                when(patientService.patchPatient(eq(2L), any(JsonNode.class), isNull()))
+                                .thenThrow(new IllegalArgumentException("Field cannot be patched: id"));
+
+                mockMvc.perform(patch("/api/patients/2")
+                                .with(csrf())
+                                .contentType("application/merge-patch+json")
+                                .content("{\"id\":5}"))
+                                .andExpect(status().isBadRequest());
         }
 
         @Test
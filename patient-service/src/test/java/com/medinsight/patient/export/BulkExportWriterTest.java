@@ -0,0 +1,161 @@
+package com.medinsight.patient.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medinsight.patient.entity.BulkExportFile;
+import com.medinsight.patient.enums.BulkExportResourceType;
+import com.medinsight.patient.repository.BulkExportJdbcRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkExportWriterTest {
+
+    @TempDir
+    Path root;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JdbcTemplate jdbcTemplate;
+    private BulkExportWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE patients (
+                    id BIGINT PRIMARY KEY, user_id VARCHAR(255), medical_record_number VARCHAR(255),
+                    first_name VARCHAR(255), last_name VARCHAR(255), email VARCHAR(255), phone_number VARCHAR(255),
+                    date_of_birth DATE, gender VARCHAR(16), blood_type VARCHAR(16), portal_active BOOLEAN,
+                    version BIGINT, created_at TIMESTAMP, updated_at TIMESTAMP, deleted BOOLEAN NOT NULL)""");
+        jdbcTemplate.execute("""
+                CREATE TABLE medical_histories (
+                    id BIGINT PRIMARY KEY, patient_id BIGINT, type VARCHAR(32), condition VARCHAR(255),
+                    description VARCHAR(255), start_date DATE, end_date DATE, status VARCHAR(32),
+                    visible_in_portal BOOLEAN)""");
+        jdbcTemplate.execute("""
+                CREATE TABLE medical_records (
+                    id BIGINT PRIMARY KEY, patient_id BIGINT, blood_group VARCHAR(16), allergies VARCHAR(255),
+                    chronic_conditions VARCHAR(255), current_medications VARCHAR(255), general_notes VARCHAR(255),
+                    visible_in_portal BOOLEAN, version BIGINT, last_updated TIMESTAMP)""");
+
+        writer = new BulkExportWriter(new BulkExportJdbcRepository(dataSource, 2), objectMapper,
+                new DataSourceTransactionManager(dataSource), root);
+        ReflectionTestUtils.setField(writer, "partitionSize", 3L);
+        ReflectionTestUtils.setField(writer, "bufferSize", 8192);
+    }
+
+    @Test
+    @DisplayName("plan cuts each type's id range into partitions and skips empty tables")
+    void planCutsIdRanges() {
+        for (long id = 1; id <= 7; id++) {
+            insertPatient(id, false, LocalDateTime.of(2024, 1, 1, 0, 0));
+        }
+
+        List<BulkExportPartition> partitions = writer.plan(
+                List.of(BulkExportResourceType.PATIENT, BulkExportResourceType.CONDITION));
+
+        assertThat(partitions).containsExactly(
+                new BulkExportPartition(BulkExportResourceType.PATIENT, 0, 1, 3),
+                new BulkExportPartition(BulkExportResourceType.PATIENT, 1, 4, 6),
+                new BulkExportPartition(BulkExportResourceType.PATIENT, 2, 7, 7));
+    }
+
+    @Test
+    @DisplayName("write streams a partition as gzipped NDJSON without soft-deleted patients")
+    void writeStreamsPartition() throws IOException {
+        insertPatient(1, false, LocalDateTime.of(2024, 1, 1, 0, 0));
+        insertPatient(2, true, LocalDateTime.of(2024, 1, 1, 0, 0));
+        insertHistory(10, 1);
+        insertHistory(11, 2);
+        insertHistory(12, 1);
+
+        BulkExportFile patients = writer.write(5L, null,
+                new BulkExportPartition(BulkExportResourceType.PATIENT, 0, 1, 3));
+        BulkExportFile conditions = writer.write(5L, null,
+                new BulkExportPartition(BulkExportResourceType.CONDITION, 0, 10, 12));
+
+        assertThat(patients.getRowCount()).isEqualTo(1);
+        assertThat(patients.getFileName()).isEqualTo("Patient-0000.ndjson.gz");
+        List<JsonNode> patientLines = readLines(writer.file(5L, patients.getFileName()));
+        assertThat(patientLines).hasSize(1);
+        JsonNode patient = patientLines.get(0);
+        assertThat(patient.get("resourceType").asText()).isEqualTo("Patient");
+        assertThat(patient.get("id").asLong()).isEqualTo(1);
+        assertThat(patient.get("firstName").asText()).isEqualTo("First1");
+        assertThat(patient.get("dateOfBirth").asText()).isEqualTo("1980-05-01");
+        assertThat(patient.get("portalActive").asBoolean()).isTrue();
+        assertThat(patient.has("phoneNumber")).isFalse();
+
+        assertThat(conditions.getRowCount()).isEqualTo(2);
+        assertThat(readLines(writer.file(5L, conditions.getFileName())))
+                .extracting(line -> line.get("id").asLong())
+                .containsExactly(10L, 12L);
+    }
+
+    @Test
+    @DisplayName("write applies _since and leaves no file for an empty partition")
+    void writeFiltersBySince() throws IOException {
+        insertPatient(1, false, LocalDateTime.of(2023, 6, 1, 0, 0));
+        insertPatient(2, false, LocalDateTime.of(2024, 6, 1, 0, 0));
+        BulkExportPartition partition = new BulkExportPartition(BulkExportResourceType.PATIENT, 0, 1, 3);
+
+        BulkExportFile recent = writer.write(6L, LocalDateTime.of(2024, 1, 1, 0, 0), partition);
+        assertThat(recent.getRowCount()).isEqualTo(1);
+        assertThat(readLines(writer.file(6L, recent.getFileName())).get(0).get("id").asLong()).isEqualTo(2);
+
+        assertThat(writer.write(7L, LocalDateTime.of(2025, 1, 1, 0, 0), partition)).isNull();
+        assertThat(writer.file(7L, partition.fileName())).doesNotExist();
+
+        writer.deleteFiles(6L);
+        assertThat(root.resolve("6")).doesNotExist();
+    }
+
+    private void insertPatient(long id, boolean deleted, LocalDateTime updatedAt) {
+        jdbcTemplate.update("""
+                INSERT INTO patients (id, user_id, medical_record_number, first_name, last_name, email,
+                    date_of_birth, gender, portal_active, version, created_at, updated_at, deleted)
+                VALUES (?, ?, ?, ?, 'Last', ?, DATE '1980-05-01', 'FEMALE', TRUE, 0, ?, ?, ?)""",
+                id, "user-" + id, "MRN-" + id, "First" + id, "p" + id + "@example.com", updatedAt, updatedAt,
+                deleted);
+    }
+
+    private void insertHistory(long id, long patientId) {
+        jdbcTemplate.update("""
+                INSERT INTO medical_histories (id, patient_id, type, condition, start_date, status, visible_in_portal)
+                VALUES (?, ?, 'DISEASE', 'Asthma', DATE '2010-01-01', 'ACTIVE', TRUE)""", id, patientId);
+    }
+
+    private List<JsonNode> readLines(Path file) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,382 @@
+package com.medinsight.patient.export;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.medinsight.patient.client.ConsultationClient;
+import com.medinsight.patient.client.ReportClient;
+import com.medinsight.patient.dto.ConsultationDetail;
+import com.medinsight.patient.dto.ConsultationSummary;
+import com.medinsight.patient.dto.ReportDetail;
+import com.medinsight.patient.dto.ReportSummary;
+import com.medinsight.patient.entity.MedicalDocument;
+import com.medinsight.patient.entity.MedicalHistory;
+import com.medinsight.patient.entity.Patient;
+import com.medinsight.patient.entity.PatientExportJob;
+import com.medinsight.patient.enums.DocumentType;
+import com.medinsight.patient.enums.ExportJobStatus;
+import com.medinsight.patient.enums.ExportPhase;
+import com.medinsight.patient.enums.Gender;
+import com.medinsight.patient.enums.HistoryStatus;
+import com.medinsight.patient.enums.HistoryType;
+import com.medinsight.patient.repository.AddressRepository;
+import com.medinsight.patient.repository.MedicalDocumentRepository;
+import com.medinsight.patient.repository.MedicalHistoryRepository;
+import com.medinsight.patient.repository.MedicalRecordRepository;
+import com.medinsight.patient.repository.PatientExportJobRepository;
+import com.medinsight.patient.repository.PatientRepository;
+import com.medinsight.patient.storage.LocalFileSystemBlobStore;
+import com.medinsight.patient.storage.StoredBlob;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToLongFunction;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PatientArchiveExporterTest {
+
+    private static final Long PATIENT_ID = 1L;
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private AddressRepository addressRepository;
+
+    @Mock
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Mock
+    private MedicalHistoryRepository medicalHistoryRepository;
+
+    @Mock
+    private MedicalDocumentRepository medicalDocumentRepository;
+
+    @Mock
+    private PatientExportJobRepository jobRepository;
+
+    @Mock
+    private ConsultationClient consultationClient;
+
+    @Mock
+    private ReportClient reportClient;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private LocalFileSystemBlobStore blobStore;
+    private PatientArchiveExporter exporter;
+    private List<MedicalDocument> documents;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        blobStore = new LocalFileSystemBlobStore(tempDir.resolve("blobs"), 1024);
+        exporter = new PatientArchiveExporter(patientRepository, addressRepository, medicalRecordRepository,
+                medicalHistoryRepository, medicalDocumentRepository, jobRepository, consultationClient,
+                reportClient, blobStore, objectMapper, transactionManager, tempDir.resolve("exports"),
+                URI.create("http://report-service:8080"));
+        ReflectionTestUtils.setField(exporter, "bufferSize", 1024);
+        // One row per page exercises the keyset paging
+        ReflectionTestUtils.setField(exporter, "pageSize", 1);
+        ReflectionTestUtils.setField(exporter, "retention", Duration.ofHours(24));
+        ReflectionTestUtils.setField(exporter, "heartbeatInterval", Duration.ofMinutes(1));
+
+        documents = List.of(
+                document(10L, "lab results.pdf", store("lab".repeat(2000))),
+                document(11L, "missing.png", "0".repeat(64)),
+                document(12L, "scan.dcm", store("scan".repeat(3000))));
+    }
+
+    private void stubChart() {
+        when(patientRepository.findById(PATIENT_ID)).thenReturn(Optional.of(Patient.builder()
+                .id(PATIENT_ID)
+                .userId(UUID.randomUUID())
+                .medicalRecordNumber("MRN-001")
+                .firstName("John")
+                .lastName("Doe")
+                .email("john@example.com")
+                .dateOfBirth(LocalDate.of(1980, 1, 1))
+                .gender(Gender.MALE)
+                .build()));
+        when(addressRepository.findByPatientId(PATIENT_ID)).thenReturn(List.of());
+        when(medicalRecordRepository.findByPatientId(PATIENT_ID)).thenReturn(Optional.empty());
+        List<MedicalHistory> history = List.of(
+                MedicalHistory.builder().id(5L).patientId(PATIENT_ID).type(HistoryType.ALLERGY)
+                        .condition("Penicillin").status(HistoryStatus.CHRONIC).build(),
+                MedicalHistory.builder().id(6L).patientId(PATIENT_ID).type(HistoryType.SURGERY)
+                        .condition("Appendectomy").status(HistoryStatus.RESOLVED).build());
+        when(medicalHistoryRepository.findByPatientIdAndIdGreaterThanOrderByIdAsc(eq(PATIENT_ID), anyLong(),
+                any(Limit.class))).thenAnswer(invocation -> page(history, MedicalHistory::getId,
+                        invocation.getArgument(1), invocation.getArgument(2)));
+        when(medicalDocumentRepository.findByPatientIdAndIdGreaterThanOrderByIdAsc(eq(PATIENT_ID), anyLong(),
+                any(Limit.class))).thenAnswer(invocation -> page(documents, MedicalDocument::getId,
+                        invocation.getArgument(1), invocation.getArgument(2)));
+        when(consultationClient.getConsultations(null, PATIENT_ID)).thenReturn(List.of(ConsultationSummary.builder()
+                .id(40L).doctorId(3L).consultationDate(LocalDateTime.of(2024, 5, 1, 9, 0)).build()));
+        when(consultationClient.getConsultation(null, 40L)).thenReturn(ConsultationDetail.builder()
+                .id(40L).patientId(PATIENT_ID).doctorId(3L).consultationDate(LocalDateTime.of(2024, 5, 1, 9, 0))
+                .diagnosis("Seasonal rhinitis").build());
+    }
+
+    private void stubReportServiceDown() {
+        when(reportClient.getReports(null, PATIENT_ID)).thenThrow(new IllegalStateException("report-service down"));
+    }
+
+    @Test
+    @DisplayName("Should write the bundle and every stored document into one tar.gz")
+    void shouldExportChart() throws Exception {
+        stubChart();
+        stubReportServiceDown();
+        when(jobRepository.save(any(PatientExportJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PatientExportJob job = exporter.export(newJob(), null);
+
+        assertThat(job.getStatus()).isEqualTo(ExportJobStatus.COMPLETED);
+        assertThat(job.isPartial()).isTrue();
+        assertThat(job.getDocumentsTotal()).isEqualTo(2);
+        assertThat(job.getDocumentsExported()).isEqualTo(2);
+        assertThat(job.getDocumentsSkipped()).isZero();
+        assertThat(job.getBytesExported()).isEqualTo(job.getBytesTotal()).isEqualTo(6000 + 12000);
+        assertThat(job.getProgress()).isEqualTo(1);
+
+        Path archive = exporter.archivePath(job);
+        assertThat(job.getArchiveSize()).isEqualTo(Files.size(archive));
+        assertThat(job.getArchiveSha256()).isEqualTo(
+                HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(archive))));
+        try (var files = Files.list(archive.getParent())) {
+            assertThat(files).containsExactly(archive);
+        }
+
+        Map<String, byte[]> entries = readArchive(archive);
+        assertThat(entries.keySet()).containsExactly("bundle.json", "documents/10-lab_results.pdf",
+                "documents/12-scan.dcm");
+        assertThat(new String(entries.get("documents/12-scan.dcm"), StandardCharsets.UTF_8))
+                .isEqualTo("scan".repeat(3000));
+
+        JsonNode bundle = objectMapper.readTree(entries.get("bundle.json"));
+        assertThat(bundle.get("resourceType").asText()).isEqualTo("Bundle");
+        assertThat(bundle.at("/meta/reportsIncluded").asBoolean()).isFalse();
+        List<String> types = new ArrayList<>();
+        bundle.get("entry").forEach(entry -> types.add(entry.at("/resource/resourceType").asText()));
+        assertThat(types).containsExactly("Patient", "Condition", "Condition", "DocumentReference",
+                "DocumentReference", "DocumentReference", "Encounter");
+        assertThat(bundle.at("/entry/3/resource/content/0/attachment/url").asText())
+                .isEqualTo("documents/10-lab_results.pdf");
+        assertThat(bundle.at("/entry/4/resource/content").isMissingNode()).isTrue();
+        assertThat(bundle.at("/entry/6/resource/diagnosis").asText()).isEqualTo("Seasonal rhinitis");
+    }
+
+    @Test
+    @DisplayName("Should export full reports and add their files to the archive")
+    void shouldExportReportFiles() throws Exception {
+        stubChart();
+        when(jobRepository.save(any(PatientExportJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(reportClient.getReports(null, PATIENT_ID)).thenReturn(List.of(
+                ReportSummary.builder().id(50L).pdfUrl("/files/blood panel.pdf").build(),
+                ReportSummary.builder().id(51L).build()));
+        when(reportClient.getReport(null, 50L)).thenReturn(ReportDetail.builder().id(50L).patientId(PATIENT_ID)
+                .title("Blood panel").content("Within range").pdfUrl("/files/blood%20panel.pdf")
+                .generatedAt(LocalDateTime.of(2024, 5, 2, 8, 0)).build());
+        when(reportClient.getReport(null, 51L)).thenReturn(ReportDetail.builder().id(51L).patientId(PATIENT_ID)
+                .title("Referral").content("Cardiology").build());
+        String pdf = "%PDF-1.7 " + "x".repeat(5000);
+        when(reportClient.getFile(URI.create("http://report-service:8080/files/blood%20panel.pdf"), null))
+                .thenReturn(response(pdf));
+
+        PatientExportJob job = exporter.export(newJob(), null);
+
+        assertThat(job.isPartial()).isFalse();
+        Map<String, byte[]> entries = readArchive(exporter.archivePath(job));
+        assertThat(entries.keySet()).containsExactly("bundle.json", "reports/50-blood_panel.pdf",
+                "documents/10-lab_results.pdf", "documents/12-scan.dcm");
+        assertThat(new String(entries.get("reports/50-blood_panel.pdf"), StandardCharsets.UTF_8)).isEqualTo(pdf);
+
+        JsonNode bundle = objectMapper.readTree(entries.get("bundle.json"));
+        assertThat(bundle.at("/entry/7/resource/resourceType").asText()).isEqualTo("DiagnosticReport");
+        assertThat(bundle.at("/entry/7/resource/content").asText()).isEqualTo("Within range");
+        assertThat(bundle.at("/entry/7/resource/presentedForm/0/url").asText())
+                .isEqualTo("reports/50-blood_panel.pdf");
+        assertThat(bundle.at("/entry/7/resource/presentedForm/0/size").asLong()).isEqualTo(pdf.length());
+        assertThat(bundle.at("/entry/8/resource/content").asText()).isEqualTo("Cardiology");
+        assertThat(bundle.at("/entry/8/resource/presentedForm").isMissingNode()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should resume from the last checkpoint without repeating finished parts")
+    void shouldResumeFromCheckpoint() throws Exception {
+        stubChart();
+        stubReportServiceDown();
+        AtomicReference<PatientExportJob> persisted = new AtomicReference<>();
+        AtomicInteger saves = new AtomicInteger();
+        when(jobRepository.save(any(PatientExportJob.class))).thenAnswer(invocation -> {
+            // The bundle and the first document are checkpointed, then the worker dies
+            if (saves.incrementAndGet() == 3) {
+                throw new IllegalStateException("worker died");
+            }
+            PatientExportJob job = invocation.getArgument(0);
+            persisted.set(copy(job));
+            return job;
+        });
+
+        assertThatThrownBy(() -> exporter.export(newJob(), null)).hasMessage("worker died");
+        PatientExportJob checkpoint = persisted.get();
+        assertThat(checkpoint.getPhase()).isEqualTo(ExportPhase.DOCUMENTS);
+        assertThat(checkpoint.getLastDocumentId()).isEqualTo(10L);
+        assertThat(checkpoint.getPartsWritten()).isEqualTo(2);
+
+        PatientExportJob job = exporter.export(checkpoint, null);
+
+        assertThat(job.getStatus()).isEqualTo(ExportJobStatus.COMPLETED);
+        assertThat(job.getDocumentsExported()).isEqualTo(2);
+        assertThat(readArchive(exporter.archivePath(job)).keySet()).containsExactly("bundle.json",
+                "documents/10-lab_results.pdf", "documents/12-scan.dcm");
+        verify(consultationClient, times(1)).getConsultations(null, PATIENT_ID);
+    }
+
+    @Test
+    @DisplayName("Should refresh the heartbeat during copies and stop once another worker claims the job")
+    void shouldHeartbeatDuringCopies() throws Exception {
+        stubChart();
+        stubReportServiceDown();
+        ReflectionTestUtils.setField(exporter, "heartbeatInterval", Duration.ZERO);
+        when(jobRepository.save(any(PatientExportJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(jobRepository.touchHeartbeat(eq(7L), any(), any(LocalDateTime.class))).thenReturn(1, 0);
+
+        assertThatThrownBy(() -> exporter.export(newJob(), null))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        // The first document's copy refreshed the heartbeat; the second found the job claimed
+        verify(jobRepository, times(2)).touchHeartbeat(eq(7L), any(), any(LocalDateTime.class));
+        assertThat(exporter.archivePath(newJob())).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Should keep long document names within the tar header")
+    void shouldShortenEntryNames() {
+        String name = TarGzPartWriter.entryName("documents/12-", "x".repeat(200) + ".pdf");
+
+        assertThat(name).hasSize(100).startsWith("documents/12-xxx").endsWith(".pdf");
+    }
+
+    private static Response response(String body) {
+        return Response.builder()
+                .status(200)
+                .request(Request.create(Request.HttpMethod.GET, "http://report-service:8080", Map.of(), null,
+                        StandardCharsets.UTF_8, null))
+                .body(body, StandardCharsets.UTF_8)
+                .build();
+    }
+
+    private PatientExportJob newJob() {
+        LocalDateTime now = LocalDateTime.now();
+        return PatientExportJob.builder()
+                .id(7L)
+                .patientId(PATIENT_ID)
+                .status(ExportJobStatus.RUNNING)
+                .phase(ExportPhase.BUNDLE)
+                .createdAt(now)
+                .heartbeatAt(now)
+                .build();
+    }
+
+    private String store(String content) throws IOException {
+        StoredBlob blob = blobStore.write(
+                Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))),
+                Long.MAX_VALUE);
+        return blob.contentHash();
+    }
+
+    private static MedicalDocument document(Long id, String fileName, String contentHash) {
+        return MedicalDocument.builder()
+                .id(id)
+                .patientId(PATIENT_ID)
+                .fileName(fileName)
+                .fileUrl("blob://sha256/" + contentHash)
+                .documentType(DocumentType.LAB_RESULT)
+                .contentHash(contentHash)
+                .uploadDate(LocalDateTime.of(2024, 5, 1, 12, 0))
+                .build();
+    }
+
+    private static <T> List<T> page(List<T> rows, ToLongFunction<T> id, long afterId, Limit limit) {
+        return rows.stream()
+                .filter(row -> id.applyAsLong(row) > afterId)
+                .limit(limit.max())
+                .toList();
+    }
+
+    private PatientExportJob copy(PatientExportJob job) {
+        return objectMapper.copy()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .convertValue(job, PatientExportJob.class);
+    }
+
+    // Concatenated gzip members read as one stream; entries are read up to the end-of-archive blocks
+    private static Map<String, byte[]> readArchive(Path archive) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archive))) {
+            while (true) {
+                byte[] header = in.readNBytes(512);
+                assertThat(header).hasSize(512);
+                if (header[0] == 0) {
+                    assertThat(in.readNBytes(512)).hasSize(512).containsOnly(0);
+                    assertThat(in.read()).isEqualTo(-1);
+                    return entries;
+                }
+                String name = new String(header, 0, 100, StandardCharsets.US_ASCII).replace("\0", "");
+                int size = Integer.parseInt(new String(header, 124, 11, StandardCharsets.US_ASCII), 8);
+                entries.put(name, in.readNBytes(size));
+                in.skipNBytes((512 - size % 512) % 512);
+            }
+        }
+    }
+}
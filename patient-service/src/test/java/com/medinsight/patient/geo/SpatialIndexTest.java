@@ -0,0 +1,82 @@
+package com.medinsight.patient.geo;
+
+import com.medinsight.patient.dto.GeoPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SpatialIndexTest {
+
+    @Test
+    @DisplayName("nearest matches a brute-force scan, with filter and distance cap")
+    void nearestMatchesBruteForce() {
+        Random random = new Random(7);
+        for (boolean global : new boolean[] {true, false}) {
+            List<SpatialIndex.Entry<Integer>> entries = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                entries.add(new SpatialIndex.Entry<>(i, randomPoint(random, global)));
+            }
+            SpatialIndex<Integer> index = SpatialIndex.build(entries);
+
+            for (int query = 0; query < 200; query++) {
+                GeoPoint origin = randomPoint(random, global);
+                int n = 1 + random.nextInt(20);
+                double maxKm = random.nextBoolean() ? Double.MAX_VALUE : random.nextDouble() * 300;
+
+                List<Double> expected = entries.stream()
+                        .filter(entry -> entry.value() % 3 != 0)
+                        .map(entry -> origin.distanceKm(entry.point()))
+                        .filter(distance -> distance <= maxKm)
+                        .sorted()
+                        .limit(n)
+                        .toList();
+                List<SpatialIndex.Neighbor<Integer>> found = index.nearest(origin, n, maxKm, value -> value % 3 != 0);
+
+                assertThat(found).hasSize(expected.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertThat(found.get(i).distanceKm()).isCloseTo(expected.get(i), within(1e-9));
+                    assertThat(found.get(i).value() % 3).isNotZero();
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("neighbors come back nearest first with their distance")
+    void nearestOrdersByDistance() {
+        GeoPoint casablanca = new GeoPoint(33.5731, -7.5898);
+        GeoPoint rabat = new GeoPoint(34.0209, -6.8416);
+        GeoPoint marrakesh = new GeoPoint(31.6295, -7.9811);
+        SpatialIndex<String> index = SpatialIndex.build(List.of(
+                new SpatialIndex.Entry<>("Marrakesh", marrakesh),
+                new SpatialIndex.Entry<>("Rabat", rabat),
+                new SpatialIndex.Entry<>("Casablanca", casablanca)));
+
+        List<SpatialIndex.Neighbor<String>> found = index.nearest(new GeoPoint(33.6, -7.6), 2, 1000,
+                value -> true);
+
+        assertThat(found).extracting(SpatialIndex.Neighbor::value).containsExactly("Casablanca", "Rabat");
+        assertThat(found.get(1).distanceKm()).isCloseTo(casablanca.distanceKm(rabat), within(10.0));
+    }
+
+    @Test
+    @DisplayName("an empty index finds nothing")
+    void emptyIndex() {
+        SpatialIndex<String> index = SpatialIndex.build(List.of());
+
+        assertThat(index.size()).isZero();
+        assertThat(index.nearest(new GeoPoint(0, 0), 5, Double.MAX_VALUE, value -> true)).isEmpty();
+    }
+
+    private static GeoPoint randomPoint(Random random, boolean global) {
+        return global
+                ? new GeoPoint(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180)
+                : new GeoPoint(30 + random.nextDouble() * 6, -9 + random.nextDouble() * 6);
+    }
+}
@@ -0,0 +1,48 @@
+package com.medinsight.patient.integrity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatientHasherTest {
+
+    private static String legacyHash(String firstName, String lastName, String email, String mrn) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        String dataToHash = firstName + "|" + lastName + "|" + email + "|" + mrn;
+        return Base64.getEncoder().encodeToString(digest.digest(dataToHash.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("Should produce the same hash as the original string-concatenation algorithm")
+    void shouldMatchLegacyHash() throws Exception {
+        String[][] samples = {
+                { "John", "Doe", "john.doe@example.com", "MRN-12345" },
+                { "Zoë", "Ångström", "zoe@example.com", "MRN-ÄÖÜ" },
+                { "李", "小龙", "li@example.com", "MRN-汉字" },
+                { "Emoji😀", "Broken\uD800", "x@example.com", "MRN-\uDC00" },
+                { null, "Doe", null, "MRN-1" },
+                { "A".repeat(1000), "B".repeat(300), "c@example.com", "MRN-long" },
+        };
+        PatientHasher hasher = PatientHasher.current();
+        for (String[] s : samples) {
+            assertThat(hasher.hash(s[0], s[1], s[2], s[3])).isEqualTo(legacyHash(s[0], s[1], s[2], s[3]));
+        }
+    }
+
+    @Test
+    @DisplayName("Should verify matching hashes and reject tampered fields")
+    void shouldVerifyHash() throws Exception {
+        String stored = legacyHash("John", "Doe", "john.doe@example.com", "MRN-12345");
+        PatientHasher hasher = PatientHasher.current();
+
+        assertThat(hasher.matches("John", "Doe", "john.doe@example.com", "MRN-12345", stored)).isTrue();
+        assertThat(hasher.matches("John", "Doe", "john.doe@example.org", "MRN-12345", stored)).isFalse();
+        assertThat(hasher.matches("John", "Doe", "john.doe@example.com", "MRN-12345", null)).isFalse();
+        assertThat(hasher.matches("John", "Doe", "john.doe@example.com", "MRN-12345", "short")).isFalse();
+    }
+}
@@ -0,0 +1,142 @@
+package com.medinsight.patient.integrity;
+
+import com.medinsight.patient.config.IntegrityScanConfig;
+import com.medinsight.patient.dto.PatientHashRow;
+import com.medinsight.patient.entity.IntegrityScanCheckpoint;
+import com.medinsight.patient.event.PatientIntegrityViolationEvent;
+import com.medinsight.patient.repository.IntegrityScanCheckpointRepository;
+import com.medinsight.patient.repository.PatientRepository;
+import com.medinsight.patient.service.PatientIntegrityService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientIntegrityScannerTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private IntegrityScanCheckpointRepository checkpointRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DataSource dataSource;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ThreadPoolExecutor executor;
+    private PatientIntegrityScanner scanner;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        PatientIntegrityService integrityService = new PatientIntegrityService(patientRepository, checkpointRepository);
+        executor = new IntegrityScanConfig().integrityScanExecutor();
+        scanner = new PatientIntegrityScanner(patientRepository, integrityService, checkpointRepository,
+                eventPublisher, dataSource, meterRegistry, executor);
+        ReflectionTestUtils.setField(scanner, "chunkSize", 2);
+        ReflectionTestUtils.setField(scanner, "rowsPerSecond", 0L);
+        ReflectionTestUtils.setField(scanner, "maxRowsPerRun", 10L);
+        ReflectionTestUtils.setField(scanner, "passInterval", Duration.ofHours(6));
+        ReflectionTestUtils.setField(scanner, "maxPoolUtilization", 0.5);
+        lenient().when(checkpointRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("Should resume from the checkpoint, publish mismatches and complete the pass")
+    void shouldScanFromCheckpointAndCompletePass() {
+        IntegrityScanCheckpoint checkpoint = IntegrityScanCheckpoint.builder()
+                .scanName(PatientIntegrityService.PATIENT_SCAN)
+                .lastScannedId(10L)
+                .passStartedAt(LocalDateTime.now().minusMinutes(5))
+                .build();
+        when(checkpointRepository.findById(PatientIntegrityService.PATIENT_SCAN)).thenReturn(Optional.of(checkpoint));
+
+        String goodHash = PatientHasher.current().hash("John", "Doe", "john@example.com", "MRN-11");
+        List<PatientHashRow> chunk = List.of(
+                new PatientHashRow(11L, "John", "Doe", "john@example.com", "MRN-11", goodHash),
+                new PatientHashRow(12L, "Jane", "Smith", "jane@example.com", "MRN-12", "tampered"));
+        when(patientRepository.findHashRows(eq(10L), eq(Long.MAX_VALUE), any(Limit.class))).thenReturn(chunk);
+        when(patientRepository.findHashRows(eq(12L), eq(Long.MAX_VALUE), any(Limit.class))).thenReturn(List.of());
+
+        scanner.runOnce();
+
+        ArgumentCaptor<PatientIntegrityViolationEvent> event = ArgumentCaptor.forClass(PatientIntegrityViolationEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().patientId()).isEqualTo(12L);
+        assertThat(checkpoint.getLastScannedId()).isZero();
+        assertThat(checkpoint.getCompletedPasses()).isEqualTo(1);
+        assertThat(checkpoint.getPassMismatches()).isEqualTo(1);
+        assertThat(checkpoint.getNextPassAt()).isAfter(LocalDateTime.now());
+        assertThat(meterRegistry.counter("patient.integrity.scan.rows").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should wait until the next pass is due")
+    void shouldNotStartPassBeforeItIsDue() {
+        IntegrityScanCheckpoint checkpoint = IntegrityScanCheckpoint.builder()
+                .scanName(PatientIntegrityService.PATIENT_SCAN)
+                .nextPassAt(LocalDateTime.now().plusHours(1))
+                .build();
+        when(checkpointRepository.findById(PatientIntegrityService.PATIENT_SCAN)).thenReturn(Optional.of(checkpoint));
+
+        scanner.runOnce();
+
+        verify(patientRepository, never()).findHashRows(anyLong(), anyLong(), any(Limit.class));
+        verify(checkpointRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should run off the scheduling thread and drop ticks while a run is in progress")
+    void shouldRunOnItsOwnExecutor() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(checkpointRepository.findById(PatientIntegrityService.PATIENT_SCAN)).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(IntegrityScanCheckpoint.builder()
+                    .scanName(PatientIntegrityService.PATIENT_SCAN)
+                    .nextPassAt(LocalDateTime.now().plusHours(1))
+                    .build());
+        });
+
+        scanner.scan();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        scanner.scan();
+        release.countDown();
+        executor.shutdown();
+
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(thread.get()).startsWith("integrity-scan-");
+        verify(checkpointRepository, times(1)).findById(PatientIntegrityService.PATIENT_SCAN);
+    }
+}
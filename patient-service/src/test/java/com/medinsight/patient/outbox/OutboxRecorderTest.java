@@ -0,0 +1,97 @@
+package com.medinsight.patient.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.medinsight.patient.entity.OutboxEvent;
+import com.medinsight.patient.entity.Patient;
+import com.medinsight.patient.enums.OutboxAggregateType;
+import com.medinsight.patient.enums.OutboxEventType;
+import com.medinsight.patient.repository.OutboxJdbcRepository;
+import com.medinsight.patient.repository.PatientJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRecorderTest {
+
+    @Mock
+    private OutboxJdbcRepository outboxJdbcRepository;
+
+    @Mock
+    private PatientJdbcRepository patientJdbcRepository;
+
+    private OutboxRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        recorder = new OutboxRecorder(outboxJdbcRepository, patientJdbcRepository,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    @DisplayName("Should lock the patient before taking an outbox id")
+    void shouldLockPatientBeforeInserting() {
+        recorder.record(OutboxAggregateType.MEDICAL_HISTORY, 9L, 1L, OutboxEventType.CREATED, patient("MRN-1"));
+
+        InOrder order = inOrder(patientJdbcRepository, outboxJdbcRepository);
+        order.verify(patientJdbcRepository).lockPatient(1L);
+        order.verify(outboxJdbcRepository).insert(any(OutboxEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should record rows with a positive count and skip duplicates")
+    @SuppressWarnings("unchecked")
+    void shouldRecordInsertedRows() {
+        List<Patient> patients = List.of(patient("MRN-1"), patient("MRN-2"));
+        when(patientJdbcRepository.findIdsByMedicalRecordNumbers(List.of("MRN-1"))).thenReturn(Map.of("MRN-1", 1L));
+
+        recorder.recordImported(patients, new int[] { 1, 0 });
+
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxJdbcRepository).insertBatch(events.capture());
+        assertThat(events.getValue()).extracting(OutboxEvent::getAggregateId).containsExactly(1L);
+        verify(patientJdbcRepository).findIdsInsertedInCurrentTransaction(List.of());
+    }
+
+    @Test
+    @DisplayName("Should only record SUCCESS_NO_INFO rows that this transaction inserted")
+    @SuppressWarnings("unchecked")
+    void shouldRecheckRowsWithoutCounts() {
+        List<Patient> patients = List.of(patient("MRN-1"), patient("MRN-2"));
+        when(patientJdbcRepository.findIdsInsertedInCurrentTransaction(List.of("MRN-1", "MRN-2")))
+                .thenReturn(Map.of("MRN-2", 2L));
+
+        recorder.recordImported(patients, new int[] { Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO });
+
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxJdbcRepository).insertBatch(events.capture());
+        assertThat(events.getValue()).extracting(OutboxEvent::getAggregateId).containsExactly(2L);
+        verify(patientJdbcRepository).findIdsByMedicalRecordNumbers(List.of());
+    }
+
+    @Test
+    @DisplayName("Should record nothing when every row was a duplicate")
+    void shouldSkipWhenNothingInserted() {
+        recorder.recordImported(List.of(patient("MRN-1")), new int[] { 0 });
+
+        verify(outboxJdbcRepository, never()).insertBatch(anyList());
+    }
+
+    private static Patient patient(String medicalRecordNumber) {
+        return Patient.builder().medicalRecordNumber(medicalRecordNumber).build();
+    }
+}
@@ -0,0 +1,128 @@
+package com.medinsight.patient.outbox;
+
+import com.medinsight.patient.dto.OutboxMessage;
+import com.medinsight.patient.entity.OutboxEvent;
+import com.medinsight.patient.enums.OutboxAggregateType;
+import com.medinsight.patient.enums.OutboxEventType;
+import com.medinsight.patient.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxTransport outboxTransport;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxEventRepository, outboxTransport, transactionTemplate, meterRegistry);
+        ReflectionTestUtils.setField(relay, "batchSize", 3);
+        ReflectionTestUtils.setField(relay, "maxLag", Duration.ofMinutes(1));
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Should publish full batches in order and delete them until the outbox is drained")
+    @SuppressWarnings("unchecked")
+    void shouldDrainInBatches() {
+        when(outboxEventRepository.findNextBatch(Limit.of(3)))
+                .thenReturn(List.of(event(1L, 10L), event(2L, 11L), event(3L, 10L)))
+                .thenReturn(List.of(event(4L, 12L)));
+        when(outboxTransport.publish(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        relay.relay();
+
+        ArgumentCaptor<List<OutboxMessage>> published = ArgumentCaptor.forClass(List.class);
+        verify(outboxTransport, times(2)).publish(published.capture());
+        assertThat(published.getAllValues().get(0)).extracting(OutboxMessage::sequence).containsExactly(1L, 2L, 3L);
+        assertThat(published.getAllValues().get(0)).extracting(OutboxMessage::patientId)
+                .containsExactly(10L, 11L, 10L);
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(4L));
+        assertThat(meterRegistry.get("patient.outbox.published").counter().count()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should delete only the acknowledged prefix and retry the rest on the next run")
+    void shouldKeepUnacknowledgedEvents() {
+        when(outboxEventRepository.findNextBatch(Limit.of(3)))
+                .thenReturn(List.of(event(1L, 10L), event(2L, 11L), event(3L, 10L)));
+        when(outboxTransport.publish(anyList())).thenReturn(1);
+
+        relay.relay();
+
+        verify(outboxTransport, times(1)).publish(anyList());
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+        assertThat(meterRegistry.get("patient.outbox.failures").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep the whole batch when the transport throws")
+    void shouldKeepBatchOnTransportError() {
+        when(outboxEventRepository.findNextBatch(Limit.of(3))).thenReturn(List.of(event(1L, 10L)));
+        when(outboxTransport.publish(anyList())).thenThrow(new IllegalStateException("broker down"));
+
+        relay.relay();
+
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+        assertThat(meterRegistry.get("patient.outbox.failures").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should report the age of the oldest pending event as lag")
+    void shouldReportLag() {
+        when(outboxEventRepository.findNextBatch(Limit.of(3))).thenReturn(List.of());
+        when(outboxEventRepository.findOldestCreatedAt()).thenReturn(LocalDateTime.now().minusSeconds(90));
+        when(outboxEventRepository.count()).thenReturn(42L);
+
+        relay.relay();
+
+        assertThat(meterRegistry.get("patient.outbox.lag").timeGauge().value(TimeUnit.SECONDS))
+                .isGreaterThanOrEqualTo(90);
+        assertThat(meterRegistry.get("patient.outbox.pending").gauge().value()).isEqualTo(42);
+    }
+
+    private static OutboxEvent event(Long id, Long patientId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType(OutboxAggregateType.PATIENT)
+                .aggregateId(patientId)
+                .patientId(patientId)
+                .eventType(OutboxEventType.UPDATED)
+                .payload("{}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.medinsight.patient.search;
+
+import com.medinsight.patient.dto.PatientIndexRow;
+import com.medinsight.patient.dto.PatientSearchHit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatientSearchIndexTest {
+
+    @TempDir
+    Path indexPath;
+
+    private PatientSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        index = new PatientSearchIndex(indexPath);
+        index.indexAll(List.of(
+                row(1L, "MRN-001", "John", "Smith", "john.smith@example.com", "+1 (555) 123-4567"),
+                row(2L, "MRN-002", "José", "García", "jose@example.com", null),
+                row(3L, "MRN-103", "Jane", "Doe", "jane@example.com", "555-987-6543")));
+        index.refresh();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    @DisplayName("Should match name prefixes across first and last name")
+    void shouldMatchNamePrefix() {
+        assertThat(ids("jo sm", true, true)).containsExactly(1L);
+        assertThat(ids("ja", false, false)).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Should match misspelled and accented names")
+    void shouldMatchFuzzyAndFolded() {
+        assertThat(ids("jhon", true, false)).containsExactly(1L);
+        assertThat(ids("jhon", false, false)).isEmpty();
+        assertThat(ids("jose garcia", false, false)).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should match names that sound alike")
+    void shouldMatchPhonetically() {
+        assertThat(ids("smyth", false, true)).containsExactly(1L);
+        assertThat(ids("smyth", false, false)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should match MRN, email and phone prefixes")
+    void shouldMatchKeywordPrefixes() {
+        assertThat(ids("mrn-00", false, false)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids("jane@", false, false)).containsExactly(3L);
+        assertThat(ids("555 123", false, false)).containsExactly(1L);
+        assertThat(ids("(555) 987", false, false)).containsExactly(3L);
+
+        List<PatientSearchHit> hits = index.search(PatientSearchIndex.buildQuery("mrn-103", false, false), 10);
+        assertThat(hits.get(0).dateOfBirth()).isEqualTo(LocalDate.of(1980, 1, 1));
+        assertThat(hits.get(0).phoneNumber()).isEqualTo("555-987-6543");
+    }
+
+    @Test
+    @DisplayName("Should drop deleted patients and those missing from a rebuild")
+    void shouldApplyDeletesAndRebuildGenerations() {
+        index.index(new PatientIndexRow(3L, "MRN-103", "Jane", "Doe", "jane@example.com", null,
+                LocalDate.of(1980, 1, 1), true, LocalDateTime.now()));
+        index.refresh();
+        assertThat(ids("jane", false, false)).isEmpty();
+
+        long generation = index.startGeneration();
+        index.index(row(1L, "MRN-001", "John", "Smith", "john.smith@example.com", null));
+        index.finishGeneration(generation);
+
+        assertThat(index.documentCount()).isEqualTo(1);
+        assertThat(ids("jose", false, false)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep the sync watermark across a restart")
+    void shouldPersistWatermark() throws Exception {
+        LocalDateTime synced = LocalDateTime.of(2024, 5, 1, 12, 0);
+        index.advanceSyncedThrough(synced);
+        index.advanceSyncedThrough(synced.minusHours(1));
+        index.close();
+
+        index = new PatientSearchIndex(indexPath);
+
+        assertThat(index.isNew()).isFalse();
+        assertThat(index.getSyncedThrough()).isEqualTo(synced);
+        assertThat(index.documentCount()).isEqualTo(3);
+    }
+
+    private List<Long> ids(String text, boolean fuzzy, boolean phonetic) {
+        return index.search(PatientSearchIndex.buildQuery(text, fuzzy, phonetic), 10).stream()
+                .map(PatientSearchHit::id)
+                .toList();
+    }
+
+    private static PatientIndexRow row(Long id, String mrn, String firstName, String lastName, String email,
+            String phone) {
+        return new PatientIndexRow(id, mrn, firstName, lastName, email, phone, LocalDate.of(1980, 1, 1), false,
+                LocalDateTime.now());
+    }
+}
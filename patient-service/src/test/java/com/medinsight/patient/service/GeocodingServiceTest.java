@@ -0,0 +1,96 @@
+package com.medinsight.patient.service;
+
+import com.medinsight.patient.dto.GeocodeResult;
+import com.medinsight.patient.dto.NormalizedAddress;
+import com.medinsight.patient.enums.GeocodePrecision;
+import com.medinsight.patient.geo.AddressNormalizer;
+import com.medinsight.patient.geo.Gazetteer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class GeocodingServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private Gazetteer gazetteer;
+    private GeocodingService geocodingService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = directory.resolve("postal-codes.txt");
+        Files.writeString(file, String.join("\n",
+                "MA\t20250\tCasablanca\tGrand Casablanca\t\t\t\t\t\t33.5731\t-7.5898\t4",
+                "MA\t20000\tCasablanca\tGrand Casablanca\t\t\t\t\t\t33.5931\t-7.6198\t4",
+                "MA\t10000\tRabat\tRabat-Salé\t\t\t\t\t\t34.0209\t-6.8416\t4",
+                "FR\t75001\tParis\tÎle-de-France\t\t\t\t\t\t48.8625\t2.3364\t4",
+                "broken line"));
+        gazetteer = spy(new Gazetteer(file, List.of("Morocco", "FR")));
+        geocodingService = new GeocodingService(gazetteer,
+                new ConcurrentMapCacheManager(GeocodingService.GEOCODE_CACHE));
+    }
+
+    @Test
+    @DisplayName("normalization folds case, accents, punctuation, street words and country names")
+    void normalizesAddresses() {
+        NormalizedAddress first = AddressNormalizer.normalize("12, Boulevard d'Anfa", "casablanca", "20 250",
+                "Maroc");
+        NormalizedAddress second = AddressNormalizer.normalize("12 BD D ANFA", "Casablanca ", "20250", "Morocco");
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first.country()).isEqualTo("MA");
+        assertThat(AddressNormalizer.normalizeText("Île-de-France")).isEqualTo("ILE DE FRANCE");
+    }
+
+    @Test
+    @DisplayName("geocodes by postal code, then by city centroid")
+    void geocodesByPostalCodeThenCity() {
+        GeocodeResult byZip = geocodingService.geocode("1 Rue X", "Rabat", "10000", "MA");
+        GeocodeResult byCity = geocodingService.geocode("1 Rue Y", "Casablanca", "99999", "Morocco");
+        GeocodeResult paris = geocodingService.geocode("5 Rue de Rivoli", "Paris", "75001", "France");
+
+        assertThat(byZip.precision()).isEqualTo(GeocodePrecision.POSTAL_CODE);
+        assertThat(byZip.point().latitude()).isEqualTo(34.0209);
+        assertThat(byCity.precision()).isEqualTo(GeocodePrecision.CITY);
+        assertThat(byCity.point().latitude()).isCloseTo(33.5831, within(1e-9));
+        assertThat(paris.resolved()).isTrue();
+        assertThat(gazetteer.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("repeated lookups of the same normalized address, hits or misses, are served from the cache")
+    void cachesByNormalizedAddress() {
+        geocodingService.geocode("12, Boulevard d'Anfa", "Casablanca", "20250", "Maroc");
+        GeocodeResult cached = geocodingService.geocode("12 bd d anfa", "CASABLANCA", "20 250", "MA");
+        geocodingService.geocode("Nowhere", "Atlantis", "00000", "MA");
+        GeocodeResult miss = geocodingService.geocode("nowhere", "atlantis", "00000", "Morocco");
+
+        assertThat(cached.precision()).isEqualTo(GeocodePrecision.POSTAL_CODE);
+        assertThat(miss).isEqualTo(GeocodeResult.UNRESOLVED);
+        verify(gazetteer, times(2)).lookup(any());
+    }
+
+    @Test
+    @DisplayName("a missing gazetteer file leaves every address unresolved")
+    void missingGazetteer() {
+        Gazetteer empty = new Gazetteer(directory.resolve("absent.txt"), List.of());
+
+        assertThat(empty.lookup(AddressNormalizer.normalize("1 Main St", "Rabat", "10000", "MA")))
+                .isEqualTo(GeocodeResult.UNRESOLVED);
+    }
+}
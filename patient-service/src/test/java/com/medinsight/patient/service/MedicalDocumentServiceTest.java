@@ -0,0 +1,147 @@
+package com.medinsight.patient.service;
+
+import com.medinsight.patient.dto.BlobUsage;
+import com.medinsight.patient.dto.DocumentStorageStats;
+import com.medinsight.patient.entity.MedicalDocument;
+import com.medinsight.patient.enums.DocumentType;
+import com.medinsight.patient.repository.DocumentBlobRepository;
+import com.medinsight.patient.repository.MedicalDocumentRepository;
+import com.medinsight.patient.repository.PatientRepository;
+import com.medinsight.patient.storage.BlobStore;
+import com.medinsight.patient.storage.StoredBlob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MedicalDocumentServiceTest {
+
+    private static final String HASH = "c".repeat(64);
+
+    @Mock
+    private MedicalDocumentRepository medicalDocumentRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private DocumentBlobRepository documentBlobRepository;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private MedicalDocumentService medicalDocumentService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        medicalDocumentService = new MedicalDocumentService(medicalDocumentRepository, patientRepository,
+                documentBlobRepository, blobStore, transactionTemplate);
+        ReflectionTestUtils.setField(medicalDocumentService, "maxSize", DataSize.ofMegabytes(1));
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Should take a blob reference when saving an uploaded document")
+    void shouldAcquireReferenceOnUpload() throws Exception {
+        when(patientRepository.existsById(1L)).thenReturn(true);
+        when(blobStore.write(any(), eq(DataSize.ofMegabytes(1).toBytes()))).thenReturn(new StoredBlob(HASH, 3, false));
+        when(blobStore.exists(HASH)).thenReturn(true);
+        when(medicalDocumentRepository.save(any(MedicalDocument.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Optional<MedicalDocument> document = medicalDocumentService.upload(1L, "lab.pdf", DocumentType.LAB_RESULT,
+                "application/pdf", content());
+
+        assertThat(document).isPresent();
+        assertThat(document.get().getContentHash()).isEqualTo(HASH);
+        assertThat(document.get().getFileUrl()).isEqualTo("blob://sha256/" + HASH);
+        verify(documentBlobRepository).acquire(eq(HASH), eq(3L), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should not read the body when the patient does not exist")
+    void shouldSkipUploadForUnknownPatient() throws Exception {
+        when(patientRepository.existsById(1L)).thenReturn(false);
+
+        assertThat(medicalDocumentService.upload(1L, "lab.pdf", DocumentType.LAB_RESULT, null, content())).isEmpty();
+
+        verify(blobStore, never()).write(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should hand a newly written blob to the collector when saving the document fails")
+    void shouldRegisterOrphanWhenSaveFails() throws Exception {
+        when(patientRepository.existsById(1L)).thenReturn(true);
+        when(blobStore.write(any(), anyLong())).thenReturn(new StoredBlob(HASH, 3, true));
+        when(blobStore.exists(HASH)).thenReturn(true);
+        when(medicalDocumentRepository.save(any(MedicalDocument.class)))
+                .thenThrow(new DataIntegrityViolationException("boom"));
+
+        assertThatThrownBy(() -> medicalDocumentService.upload(1L, "lab.pdf", DocumentType.LAB_RESULT, null,
+                content())).isInstanceOf(DataIntegrityViolationException.class);
+
+        verify(documentBlobRepository).registerUnreferenced(eq(HASH), eq(3L), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should release the blob reference when a document is deleted")
+    void shouldReleaseReferenceOnDelete() {
+        MedicalDocument document = MedicalDocument.builder().id(5L).patientId(1L).contentHash(HASH).build();
+        when(medicalDocumentRepository.findById(5L)).thenReturn(Optional.of(document));
+
+        assertThat(medicalDocumentService.deleteDocument(1L, 5L)).isTrue();
+        assertThat(medicalDocumentService.deleteDocument(2L, 5L)).isFalse();
+
+        verify(medicalDocumentRepository, times(1)).delete(document);
+        verify(documentBlobRepository, times(1)).release(eq(HASH), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should report the dedup ratio over referenced blobs")
+    void shouldComputeStorageStats() {
+        // 3 blobs on disk (1 awaiting collection), 5 documents referencing 2 of them
+        when(documentBlobRepository.summarize()).thenReturn(new BlobUsage(3, 700, 1200, 5, 1, 100));
+
+        DocumentStorageStats stats = medicalDocumentService.getStorageStats();
+
+        assertThat(stats.getDocuments()).isEqualTo(5);
+        assertThat(stats.getBlobs()).isEqualTo(2);
+        assertThat(stats.getStoredBytes()).isEqualTo(600);
+        assertThat(stats.getSavedBytes()).isEqualTo(600);
+        assertThat(stats.getDedupRatio()).isEqualTo(2.0);
+        assertThat(stats.getReclaimableBytes()).isEqualTo(100);
+    }
+
+    private static InputStream content() {
+        return new ByteArrayInputStream(new byte[] { 1, 2, 3 });
+    }
+}
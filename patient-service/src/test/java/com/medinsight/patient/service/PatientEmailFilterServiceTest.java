@@ -0,0 +1,131 @@
+package com.medinsight.patient.service;
+
+import com.medinsight.patient.dto.PatientEmailRow;
+import com.medinsight.patient.repository.PatientJdbcRepository;
+import com.medinsight.patient.repository.PatientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientEmailFilterServiceTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PatientJdbcRepository patientJdbcRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PatientEmailFilterService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new PatientEmailFilterService(patientRepository, patientJdbcRepository, meterRegistry, 100, 0.01);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "overlap", Duration.ofSeconds(30));
+    }
+
+    @Test
+    @DisplayName("Should ask the database until the filter is loaded")
+    void shouldFallThroughBeforeLoad() {
+        when(patientRepository.existsByEmail("new@example.com")).thenReturn(false);
+
+        assertThat(service.existsByEmail("new@example.com")).isFalse();
+
+        verify(patientRepository).existsByEmail("new@example.com");
+        assertThat(checks("unloaded")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should answer absent emails without querying and confirm present ones")
+    void shouldShortCircuitNegatives() {
+        loadEmails("a@example.com", "b@example.com", "c@example.com");
+        when(patientRepository.existsByEmail("b@example.com")).thenReturn(true);
+
+        assertThat(service.existsByEmail("b@example.com")).isTrue();
+        for (int i = 0; i < 50; i++) {
+            service.existsByEmail("absent-" + i + "@example.com");
+        }
+
+        verify(patientRepository).existsByEmail("b@example.com");
+        assertThat(checks("confirmed")).isEqualTo(1);
+        assertThat(checks("negative") + checks("false_positive")).isEqualTo(50);
+        assertThat(meterRegistry.get("membership.filter.false.positive.rate").gauge().value())
+                .isEqualTo(checks("false_positive") / 50);
+    }
+
+    @Test
+    @DisplayName("Should see emails added locally and those synced from other writers")
+    void shouldAddAndSyncEmails() {
+        loadEmails("a@example.com");
+        when(patientRepository.existsByEmail(anyString())).thenReturn(true);
+        LocalDateTime now = LocalDateTime.now();
+        when(patientJdbcRepository.findEmailRowsChangedSince(any(), eq(0L), eq(2)))
+                .thenReturn(List.of(new PatientEmailRow(7L, "imported@example.com", now)));
+        when(patientJdbcRepository.findEmailRowsChangedSince(now, 7L, 2)).thenReturn(List.of());
+
+        service.add("local@example.com");
+        int synced = service.syncChanges();
+
+        assertThat(synced).isEqualTo(1);
+        assertThat(service.existsByEmail("local@example.com")).isTrue();
+        assertThat(service.existsByEmail("imported@example.com")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should grow past the expected size without losing emails")
+    void shouldGrowBeyondExpectedSize() {
+        String[] emails = IntStream.range(0, 1000).mapToObj(i -> "patient" + i + "@example.com")
+                .toArray(String[]::new);
+        loadEmails(emails);
+        when(patientRepository.existsByEmail(anyString())).thenReturn(true);
+
+        for (String email : emails) {
+            assertThat(service.existsByEmail(email)).isTrue();
+        }
+        assertThat(checks("negative")).isZero();
+        assertThat(meterRegistry.get("membership.filter.keys").gauge().value()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Should drop deleted emails on rebuild")
+    void shouldDropDeletedEmailsOnRebuild() {
+        loadEmails("a@example.com", "gone@example.com");
+        loadEmails("a@example.com");
+
+        assertThat(service.existsByEmail("gone@example.com")).isFalse();
+        verify(patientRepository, never()).existsByEmail(anyString());
+    }
+
+    private void loadEmails(String... emails) {
+        List<PatientEmailRow> rows = IntStream.range(0, emails.length)
+                .mapToObj(i -> new PatientEmailRow(i + 1L, emails[i], LocalDateTime.now()))
+                .toList();
+        reset(patientJdbcRepository);
+        when(patientJdbcRepository.findEmailRows(anyLong(), eq(2))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            return rows.stream().filter(row -> row.id() > afterId).limit(2).toList();
+        });
+        service.rebuild();
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("membership.filter.checks").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,112 @@
+package com.medinsight.patient.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medinsight.patient.dto.BulkImportResult;
+import com.medinsight.patient.entity.Patient;
+import com.medinsight.patient.enums.ImportFormat;
+import com.medinsight.patient.listener.DataIntegrityListener;
+import com.medinsight.patient.outbox.OutboxRecorder;
+import com.medinsight.patient.repository.PatientJdbcRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientImportServiceTest {
+
+    private static final String HEADER = "userId,medicalRecordNumber,firstName,lastName,email,dateOfBirth,gender";
+
+    @Mock
+    private PatientJdbcRepository patientJdbcRepository;
+
+    @Mock
+    private OutboxRecorder outboxRecorder;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private PatientImportService patientImportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        patientImportService = new PatientImportService(patientJdbcRepository, outboxRecorder, transactionTemplate,
+                Validation.buildDefaultValidatorFactory().getValidator(), objectMapper);
+        ReflectionTestUtils.setField(patientImportService, "batchSize", 2);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Should import valid CSV rows in batches and report invalid and duplicate rows")
+    @SuppressWarnings("unchecked")
+    void shouldImportCsvAndReportRowErrors() throws Exception {
+        String csv = HEADER + "\n"
+                + "0b0e6a4e-8f8b-4c43-9e1a-1d8c4f6b2a01,MRN-1,John,Doe,john@example.com,1990-01-01,MALE\n"
+                + "0b0e6a4e-8f8b-4c43-9e1a-1d8c4f6b2a02,MRN-2,Jane,Smith,not-an-email,1991-02-02,FEMALE\n"
+                + "0b0e6a4e-8f8b-4c43-9e1a-1d8c4f6b2a03,MRN-3,\"O'Brien, Jr\",Max,max@example.com,1992-03-03,MALE\n";
+        when(patientJdbcRepository.insertBatch(anyList()))
+                .thenReturn(new int[] { 1 })
+                .thenReturn(new int[] { 0 });
+
+        BulkImportResult result = patientImportService.importPatients(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting("line").containsExactlyInAnyOrder(3L, 4L);
+
+        ArgumentCaptor<List<Patient>> batches = ArgumentCaptor.forClass(List.class);
+        verify(patientJdbcRepository, times(2)).insertBatch(batches.capture());
+        Patient imported = batches.getAllValues().get(0).get(0);
+        assertThat(imported.getDataHash()).isEqualTo(DataIntegrityListener.hash(imported));
+        assertThat(batches.getAllValues().get(1).get(0).getFirstName()).isEqualTo("O'Brien, Jr");
+        verify(outboxRecorder).recordImported(batches.getAllValues().get(0), new int[] { 1 });
+    }
+
+    @Test
+    @DisplayName("Should fall back to row-by-row inserts when a batch fails")
+    void shouldRetryRowByRowWhenBatchFails() throws Exception {
+        String ndjson = """
+                {"userId":"0b0e6a4e-8f8b-4c43-9e1a-1d8c4f6b2a01","medicalRecordNumber":"MRN-1","firstName":"John","lastName":"Doe","email":"john@example.com","dateOfBirth":"1990-01-01","gender":"MALE"}
+                {"userId":"0b0e6a4e-8f8b-4c43-9e1a-1d8c4f6b2a02","medicalRecordNumber":"MRN-2","firstName":"Jane","lastName":"Smith","email":"jane@example.com","dateOfBirth":"1991-02-02","gender":"FEMALE"}
+                """;
+        when(patientJdbcRepository.insertBatch(anyList()))
+                .thenThrow(new DataIntegrityViolationException("batch failed"))
+                .thenReturn(new int[] { 1 })
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+
+        BulkImportResult result = patientImportService.importPatients(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors().get(0).getLine()).isEqualTo(2L);
+        assertThat(result.getErrors().get(0).getMessage()).contains("value too long");
+    }
+
+    @Test
+    @DisplayName("Should split quoted CSV cells")
+    void shouldSplitQuotedCsv() {
+        assertThat(PatientImportService.splitCsv("a,\"b, c\",\"d \"\"e\"\"\",")).containsExactly("a", "b, c", "d \"e\"", "");
+    }
+}
@@ -0,0 +1,53 @@
+package com.medinsight.patient.service;
+
+import com.medinsight.patient.dto.IntegrityVerificationResult;
+import com.medinsight.patient.dto.PatientHashRow;
+import com.medinsight.patient.integrity.PatientHasher;
+import com.medinsight.patient.repository.IntegrityScanCheckpointRepository;
+import com.medinsight.patient.repository.PatientRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PatientIntegrityServiceTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private IntegrityScanCheckpointRepository checkpointRepository;
+
+    @InjectMocks
+    private PatientIntegrityService patientIntegrityService;
+
+    private static PatientHashRow row(long id, String email, boolean tampered) {
+        String hash = PatientHasher.current().hash("John", "Doe", email, "MRN-" + id);
+        return new PatientHashRow(id, "John", "Doe", tampered ? "evil@example.com" : email, "MRN-" + id, hash);
+    }
+
+    @Test
+    @DisplayName("Should report patients whose stored hash no longer matches")
+    void shouldVerifyRange() {
+        Limit page = Limit.of(PatientIntegrityService.VERIFY_PAGE_SIZE);
+        when(patientRepository.findHashRows(0L, 10L, page))
+                .thenReturn(List.of(row(1, "a@example.com", false), row(2, "b@example.com", true),
+                        row(3, "c@example.com", false)));
+        when(patientRepository.findHashRows(3L, 10L, page)).thenReturn(List.of());
+
+        IntegrityVerificationResult result = patientIntegrityService.verifyRange(1, 10);
+
+        assertThat(result.getScanned()).isEqualTo(3);
+        assertThat(result.getMismatched()).isEqualTo(1);
+        assertThat(result.getMismatchedIds()).containsExactly(2L);
+    }
+}
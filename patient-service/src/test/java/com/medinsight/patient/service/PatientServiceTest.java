@@ -1,5 +1,8 @@
 package com.medinsight.patient.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medinsight.patient.cache.PatientCache;
+import com.medinsight.patient.dto.KeysetPage;
 import com.medinsight.patient.entity.Patient;
 import com.medinsight.patient.enums.Gender;
 import com.medinsight.patient.repository.PatientRepository;
@@ -9,7 +12,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -18,6 +24,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -27,6 +34,15 @@ class PatientServiceTest {
     @Mock
     private PatientRepository patientRepository;
 
+    @Mock
+    private PatientCache patientCache;
+
+    @Mock
+    private PatientEmailFilterService patientEmailFilterService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @InjectMocks
     private PatientService patientService;
 
@@ -47,6 +63,7 @@ class PatientServiceTest {
                 .medicalRecordNumber("MRN-12345")
                 .portalActive(true)
                 .deleted(false)
+                .version(5L)
                 .build();
     }
 
@@ -60,6 +77,7 @@ class PatientServiceTest {
         assertThat(created).isNotNull();
         assertThat(created.getFirstName()).isEqualTo("John");
         verify(patientRepository, times(1)).save(any(Patient.class));
+        verify(patientEmailFilterService).add("john.doe@example.com");
     }
 
     @Test
@@ -71,15 +89,113 @@ class PatientServiceTest {
 
         assertThat(found).isPresent();
         assertThat(found.get().getId()).isEqualTo(1L);
+        verify(patientCache).put(testPatient, 0L);
+    }
+
+    @Test
+    @DisplayName("Should serve patient from cache without hitting the repository")
+    void shouldGetPatientByIdFromCache() {
+        when(patientCache.getById(1L)).thenReturn(testPatient);
+
+        Optional<Patient> found = patientService.getPatientById(1L);
+
+        assertThat(found).contains(testPatient);
+        verify(patientRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should evict old and new cache aliases on update")
+    void shouldEvictCacheOnUpdate() {
+        Patient details = Patient.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.new@example.com")
+                .dateOfBirth(testPatient.getDateOfBirth())
+                .gender(Gender.MALE)
+                .build();
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
+        when(patientRepository.save(testPatient)).thenReturn(testPatient);
+
+        patientService.updatePatient(1L, details, null);
+
+        verify(patientCache, times(2)).evict(testPatient);
+    }
+
+    @Test
+    @DisplayName("Should return keyset page with next cursor when more rows exist")
+    void shouldGetPatientsPage() {
+        Patient second = Patient.builder().id(2L).firstName("Jane").build();
+        Patient third = Patient.builder().id(3L).firstName("Max").build();
+        when(patientRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+                .thenReturn(Arrays.asList(testPatient, second, third));
+
+        KeysetPage<Patient> page = patientService.getPatientsPage(null, 2);
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getNextCursor()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Should return last keyset page without cursor")
+    void shouldGetLastPatientsPage() {
+        when(patientRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(51)))
+                .thenReturn(List.of());
+
+        KeysetPage<Patient> page = patientService.getPatientsPage(1L, null);
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject an update made against a stale version")
+    void shouldRejectStaleUpdate() {
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
+
+        assertThatThrownBy(() -> patientService.updatePatient(1L, Patient.builder().build(), 4L))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(testPatient.getFirstName()).isEqualTo("John");
+        verify(patientRepository, never()).save(any());
     }
 
     @Test
-    @DisplayName("Should get all patients")
-    void shouldGetAllPatients() {
-        when(patientRepository.findAll()).thenReturn(Arrays.asList(testPatient));
+    @DisplayName("Should merge-patch only the fields present")
+    void shouldPatchPatient() throws Exception {
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
+
+        Patient patched = patientService.patchPatient(1L,
+                objectMapper.readTree("{\"email\":\"john.new@example.com\",\"bloodType\":null,"
+                        + "\"dateOfBirth\":\"1991-02-03\"}"),
+                5L);
+
+        assertThat(patched.getEmail()).isEqualTo("john.new@example.com");
+        assertThat(patched.getBloodType()).isNull();
+        assertThat(patched.getDateOfBirth()).isEqualTo(LocalDate.of(1991, 2, 3));
+        assertThat(patched.getFirstName()).isEqualTo("John");
+        assertThat(patched.getMedicalRecordNumber()).isEqualTo("MRN-12345");
+        verify(patientEmailFilterService).add("john.new@example.com");
+        verify(patientRepository, never()).save(any());
+    }
 
-        List<Patient> patients = patientService.getAllPatients();
+    @Test
+    @DisplayName("Should reject patches to protected or required fields")
+    void shouldRejectInvalidPatch() throws Exception {
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
 
-        assertThat(patients).hasSize(1);
+        assertThatThrownBy(() -> patientService.patchPatient(1L,
+                objectMapper.readTree("{\"medicalRecordNumber\":\"MRN-1\"}"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> patientService.patchPatient(1L,
+                objectMapper.readTree("{\"lastName\":null}"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> patientService.patchPatient(1L,
+                objectMapper.readTree("[]"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(testPatient.getMedicalRecordNumber()).isEqualTo("MRN-12345");
+        assertThat(testPatient.getLastName()).isEqualTo("Doe");
     }
 }
@@ -0,0 +1,163 @@
+package com.medinsight.patient.service;
+
+import com.medinsight.patient.client.ConsultationClient;
+import com.medinsight.patient.dto.ConsultationSummary;
+import com.medinsight.patient.dto.MedicalDocumentSummary;
+import com.medinsight.patient.dto.MedicalHistorySummary;
+import com.medinsight.patient.dto.PatientTimelineResponse;
+import com.medinsight.patient.dto.TimelineEntry;
+import com.medinsight.patient.enums.DocumentType;
+import com.medinsight.patient.enums.HistoryStatus;
+import com.medinsight.patient.enums.HistoryType;
+import com.medinsight.patient.enums.TimelineEntryType;
+import com.medinsight.patient.event.PatientTimelineChangedEvent;
+import com.medinsight.patient.repository.MedicalDocumentRepository;
+import com.medinsight.patient.repository.MedicalHistoryRepository;
+import com.medinsight.patient.repository.MedicalRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientTimelineServiceTest {
+
+    private static final String TOKEN = "Bearer token";
+
+    @Mock
+    private MedicalHistoryRepository medicalHistoryRepository;
+
+    @Mock
+    private MedicalDocumentRepository medicalDocumentRepository;
+
+    @Mock
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Mock
+    private ConsultationClient consultationClient;
+
+    private ExecutorService executor;
+    private PatientTimelineService patientTimelineService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        patientTimelineService = new PatientTimelineService(medicalHistoryRepository, medicalDocumentRepository,
+                medicalRecordRepository, consultationClient,
+                new ConcurrentMapCacheManager(PatientTimelineService.TIMELINE_CACHE), executor);
+        ReflectionTestUtils.setField(patientTimelineService, "fanoutTimeout", Duration.ofSeconds(5));
+
+        ReflectionTestUtils.setField(patientTimelineService, "maxEntriesPerSource", 200);
+
+        when(medicalHistoryRepository.findPortalSummaries(eq(1L), any(Limit.class))).thenReturn(List.of(
+                new MedicalHistorySummary(10L, HistoryType.DISEASE, "Asthma", LocalDate.of(2020, 1, 1), null,
+                        HistoryStatus.ACTIVE)));
+        when(medicalDocumentRepository.findPortalSummaries(eq(1L), any(Limit.class))).thenReturn(List.of(
+                new MedicalDocumentSummary(20L, "xray.png", DocumentType.IMAGING, 1024L,
+                        LocalDateTime.of(2024, 5, 1, 9, 0))));
+        when(medicalRecordRepository.findByPatientId(1L)).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    @DisplayName("Should merge all sources newest first and page through them")
+    void shouldMergeSourcesNewestFirst() {
+        when(consultationClient.getPortalConsultations(TOKEN, 1L, 200)).thenReturn(List.of(
+                ConsultationSummary.builder().id(30L).consultationDate(LocalDateTime.of(2023, 3, 1, 10, 0))
+                        .build()));
+
+        PatientTimelineResponse first = patientTimelineService.getTimeline(1L, TOKEN, 0, 2);
+        PatientTimelineResponse second = patientTimelineService.getTimeline(1L, TOKEN, 1, 2);
+
+        assertThat(first.getEntries()).extracting(TimelineEntry::type)
+                .containsExactly(TimelineEntryType.DOCUMENT, TimelineEntryType.CONSULTATION);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(first.getTotalEntries()).isEqualTo(3);
+        assertThat(second.getEntries()).extracting(TimelineEntry::type).containsExactly(TimelineEntryType.HISTORY);
+        assertThat(second.isHasMore()).isFalse();
+        // The second page is served from the cached view
+        verify(consultationClient, times(1)).getPortalConsultations(TOKEN, 1L, 200);
+    }
+
+    @Test
+    @DisplayName("Should return local entries flagged partial and skip caching when doctor-service fails")
+    void shouldDegradeWhenConsultationsUnavailable() {
+        when(consultationClient.getPortalConsultations(TOKEN, 1L, 200)).thenThrow(new IllegalStateException("down"));
+
+        PatientTimelineResponse response = patientTimelineService.getTimeline(1L, TOKEN, null, null);
+        patientTimelineService.getTimeline(1L, TOKEN, null, null);
+
+        assertThat(response.isPartial()).isTrue();
+        assertThat(response.getEntries()).hasSize(2);
+        verify(consultationClient, times(2)).getPortalConsultations(TOKEN, 1L, 200);
+    }
+
+    @Test
+    @DisplayName("Should rebuild the timeline after a change event")
+    void shouldRebuildAfterChangeEvent() {
+        when(consultationClient.getPortalConsultations(TOKEN, 1L, 200)).thenReturn(List.of());
+
+        patientTimelineService.getTimeline(1L, TOKEN, null, null);
+        patientTimelineService.onTimelineChanged(new PatientTimelineChangedEvent(1L));
+        patientTimelineService.getTimeline(1L, TOKEN, null, null);
+
+        verify(medicalHistoryRepository, times(2)).findPortalSummaries(eq(1L), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("Should not serve one caller's cached view to another caller")
+    void shouldCacheViewsPerCaller() {
+        String otherToken = "Bearer other";
+        when(consultationClient.getPortalConsultations(TOKEN, 1L, 200)).thenReturn(List.of(
+                ConsultationSummary.builder().id(30L).consultationDate(LocalDateTime.of(2023, 3, 1, 10, 0))
+                        .build()));
+        when(consultationClient.getPortalConsultations(otherToken, 1L, 200)).thenReturn(List.of());
+
+        PatientTimelineResponse mine = patientTimelineService.getTimeline(1L, TOKEN, null, null);
+        PatientTimelineResponse theirs = patientTimelineService.getTimeline(1L, otherToken, null, null);
+
+        assertThat(mine.getTotalEntries()).isEqualTo(3);
+        assertThat(theirs.getTotalEntries()).isEqualTo(2);
+        verify(consultationClient, times(1)).getPortalConsultations(otherToken, 1L, 200);
+    }
+
+    @Test
+    @DisplayName("Should drop every caller's view of a patient on change, and only that patient's")
+    void shouldEvictAllCallersOfPatient() {
+        when(consultationClient.getPortalConsultations(any(), any(), eq(200))).thenReturn(List.of());
+
+        patientTimelineService.getTimeline(1L, TOKEN, null, null);
+        patientTimelineService.getTimeline(1L, "Bearer other", null, null);
+        patientTimelineService.getTimeline(2L, TOKEN, null, null);
+        patientTimelineService.evict(1L);
+        patientTimelineService.getTimeline(1L, TOKEN, null, null);
+        patientTimelineService.getTimeline(1L, "Bearer other", null, null);
+        patientTimelineService.getTimeline(2L, TOKEN, null, null);
+
+        verify(medicalHistoryRepository, times(4)).findPortalSummaries(eq(1L), any(Limit.class));
+        verify(medicalHistoryRepository, times(1)).findPortalSummaries(eq(2L), any(Limit.class));
+    }
+}
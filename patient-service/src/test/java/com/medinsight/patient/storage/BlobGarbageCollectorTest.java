@@ -0,0 +1,97 @@
+package com.medinsight.patient.storage;
+
+import com.medinsight.patient.entity.DocumentBlob;
+import com.medinsight.patient.repository.DocumentBlobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BlobGarbageCollectorTest {
+
+    private static final String STALE = "a".repeat(64);
+    private static final String RECENT = "b".repeat(64);
+
+    @Mock
+    private DocumentBlobRepository documentBlobRepository;
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BlobGarbageCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        collector = new BlobGarbageCollector(documentBlobRepository, blobStore, transactionTemplate, meterRegistry);
+        ReflectionTestUtils.setField(collector, "gracePeriod", Duration.ofHours(1));
+        ReflectionTestUtils.setField(collector, "batchSize", 10);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Should delete unreferenced blobs but keep ones an upload just wrote")
+    void shouldCollectStaleBlobsOnly() throws Exception {
+        DocumentBlob stale = blob(STALE, 1000);
+        DocumentBlob recent = blob(RECENT, 500);
+        when(documentBlobRepository.findCollectable(any(LocalDateTime.class), any(Limit.class)))
+                .thenReturn(List.of(stale, recent));
+        when(blobStore.exists(any())).thenReturn(true);
+        when(blobStore.lastWritten(STALE)).thenReturn(Instant.now().minus(Duration.ofDays(1)));
+        when(blobStore.lastWritten(RECENT)).thenReturn(Instant.now());
+
+        collector.collect();
+
+        verify(documentBlobRepository).delete(stale);
+        verify(blobStore).delete(STALE);
+        verify(documentBlobRepository, never()).delete(recent);
+        verify(blobStore, never()).delete(RECENT);
+        assertThat(meterRegistry.counter("patient.documents.gc.bytes").count()).isEqualTo(1000.0);
+    }
+
+    @Test
+    @DisplayName("Should drop the row of a blob whose file is already gone")
+    void shouldDropRowForMissingFile() throws Exception {
+        DocumentBlob missing = blob(STALE, 1000);
+        when(documentBlobRepository.findCollectable(any(LocalDateTime.class), any(Limit.class)))
+                .thenReturn(List.of(missing));
+        when(blobStore.exists(STALE)).thenReturn(false);
+
+        collector.collect();
+
+        verify(documentBlobRepository).delete(missing);
+        verify(blobStore, never()).lastWritten(any());
+    }
+
+    private static DocumentBlob blob(String contentHash, long size) {
+        return DocumentBlob.builder()
+                .contentHash(contentHash)
+                .size(size)
+                .refCount(0)
+                .createdAt(LocalDateTime.now().minusDays(2))
+                .unreferencedSince(LocalDateTime.now().minusDays(1))
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.medinsight.patient.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalFileSystemBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    private LocalFileSystemBlobStore blobStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // A small buffer forces several read/hash/write rounds per blob
+        blobStore = new LocalFileSystemBlobStore(root, 1024);
+    }
+
+    @Test
+    @DisplayName("Should store content under its SHA-256 and deduplicate identical uploads")
+    void shouldStoreContentAddressedAndDeduplicate() throws Exception {
+        byte[] content = new byte[10_000];
+        new Random(42).nextBytes(content);
+        String expectedHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+
+        StoredBlob first = blobStore.write(channel(content), Long.MAX_VALUE);
+        StoredBlob second = blobStore.write(channel(content), Long.MAX_VALUE);
+
+        assertThat(first.contentHash()).isEqualTo(expectedHash);
+        assertThat(first.size()).isEqualTo(content.length);
+        assertThat(first.created()).isTrue();
+        assertThat(second.contentHash()).isEqualTo(expectedHash);
+        assertThat(second.created()).isFalse();
+        assertThat(Files.readAllBytes(blobStore.resolve(expectedHash))).isEqualTo(content);
+        try (var partials = Files.list(root.resolve("tmp"))) {
+            assertThat(partials).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Should transfer the requested byte range")
+    void shouldTransferRange() throws Exception {
+        StoredBlob blob = blobStore.write(channel("0123456789".getBytes(StandardCharsets.US_ASCII)), Long.MAX_VALUE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long transferred = blobStore.transferTo(blob.contentHash(), 3, 4, Channels.newChannel(out));
+
+        assertThat(transferred).isEqualTo(4);
+        assertThat(out.toString(StandardCharsets.US_ASCII)).isEqualTo("3456");
+        assertThat(blobStore.size(blob.contentHash())).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should reject content above the size limit and leave nothing behind")
+    void shouldRejectOversizedContent() throws Exception {
+        assertThatThrownBy(() -> blobStore.write(channel(new byte[5000]), 4096))
+                .isInstanceOf(BlobSizeLimitExceededException.class);
+
+        try (var partials = Files.list(root.resolve("tmp"))) {
+            assertThat(partials).isEmpty();
+        }
+        assertThat(Files.exists(root.resolve("sha256"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should refuse keys that are not SHA-256 hashes")
+    void shouldRejectInvalidKeys() {
+        assertThatThrownBy(() -> blobStore.resolve("../../etc/passwd"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ReadableByteChannel channel(byte[] content) {
+        return Channels.newChannel(new ByteArrayInputStream(content));
+    }
+}
@@ -1,5 +1,6 @@
 package com.medinsight.report.controller;
 
+import com.medinsight.report.dto.ReportSummary;
 import com.medinsight.report.entity.MedicalReport;
 import com.medinsight.report.enums.ReportType;
 import com.medinsight.report.service.ReportService;
@@ -30,28 +31,29 @@ public class ReportController {
     }
 
     @GetMapping("/patient/{patientId}")
-    public ResponseEntity<List<MedicalReport>> getReportsByPatientId(@PathVariable Long patientId) {
-        List<MedicalReport> reports = reportService.getReportsByPatientId(patientId);
+    public ResponseEntity<List<ReportSummary>> getReportsByPatientId(@PathVariable Long patientId) {
+        List<ReportSummary> reports = reportService.getReportsByPatientId(patientId);
         return ResponseEntity.ok(reports);
     }
 
     @GetMapping("/doctor/{doctorId}")
-    public ResponseEntity<List<MedicalReport>> getReportsByDoctorId(@PathVariable Long doctorId) {
-        List<MedicalReport> reports = reportService.getReportsByDoctorId(doctorId);
+    public ResponseEntity<List<ReportSummary>> getReportsByDoctorId(@PathVariable Long doctorId) {
+        List<ReportSummary> reports = reportService.getReportsByDoctorId(doctorId);
         return ResponseEntity.ok(reports);
     }
 
     @GetMapping("/patient/{patientId}/type/{reportType}")
-    public ResponseEntity<List<MedicalReport>> getReportsByPatientIdAndType(
+    public ResponseEntity<List<ReportSummary>> getReportsByPatientIdAndType(
             @PathVariable Long patientId,
             @PathVariable ReportType reportType) {
-        List<MedicalReport> reports = reportService.getReportsByPatientIdAndType(patientId, reportType);
+        List<ReportSummary> reports = reportService.getReportsByPatientIdAndType(patientId, reportType);
         return ResponseEntity.ok(reports);
     }
 
     @GetMapping("/patient/{patientId}/portal")
-    public ResponseEntity<List<MedicalReport>> getPatientPortalReports(@PathVariable Long patientId) {
-        List<MedicalReport> reports = reportService.getPatientPortalReports(patientId);
+    public ResponseEntity<List<ReportSummary>> getPatientPortalReports(@PathVariable Long patientId,
+            @RequestParam(required = false) Integer limit) {
+        List<ReportSummary> reports = reportService.getPatientPortalReports(patientId, limit);
         return ResponseEntity.ok(reports);
     }
 
@@ -0,0 +1,19 @@
+package com.medinsight.report.dto;
+
+import com.medinsight.report.enums.ReportType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listing view of a {@code MedicalReport}; the TEXT {@code content} is only
+ * loaded by the detail endpoint.
+ */
+public record ReportSummary(
+        Long id,
+        Long patientId,
+        Long doctorId,
+        ReportType reportType,
+        String title,
+        String pdfUrl,
+        LocalDateTime generatedAt) {
+}
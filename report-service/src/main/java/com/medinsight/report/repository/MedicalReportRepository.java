@@ -1,8 +1,12 @@
 package com.medinsight.report.repository;
 
+import com.medinsight.report.dto.ReportSummary;
 import com.medinsight.report.entity.MedicalReport;
 import com.medinsight.report.enums.ReportType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,4 +20,27 @@ public interface MedicalReportRepository extends JpaRepository<MedicalReport, Lo
     List<MedicalReport> findByPatientIdAndReportType(Long patientId, ReportType reportType);
 
     List<MedicalReport> findByPatientIdAndVisibleInPortal(Long patientId, boolean visibleInPortal);
+
+    // Served by idx_medical_reports_portal, read backwards
+    @Query("SELECT new com.medinsight.report.dto.ReportSummary(r.id, r.patientId, r.doctorId, r.reportType, r.title, "
+            + "r.pdfUrl, r.generatedAt) FROM MedicalReport r "
+            + "WHERE r.patientId = :patientId AND r.visibleInPortal = true "
+            + "ORDER BY r.generatedAt DESC, r.id DESC")
+    List<ReportSummary> findPortalSummaries(@Param("patientId") Long patientId, Limit limit);
+
+    @Query("SELECT new com.medinsight.report.dto.ReportSummary(r.id, r.patientId, r.doctorId, r.reportType, r.title, "
+            + "r.pdfUrl, r.generatedAt) FROM MedicalReport r "
+            + "WHERE r.patientId = :patientId ORDER BY r.generatedAt DESC, r.id DESC")
+    List<ReportSummary> findSummariesByPatientId(@Param("patientId") Long patientId);
+
+    @Query("SELECT new com.medinsight.report.dto.ReportSummary(r.id, r.patientId, r.doctorId, r.reportType, r.title, "
+            + "r.pdfUrl, r.generatedAt) FROM MedicalReport r "
+            + "WHERE r.doctorId = :doctorId ORDER BY r.generatedAt DESC, r.id DESC")
+    List<ReportSummary> findSummariesByDoctorId(@Param("doctorId") Long doctorId);
+
+    @Query("SELECT new com.medinsight.report.dto.ReportSummary(r.id, r.patientId, r.doctorId, r.reportType, r.title, "
+            + "r.pdfUrl, r.generatedAt) FROM MedicalReport r "
+            + "WHERE r.patientId = :patientId AND r.reportType = :reportType ORDER BY r.generatedAt DESC, r.id DESC")
+    List<ReportSummary> findSummariesByPatientIdAndReportType(@Param("patientId") Long patientId,
+            @Param("reportType") ReportType reportType);
 }
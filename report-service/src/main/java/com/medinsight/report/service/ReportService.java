@@ -1,10 +1,12 @@
 package com.medinsight.report.service;
 
 import com.medinsight.commons.exception.ResourceNotFoundException;
+import com.medinsight.report.dto.ReportSummary;
 import com.medinsight.report.entity.MedicalReport;
 import com.medinsight.report.enums.ReportType;
 import com.medinsight.report.repository.MedicalReportRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +17,9 @@ import java.util.List;
 @Transactional
 public class ReportService {
 
+    static final int DEFAULT_PORTAL_LIMIT = 50;
+    static final int MAX_PORTAL_LIMIT = 200;
+
     private final MedicalReportRepository medicalReportRepository;
 
     public MedicalReport createReport(MedicalReport report) {
@@ -26,20 +31,21 @@ public class ReportService {
                 .orElseThrow(() -> new ResourceNotFoundException("MedicalReport", "id", id));
     }
 
-    public List<MedicalReport> getReportsByPatientId(Long patientId) {
-        return medicalReportRepository.findByPatientId(patientId);
+    public List<ReportSummary> getReportsByPatientId(Long patientId) {
+        return medicalReportRepository.findSummariesByPatientId(patientId);
     }
 
-    public List<MedicalReport> getReportsByDoctorId(Long doctorId) {
-        return medicalReportRepository.findByDoctorId(doctorId);
+    public List<ReportSummary> getReportsByDoctorId(Long doctorId) {
+        return medicalReportRepository.findSummariesByDoctorId(doctorId);
     }
 
-    public List<MedicalReport> getReportsByPatientIdAndType(Long patientId, ReportType reportType) {
-        return medicalReportRepository.findByPatientIdAndReportType(patientId, reportType);
+    public List<ReportSummary> getReportsByPatientIdAndType(Long patientId, ReportType reportType) {
+        return medicalReportRepository.findSummariesByPatientIdAndReportType(patientId, reportType);
     }
 
-    public List<MedicalReport> getPatientPortalReports(Long patientId) {
-        return medicalReportRepository.findByPatientIdAndVisibleInPortal(patientId, true);
+    public List<ReportSummary> getPatientPortalReports(Long patientId, Integer limit) {
+        int max = limit == null || limit <= 0 ? DEFAULT_PORTAL_LIMIT : Math.min(limit, MAX_PORTAL_LIMIT);
+        return medicalReportRepository.findPortalSummaries(patientId, Limit.of(max));
     }
 
     public MedicalReport updateReport(Long id, MedicalReport reportDetails) {
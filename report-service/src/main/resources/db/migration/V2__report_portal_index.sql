@@ -0,0 +1,31 @@
+-- V2__report_portal_index.sql
+-- Composite index for the patient portal report listing.
+-- V1 created "reports" with visible_to_patient and created_at, while the entity maps
+-- medical_reports with visible_in_portal, generated_at and pdf_url; align those first.
+
+DO $$
+BEGIN
+    IF to_regclass('public.medical_reports') IS NULL AND to_regclass('public.reports') IS NOT NULL THEN
+        ALTER TABLE reports RENAME TO medical_reports;
+    END IF;
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'medical_reports' AND column_name = 'visible_to_patient')
+       AND NOT EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'medical_reports' AND column_name = 'visible_in_portal') THEN
+        ALTER TABLE medical_reports RENAME COLUMN visible_to_patient TO visible_in_portal;
+    END IF;
+END $$;
+
+ALTER TABLE medical_reports ADD COLUMN IF NOT EXISTS visible_in_portal BOOLEAN DEFAULT TRUE;
+UPDATE medical_reports SET visible_in_portal = TRUE WHERE visible_in_portal IS NULL;
+ALTER TABLE medical_reports ALTER COLUMN visible_in_portal SET NOT NULL;
+
+ALTER TABLE medical_reports ADD COLUMN IF NOT EXISTS generated_at TIMESTAMP;
+UPDATE medical_reports SET generated_at = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE generated_at IS NULL;
+ALTER TABLE medical_reports ALTER COLUMN generated_at SET NOT NULL;
+
+ALTER TABLE medical_reports ADD COLUMN IF NOT EXISTS pdf_url VARCHAR(255);
+
+-- Equality on (patient_id, visible_in_portal), then read backwards for newest-first with LIMIT
+CREATE INDEX IF NOT EXISTS idx_medical_reports_portal
+    ON medical_reports (patient_id, visible_in_portal, generated_at, id);